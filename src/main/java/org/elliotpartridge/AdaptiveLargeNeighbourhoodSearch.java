@@ -0,0 +1,542 @@
+package org.elliotpartridge;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * AdaptiveLargeNeighbourhoodSearch solves TOP problem instances via Adaptive Large Neighbourhood
+ * Search (ALNS), optimising all nRoutes Routes jointly rather than one Route at a time. Each
+ * iteration a destroy operator removes a number of Points from a copy of the current solution and
+ * a repair operator then inserts unrouted Points until no more can be feasibly inserted, after
+ * which the Routes are shortened via TwoOpt, IntraRouteOperators and InterRouteOperators (freeing
+ * distance for further insertions).
+ * <p>
+ * The destroy operators are random removal, worst ratio removal (Points with the lowest score per
+ * unit of distance saved by their removal, see RemovalHeap.removalRatio), related removal (Points
+ * close to a randomly chosen routed Point) and whole route removal. The repair operators are greedy
+ * insertion and regret-2 & regret-3 insertion (see InsertionCache.regretInsertion).
+ * <p>
+ * Operators are chosen by roulette wheel selection in proportion to their weights, which are
+ * adjusted at the end of every segment of SEGMENT_LENGTH iterations towards the average reward the
+ * operator earned within the segment (NEW_BEST_REWARD, IMPROVED_REWARD or ACCEPTED_REWARD).
+ * Candidate solutions are accepted via simulated annealing: improving solutions are always accepted
+ * and worse solutions with probability exp((candidateScore - currentScore) / temperature), where
+ * the starting temperature accepts a solution START_WORSE_PERCENT worse than the initial solution
+ * with probability 0.5 and the temperature is cooled geometrically to END_TEMPERATURE_PERCENT of
+ * the starting temperature by maxIterations.
+ * <p>
+ * Note, ALNS adapted from: (Ropke, S. and Pisinger, D., 2006, An Adaptive Large Neighborhood Search
+ * Heuristic for the Pickup and Delivery Problem with Time Windows).
+ */
+public class AdaptiveLargeNeighbourhoodSearch extends BoundedTopSolver {
+
+    /**
+     * LARGE_INSTANCE_N_POINTS is the number of Points (see TopData.getnPoints) from which App's
+     * automatic engine selection uses AdaptiveLargeNeighbourhoodSearch rather than Algorithm.
+     */
+    public static final int LARGE_INSTANCE_N_POINTS = 100;
+
+    /**
+     * DEFAULT_MAX_ITERATIONS is the default number of destroy & repair iterations.
+     */
+    public static final int DEFAULT_MAX_ITERATIONS = 2000;
+
+    /**
+     * SEGMENT_LENGTH is the number of iterations between operator weight updates.
+     */
+    public static final int SEGMENT_LENGTH = 100;
+
+    /**
+     * REACTION_FACTOR is the rate at which operator weights follow the rewards they earn.
+     */
+    public static final double REACTION_FACTOR = 0.1;
+
+    /**
+     * NEW_BEST_REWARD is the reward for producing a new best solution.
+     */
+    public static final double NEW_BEST_REWARD = 33;
+
+    /**
+     * IMPROVED_REWARD is the reward for producing a solution better than the current solution.
+     */
+    public static final double IMPROVED_REWARD = 9;
+
+    /**
+     * ACCEPTED_REWARD is the reward for producing a previously unaccepted solution that is worse
+     * than the current solution but accepted nonetheless.
+     */
+    public static final double ACCEPTED_REWARD = 13;
+
+    /**
+     * MIN_WEIGHT is the minimum weight of an operator, so that every operator remains selectable.
+     */
+    public static final double MIN_WEIGHT = 0.1;
+
+    /**
+     * START_WORSE_PERCENT is how much worse than the initial solution a solution can be whilst
+     * still being accepted with probability 0.5 at the starting temperature.
+     */
+    public static final double START_WORSE_PERCENT = 0.05;
+
+    /**
+     * END_TEMPERATURE_PERCENT is the temperature after maxIterations as a percentage of the
+     * starting temperature.
+     */
+    public static final double END_TEMPERATURE_PERCENT = 0.01;
+
+    /**
+     * RANDOMISATION_POWER controls how strongly worst ratio & related removal prefer the worst
+     * ranked Points (Points are chosen at rank floor(y^RANDOMISATION_POWER * n) for uniform y).
+     */
+    public static final double RANDOMISATION_POWER = 3;
+
+    /**
+     * DESTROY_OPERATORS are the names of the destroy operators (in index order).
+     */
+    public static final List<String> DESTROY_OPERATORS = List
+        .of("Random Removal", "Worst Ratio Removal", "Related Removal", "Whole Route Removal");
+
+    /**
+     * REPAIR_OPERATORS are the names of the repair operators (in index order). The repair operator
+     * at index i is regret-(i % 3 + 1) insertion (i.e. greedy insertion for i % 3 = 0), with
+     * insertion costs perturbed by REPAIR_NOISE for i >= 3.
+     */
+    public static final List<String> REPAIR_OPERATORS = List
+        .of("Greedy Insertion", "Regret-2 Insertion", "Regret-3 Insertion",
+            "Noisy Greedy Insertion", "Noisy Regret-2 Insertion", "Noisy Regret-3 Insertion");
+
+    /**
+     * REPAIR_NOISE is the maximum noise (as a percentage of tMax) added to insertion costs by the
+     * noisy repair operators (see InsertionCache.regretInsertion).
+     */
+    public static final double REPAIR_NOISE = 0.1;
+
+    private int maxIterations;
+    private double minDestroyPercent;
+    private double maxDestroyPercent;
+
+    private final double[] destroyWeights;
+    private final double[] destroyRewards;
+    private final int[] destroyUses;
+    private final double[] repairWeights;
+    private final double[] repairRewards;
+    private final int[] repairUses;
+    private int iterationCounter;
+
+    /**
+     * AdaptiveLargeNeighbourhoodSearch constructor.
+     *
+     * @param dataset The TOP instance to solve, its first and last Points are removed.
+     */
+    public AdaptiveLargeNeighbourhoodSearch(TopData dataset) {
+        super(dataset);
+        this.maxIterations = DEFAULT_MAX_ITERATIONS;
+        this.minDestroyPercent = 0.1;
+        this.maxDestroyPercent = 0.4;
+
+        this.destroyWeights = new double[DESTROY_OPERATORS.size()];
+        this.destroyRewards = new double[DESTROY_OPERATORS.size()];
+        this.destroyUses = new int[DESTROY_OPERATORS.size()];
+        this.repairWeights = new double[REPAIR_OPERATORS.size()];
+        this.repairRewards = new double[REPAIR_OPERATORS.size()];
+        this.repairUses = new int[REPAIR_OPERATORS.size()];
+        this.iterationCounter = 0;
+    }
+
+    /**
+     * maxIterations getter.
+     *
+     * @return The number of destroy & repair iterations.
+     */
+    public int getMaxIterations() {
+        return maxIterations;
+    }
+
+    /**
+     * maxIterations setter.
+     *
+     * @param maxIterations The number of destroy & repair iterations.
+     */
+    public void setMaxIterations(int maxIterations) {
+        if (maxIterations < 0) {
+            throw new IllegalArgumentException("maxIterations cannot be negative.");
+        }
+        this.maxIterations = maxIterations;
+    }
+
+    /**
+     * minDestroyPercent getter.
+     *
+     * @return The minimum percentage of routed Points removed by random, worst ratio and related
+     * removal.
+     */
+    public double getMinDestroyPercent() {
+        return minDestroyPercent;
+    }
+
+    /**
+     * maxDestroyPercent getter.
+     *
+     * @return The maximum percentage of routed Points removed by random, worst ratio and related
+     * removal.
+     */
+    public double getMaxDestroyPercent() {
+        return maxDestroyPercent;
+    }
+
+    /**
+     * setDestroyPercents sets the range of the percentage of routed Points removed by random, worst
+     * ratio and related removal (at least one Point is always removed).
+     *
+     * @param minDestroyPercent The minimum percentage of routed Points to remove.
+     * @param maxDestroyPercent The maximum percentage of routed Points to remove.
+     */
+    public void setDestroyPercents(double minDestroyPercent, double maxDestroyPercent) {
+        if (minDestroyPercent < 0 || maxDestroyPercent > 1
+            || minDestroyPercent > maxDestroyPercent) {
+            throw new IllegalArgumentException(
+                "destroy percents must satisfy 0 <= minDestroyPercent <= maxDestroyPercent <= 1.");
+        }
+        this.minDestroyPercent = minDestroyPercent;
+        this.maxDestroyPercent = maxDestroyPercent;
+    }
+
+    /**
+     * iterationCounter getter.
+     *
+     * @return The number of iterations completed by the last call to solve.
+     */
+    public int getIterationCounter() {
+        return iterationCounter;
+    }
+
+    /**
+     * getDestroyWeight returns the current weight of a destroy operator.
+     *
+     * @param operatorIndex The index of the destroy operator (see DESTROY_OPERATORS).
+     * @return The weight of the destroy operator.
+     */
+    public double getDestroyWeight(int operatorIndex) {
+        return destroyWeights[operatorIndex];
+    }
+
+    /**
+     * getRepairWeight returns the current weight of a repair operator.
+     *
+     * @param operatorIndex The index of the repair operator (see REPAIR_OPERATORS).
+     * @return The weight of the repair operator.
+     */
+    public double getRepairWeight(int operatorIndex) {
+        return repairWeights[operatorIndex];
+    }
+
+    /**
+     * solve builds an initial solution via regret-2 insertion and improves it via ALNS for
+     * maxIterations iterations (or until the upperBound is met if earlyOptimalityStop is set).
+     *
+     * @return The Result containing the best Routes found.
+     */
+    @Override
+    public Result solve() {
+        Arrays.fill(destroyWeights, 1);
+        Arrays.fill(repairWeights, 1);
+        resetSegment();
+
+        ArrayList<Route> routes = new ArrayList<>(getnRoutes());
+        for (int i = 0; i < getnRoutes(); i++) {
+            ArrayList<Point> points = new ArrayList<>();
+            points.add(getStartingPoint());
+            points.add(getEndingPoint());
+            routes.add(new Route(points));
+        }
+        RouteSet current = new RouteSet(routes);
+        repair(current, 1);
+        improve(current);
+        RouteSet best = current.copy();
+        Set<Long> acceptedFingerprints = new HashSet<>();
+        acceptedFingerprints.add(current.getFingerprint());
+
+        double startingTemperature = Math.max(1e-9,
+            START_WORSE_PERCENT * current.getTotalScore() / Math.log(2));
+        double cooling = Math.pow(END_TEMPERATURE_PERCENT, 1. / Math.max(1, maxIterations));
+        double temperature = startingTemperature;
+
+        for (iterationCounter = 0; iterationCounter < maxIterations; iterationCounter++) {
+            if (isEarlyOptimalityStop() && best.getTotalScore() >= getUpperBound() - 1e-9) {
+                break;
+            }
+            int destroyOperator = select(destroyWeights);
+            int repairOperator = select(repairWeights);
+            RouteSet candidate = current.copy();
+            destroy(candidate, destroyOperator);
+            repair(candidate, repairOperator);
+            improveRoutes(candidate);
+            // the (more expensive) moves between Routes are only applied to promising candidates
+            if (candidate.getTotalScore() >= current.getTotalScore()) {
+                improvePairs(candidate);
+            }
+
+            double reward = 0;
+            if (RouteSet.ROUTE_SET_SCORE_COMPARATOR.compare(candidate, best) > 0) {
+                best = candidate.copy();
+                current = candidate;
+                reward = NEW_BEST_REWARD;
+            } else if (RouteSet.ROUTE_SET_SCORE_COMPARATOR.compare(candidate, current) > 0) {
+                current = candidate;
+                reward = IMPROVED_REWARD;
+            } else if (getRand().nextDouble()
+                < Math.exp((candidate.getTotalScore() - current.getTotalScore()) / temperature)) {
+                current = candidate;
+                if (acceptedFingerprints.add(candidate.getFingerprint())) {
+                    reward = ACCEPTED_REWARD;
+                }
+            }
+            destroyRewards[destroyOperator] += reward;
+            destroyUses[destroyOperator]++;
+            repairRewards[repairOperator] += reward;
+            repairUses[repairOperator]++;
+            if ((iterationCounter + 1) % SEGMENT_LENGTH == 0) {
+                updateWeights(destroyWeights, destroyRewards, destroyUses);
+                updateWeights(repairWeights, repairRewards, repairUses);
+                resetSegment();
+            }
+            temperature *= cooling;
+        }
+
+        Result result = new Result(getDataset(), best.getRoutes());
+        result.setUpperBound(getUpperBound());
+        result.setPreprocessor(getPreprocessor());
+        return result;
+    }
+
+    /**
+     * destroy removes Points from routeSet via the destroy operator at operatorIndex.
+     *
+     * @param routeSet      The Routes to remove Points from.
+     * @param operatorIndex The index of the destroy operator (see DESTROY_OPERATORS).
+     */
+    public void destroy(RouteSet routeSet, int operatorIndex) {
+        ArrayList<Route> routes = routeSet.getRoutes();
+        ArrayList<Visit> visits = new ArrayList<>();
+        for (int r = 0; r < routes.size(); r++) {
+            ArrayList<Point> points = routes.get(r).getPoints();
+            for (int i = 1; i < points.size() - 1; i++) {
+                visits.add(new Visit(points.get(i), r,
+                    RemovalHeap.removalRatio(points.get(i - 1), points.get(i), points.get(i + 1))));
+            }
+        }
+        if (visits.isEmpty()) {
+            return;
+        }
+        int minRemoved = Math.max(1, (int) Math.ceil(minDestroyPercent * visits.size()));
+        int maxRemoved = Math.max(minRemoved, (int) Math.ceil(maxDestroyPercent * visits.size()));
+        int nRemoved = minRemoved + getRand().nextInt(maxRemoved - minRemoved + 1);
+
+        ArrayList<Visit> removed = new ArrayList<>(nRemoved);
+        switch (operatorIndex) {
+            case 0:
+                for (int i = 0; i < nRemoved; i++) {
+                    int index = i + getRand().nextInt(visits.size() - i);
+                    visits.set(index, visits.set(i, visits.get(index)));
+                    removed.add(visits.get(i));
+                }
+                break;
+            case 1:
+                visits.sort(Comparator.comparingDouble(visit -> visit.removalRatio));
+                removeRandomised(visits, nRemoved, removed);
+                break;
+            case 2:
+                Point seed = visits.get(getRand().nextInt(visits.size())).point;
+                visits.sort(Comparator
+                    .comparingDouble(visit -> Util.euclideanDistance(seed, visit.point)));
+                removeRandomised(visits, nRemoved, removed);
+                break;
+            case 3:
+                int route = visits.get(getRand().nextInt(visits.size())).route;
+                for (Visit visit : visits) {
+                    if (visit.route == route) {
+                        removed.add(visit);
+                    }
+                }
+                break;
+            default:
+                throw new IllegalArgumentException("operatorIndex is not a destroy operator.");
+        }
+
+        boolean[] changed = new boolean[routes.size()];
+        for (Visit visit : removed) {
+            routes.get(visit.route).getPoints().remove(visit.point);
+            changed[visit.route] = true;
+        }
+        for (int r = 0; r < routes.size(); r++) {
+            if (changed[r]) {
+                routes.get(r).setPoints(routes.get(r).getPoints());
+            }
+        }
+    }
+
+    /**
+     * removeRandomised moves nRemoved Visits from the ranked visits to removed, choosing the Visit
+     * at rank floor(y^RANDOMISATION_POWER * size) for uniform y each time.
+     */
+    private void removeRandomised(ArrayList<Visit> visits, int nRemoved,
+        ArrayList<Visit> removed) {
+        for (int i = 0; i < nRemoved && !visits.isEmpty(); i++) {
+            int index = (int) (Math.pow(getRand().nextDouble(), RANDOMISATION_POWER)
+                * visits.size());
+            removed.add(visits.remove(index));
+        }
+    }
+
+    /**
+     * repair inserts unrouted (preprocessed) Points into routeSet via the repair operator at
+     * operatorIndex until no more Points can be feasibly inserted.
+     *
+     * @param routeSet      The Routes to insert Points into.
+     * @param operatorIndex The index of the repair operator (see REPAIR_OPERATORS).
+     */
+    public void repair(RouteSet routeSet, int operatorIndex) {
+        ArrayList<Route> routes = routeSet.getRoutes();
+        if (operatorIndex < 0 || operatorIndex >= REPAIR_OPERATORS.size()) {
+            throw new IllegalArgumentException("operatorIndex is not a repair operator.");
+        }
+        Set<Point> routed = new HashSet<>();
+        ArrayList<InsertionCache> routeCaches = new ArrayList<>(routes.size());
+        for (Route route : routes) {
+            routed.addAll(route.getPoints());
+            routeCaches.add(new InsertionCache(route.getPoints()));
+        }
+        ArrayList<Point> unrouted = new ArrayList<>();
+        for (Point point : getPreprocessor().getPoints()) {
+            if (!routed.contains(point)) {
+                unrouted.add(point);
+            }
+        }
+        double noise = operatorIndex >= 3 ? REPAIR_NOISE : 0;
+        if (InsertionCache
+            .regretInsertion(routeCaches, unrouted, operatorIndex % 3 + 1, gettMax(), noise,
+                getRand())
+            .isEmpty()) {
+            return;
+        }
+        for (int r = 0; r < routes.size(); r++) {
+            if (routeCaches.get(r).getPoints().size() != routes.get(r).getPoints().size()) {
+                routes.get(r).setPoints(routeCaches.get(r).getPoints());
+            }
+        }
+    }
+
+    /**
+     * improve shortens routeSet via improveRoutes and improvePairs.
+     *
+     * @param routeSet The Routes to improve.
+     */
+    public void improve(RouteSet routeSet) {
+        improveRoutes(routeSet);
+        improvePairs(routeSet);
+    }
+
+    /**
+     * improveRoutes shortens each Route within routeSet via TwoOpt and Or-Opt (with reversal), then
+     * greedily inserts any unrouted Points that now fit.
+     *
+     * @param routeSet The Routes to improve.
+     */
+    public void improveRoutes(RouteSet routeSet) {
+        ArrayList<Route> routes = routeSet.getRoutes();
+        boolean shortened = false;
+        for (Route route : routes) {
+            if (route.getPoints().size() >= 4) {
+                TwoOpt twoOpt = new TwoOpt(route.getPoints(), TwoOpt.DEFAULT_NEIGHBOUR_LIST_SIZE);
+                if (twoOpt.optimise()) {
+                    route.setPoints(twoOpt.getPoints());
+                    shortened = true;
+                }
+            }
+            shortened |= IntraRouteOperators.orOpt(route, true);
+        }
+        if (shortened) {
+            repair(routeSet, 0);
+        }
+    }
+
+    /**
+     * improvePairs shortens each pair of Routes within routeSet via the moves of
+     * InterRouteOperators until no pair can be improved, then greedily inserts any unrouted Points
+     * that now fit.
+     *
+     * @param routeSet The Routes to improve.
+     */
+    public void improvePairs(RouteSet routeSet) {
+        ArrayList<Route> routes = routeSet.getRoutes();
+        boolean shortened = false;
+        boolean improved = true;
+        while (improved) {
+            improved = false;
+            for (int i = 0; i < routes.size(); i++) {
+                for (int j = i + 1; j < routes.size(); j++) {
+                    improved |= InterRouteOperators
+                        .improvePair(routes.get(i), routes.get(j), gettMax());
+                }
+            }
+            shortened |= improved;
+        }
+        if (shortened) {
+            repair(routeSet, 0);
+        }
+    }
+
+    /**
+     * select chooses an operator index via roulette wheel selection over weights.
+     */
+    private int select(double[] weights) {
+        double totalWeight = 0;
+        for (double weight : weights) {
+            totalWeight += weight;
+        }
+        double r = getRand().nextDouble() * totalWeight;
+        for (int i = 0; i < weights.length - 1; i++) {
+            r -= weights[i];
+            if (r < 0) {
+                return i;
+            }
+        }
+        return weights.length - 1;
+    }
+
+    private static void updateWeights(double[] weights, double[] rewards, int[] uses) {
+        for (int i = 0; i < weights.length; i++) {
+            if (uses[i] > 0) {
+                weights[i] = Math.max(MIN_WEIGHT, (1 - REACTION_FACTOR) * weights[i]
+                    + REACTION_FACTOR * rewards[i] / uses[i]);
+            }
+        }
+    }
+
+    private void resetSegment() {
+        Arrays.fill(destroyRewards, 0);
+        Arrays.fill(destroyUses, 0);
+        Arrays.fill(repairRewards, 0);
+        Arrays.fill(repairUses, 0);
+    }
+
+    /**
+     * Visit stores a routed Point, the index of the Route visiting it and its removal ratio.
+     */
+    private static final class Visit {
+
+        final Point point;
+        final int route;
+        final double removalRatio;
+
+        Visit(Point point, int route, double removalRatio) {
+            this.point = point;
+            this.route = route;
+            this.removalRatio = removalRatio;
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package org.elliotpartridge;
+
+import java.util.Random;
+
+/**
+ * AdaptiveOperatorSelection selects between a number of operators using Adaptive Pursuit. Each
+ * operator's reward is its improvement per unit of cost, so that an operator doing more work for
+ * the same improvement loses probability. Costs are deterministic measures of effort (such as the
+ * number of moves evaluated) rather than timings so that seeded runs are reproducible. Operators
+ * with the highest estimated reward are pursued (selected with increasing probability) whilst
+ * every operator retains a minimum probability of selection so that changes in payoff during the
+ * search are detected.
+ * <p>
+ * Note, Adaptive Pursuit adapted from: (Thierens, D., 2005, An Adaptive Pursuit Strategy for
+ * Allocating Operator Probabilities).
+ */
+public class AdaptiveOperatorSelection {
+
+    /**
+     * DEFAULT_MIN_PROBABILITY_SHARE is the fraction of a uniform probability that every operator
+     * is always selected with.
+     */
+    public static final double DEFAULT_MIN_PROBABILITY_SHARE = 0.2;
+
+    /**
+     * DEFAULT_LEARNING_RATE is the rate at which reward estimates follow observed rewards.
+     */
+    public static final double DEFAULT_LEARNING_RATE = 0.3;
+
+    /**
+     * DEFAULT_ADAPTATION_RATE is the rate at which probabilities move towards their targets.
+     */
+    public static final double DEFAULT_ADAPTATION_RATE = 0.3;
+
+    private final int nOperators;
+    private final double minProbability;
+    private final double maxProbability;
+    private final double learningRate;
+    private final double adaptationRate;
+
+    private final double[] probabilities;
+    private final double[] rewardEstimates;
+    private final long[] applications;
+    private final long[] costs;
+    private final double[] improvements;
+
+    /**
+     * AdaptiveOperatorSelection constructor using the default rates.
+     *
+     * @param nOperators The number of operators to select between.
+     */
+    public AdaptiveOperatorSelection(int nOperators) {
+        this(nOperators, DEFAULT_MIN_PROBABILITY_SHARE, DEFAULT_LEARNING_RATE,
+            DEFAULT_ADAPTATION_RATE);
+    }
+
+    /**
+     * AdaptiveOperatorSelection constructor.
+     *
+     * @param nOperators          The number of operators to select between.
+     * @param minProbabilityShare The fraction of a uniform probability that every operator is
+     *                            always selected with.
+     * @param learningRate        The rate at which reward estimates follow observed rewards.
+     * @param adaptationRate      The rate at which probabilities move towards their targets.
+     */
+    public AdaptiveOperatorSelection(int nOperators, double minProbabilityShare,
+        double learningRate, double adaptationRate) {
+        if (nOperators < 1) {
+            throw new IllegalArgumentException("nOperators cannot be less than 1.");
+        }
+        this.nOperators = nOperators;
+        this.minProbability = minProbabilityShare / nOperators;
+        this.maxProbability = 1 - (nOperators - 1) * minProbability;
+        this.learningRate = learningRate;
+        this.adaptationRate = adaptationRate;
+
+        this.probabilities = new double[nOperators];
+        this.rewardEstimates = new double[nOperators];
+        this.applications = new long[nOperators];
+        this.costs = new long[nOperators];
+        this.improvements = new double[nOperators];
+        for (int i = 0; i < nOperators; i++) {
+            probabilities[i] = 1. / nOperators;
+        }
+    }
+
+    /**
+     * select randomly selects an operator in proportion to the current probabilities.
+     *
+     * @param rand The Random instance to use.
+     * @return The index of the selected operator.
+     */
+    public int select(Random rand) {
+        double r = rand.nextDouble();
+        double cumulativeProbability = 0;
+        for (int i = 0; i < nOperators - 1; i++) {
+            cumulativeProbability += probabilities[i];
+            if (r < cumulativeProbability) {
+                return i;
+            }
+        }
+        return nOperators - 1;
+    }
+
+    /**
+     * update records the outcome of applying an operator and moves the probabilities towards the
+     * operator with the highest estimated improvement per unit of cost.
+     *
+     * @param operatorIndex The index of the applied operator.
+     * @param improvement   The (non-negative) improvement the operator produced.
+     * @param cost          The cost of the application (e.g. the number of moves evaluated),
+     *                      which should not depend on timing.
+     */
+    public void update(int operatorIndex, double improvement, long cost) {
+        improvement = Math.max(0, improvement);
+        applications[operatorIndex]++;
+        costs[operatorIndex] += cost;
+        improvements[operatorIndex] += improvement;
+
+        double reward = improvement / Math.max(1, cost);
+        rewardEstimates[operatorIndex] += learningRate * (reward - rewardEstimates[operatorIndex]);
+
+        int bestIndex = 0;
+        for (int i = 1; i < nOperators; i++) {
+            if (rewardEstimates[i] > rewardEstimates[bestIndex]) {
+                bestIndex = i;
+            }
+        }
+        for (int i = 0; i < nOperators; i++) {
+            double target = i == bestIndex ? maxProbability : minProbability;
+            probabilities[i] += adaptationRate * (target - probabilities[i]);
+        }
+    }
+
+    /**
+     * nOperators getter.
+     *
+     * @return The number of operators selected between.
+     */
+    public int getnOperators() {
+        return nOperators;
+    }
+
+    /**
+     * getProbability returns the current probability of selecting an operator.
+     *
+     * @param operatorIndex The index of the operator.
+     * @return The probability of selecting the operator.
+     */
+    public double getProbability(int operatorIndex) {
+        return probabilities[operatorIndex];
+    }
+
+    /**
+     * getApplications returns the number of times an operator has been applied.
+     *
+     * @param operatorIndex The index of the operator.
+     * @return The number of times the operator has been applied.
+     */
+    public long getApplications(int operatorIndex) {
+        return applications[operatorIndex];
+    }
+
+    /**
+     * getCost returns the total cost of an operator's applications.
+     *
+     * @param operatorIndex The index of the operator.
+     * @return The operator's total cost.
+     */
+    public long getCost(int operatorIndex) {
+        return costs[operatorIndex];
+    }
+
+    /**
+     * getImprovementPerCost returns an operator's total improvement divided by its total cost.
+     *
+     * @param operatorIndex The index of the operator.
+     * @return The operator's improvement per unit of cost (0 if it has not been applied).
+     */
+    public double getImprovementPerCost(int operatorIndex) {
+        return improvements[operatorIndex] / Math.max(1, costs[operatorIndex]);
+    }
+}
@@ -1,6 +1,5 @@
 package org.elliotpartridge;
 
-import com.google.common.collect.Lists;
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Path;
@@ -10,21 +9,24 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.Map.Entry;
+import java.util.Map;
 import java.util.Random;
 import java.util.Set;
+import java.util.function.Consumer;
 import java.util.function.Function;
-import java.util.stream.Collectors;
+import java.util.function.ToLongFunction;
 
 /**
  * Algorithm stores information about and provides functionality related to utilising an Algorithm
  * which solves TOP problems.
- * <p>
- * Note Algorithm utilises the external library, Guava (https://github.com/google/guava, Google,
- * 2011) which is made available under the Apache-2.0 license: http://www.apache.org/licenses/LICENSE-2.0.
  */
-public class Algorithm {
+public class Algorithm implements Solver {
+
+    // the maximum noise (as a percentage of tMax) added to insertion costs by repairRouteSet
+    private static final double JOINT_REPAIR_NOISE = 0.1;
 
     private final TopData dataset;
     private final int popSize;
@@ -40,7 +42,9 @@ public class Algorithm {
     private final double tMax;
     private final ArrayList<Route> finalRoutes;
     private ArrayList<Point> gHSortedPopRef;
-    private List<List<Point>> distanceGroupedPoints;
+    private int[] gHSortedPopRefRanks;
+    private SpatialClusters spatialClusters;
+    private SpatialClusters.Complement routeComplement;
     private int nRoutesCounter;
     private ArrayList<Route> routePopulation;
     private final Random rand;
@@ -49,6 +53,31 @@ public class Algorithm {
     private ArrayList<Route> selectedParents;
     private ArrayList<Route> retainedChildren;
     private ArrayList<Route> childPopulation;
+    private Route bestRetainedChild;
+    private int tournamentSize;
+    private boolean edgeRecombinationCrossover;
+    private final FitnessCache fitnessCache;
+    private boolean duplicateSuppression;
+    private final Set<Long> retainedFingerprints;
+    private final PopulationDiversity populationDiversity;
+    private double minDiversity;
+    private ArrayList<Point> topScorePoints;
+    private int maxRestarts;
+    private double restartKeepPercent;
+    private ConvergenceMonitor convergenceMonitor;
+    private final double upperBound;
+    private boolean earlyOptimalityStop;
+    private double targetScore;
+    private boolean preprocessing;
+    private InstancePreprocessor preprocessor;
+    private double graspPercent;
+    private double graspAlpha;
+    private GraspConstructor graspConstructor;
+    private boolean jointRoutes;
+    private ArrayList<RouteSet> routeSetPopulation;
+    private final ArrayList<MutationOperator> mutationOperators;
+    private boolean adaptiveOperatorSelection;
+    private AdaptiveOperatorSelection operatorSelection;
 
     /**
      * Algorithm constructor.
@@ -83,20 +112,66 @@ public class Algorithm {
 
         // build ghSortedPopRef correctly
         this.getDataset().removeTOPStartingAndEndingPoints();
+        this.upperBound = UpperBound
+            .calculate(startingPoint, endingPoint, getDataset().getPoints(), nRoutes, tMax);
+        this.earlyOptimalityStop = true;
+        this.targetScore = Double.NaN;
+        this.preprocessing = true;
+        this.preprocessor = null;
         ArrayList<Point> tmp = new ArrayList<>(getDataset().getPoints());
         tmp.sort(Point.GH_COMPARATOR);
         this.gHSortedPopRef = new ArrayList<>(tmp);
+        rankgHSortedPopRef();
 
-        this.distanceGroupedPoints = Lists
-            .partition(getgHSortedPopRef(), getgHSortedPopRef().size() / 10);
         this.nRoutesCounter = 0;
         this.routePopulation = new ArrayList<>();
         this.rand = new Random();
+        // built lazily (see getSpatialClusters) as preprocessInstance and initialisePopulation
+        // rebuild them from the reduced Points via clusterPoints
+        this.spatialClusters = null;
 
         this.generationCounter = 0;
-        this.selectedParents = new ArrayList<>();
-        this.retainedChildren = new ArrayList<>();
-        this.childPopulation = new ArrayList<>();
+        // population buffers are pre-sized and reused (retainedChildren & childPopulation are
+        // swapped each generation) so that steady-state generations do not allocate new lists
+        this.selectedParents = new ArrayList<>(popSize);
+        this.retainedChildren = new ArrayList<>(popSize);
+        this.childPopulation = new ArrayList<>(popSize);
+        this.tournamentSize = 2;
+        this.edgeRecombinationCrossover = false;
+        this.fitnessCache = new FitnessCache(FitnessCache.DEFAULT_CAPACITY);
+        this.duplicateSuppression = false;
+        this.retainedFingerprints = new HashSet<>();
+        this.populationDiversity = new PopulationDiversity();
+        this.minDiversity = 0;
+        this.topScorePoints = new ArrayList<>();
+        this.maxRestarts = 0;
+        this.restartKeepPercent = 0.2;
+        this.graspPercent = 0.5;
+        this.graspAlpha = 0.3;
+        this.graspConstructor = null;
+        this.jointRoutes = false;
+        this.routeSetPopulation = new ArrayList<>();
+
+        // mutation operators applied (each with their own probability) to mutated offspring, each
+        // costed by the moves or insertion positions a pass over a Route of n Points evaluates
+        this.mutationOperators = new ArrayList<>();
+        registerMutationOperator("2-Opt Swap", 0.5, this::completeTwoOpt,
+            route -> (long) route.getPoints().size() * TwoOpt.DEFAULT_NEIGHBOUR_LIST_SIZE);
+        registerMutationOperator("Add Random Node Min Additional Distance", 0.5,
+            this::addRandomPointMinAddtDistLocIfValid, route -> route.getPoints().size());
+        registerMutationOperator("Iterative Local Search", 0.5,
+            route -> iterativeLocalSearch(route, 3), route -> route.getPoints().size() * 2L * 3);
+        registerMutationOperator("Add or Replace", 0.5, this::addOrReplace,
+            route -> route.getPoints().size() * 10L);
+        registerMutationOperator("Or-Opt", 0.2, route -> IntraRouteOperators.orOpt(route, false),
+            route -> (long) route.getPoints().size() * route.getPoints().size()
+                * IntraRouteOperators.MAX_SEGMENT_LENGTH);
+        registerMutationOperator("Or-2-Opt", 0.2, route -> IntraRouteOperators.orOpt(route, true),
+            route -> 2L * route.getPoints().size() * route.getPoints().size()
+                * IntraRouteOperators.MAX_SEGMENT_LENGTH);
+        registerMutationOperator("Swap", 0.2, IntraRouteOperators::swap,
+            route -> (long) route.getPoints().size() * route.getPoints().size() / 2);
+        this.adaptiveOperatorSelection = true;
     }
 
     /**
@@ -124,6 +199,45 @@ public class Algorithm {
      */
     public void setgHSortedPopRef(ArrayList<Point> gHSortedPopRef) {
         this.gHSortedPopRef = gHSortedPopRef;
+        rankgHSortedPopRef();
+    }
+
+    /**
+     * rankgHSortedPopRef rebuilds the index of each Point's position (rank) within the
+     * gHSortedPopRef, which must be called whenever the gHSortedPopRef is reordered or Points are
+     * removed from it.
+     */
+    public void rankgHSortedPopRef() {
+        int maxId = 0;
+        for (Point point : getgHSortedPopRef()) {
+            maxId = Math.max(maxId, point.getId());
+        }
+        gHSortedPopRefRanks = new int[maxId + 1];
+        for (int rank = 0; rank < getgHSortedPopRef().size(); rank++) {
+            int id = getgHSortedPopRef().get(rank).getId();
+            if (id >= 0) {
+                gHSortedPopRefRanks[id] = rank;
+            }
+        }
+    }
+
+    /**
+     * getgHSortedPopRefRank returns the position (rank) of point within the gHSortedPopRef in
+     * constant time via the index built by rankgHSortedPopRef. Should the index be stale (or Point
+     * ids not be unique) the gHSortedPopRef is searched instead.
+     *
+     * @param point The Point to find.
+     * @return The rank of point, or -1 if the gHSortedPopRef does not contain point.
+     */
+    public int getgHSortedPopRefRank(Point point) {
+        int id = point.getId();
+        if (gHSortedPopRefRanks != null && id >= 0 && id < gHSortedPopRefRanks.length) {
+            int rank = gHSortedPopRefRanks[id];
+            if (rank < getgHSortedPopRef().size() && getgHSortedPopRef().get(rank) == point) {
+                return rank;
+            }
+        }
+        return getgHSortedPopRef().indexOf(point);
     }
 
     /**
@@ -211,22 +325,62 @@ public class Algorithm {
     }
 
     /**
-     * getDistanceGroupedPoints getter.
+     * getDistanceGroupedPoints returns the clusters of the spatialClusters.
      *
-     * @return A List of Lists containing points grouped together based upon POINT.GH_COMPARATOR.
+     * @return A List of Lists containing the reachable points of each spatial cluster.
      */
     public List<List<Point>> getDistanceGroupedPoints() {
-        return distanceGroupedPoints;
+        return getSpatialClusters().getClusters();
+    }
+
+    /**
+     * spatialClusters getter. The spatialClusters are built via clusterPoints on first use if they
+     * have not yet been built.
+     *
+     * @return The SpatialClusters from which candidate Points are sampled.
+     */
+    public SpatialClusters getSpatialClusters() {
+        if (spatialClusters == null) {
+            clusterPoints();
+        }
+        return spatialClusters;
+    }
+
+    /**
+     * spatialClusters setter.
+     *
+     * @param spatialClusters The SpatialClusters from which candidate Points are sampled.
+     */
+    public void setSpatialClusters(SpatialClusters spatialClusters) {
+        this.spatialClusters = spatialClusters;
+        this.routeComplement = null;
     }
 
     /**
-     * getDistanceGroupedPoints setter.
+     * getRouteComplement returns the Complement of the spatialClusters (see
+     * SpatialClusters.Complement) from which the Points within route are excluded. The Complement
+     * is scratch state reused by every call, so (as they also share rand) the mutation operators of
+     * an Algorithm must not be applied concurrently.
      *
-     * @param distanceGroupedPoints A List of Lists containing points grouped together based upon
-     *                              POINT.GH_COMPARATOR.
+     * @param route The Route whose Points cannot be sampled.
+     * @return The Complement, valid until the next call.
+     */
+    public SpatialClusters.Complement getRouteComplement(Route route) {
+        if (routeComplement == null) {
+            routeComplement = getSpatialClusters().complement();
+        } else {
+            routeComplement.restore();
+        }
+        routeComplement.excludeAll(route.getPoints());
+        return routeComplement;
+    }
+
+    /**
+     * clusterPoints rebuilds the spatialClusters from the gHSortedPopRef.
      */
-    public void setDistanceGroupedPoints(List<List<Point>> distanceGroupedPoints) {
-        this.distanceGroupedPoints = distanceGroupedPoints;
+    public void clusterPoints() {
+        setSpatialClusters(new SpatialClusters(getgHSortedPopRef(), getStartingPoint(),
+            getEndingPoint(), gettMax(), getRand()));
     }
 
     /**
@@ -328,6 +482,416 @@ public class Algorithm {
         this.childPopulation = childPopulation;
     }
 
+    /**
+     * bestRetainedChild getter.
+     *
+     * @return The highest scoring Route retained by the most recent elitistReplacement.
+     */
+    public Route getBestRetainedChild() {
+        return bestRetainedChild;
+    }
+
+    /**
+     * tournamentSize getter.
+     *
+     * @return The number of Routes competing in each tournament of tournamentSelection.
+     */
+    public int getTournamentSize() {
+        return tournamentSize;
+    }
+
+    /**
+     * tournamentSize setter.
+     *
+     * @param tournamentSize The number of Routes competing in each tournament of
+     *                       tournamentSelection.
+     */
+    public void setTournamentSize(int tournamentSize) {
+        if (tournamentSize < 1) {
+            throw new IllegalArgumentException("tournamentSize cannot be less than 1.");
+        }
+        this.tournamentSize = tournamentSize;
+    }
+
+    /**
+     * edgeRecombinationCrossover getter.
+     *
+     * @return true if singlePointCrossover recombines parents via edge recombination, otherwise
+     * false (the single point crossover is used).
+     */
+    public boolean isEdgeRecombinationCrossover() {
+        return edgeRecombinationCrossover;
+    }
+
+    /**
+     * edgeRecombinationCrossover setter.
+     *
+     * @param edgeRecombinationCrossover true to recombine parents via edge recombination instead
+     *                                   of the single point crossover.
+     */
+    public void setEdgeRecombinationCrossover(boolean edgeRecombinationCrossover) {
+        this.edgeRecombinationCrossover = edgeRecombinationCrossover;
+    }
+
+    /**
+     * fitnessCache getter.
+     *
+     * @return The FitnessCache used to memoise the fitness of generated Routes.
+     */
+    public FitnessCache getFitnessCache() {
+        return fitnessCache;
+    }
+
+    /**
+     * duplicateSuppression getter.
+     *
+     * @return true if elitistReplacement replaces clones (Routes with the same fingerprint as an
+     * already retained Route) with mutated copies, otherwise false.
+     */
+    public boolean isDuplicateSuppression() {
+        return duplicateSuppression;
+    }
+
+    /**
+     * duplicateSuppression setter.
+     *
+     * @param duplicateSuppression true if elitistReplacement should replace clones with mutated
+     *                             copies.
+     */
+    public void setDuplicateSuppression(boolean duplicateSuppression) {
+        this.duplicateSuppression = duplicateSuppression;
+    }
+
+    /**
+     * populationDiversity getter.
+     *
+     * @return The PopulationDiversity tracking the gene frequencies of the retained population.
+     */
+    public PopulationDiversity getPopulationDiversity() {
+        return populationDiversity;
+    }
+
+    /**
+     * minDiversity getter.
+     *
+     * @return The population diversity below which the mutation probability is raised.
+     */
+    public double getMinDiversity() {
+        return minDiversity;
+    }
+
+    /**
+     * minDiversity setter.
+     *
+     * @param minDiversity The population diversity (between 0 and 1) below which the mutation
+     *                     probability is raised, 0 disables raising the mutation probability.
+     */
+    public void setMinDiversity(double minDiversity) {
+        if (minDiversity < 0 || minDiversity > 1) {
+            throw new IllegalArgumentException("minDiversity must be between 0 and 1.");
+        }
+        this.minDiversity = minDiversity;
+    }
+
+    /**
+     * getEffectivepMutate returns the probability of mutation for the current generation. This is
+     * pMutate unless the diversity of the retained population has fallen below minDiversity, in
+     * which case it is raised linearly towards 1 as the diversity approaches 0.
+     *
+     * @return The probability of mutation.
+     */
+    public double getEffectivepMutate() {
+        if (getPopulationDiversity().getnRoutes() < 2
+            || getPopulationDiversity().getDiversity() >= getMinDiversity()) {
+            return getpMutate();
+        }
+        return 1 - (1 - getpMutate()) * getPopulationDiversity().getDiversity() / getMinDiversity();
+    }
+
+    /**
+     * maxRestarts getter.
+     *
+     * @return The maximum number of times (per route) a converged population is restarted.
+     */
+    public int getMaxRestarts() {
+        return maxRestarts;
+    }
+
+    /**
+     * maxRestarts setter.
+     *
+     * @param maxRestarts The maximum number of times (per route) a converged population is
+     *                    restarted, 0 disables restarts.
+     */
+    public void setMaxRestarts(int maxRestarts) {
+        if (maxRestarts < 0) {
+            throw new IllegalArgumentException("maxRestarts cannot be less than 0.");
+        }
+        this.maxRestarts = maxRestarts;
+    }
+
+    /**
+     * restartKeepPercent getter.
+     *
+     * @return The percentage of the best retained Routes kept when a population is restarted.
+     */
+    public double getRestartKeepPercent() {
+        return restartKeepPercent;
+    }
+
+    /**
+     * restartKeepPercent setter.
+     *
+     * @param restartKeepPercent The percentage of the best retained Routes kept when a population
+     *                           is restarted e.g. 20% as 0.2.
+     */
+    public void setRestartKeepPercent(double restartKeepPercent) {
+        if (restartKeepPercent < 0 || restartKeepPercent > 1) {
+            throw new IllegalArgumentException("restartKeepPercent must be between 0 and 1.");
+        }
+        this.restartKeepPercent = restartKeepPercent;
+    }
+
+    /**
+     * graspPercent getter.
+     *
+     * @return The percentage (between 0 and 1) of Routes that constructRoute builds via a
+     * GraspConstructor rather than by randomly sampling Points.
+     */
+    public double getGraspPercent() {
+        return graspPercent;
+    }
+
+    /**
+     * graspPercent setter.
+     *
+     * @param graspPercent The percentage (between 0 and 1) of Routes that constructRoute should
+     *                     build via a GraspConstructor (0 disables GRASP construction).
+     */
+    public void setGraspPercent(double graspPercent) {
+        if (graspPercent < 0 || graspPercent > 1) {
+            throw new IllegalArgumentException("graspPercent must be between 0 and 1.");
+        }
+        this.graspPercent = graspPercent;
+    }
+
+    /**
+     * graspAlpha getter.
+     *
+     * @return The restricted candidate list parameter of the GraspConstructor, between 0 (greedy)
+     * and 1 (random).
+     */
+    public double getGraspAlpha() {
+        return graspAlpha;
+    }
+
+    /**
+     * graspAlpha setter.
+     *
+     * @param graspAlpha The restricted candidate list parameter of the GraspConstructor, between 0
+     *                   (greedy) and 1 (random).
+     */
+    public void setGraspAlpha(double graspAlpha) {
+        if (graspAlpha < 0 || graspAlpha > 1) {
+            throw new IllegalArgumentException("graspAlpha must be between 0 and 1.");
+        }
+        this.graspAlpha = graspAlpha;
+    }
+
+    /**
+     * jointRoutes getter.
+     *
+     * @return true if generateRoutesFromTOPFile evolves all nRoutes Routes jointly (each
+     * chromosome being a RouteSet, see evolveJointRoutes), otherwise false (a separate population
+     * is evolved for each Route in turn).
+     */
+    public boolean isJointRoutes() {
+        return jointRoutes;
+    }
+
+    /**
+     * jointRoutes setter.
+     *
+     * @param jointRoutes true if generateRoutesFromTOPFile should evolve all nRoutes Routes
+     *                    jointly.
+     */
+    public void setJointRoutes(boolean jointRoutes) {
+        this.jointRoutes = jointRoutes;
+    }
+
+    /**
+     * routeSetPopulation getter.
+     *
+     * @return The population of RouteSets used when evolving Routes jointly.
+     */
+    public ArrayList<RouteSet> getRouteSetPopulation() {
+        return routeSetPopulation;
+    }
+
+    /**
+     * convergenceMonitor getter.
+     *
+     * @return The ConvergenceMonitor of the most recent (or current) per-route genetic algorithm.
+     */
+    public ConvergenceMonitor getConvergenceMonitor() {
+        return convergenceMonitor;
+    }
+
+    /**
+     * upperBound getter.
+     *
+     * @return The upper bound on the total score collectable for the dataset (see UpperBound).
+     */
+    public double getUpperBound() {
+        return upperBound;
+    }
+
+    /**
+     * earlyOptimalityStop getter.
+     *
+     * @return true if generateRoutesFromTOPFile stops as soon as the combined score of the final
+     * Routes and the current best Route meets the upperBound, otherwise false.
+     */
+    public boolean isEarlyOptimalityStop() {
+        return earlyOptimalityStop;
+    }
+
+    /**
+     * earlyOptimalityStop setter.
+     *
+     * @param earlyOptimalityStop true if generateRoutesFromTOPFile should stop as soon as the
+     *                            upperBound is met.
+     */
+    public void setEarlyOptimalityStop(boolean earlyOptimalityStop) {
+        this.earlyOptimalityStop = earlyOptimalityStop;
+    }
+
+    /**
+     * targetScore getter.
+     *
+     * @return The score at which generateRoutesFromTOPFile stops, or NaN if no target is set.
+     */
+    public double getTargetScore() {
+        return targetScore;
+    }
+
+    /**
+     * targetScore setter.
+     *
+     * @param targetScore The score at which generateRoutesFromTOPFile stops (e.g. a best-known
+     *                    score), NaN disables target-score stopping.
+     */
+    public void setTargetScore(double targetScore) {
+        this.targetScore = targetScore;
+    }
+
+    /**
+     * setRandomSeed seeds the Random instance used throughout the Algorithm so that runs are
+     * reproducible.
+     *
+     * @param seed The seed.
+     */
+    @Override
+    public void setRandomSeed(long seed) {
+        getRand().setSeed(seed);
+    }
+
+    /**
+     * isUpperBoundMet checks whether the combined score of the final Routes plus additionalScore
+     * meets the upperBound i.e. no better solution can exist.
+     *
+     * @param additionalScore The score of Routes not (yet) within the final Routes.
+     * @return true if the upperBound is met, otherwise false.
+     */
+    public boolean isUpperBoundMet(double additionalScore) {
+        return getFinalRoutesScore() + additionalScore >= getUpperBound() - 1e-9;
+    }
+
+    /**
+     * isTargetScoreMet checks whether the combined score of the final Routes plus additionalScore
+     * meets the targetScore.
+     *
+     * @param additionalScore The score of Routes not (yet) within the final Routes.
+     * @return true if a targetScore is set and met, otherwise false.
+     */
+    public boolean isTargetScoreMet(double additionalScore) {
+        return !Double.isNaN(getTargetScore())
+            && getFinalRoutesScore() + additionalScore >= getTargetScore() - 1e-9;
+    }
+
+    /**
+     * preprocessing getter.
+     *
+     * @return true if generateRoutesFromTOPFile reduces the candidate Points via an
+     * InstancePreprocessor before constructing any Route, otherwise false.
+     */
+    public boolean isPreprocessing() {
+        return preprocessing;
+    }
+
+    /**
+     * preprocessing setter.
+     *
+     * @param preprocessing true if generateRoutesFromTOPFile should reduce the candidate Points
+     *                      via an InstancePreprocessor before constructing any Route.
+     */
+    public void setPreprocessing(boolean preprocessing) {
+        this.preprocessing = preprocessing;
+    }
+
+    /**
+     * preprocessor getter.
+     *
+     * @return The InstancePreprocessor that reduced the candidate Points, or null if the instance
+     * has not been preprocessed.
+     */
+    public InstancePreprocessor getPreprocessor() {
+        return preprocessor;
+    }
+
+    /**
+     * preprocessInstance reduces the candidate Points (the dataset Points and gHSortedPopRef) via
+     * an InstancePreprocessor. The instance is only ever preprocessed once.
+     */
+    public void preprocessInstance() {
+        if (preprocessor != null) {
+            return;
+        }
+        preprocessor = new InstancePreprocessor(getStartingPoint(), getEndingPoint(),
+            getDataset().getPoints(), gettMax());
+        getDataset().getPoints().clear();
+        getDataset().getPoints().addAll(preprocessor.getPoints());
+        setgHSortedPopRef(new ArrayList<>(preprocessor.getPoints()));
+        getgHSortedPopRef().sort(Point.GH_COMPARATOR);
+        rankgHSortedPopRef();
+        clusterPoints();
+    }
+
+    /**
+     * isStopScoreMet checks whether the search can stop because either the upperBound (if
+     * earlyOptimalityStop is set) or the targetScore has been met.
+     *
+     * @param additionalScore The score of Routes not (yet) within the final Routes.
+     * @return true if the search can stop, otherwise false.
+     */
+    public boolean isStopScoreMet(double additionalScore) {
+        return (isEarlyOptimalityStop() && isUpperBoundMet(additionalScore))
+            || isTargetScoreMet(additionalScore);
+    }
+
+    /**
+     * getFinalRoutesScore returns the combined totalScore of the final Routes.
+     *
+     * @return The combined totalScore of the final Routes.
+     */
+    public double getFinalRoutesScore() {
+        double score = 0;
+        for (Route route : getFinalRoutes()) {
+            score += route.getTotalScore();
+        }
+        return score;
+    }
+
     /**
      * pCrossover getter.
      *
@@ -364,6 +928,119 @@ public class Algorithm {
         return finalRoutes;
     }
 
+    /**
+     * mutationOperators getter.
+     *
+     * @return The MutationOperators applied to offspring during the mutation phase.
+     */
+    public ArrayList<MutationOperator> getMutationOperators() {
+        return mutationOperators;
+    }
+
+    /**
+     * registerMutationOperator adds an operator to those applied to offspring during the mutation
+     * phase of generateRoutesFromTOPFile.
+     *
+     * @param name        The name of the operator.
+     * @param probability The probability of the operator being applied to a mutated Route.
+     * @param operation   The operation that mutates a Route in place.
+     */
+    public void registerMutationOperator(String name, double probability,
+        Consumer<Route> operation) {
+        getMutationOperators().add(new MutationOperator(name, probability, operation));
+    }
+
+    /**
+     * registerMutationOperator adds an operator, with the given cost (see MutationOperator), to
+     * those applied to offspring during the mutation phase of generateRoutesFromTOPFile.
+     *
+     * @param name        The name of the operator.
+     * @param probability The probability of the operator being applied to a mutated Route.
+     * @param operation   The operation that mutates a Route in place.
+     * @param cost        The number of moves or insertion positions the operation evaluates on a
+     *                    Route (before it is mutated).
+     */
+    public void registerMutationOperator(String name, double probability,
+        Consumer<Route> operation, ToLongFunction<Route> cost) {
+        getMutationOperators().add(new MutationOperator(name, probability, operation, cost));
+    }
+
+    /**
+     * adaptiveOperatorSelection getter.
+     *
+     * @return true if mutation operators are selected adaptively based upon their measured
+     * improvement per unit of work done (see MutationOperator), false if each is applied with its
+     * own fixed probability.
+     */
+    public boolean isAdaptiveOperatorSelection() {
+        return adaptiveOperatorSelection;
+    }
+
+    /**
+     * adaptiveOperatorSelection setter.
+     *
+     * @param adaptiveOperatorSelection true if mutation operators are to be selected adaptively
+     *                                  based upon their measured improvement per unit of work
+     *                                  done (see MutationOperator), false if each is to be applied
+     *                                  with its own fixed probability.
+     */
+    public void setAdaptiveOperatorSelection(boolean adaptiveOperatorSelection) {
+        this.adaptiveOperatorSelection = adaptiveOperatorSelection;
+    }
+
+    /**
+     * operatorSelection getter.
+     *
+     * @return The AdaptiveOperatorSelection used to select mutation operators (null until mutate
+     * has been called with adaptiveOperatorSelection enabled).
+     */
+    public AdaptiveOperatorSelection getOperatorSelection() {
+        return operatorSelection;
+    }
+
+    /**
+     * mutate applies the registered MutationOperators to route. If adaptiveOperatorSelection is
+     * enabled, the same expected number of operators as the fixed probabilities would apply are
+     * chosen by an AdaptiveOperatorSelection which is rewarded with each operator's improvement
+     * (score gained plus distance saved relative to tMax) per unit of cost, the work the
+     * application did (see MutationOperator). Costs are counted rather than timed as timing
+     * jitter would change the selection probabilities and so break the reproducibility of seeded
+     * runs. Otherwise each operator is applied with its own fixed probability.
+     *
+     * @param route The Route to mutate.
+     */
+    public void mutate(Route route) {
+        if (!isAdaptiveOperatorSelection()) {
+            for (MutationOperator operator : getMutationOperators()) {
+                if (getRand().nextDouble() < operator.getProbability()) {
+                    operator.apply(route);
+                }
+            }
+            return;
+        }
+
+        if (operatorSelection == null
+            || operatorSelection.getnOperators() != getMutationOperators().size()) {
+            operatorSelection = new AdaptiveOperatorSelection(getMutationOperators().size());
+        }
+        double expectedApplications = 0;
+        for (MutationOperator operator : getMutationOperators()) {
+            expectedApplications += operator.getProbability();
+        }
+        int nApplications = Math.max(1, (int) Math.round(expectedApplications));
+
+        for (int i = 0; i < nApplications; i++) {
+            int operatorIndex = operatorSelection.select(getRand());
+            double previousScore = route.getTotalScore();
+            double previousDistance = route.getTotalDistance();
+            long cost = getMutationOperators().get(operatorIndex).apply(route);
+
+            double improvement = route.getTotalScore() - previousScore
+                + (previousDistance - route.getTotalDistance()) / gettMax();
+            operatorSelection.update(operatorIndex, improvement, cost);
+        }
+    }
+
     /**
      * lowestAdditionalDistanceIndex calculates at which index a point can be added to a Route
      * whilst minimising the additional distance added. If points already contains the Point or if
@@ -402,236 +1079,232 @@ public class Algorithm {
      * generateRoutesFromTOPFile method.
      */
     public void initialisePopulation() {
+        preparePopulationPoints();
+
+        setRoutePopulation(new ArrayList<>());
+        int popCounter = 0;
+
+        while (popCounter < getPopSize()) {
+            getRoutePopulation().add(constructRoute());
+            popCounter++;
+        }
+    }
 
+    /**
+     * preparePopulationPoints removes unreachable Points from the dataset and rebuilds the
+     * gHSortedPopRef, spatialClusters and topScorePoints from the remaining Points, ready for
+     * constructRoute.
+     */
+    private void preparePopulationPoints() {
         ArrayList<Point> popRef = getDataset().getPoints();
         popRef.remove(getStartingPoint());
         popRef.remove(getEndingPoint());
 
-        // remove unreachable points
-        popRef.removeIf(p -> (Util.euclideanDistance(getStartingPoint(), p) > gettMax()));
+        // remove unreachable points (those that cannot be visited on the way to the ending Point)
+        popRef.removeIf(p -> (Util.euclideanDistance(getStartingPoint(), p)
+            + Util.euclideanDistance(p, getEndingPoint()) > gettMax()));
 
-        // partition Points into groups that are close together based upon Point.GH_COMPARATOR
+        // cluster Points that are close together (sampled weighted by reachability & score)
         setgHSortedPopRef(new ArrayList<>(popRef));
         getgHSortedPopRef().sort(Point.GH_COMPARATOR);
-        setDistanceGroupedPoints(Lists.partition(getgHSortedPopRef(),
-            getgHSortedPopRef().size() / Math.min(10, getgHSortedPopRef().size())));
+        rankgHSortedPopRef();
+        clusterPoints();
+        // the GraspConstructor is rebuilt (on first use) as the candidate Points have changed
+        graspConstructor = null;
 
         // sorting possible points in descending order based upon score & take top 10 points
-        ArrayList<Point> topScorePoints = new ArrayList<>(popRef);
+        topScorePoints = new ArrayList<>(popRef);
         topScorePoints.sort(Collections.reverseOrder(Point.SCORE_COMPARATOR));
         topScorePoints.subList(Math.min(10, topScorePoints.size()), topScorePoints.size()).clear();
+    }
 
-        setRoutePopulation(new ArrayList<>());
-        int popCounter = 0;
+    /**
+     * constructRoute randomly constructs a single Route (as used within the initial population).
+     * With probability graspPercent the Route is built by a GraspConstructor over the
+     * gHSortedPopRef, otherwise by repeatedly trying to add Points sampled from the spatialClusters
+     * (or, 20% of the time, the top scoring Points) at their lowest additional distance position
+     * until tourTriesMax consecutive tries fail. Mixing both keeps the greedy quality of GRASP
+     * Routes without losing the diversity of sampled Routes. Must be called after
+     * initialisePopulation has prepared the Points.
+     *
+     * @return The constructed Route.
+     */
+    public Route constructRoute() {
+        if (getGraspPercent() > 0 && getRand().nextDouble() < getGraspPercent()) {
+            if (graspConstructor == null) {
+                graspConstructor = new GraspConstructor(getStartingPoint(), getEndingPoint(),
+                    getgHSortedPopRef(), gettMax());
+            }
+            return getFitnessCache()
+                .createRoute(graspConstructor.construct(getGraspAlpha(), getRand()));
+        }
+        // insertion costs are cached so repeated tries only rescan edges changed by an insert
+        InsertionCache routeCache = new InsertionCache(new ArrayList<>() {{
+            add(getStartingPoint());
+            add(getEndingPoint());
+        }});
+        int tourTries = 0;
+        while (routeCache.getTotalDistance() < gettMax() && tourTries < getTourTriesMax()) {
+            Point selectedPoint;
+            // 20% chance the Point that will be tried to be added is a top-scoring Point
+            if (getRand().nextDouble() > 0.2 || topScorePoints.isEmpty()) {
+                selectedPoint = getSpatialClusters().sample(getRand());
+            } else {
+                selectedPoint = topScorePoints.get(getRand().nextInt(topScorePoints.size()));
+            }
 
-        while (popCounter < getPopSize()) {
-            Route route = new Route(new ArrayList<>() {{
-                add(getStartingPoint());
-                add(getEndingPoint());
-            }});
-            int tourTries = 0;
-            while (route.getTotalDistance() < gettMax() && tourTries < getTourTriesMax()) {
-                reselectPoint:
-                // 20% chance the Point that will be tried to be added is a top-scoring Point
-                if (getRand().nextDouble() > 0.2) {
-                    List<Point> selectedPointGroup = getDistanceGroupedPoints()
-                        .get(getRand().nextInt(getDistanceGroupedPoints().size()));
-                    Point selectedPoint = selectedPointGroup
-                        .get(getRand().nextInt(selectedPointGroup.size()));
-                    if (route.getPoints().contains(selectedPoint)) {
-                        tourTries++;
-                        break reselectPoint;
-                    } else {
-                        ArrayList<Point> newPoints = new ArrayList<>(route.getPoints());
-                        newPoints.add(lowestAdditionalDistanceIndex(selectedPoint, newPoints),
-                            selectedPoint);
-                        Route potentialRoute = new Route(newPoints);
-                        if (potentialRoute.getTotalDistance() > gettMax()) {
-                            tourTries++;
-                        } else {
-                            route.setPoints(newPoints);
-                            tourTries = 0;
-                        }
-                    }
-                } else {
-                    Point selectedTopScorePoint = topScorePoints
-                        .get(getRand().nextInt(topScorePoints.size()));
-                    if (route.getPoints().contains(selectedTopScorePoint)) {
-                        tourTries++;
-                        break reselectPoint;
-                    } else {
-                        ArrayList<Point> newPoints = new ArrayList<>(route.getPoints());
-                        newPoints
-                            .add(lowestAdditionalDistanceIndex(selectedTopScorePoint, newPoints),
-                                selectedTopScorePoint);
-                        Route potentialRoute = new Route(newPoints);
-                        if (potentialRoute.getTotalDistance() > gettMax()) {
-                            tourTries++;
-                        } else {
-                            route.setPoints(newPoints);
-                            tourTries = 0;
-                        }
-                    }
-                }
+            if (selectedPoint == null || routeCache.contains(selectedPoint)
+                || !routeCache.isFeasible(selectedPoint, gettMax())) {
+                tourTries++;
+            } else {
+                routeCache.insert(selectedPoint);
+                tourTries = 0;
             }
-            getRoutePopulation().add(route);
-            popCounter++;
+        }
+        return getFitnessCache().createRoute(routeCache.getPoints(), routeCache.getFingerprint());
+    }
+
+    /**
+     * restartPopulation re-seeds a converged retained population by keeping its best
+     * restartKeepPercent of Routes and replacing the remainder with newly constructed Routes.
+     */
+    public void restartPopulation() {
+        int nKeep = Math.min(getRetainedChildren().size(),
+            (int) Math.ceil(getRetainedChildren().size() * getRestartKeepPercent()));
+        Util.partialSelect(getRetainedChildren(), nKeep,
+            Collections.reverseOrder(Route.ROUTE_SCORE_COMPARATOR));
+        for (int i = nKeep; i < getRetainedChildren().size(); i++) {
+            getRetainedChildren().set(i, constructRoute());
+            getPopulationDiversity().set(i, getRetainedChildren().get(i));
         }
     }
 
     /**
      * tournamentSelection generates a parent population through a tournament selection process
-     * whereby the strongest parent of a randomly selected group is added to the parent population
-     * until the popSize is met.
+     * whereby the strongest parent of a randomly selected group (of tournamentSize Routes) is added
+     * to the parent population until the popSize is met. Competitors are drawn by index and the
+     * parent population is overwritten in place.
      */
     public void tournamentSelection() {
-        int nParentsCounter = 0;
-        while (nParentsCounter < getPopSize()) {
-            ArrayList<Route> selectedForTournament = new ArrayList<>();
-            while (selectedForTournament.size() < 2) {
-                if (getGenerationCounter() == 0) {
-                    selectedForTournament.add(
-                        getRoutePopulation().get(getRand().nextInt(getRoutePopulation().size())));
-                } else {
-                    selectedForTournament.add(
-                        getRetainedChildren().get(getRand().nextInt(getRetainedChildren().size())));
+        ArrayList<Route> candidates =
+            getGenerationCounter() == 0 ? getRoutePopulation() : getRetainedChildren();
+        for (int nParentsCounter = 0; nParentsCounter < getPopSize(); nParentsCounter++) {
+            Route winner = candidates.get(getRand().nextInt(candidates.size()));
+            for (int i = 1; i < getTournamentSize(); i++) {
+                Route competitor = candidates.get(getRand().nextInt(candidates.size()));
+                if (Route.ROUTE_SCORE_COMPARATOR.compare(competitor, winner) > 0) {
+                    winner = competitor;
                 }
             }
-            selectedForTournament.sort(Collections.reverseOrder(Route.ROUTE_SCORE_COMPARATOR));
-            getSelectedParents().add(selectedForTournament.get(0));
-            nParentsCounter++;
+            setRoute(getSelectedParents(), nParentsCounter, winner);
+        }
+        truncate(getSelectedParents(), getPopSize());
+    }
+
+    /**
+     * setRoute writes route at index of the population buffer, appending if the buffer has not yet
+     * grown to index.
+     */
+    private static void setRoute(ArrayList<Route> buffer, int index, Route route) {
+        if (index < buffer.size()) {
+            buffer.set(index, route);
+        } else {
+            buffer.add(route);
+        }
+    }
+
+    /**
+     * truncate removes any stale Routes beyond size from the population buffer.
+     */
+    private static void truncate(ArrayList<Route> buffer, int size) {
+        while (buffer.size() > size) {
+            buffer.remove(buffer.size() - 1);
         }
-        getRetainedChildren().clear();
     }
 
     /**
      * removeWorstDuplicatePoints removes all instances of duplicate Points from a Route by removing
-     * the single instance of the duplicate Point that reduces the totalDistance the least.
+     * the single instance of each duplicate Point whose removal reduces the totalDistance the most
+     * (see CrossoverOperators.repairDuplicates).
      *
      * @param route The Route which to remove duplicate Points from.
      */
     public void removeWorstDuplicatePoints(Route route) {
-
-        // duplicates code taken from: (https://stackoverflow.com/a/31341963, RobAu, 2015)
-        List<Point> duplicates = route.getPoints().stream()
-            .collect(Collectors.groupingBy(Function.identity(), Collectors.counting()))
-            .entrySet()
-            .stream().filter(p -> p.getValue() > 1)
-            .map(Entry::getKey)
-            .collect(Collectors.toList());
-
-        // while the route contains duplicates remove the instance of the duplicate Point that reduces
-        // the Route distance the least.
-        while (route.getContainsDuplicatePoints()) {
-            for (Point point : duplicates) {
-                int firstIndex = route.getPoints().indexOf(point);
-                int secondIndex = route.getPoints().lastIndexOf(point);
-
-                ArrayList<Point> firstRoutePoints = new ArrayList<>(route.getPoints());
-                firstRoutePoints.remove(firstIndex);
-                Route firstRoute = new Route(firstRoutePoints);
-
-                ArrayList<Point> secondRoutePoints = new ArrayList<>(route.getPoints());
-                secondRoutePoints.remove(secondIndex);
-                Route secondRoute = new Route(secondRoutePoints);
-
-                if (firstRoute.getTotalDistance() < secondRoute.getTotalDistance()) {
-                    route.setPoints(firstRoute.getPoints());
-                } else if (secondRoute.getTotalDistance() < firstRoute.getTotalDistance()) {
-                    route.setPoints(secondRoute.getPoints());
-                } else {
-                    route.setPoints(firstRoute.getPoints());
-                }
-            }
+        if (route.getContainsDuplicatePoints()) {
+            route.setPoints(CrossoverOperators.repairDuplicates(route.getPoints()));
         }
     }
 
     /**
      * If two parents are selected, singlePointCrossover will look for the first Point that exists
-     * in both Route's points and swap the heads and tails of these routes to produce offspring. If
+     * in both Route's points and swap the heads and tails of these routes to produce offspring
+     * (or, if edgeRecombinationCrossover is set, produce two offspring via edge recombination). If
      * these new children are valid they are added to child population. If not their parent is added
      * instead.
      */
     public void singlePointCrossover() {
-        ArrayList<Route> selectedParentsForRecombination = new ArrayList<>();
-        setChildPopulation(new ArrayList<>());
+        ArrayList<Route> children = getChildPopulation();
+        int nChildren = 0;
+        Route pendingParent = null;
         // loop through all parents
-        for (Route route : getSelectedParents()) {
-            if (getRand().nextDouble() <= getpCrossover()) {
-                selectedParentsForRecombination.add(route);
-                if (selectedParentsForRecombination.size() == 2) {
-                    Route parent1 = selectedParentsForRecombination.get(0);
-                    Route parent2 = selectedParentsForRecombination.get(1);
-                    for (int i = 1; i < parent1.getPoints().size() - 1; i++) {
-                        if (parent2.getPoints().contains(parent1.getPoints().get(i))) {
-                            int parent2CommonGeneIndex = parent2.getPoints()
-                                .indexOf(parent1.getPoints().get(i));
-
-                            List<Point> parent1Head = new ArrayList<>(
-                                parent1.getPoints().subList(0, i));
-                            List<Point> parent1Tail = new ArrayList<>(
-                                parent1.getPoints().subList(i, parent1.getPoints().size()));
-                            List<Point> parent2Head = new ArrayList<>(
-                                parent2.getPoints().subList(0, parent2CommonGeneIndex));
-                            List<Point> parent2Tail = new ArrayList<>(parent2.getPoints()
-                                .subList(parent2CommonGeneIndex, parent2.getPoints().size()));
-
-                            ArrayList<Point> child1Points = new ArrayList<>();
-                            child1Points.addAll(parent1Head);
-                            child1Points.addAll(parent2Tail);
-
-                            ArrayList<Point> child2Points = new ArrayList<>();
-                            child2Points.addAll(parent2Head);
-                            child2Points.addAll(parent1Tail);
-
-                            Route child1 = new Route(child1Points);
-                            Route child2 = new Route(child2Points);
-
-                            if (child1.getContainsDuplicatePoints()) {
-                                removeWorstDuplicatePoints(child1);
-                            }
-
-                            if (child2.getContainsDuplicatePoints()) {
-                                removeWorstDuplicatePoints(child2);
-                            }
-
-                            if (child1.getTotalDistance() <= gettMax()) {
-                                getChildPopulation().add(child1);
-                            } else {
-                                getChildPopulation().add(parent1);
-                            }
-
-                            if (child2.getTotalDistance() <= gettMax()) {
-                                getChildPopulation().add(child2);
-                            } else {
-                                getChildPopulation().add(parent2);
-                            }
-                            selectedParentsForRecombination.clear();
-                            break;
-                        } else if (i == parent1.getPoints().size() - 2 && !parent2.getPoints()
-                            .contains(parent1.getPoints().get(i))) {
-                            getChildPopulation().add(parent1);
-                            getChildPopulation().add(parent2);
-                            selectedParentsForRecombination.clear();
-                        }
-                    }
-                }
+        for (int p = 0; p < getSelectedParents().size(); p++) {
+            Route route = getSelectedParents().get(p);
+            if (getRand().nextDouble() > getpCrossover()) {
+                setRoute(children, nChildren++, route);
+            } else if (pendingParent == null) {
+                pendingParent = route;
             } else {
-                getChildPopulation().add(route);
+                Route parent1 = pendingParent;
+                Route parent2 = route;
+                pendingParent = null;
+                List<ArrayList<Point>> childrenPoints;
+                if (isEdgeRecombinationCrossover()) {
+                    childrenPoints = List.of(
+                        CrossoverOperators.edgeRecombination(parent1, parent2, gettMax(), getRand()),
+                        CrossoverOperators.edgeRecombination(parent2, parent1, gettMax(), getRand()));
+                } else {
+                    childrenPoints = CrossoverOperators.singlePoint(parent1, parent2);
+                }
+                if (childrenPoints.isEmpty()) {
+                    setRoute(children, nChildren++, parent1);
+                    setRoute(children, nChildren++, parent2);
+                } else {
+                    Route child1 = getFitnessCache().createRoute(childrenPoints.get(0));
+                    Route child2 = getFitnessCache().createRoute(childrenPoints.get(1));
+                    setRoute(children, nChildren++,
+                        child1.getTotalDistance() <= gettMax() ? child1 : parent1);
+                    setRoute(children, nChildren++,
+                        child2.getTotalDistance() <= gettMax() ? child2 : parent2);
+                }
             }
         }
-        if (!selectedParentsForRecombination.isEmpty()
-            && getChildPopulation().size() != getPopSize()) {
-            int numberOfChildrenToAdd = getPopSize() - getChildPopulation().size();
-            if (selectedParentsForRecombination.size() > numberOfChildrenToAdd) {
-                for (int i = 0; i < numberOfChildrenToAdd; i++) {
-                    getChildPopulation().add(selectedParentsForRecombination.get(i));
-                }
-            } else {
-                getChildPopulation().addAll(selectedParentsForRecombination);
+        if (pendingParent != null && nChildren < getPopSize()) {
+            setRoute(children, nChildren++, pendingParent);
+        }
+        truncate(children, nChildren);
+    }
+
+    /**
+     * worstTravelScoreRatioIndex finds the index of the Point within points that has the worst
+     * score to travel ratio (score divided by the travel distance to reach the Point) excluding the
+     * starting and ending Points.
+     *
+     * @param points The Points of a Route.
+     * @return The index of the worst score to travel ratio Point, or 0 if no Point can be dropped.
+     */
+    public int worstTravelScoreRatioIndex(ArrayList<Point> points) {
+        double travelScoreRatio = Double.MAX_VALUE;
+        int pointToDropIndex = 0;
+        // i = 1 & < size()-1 prevents the starting and ending Points from being considered
+        for (int i = 1; i < points.size() - 1; i++) {
+            double tmpTravelScoreRatio = points.get(i).getScore() / Util
+                .euclideanDistance(points.get(i - 1), points.get(i));
+            if (tmpTravelScoreRatio < travelScoreRatio) {
+                travelScoreRatio = tmpTravelScoreRatio;
+                pointToDropIndex = i;
             }
         }
-        selectedParentsForRecombination.clear();
+        return pointToDropIndex;
     }
 
     /**
@@ -643,19 +1316,7 @@ public class Algorithm {
     public void dropWorstTravelScoreRatioPoint(Route route) {
         // check route does not just consist of starting & ending nodes since they cannot be deleted
         if (route.getPoints().size() > 2) {
-            double travelScoreRatio = Double.MAX_VALUE;
-            int pointToDropIndex = 0;
-            // i = 1 & < size()-1 prevents the starting and ending Points from being considered
-            for (int i = 1; i < route.getPoints().size() - 1; i++) {
-                if (i != route.getPoints().size() - 1) {
-                    double tmpTravelScoreRatio = route.getPoints().get(i).getScore() / route
-                        .getNonCInterPointTravelDistances().get(i);
-                    if (tmpTravelScoreRatio < travelScoreRatio) {
-                        travelScoreRatio = tmpTravelScoreRatio;
-                        pointToDropIndex = i;
-                    }
-                }
-            }
+            int pointToDropIndex = worstTravelScoreRatioIndex(route.getPoints());
             if (pointToDropIndex != 0 && pointToDropIndex != route.getPoints().size() - 1) {
                 route.getPoints().remove(pointToDropIndex);
                 route.setPoints(route.getPoints());
@@ -666,58 +1327,56 @@ public class Algorithm {
     /**
      * addOrReplace tries to add a randomly selected Point that isn't already in the Route to the
      * Route. If this is not possible i.e. this causes the Route's totalDistance to exceed tMax the
-     * worst travel-score-ratio points are removed whilst the addition of the new point remains net
-     * positive for totalScore and possible in terms of totalDistance. If this is not possible the
-     * Route remains unchanged.
+     * points with the lowest score per distance saved are removed whilst the addition of the new
+     * point remains net positive for totalScore and possible in terms of totalDistance. Removals
+     * and the cheapest insertion of the new point (with or without removals) are tracked by a
+     * RemovalHeap, so testing the insertion is O(1) and each removal costs O(log n). If this is
+     * not possible the Route remains unchanged. Points are sampled directly from those not within
+     * the Route (see getRouteComplement) so no samples are rejected, and each Point added is
+     * excluded from later samples incrementally.
      *
      * @param route The route to try and add a Point to.
      */
     public void addOrReplace(Route route) {
-        // try to find point that isn't in route
+        SpatialClusters.Complement complement = getRouteComplement(route);
         int notInRoutePointTryCounter = 0;
         while (notInRoutePointTryCounter < 10) {
-            List<Point> selectedGroup = getDistanceGroupedPoints()
-                .get(getRand().nextInt(getDistanceGroupedPoints().size()));
-            Point potentialPoint = selectedGroup.get(getRand().nextInt(selectedGroup.size()));
+            Point potentialPoint = complement.sample(getRand());
 
-            if (route.getPoints().contains(potentialPoint)) {
-                notInRoutePointTryCounter++;
+            if (potentialPoint == null) {
+                // every candidate Point is already within the Route
+                notInRoutePointTryCounter = 10;
             } else {
+                // drop candidates are ordered by score per unit of distance saved
+                RemovalHeap dropOrder = new RemovalHeap(route.getPoints(), potentialPoint);
                 // check if point can be added without removal
-                ArrayList<Point> potentialPoints = new ArrayList<>(route.getPoints());
-                potentialPoints
-                    .add(lowestAdditionalDistanceIndex(potentialPoint, route.getPoints()),
-                        potentialPoint);
-                Route potentialRoute = new Route(new ArrayList<>(potentialPoints));
-                if (potentialRoute.getTotalDistance() <= gettMax()) {
-                    route.setPoints(potentialPoints);
+                if (dropOrder.getTotalDistance() + dropOrder.getCandidateInsertionCost()
+                    <= gettMax()) {
+                    route.setPoints(dropOrder.getPointsWithCandidate());
+                    complement.exclude(potentialPoint);
                     // if not remove nodes until enough space exists.
                 } else {
-                    potentialRoute.setPoints(new ArrayList<>(route.getPoints()));
                     double potAddtScore = potentialPoint.getScore();
                     double previousScore = route.getTotalScore();
-                    while (potentialRoute.getTotalScore() + potAddtScore >= previousScore
-                        && !potentialRoute.getPoints().contains(potentialPoint)
-                        && potentialRoute.getPoints().size() > 2) {
-                        dropWorstTravelScoreRatioPoint(potentialRoute);
-                        ArrayList<Point> pointsWithoutPotentialPoint = new ArrayList<>(
-                            potentialRoute.getPoints());
-                        ArrayList<Point> pointsWithPotentialPoint = new ArrayList<>(
-                            potentialRoute.getPoints());
-                        pointsWithPotentialPoint.add(
-                            lowestAdditionalDistanceIndex(potentialPoint, pointsWithPotentialPoint),
-                            potentialPoint);
-                        potentialRoute.setPoints(pointsWithPotentialPoint);
-                        if (potentialRoute.getTotalDistance() > gettMax()) {
-                            potentialRoute.setPoints(pointsWithoutPotentialPoint);
+                    double potentialScore = previousScore;
+                    boolean potentialPointAdded = false;
+                    while (potentialScore + potAddtScore >= previousScore && !potentialPointAdded
+                        && dropOrder.size() > 0) {
+                        potentialScore -= dropOrder.poll().getScore();
+                        if (dropOrder.getTotalDistance() + dropOrder.getCandidateInsertionCost()
+                            <= gettMax()) {
+                            potentialScore += potAddtScore;
+                            potentialPointAdded = true;
                         }
                     }
+                    Route potentialRoute = new Route(potentialPointAdded
+                        ? dropOrder.getPointsWithCandidate() : dropOrder.getPoints());
 
                     // check if better
                     if (potentialRoute.getTotalScore() > route.getTotalScore() ||
                         (potentialRoute.getTotalScore() == route.getTotalScore()
                             && potentialRoute.getTotalDistance() < route.getTotalDistance())) {
-                        route.setPoints(new ArrayList<>(potentialRoute.getPoints()));
+                        route.setPoints(potentialRoute.getPoints());
                     }
                     notInRoutePointTryCounter = 10;
                 }
@@ -726,17 +1385,17 @@ public class Algorithm {
     }
 
     /**
-     * addRandomPointMinAddtDistLocIfValid tries to add a randomly selected Point to the Route in
-     * the position that adds the least additional travel time provided that it's valid to do so.
+     * addRandomPointMinAddtDistLocIfValid tries to add a randomly selected Point (not already
+     * within the Route) to the Route in the position that adds the least additional travel time
+     * provided that it's valid to do so. The Point is sampled from those not within the Route (see
+     * getRouteComplement).
      *
      * @param route The Route to add the randomly selected Point to.
      */
     public void addRandomPointMinAddtDistLocIfValid(Route route) {
-        List<Point> selectedGroup = getDistanceGroupedPoints()
-            .get(getRand().nextInt(getDistanceGroupedPoints().size()));
-        Point potentialPoint = selectedGroup.get(getRand().nextInt(selectedGroup.size()));
+        Point potentialPoint = getRouteComplement(route).sample(getRand());
 
-        if (!route.getPoints().contains(potentialPoint)) {
+        if (potentialPoint != null) {
             ArrayList<Point> newPoints = new ArrayList<>();
             if (route.getPoints().size() > 2) {
 
@@ -771,7 +1430,11 @@ public class Algorithm {
 
     /**
      * iterativeLocalSearch tries to alter the route by replacing a random number of Points by
-     * searching for better, close points within the GeoHash sorted Array of points.
+     * searching for better, close points within the GeoHash sorted Array of points. Each Point's
+     * position within the gHSortedPopRef is found in constant time (see getgHSortedPopRefRank) and
+     * every replacement is evaluated by the change in score and distance around the replaced
+     * Point rather than by building a new Route, so the cost is independent of the total number of
+     * Points.
      *
      * @param route           The Route which to perform iterative local search on.
      * @param localSearchIter The maximum number of Points to check either side of the original
@@ -791,57 +1454,76 @@ public class Algorithm {
                 }
             }
 
+            ArrayList<Point> points = new ArrayList<>(route.getPoints());
+            Set<Point> routeMembers = new HashSet<>(points);
+            boolean containsDuplicatePoints = routeMembers.size() != points.size();
+            double totalScore = route.getTotalScore();
+            double totalDistance = route.getTotalDistance();
+            boolean changed = false;
+
             int numPointsToChangeCounter = 0;
             Set<Integer> changedPointIndexes = new HashSet<>();
             while (numPointsToChangeCounter < numPointsToChange) {
-                int pointChangeIndex = getRand().nextInt(route.getPoints().size() - 1);
-                if (pointChangeIndex != 0 && pointChangeIndex != route.getPoints().size() - 1
+                int pointChangeIndex = getRand().nextInt(points.size() - 1);
+                if (pointChangeIndex != 0 && pointChangeIndex != points.size() - 1
                     && !changedPointIndexes.contains(pointChangeIndex)) {
                     changedPointIndexes.add(pointChangeIndex);
 
-                    Point prevPoint = route.getPoint(pointChangeIndex);
-                    int prevPointGhSortedPopRefIndex = getgHSortedPopRef().indexOf(prevPoint);
-
-                    localSearchIter = -localSearchIter;
-                    int localSearchIterUpperBound = Math.abs(localSearchIter);
-                    ArrayList<Route> potentialRoutes = new ArrayList<>();
-
-                    while (localSearchIter < localSearchIterUpperBound) {
-                        if (prevPointGhSortedPopRefIndex + localSearchIter >= 0
-                            && prevPointGhSortedPopRefIndex + localSearchIter < getgHSortedPopRef()
-                            .size() && localSearchIter != 0) {
-                            Point potentialPoint = getgHSortedPopRef()
-                                .get(prevPointGhSortedPopRefIndex + localSearchIter);
-                            ArrayList<Point> newPoints = new ArrayList<>(route.getPoints());
-                            newPoints.set(pointChangeIndex, potentialPoint);
-                            Route potentialRoute = new Route(newPoints);
-
-                            if ((potentialRoute.getTotalScore() > route.getTotalScore()
-                                && potentialRoute.getTotalDistance() <= gettMax() && !potentialRoute
-                                .getContainsDuplicatePoints())
-                                || (potentialRoute.getTotalScore() == route.getTotalScore()
-                                && potentialRoute.getTotalDistance() <= gettMax() && !potentialRoute
-                                .getContainsDuplicatePoints()
-                                && potentialRoute.getTotalDistance() < route.getTotalDistance())) {
-                                potentialRoutes.add(potentialRoute);
-                            }
+                    Point prevPoint = points.get(pointChangeIndex);
+                    Point before = points.get(pointChangeIndex - 1);
+                    Point after = points.get(pointChangeIndex + 1);
+                    int prevPointGhSortedPopRefIndex = getgHSortedPopRefRank(prevPoint);
+                    double baseDistance = totalDistance
+                        - Util.euclideanDistance(before, prevPoint)
+                        - Util.euclideanDistance(prevPoint, after);
+                    double baseScore = totalScore - prevPoint.getScore();
+
+                    // the best replacement by score (then lowest distance) that improves the route
+                    Point bestPoint = null;
+                    double bestScore = totalScore;
+                    double bestDistance = totalDistance;
+                    for (int offset = -localSearchIter; offset < localSearchIter; offset++) {
+                        int rank = prevPointGhSortedPopRefIndex + offset;
+                        if (offset == 0 || rank < 0 || rank >= getgHSortedPopRef().size()) {
+                            continue;
+                        }
+                        Point potentialPoint = getgHSortedPopRef().get(rank);
+                        // replacing a Point with one already in the route creates a duplicate
+                        if (containsDuplicatePoints || routeMembers.contains(potentialPoint)) {
+                            continue;
+                        }
+                        double potentialScore = baseScore + potentialPoint.getScore();
+                        double potentialDistance = baseDistance
+                            + Util.euclideanDistance(before, potentialPoint)
+                            + Util.euclideanDistance(potentialPoint, after);
+                        if (potentialDistance <= gettMax() && (potentialScore > bestScore
+                            || (potentialScore == bestScore && potentialDistance < bestDistance))) {
+                            bestPoint = potentialPoint;
+                            bestScore = potentialScore;
+                            bestDistance = potentialDistance;
                         }
-                        localSearchIter++;
                     }
-                    if (!potentialRoutes.isEmpty()) {
-                        potentialRoutes
-                            .sort(Collections.reverseOrder(Route.ROUTE_SCORE_COMPARATOR));
-                        route.setPoints(potentialRoutes.get(0).getPoints());
+                    if (bestPoint != null) {
+                        points.set(pointChangeIndex, bestPoint);
+                        routeMembers.remove(prevPoint);
+                        routeMembers.add(bestPoint);
+                        totalScore = bestScore;
+                        totalDistance = bestDistance;
+                        changed = true;
                     }
                     numPointsToChangeCounter++;
                 }
             }
+            if (changed) {
+                // recalculates the Route's totals (and fingerprint) exactly
+                route.setPoints(points);
+            }
         }
     }
 
     /**
      * SingularTwoOpt takes a Route and alters the ordering of Points within the Route to prevent
-     * the Route from crossing over itself. This method is used within completeTwoOpt.
+     * the Route from crossing over itself by reversing the Points between i and j.
      * <p>
      * Note, code adapted from: (https://en.wikipedia.org/wiki/2-opt, Wikipedia, n.d.).
      *
@@ -867,104 +1549,91 @@ public class Algorithm {
 
     /**
      * completeTwoOpt takes a Route and alters the ordering of all Points within the Route to
-     * prevent the Route from crossing over itself.
+     * prevent the Route from crossing over itself. Moves are delta-evaluated, restricted to each
+     * Point's nearest neighbours and applied in place (see TwoOpt) so the Route is only rebuilt once
+     * an improvement has been found.
      * <p>
      * Note, code adapted from: (https://en.wikipedia.org/wiki/2-opt, Wikipedia, n.d.).
      *
      * @param route The Route to perform completeTwoOpt upon.
      */
     public void completeTwoOpt(Route route) {
-        double routeSize = route.getPoints().size();
-        double bestDistance = route.getTotalDistance();
-        for (int i = 1; i <= routeSize - 3; i++) {
-            for (int j = i + 1; j <= routeSize - 2; j++) {
-                Route newRoute = singularTwoOpt(route, i, j);
-                double newDistance = newRoute.getTotalDistance();
-                if (newDistance < bestDistance) {
-                    route.setPoints(newRoute.getPoints());
-                    bestDistance = newDistance;
-                }
-            }
+        if (route.getPoints().size() < 4) {
+            return;
+        }
+        TwoOpt twoOpt = new TwoOpt(route.getPoints(), TwoOpt.DEFAULT_NEIGHBOUR_LIST_SIZE);
+        if (twoOpt.optimise()) {
+            route.setPoints(twoOpt.getPoints());
         }
     }
 
     /**
      * elitistReplacement replaces tpgPercent of the worst scored child population Routes with the
-     * best of the parent Routes.
+     * best of the parent Routes. Only the best parents and worst children are partially selected
+     * (rather than fully sorting either population) and the child population then becomes the
+     * retained population by swapping the two population buffers. If duplicateSuppression is set,
+     * any Route whose fingerprint matches an already retained Route is replaced with a mutated copy
+     * so that the population does not fill with clones.
      *
      * @param tpgPercent The percentage of children to replace e.g. 3% as 0.03.
      */
     public void elitistReplacement(double tpgPercent) {
-        getSelectedParents().sort(Collections.reverseOrder(Route.ROUTE_SCORE_COMPARATOR));
-        getChildPopulation().sort(Route.ROUTE_SCORE_COMPARATOR);
+        int numOfSelectedParentsToRetain = Math.min((int) Math.floor(getPopSize() * tpgPercent),
+            Math.min(getSelectedParents().size(), getChildPopulation().size()));
+        Util.partialSelect(getSelectedParents(), numOfSelectedParentsToRetain,
+            Collections.reverseOrder(Route.ROUTE_SCORE_COMPARATOR));
+        Util.partialSelect(getChildPopulation(), numOfSelectedParentsToRetain,
+            Route.ROUTE_SCORE_COMPARATOR);
+
+        for (int i = 0; i < numOfSelectedParentsToRetain; i++) {
+            getChildPopulation().set(i, getSelectedParents().get(i));
+        }
+
+        if (isDuplicateSuppression()) {
+            retainedFingerprints.clear();
+            for (int i = 0; i < getChildPopulation().size(); i++) {
+                Route child = getChildPopulation().get(i);
+                if (!retainedFingerprints.add(child.getFingerprint())) {
+                    Route copy = new Route(new ArrayList<>(child.getPoints()));
+                    mutate(copy);
+                    getChildPopulation().set(i, copy);
+                    retainedFingerprints.add(copy.getFingerprint());
+                }
+            }
+        }
 
-        int numOfSelectedParentsToRetain = (int) Math.floor(getPopSize() * tpgPercent);
-        int numOfSelectedParentsToRetainCounter = 0;
-        while (numOfSelectedParentsToRetainCounter < numOfSelectedParentsToRetain) {
-            getChildPopulation().set(numOfSelectedParentsToRetainCounter,
-                getSelectedParents().get(numOfSelectedParentsToRetainCounter));
-            numOfSelectedParentsToRetainCounter++;
+        bestRetainedChild = null;
+        for (int i = 0; i < getChildPopulation().size(); i++) {
+            Route child = getChildPopulation().get(i);
+            if (bestRetainedChild == null
+                || Route.ROUTE_SCORE_COMPARATOR.compare(child, bestRetainedChild) > 0) {
+                bestRetainedChild = child;
+            }
         }
 
-        getSelectedParents().clear();
-        getRetainedChildren().addAll(getChildPopulation());
+        // swap buffers, the previous retainedChildren are overwritten by the next generation
+        ArrayList<Route> previousRetainedChildren = getRetainedChildren();
+        setRetainedChildren(getChildPopulation());
+        setChildPopulation(previousRetainedChildren);
+
+        // only Routes that differ from the previous occupant of their slot are recounted
+        for (int i = 0; i < getRetainedChildren().size(); i++) {
+            getPopulationDiversity().set(i, getRetainedChildren().get(i));
+        }
+        getPopulationDiversity().truncate(getRetainedChildren().size());
     }
 
     /**
-     * rearrange looks at the Points within each Route in routes and moves them to another Route if
-     * they reduce the overall total distance travelled.
+     * rearrange moves Points between (and reorders Points within) each pair of Routes within routes
+     * if doing so reduces their combined total distance travelled, using the relocate, swap,
+     * cross-exchange and 2-Opt* moves of InterRouteOperators (see InterRouteOperators.rearrange).
+     * Pairs of Routes are processed in rounds of disjoint pairs (no Route appears twice within a
+     * round) which are evaluated in parallel. Rounds are repeated until no pair can be improved.
      *
      * @param routes The ArrayList of Routes which to apply rearrange to.
      */
     public void rearrange(ArrayList<Route> routes) {
-
-        // loop through all routes
-        for (int i = 0; i < routes.size(); i++) {
-            for (int j = 0; j < routes.size(); j++) {
-
-                // check routes aren't the same route
-                if (!routes.get(i).equals(routes.get(j))) {
-
-                    // route information
-                    Route route1 = new Route(new ArrayList<>(routes.get(i).getPoints()));
-                    ArrayList<Point> route1Points = new ArrayList<>(routes.get(i).getPoints());
-                    Route route2 = new Route(new ArrayList<>(routes.get(j).getPoints()));
-                    ArrayList<Point> route2Points = new ArrayList<>(routes.get(j).getPoints());
-
-                    // loop through points in first route
-                    for (int k = 1; k < routes.get(i).getPoints().size() - 1; k++) {
-                        Point route1Point = routes.get(i).getPoints().get(k);
-                        route1Points.remove(k);
-                        Route tmpRoute1 = new Route(new ArrayList<>(route1Points));
-
-                        // this is needed to prevent errors on valid TOP files with insufficient tMax to achieve set no. of routes
-                        int bestValidIndex = lowestAdditionalDistanceIndex(route1Point,
-                            route2Points);
-                        if (bestValidIndex != -1) {
-                            route2Points.add(bestValidIndex, route1Point);
-                        }
-                        Route tmpRoute2 = new Route(new ArrayList<>(route2Points));
-
-                        boolean validRoute = tmpRoute2.getTotalDistance() <= gettMax();
-                        boolean distanceReduced =
-                            tmpRoute1.getTotalDistance() + tmpRoute2.getTotalDistance()
-                                < route1.getTotalDistance() + route2.getTotalDistance();
-                        boolean sameNoOfPoints =
-                            (route1.getPoints().size() + route2.getPoints().size()) == (
-                                tmpRoute1.getPoints().size() + tmpRoute2.getPoints().size());
-                        if (validRoute && sameNoOfPoints && distanceReduced) {
-                            routes.get(i).setPoints(new ArrayList<>(route1Points));
-                            route1.setPoints(new ArrayList<>(route1Points));
-                            routes.get(j).setPoints(new ArrayList<>(route2Points));
-                            route2.setPoints(new ArrayList<>(route2Points));
-                        } else {
-                            route1Points = new ArrayList<>(routes.get(i).getPoints());
-                            route2Points = new ArrayList<>(routes.get(j).getPoints());
-                        }
-                    }
-                }
-            }
-        }
+        InterRouteOperators.rearrange(routes, gettMax());
     }
 
     /**
@@ -986,7 +1655,8 @@ public class Algorithm {
 
         for (Route finalRoute : routes) {
             double radiusSearchLimit = gettMax() / 3;
-            HashSet<Point> possiblePoints = new HashSet<>();
+            // insertion ordered so that equal scores keep the same order on seeded runs
+            LinkedHashSet<Point> possiblePoints = new LinkedHashSet<>();
 
             // get remaining points and sort relative to distance away from each point in the Route
             for (Point point : finalRoute.getPoints()) {
@@ -1007,54 +1677,72 @@ public class Algorithm {
             possiblePointsList.sort(Collections.reverseOrder(Point.SCORE_COMPARATOR));
 
             // try and add all points to Route starting with the highest scoring point
-            int i = 0;
-            while (i < possiblePointsList.size()) {
-                Point newPoint = possiblePointsList.get(0);
-                ArrayList<Point> newPoints = new ArrayList<>(finalRoute.getPoints());
-                int bestValidIndex = lowestAdditionalDistanceIndex(newPoint, newPoints);
-                if (bestValidIndex != -1) {
-                    newPoints.add(bestValidIndex, newPoint);
-                }
-                Route tmpRoute = new Route(newPoints);
-
-                // check if Route is valid
-                if (tmpRoute.getTotalDistance() <= gettMax()) {
-                    finalRoute.setPoints(newPoints);
+            InsertionCache routeCache = new InsertionCache(finalRoute.getPoints());
+            for (Point newPoint : possiblePointsList) {
+                // check if Route remains valid
+                if (!routeCache.contains(newPoint) && routeCache.isFeasible(newPoint, gettMax())) {
+                    routeCache.insert(newPoint);
                     getgHSortedPopRef().remove(newPoint);
                 }
-                possiblePointsList.remove(0);
+            }
+            if (routeCache.getPoints().size() != finalRoute.getPoints().size()) {
+                finalRoute.setPoints(routeCache.getPoints());
             }
         }
     }
 
+    /**
+     * regretInsertion repeatedly inserts the Point from candidates with the highest regret-k
+     * priority into the Route where it adds the least distance, until no candidate can be inserted
+     * into any Route without exceeding tMax (see InsertionCache.regretInsertion).
+     *
+     * @param routes     The ArrayList of Routes which to insert candidates into.
+     * @param candidates The Points which may be inserted.
+     * @param k          The number of best insertions considered when calculating regret.
+     * @return The Points that were inserted.
+     */
+    public ArrayList<Point> regretInsertion(ArrayList<Route> routes, List<Point> candidates,
+        int k) {
+        ArrayList<InsertionCache> routeCaches = new ArrayList<>();
+        for (Route route : routes) {
+            routeCaches.add(new InsertionCache(route.getPoints()));
+        }
+        ArrayList<Point> inserted = InsertionCache
+            .regretInsertion(routeCaches, candidates, k, gettMax());
+
+        for (int r = 0; r < routes.size(); r++) {
+            if (routeCaches.get(r).getPoints().size() != routes.get(r).getPoints().size()) {
+                routes.get(r).setPoints(routeCaches.get(r).getPoints());
+            }
+        }
+        return inserted;
+    }
+
     /**
      * printMetricsPerXGenerations can be used within any process that utilises
      * generateRoutesFromTOPFile to print score and distance information for the best Route and the
-     * number of unique 'genes' (Points) available across all routes of given generation.
+     * number of unique 'genes' (Points), gene entropy and diversity of the retained population of a
+     * given generation (read from the incrementally maintained populationDiversity).
      *
      * @param perXGenerations Per number of generations to display the score, distance & gene
      *                        information.
      */
     public void printMetricsPerXGenerations(int perXGenerations) {
         if (getGenerationCounter() % perXGenerations == 0) {
-            Route topInGen = Collections.max(getChildPopulation(), Route.ROUTE_SCORE_COMPARATOR);
-            Set<Point> uniqueGenes = new HashSet<>();
-            for (Route r : getChildPopulation()) {
-                uniqueGenes.addAll(r.getPoints());
-            }
+            Route topInGen = getBestRetainedChild();
             System.out.println("Generation: " + getGenerationCounter()
                 + ". Score = " + topInGen.getTotalScore()
                 + ". Distance = " + topInGen.getTotalDistance()
-                + ". Num. Unique Genes = " + uniqueGenes.size()
+                + ". Num. Unique Genes = " + getPopulationDiversity().getUniqueGenes()
+                + ". Gene Entropy = " + getPopulationDiversity().getEntropy()
+                + ". Diversity = " + getPopulationDiversity().getDiversity()
             );
         }
     }
 
     /**
-     * benchmark enables easy benchmarking across multiple test instances. benchmark, for all files
-     * within the testDataCompleteFilepath directory outputs the name of the file which the
-     * algorithm was tested on, the best score, the average score, the average time taken in seconds
-     * and point/score information for the best-scoring Route combination across numRuns.
+     * benchmark benchmarks the genetic algorithm via the Solver benchmark below, with each run
+     * solved by an Algorithm with the given parameters.
      *
      * @param testDataCompleteFilepath  The directory of test instances to benchmark upon. A
      *                                  filepath for single file can also be used.
@@ -1072,6 +1760,25 @@ public class Algorithm {
     public static void benchmark(String testDataCompleteFilepath, int numRuns, int popSize,
         int tourTriesMax, double pCrossover, double pMutate, double elitistReplacementPercent,
         int maxGenerations) throws IOException {
+        benchmark(testDataCompleteFilepath, numRuns,
+            dataset -> new Algorithm(dataset, popSize, tourTriesMax, pCrossover, pMutate,
+                elitistReplacementPercent, maxGenerations));
+    }
+
+    /**
+     * benchmark enables easy benchmarking across multiple test instances. benchmark, for all files
+     * within the testDataCompleteFilepath directory outputs the name of the file which the
+     * Solver was tested on, the best score, the average score, the average time taken in seconds
+     * and point/score information for the best-scoring Route combination across numRuns.
+     *
+     * @param testDataCompleteFilepath The directory of test instances to benchmark upon. A
+     *                                 filepath for single file can also be used.
+     * @param numRuns                  The number of runs per-instance to benchmark against.
+     * @param solverFactory            Creates the Solver of each run from the instance.
+     * @throws IOException Signals that an I/O exception of some sort has occurred.
+     */
+    public static void benchmark(String testDataCompleteFilepath, int numRuns,
+        Function<TopData, Solver> solverFactory) throws IOException {
 
         Path testDataPath = Path.of(testDataCompleteFilepath);
         File testDataCompleteFile = new File(String.valueOf(testDataPath));
@@ -1097,13 +1804,11 @@ public class Algorithm {
             for (int i = 0; i < numRuns; i++) {
 
                 // get result
-                Algorithm testAlgorithm = new Algorithm(TopData.generateDataFromTOPFile(file),
-                    popSize, tourTriesMax,
-                    pCrossover, pMutate, elitistReplacementPercent, maxGenerations);
+                Solver testSolver = solverFactory.apply(TopData.generateDataFromTOPFile(file));
 
                 // CPU time measurement
                 Instant start = Instant.now();
-                Result testResult = testAlgorithm.generateRoutesFromTOPFile();
+                Result testResult = testSolver.solve();
                 Instant end = Instant.now();
                 double cpuSeconds =
                     (double) Duration.between(start, end).toNanos() / 1_000_000_000.0;
@@ -1136,59 +1841,369 @@ public class Algorithm {
     }
 
     /**
-     * The generateRoutesFromTOPFile algorithm utilises: initialisePopulation, tournamentSelection,
-     * singlePointCrossover, completeTwoOpt, addRandomPointMinAddtDistLocIfValid,
-     * iterativeLocalSearch, addOrReplace, elitistReplacement, rearrange and addMaximumPoints
-     * amongst other methods to produce solutions to TOP problem instances which are returned in the
-     * form of a Result.
+     * timeToTargetBenchmark benchmarks the genetic algorithm via the Solver timeToTargetBenchmark
+     * below, with each run solved by an Algorithm with the given parameters that stops as soon as
+     * its target is reached (see setTargetScore).
+     *
+     * @param testDataCompleteFilepath  The directory of test instances to benchmark upon. A
+     *                                  filepath for single file can also be used.
+     * @param targetScores              The target score of each instance name (the file name
+     *                                  without .txt), e.g. from TimeToTarget.readTargetScores.
+     * @param numSeeds                  The number of seeded runs per-instance.
+     * @param popSize                   The size of the population.
+     * @param tourTriesMax              The maximum number of unsuccessful tries (per-route) to
+     *                                  improve the route within the initialisePopulation phase.
+     * @param pCrossover                The probability of crossover occurring.
+     * @param pMutate                   The probability of mutation occurring.
+     * @param elitistReplacementPercent The percentage of the population that is retained from the
+     *                                  previous generation.
+     * @param maxGenerations            The maximum number of generations to complete per route.
+     * @return The TimeToTarget of each benchmarked instance name.
+     * @throws IOException Signals that an I/O exception of some sort has occurred.
+     */
+    public static Map<String, TimeToTarget> timeToTargetBenchmark(String testDataCompleteFilepath,
+        Map<String, Double> targetScores, int numSeeds, int popSize, int tourTriesMax,
+        double pCrossover, double pMutate, double elitistReplacementPercent, int maxGenerations)
+        throws IOException {
+        return timeToTargetBenchmark(testDataCompleteFilepath, targetScores, numSeeds, dataset -> {
+            Algorithm testAlgorithm = new Algorithm(dataset, popSize, tourTriesMax, pCrossover,
+                pMutate, elitistReplacementPercent, maxGenerations);
+            testAlgorithm
+                .setTargetScore(targetScores.get(dataset.getFileName().replace(".txt", "")));
+            return testAlgorithm;
+        });
+    }
+
+    /**
+     * timeToTargetBenchmark records, for every file within the testDataCompleteFilepath directory
+     * that has a target score, the distribution of the time taken to reach the target score across
+     * numSeeds runs (seeded 0 to numSeeds - 1, see Solver.setRandomSeed). A run reaches the target
+     * if the score of its Result does, so the times are those of Solvers that stop as soon as their
+     * target is reached (as the Algorithm overload above does) or of complete runs otherwise. For
+     * each instance the name, target score, success rate, mean, median, 90th percentile and maximum
+     * time-to-target in seconds are output (NaN where fewer runs than required reached the target).
+     *
+     * @param testDataCompleteFilepath The directory of test instances to benchmark upon. A
+     *                                 filepath for single file can also be used.
+     * @param targetScores             The target score of each instance name (the file name
+     *                                 without .txt), e.g. from TimeToTarget.readTargetScores.
+     * @param numSeeds                 The number of seeded runs per-instance.
+     * @param solverFactory            Creates the Solver of each run from the instance.
+     * @return The TimeToTarget of each benchmarked instance name.
+     * @throws IOException Signals that an I/O exception of some sort has occurred.
+     */
+    public static Map<String, TimeToTarget> timeToTargetBenchmark(String testDataCompleteFilepath,
+        Map<String, Double> targetScores, int numSeeds, Function<TopData, Solver> solverFactory)
+        throws IOException {
+
+        File testDataCompleteFile = new File(String.valueOf(Path.of(testDataCompleteFilepath)));
+        File[] files = new File[]{testDataCompleteFile};
+        if (testDataCompleteFile.isDirectory()) {
+            files = testDataCompleteFile.listFiles(pathname -> !pathname.isHidden());
+        }
+
+        assert files != null;
+        Arrays.sort(files);
+        Map<String, TimeToTarget> timesToTarget = new LinkedHashMap<>();
+        for (File file : files) {
+            String fileName = file.getName().replace(".txt", "");
+            if (!targetScores.containsKey(fileName)) {
+                continue;
+            }
+
+            TimeToTarget timeToTarget = new TimeToTarget(fileName, targetScores.get(fileName));
+            for (int seed = 0; seed < numSeeds; seed++) {
+                Solver testSolver = solverFactory.apply(TopData.generateDataFromTOPFile(file));
+                testSolver.setRandomSeed(seed);
+
+                Instant start = Instant.now();
+                Result testResult = testSolver.solve();
+                Instant end = Instant.now();
+                timeToTarget.record(
+                    (double) Duration.between(start, end).toNanos() / 1_000_000_000.0,
+                    testResult.getRoutesGeneratedCombinedScore());
+            }
+            timesToTarget.put(fileName, timeToTarget);
+
+            System.out.println(fileName + ", " + timeToTarget.getTargetScore() + ", "
+                + timeToTarget.getSuccessRate() + ", " + timeToTarget.getMeanSecondsToTarget()
+                + ", " + timeToTarget.getQuantile(0.5) + ", " + timeToTarget.getQuantile(0.9)
+                + ", " + timeToTarget.getQuantile(1));
+        }
+        return timesToTarget;
+    }
+
+    /**
+     * constructRouteSet randomly constructs a single RouteSet (as used within the joint
+     * population). nRoutes Routes are built via constructRoute, Points visited by an earlier Route
+     * are removed from later Routes and the RouteSet is then filled via repairRouteSet. Must be
+     * called after the Points have been prepared (see initialisePopulation).
+     *
+     * @return The constructed RouteSet.
+     */
+    public RouteSet constructRouteSet() {
+        ArrayList<Route> routes = new ArrayList<>(getnRoutes());
+        for (int r = 0; r < getnRoutes(); r++) {
+            routes.add(new Route(new ArrayList<>(constructRoute().getPoints())));
+        }
+        RouteSet routeSet = new RouteSet(routes);
+        for (int r = 0; r < getnRoutes(); r++) {
+            routeSet.removeConflicts(r);
+        }
+        repairRouteSet(routeSet);
+        return routeSet;
+    }
+
+    /**
+     * repairRouteSet inserts unvisited Points from the gHSortedPopRef into routeSet until none can
+     * be feasibly inserted, via greedy insertion with noisy insertion costs (see
+     * InsertionCache.regretInsertion) so that repairs of similar RouteSets stay diverse.
+     *
+     * @param routeSet The RouteSet to repair.
+     */
+    public void repairRouteSet(RouteSet routeSet) {
+        ArrayList<InsertionCache> routeCaches = new ArrayList<>(routeSet.getRoutes().size());
+        for (Route route : routeSet.getRoutes()) {
+            routeCaches.add(new InsertionCache(route.getPoints()));
+        }
+        if (InsertionCache.regretInsertion(routeCaches, getgHSortedPopRef(), 1, gettMax(),
+            JOINT_REPAIR_NOISE, getRand()).isEmpty()) {
+            return;
+        }
+        for (int r = 0; r < routeCaches.size(); r++) {
+            if (routeCaches.get(r).getPoints().size() != routeSet.getRoute(r).getPoints().size()) {
+                routeSet.getRoute(r).setPoints(routeCaches.get(r).getPoints());
+            }
+        }
+    }
+
+    /**
+     * routeSetTournamentSelection returns the strongest of tournamentSize RouteSets randomly
+     * selected from the routeSetPopulation.
+     *
+     * @return The selected RouteSet.
+     */
+    public RouteSet routeSetTournamentSelection() {
+        RouteSet winner = getRouteSetPopulation()
+            .get(getRand().nextInt(getRouteSetPopulation().size()));
+        for (int i = 1; i < getTournamentSize(); i++) {
+            RouteSet competitor = getRouteSetPopulation()
+                .get(getRand().nextInt(getRouteSetPopulation().size()));
+            if (RouteSet.ROUTE_SET_SCORE_COMPARATOR.compare(competitor, winner) > 0) {
+                winner = competitor;
+            }
+        }
+        return winner;
+    }
+
+    /**
+     * routeSetCrossover recombines two RouteSets across Routes. Each Route of the child is the
+     * best (highest scoring) not yet inherited Route of a randomly chosen parent, so the child
+     * inherits whole Routes from both parents. Points visited by an earlier inherited Route are
+     * removed from later Routes and the child is then filled via repairRouteSet.
+     *
+     * @param parent1 The first parent.
+     * @param parent2 The second parent.
+     * @return The child RouteSet (the parents are not changed).
+     */
+    public RouteSet routeSetCrossover(RouteSet parent1, RouteSet parent2) {
+        ArrayList<Route> routes1 = new ArrayList<>(parent1.getRoutes());
+        ArrayList<Route> routes2 = new ArrayList<>(parent2.getRoutes());
+        routes1.sort(Collections.reverseOrder(Route.ROUTE_SCORE_COMPARATOR));
+        routes2.sort(Collections.reverseOrder(Route.ROUTE_SCORE_COMPARATOR));
+        int next1 = 0;
+        int next2 = 0;
+        ArrayList<Route> childRoutes = new ArrayList<>(getnRoutes());
+        while (childRoutes.size() < routes1.size()) {
+            Route inherited;
+            if (next2 >= routes2.size() || (next1 < routes1.size() && getRand().nextBoolean())) {
+                inherited = routes1.get(next1++);
+            } else {
+                inherited = routes2.get(next2++);
+            }
+            childRoutes.add(new Route(new ArrayList<>(inherited.getPoints())));
+        }
+        RouteSet child = new RouteSet(childRoutes);
+        for (int r = 0; r < childRoutes.size(); r++) {
+            child.removeConflicts(r);
+        }
+        repairRouteSet(child);
+        return child;
+    }
+
+    /**
+     * mutateRouteSet mutates a randomly chosen Route of routeSet via the registered
+     * MutationOperators (see mutate). Any Points the Route takes from the other Routes are removed
+     * from them, the Route is then improved against another random Route via
+     * InterRouteOperators.improvePair and finally routeSet is filled via repairRouteSet.
+     *
+     * @param routeSet The RouteSet to mutate.
+     */
+    public void mutateRouteSet(RouteSet routeSet) {
+        int nSetRoutes = routeSet.getRoutes().size();
+        int routeIndex = getRand().nextInt(nSetRoutes);
+        mutate(routeSet.getRoute(routeIndex));
+        routeSet.removeConflicts(routeIndex);
+        if (nSetRoutes > 1) {
+            int otherIndex = (routeIndex + 1 + getRand().nextInt(nSetRoutes - 1)) % nSetRoutes;
+            InterRouteOperators.improvePair(routeSet.getRoute(routeIndex),
+                routeSet.getRoute(otherIndex), gettMax());
+        }
+        repairRouteSet(routeSet);
+    }
+
+    /**
+     * evolveJointRoutes evolves all nRoutes Routes jointly via a genetic algorithm whose
+     * chromosomes are RouteSets (see constructRouteSet, routeSetTournamentSelection,
+     * routeSetCrossover and mutateRouteSet) so that a single evolutionary run is needed rather than
+     * one per Route. Each generation the best elitistReplacementPercent of the previous population
+     * replace the worst children and the run ends after maxGenerations, once the
+     * ConvergenceMonitor stops it (the diversity being the fraction of distinct RouteSets) or once
+     * the upper bound (or target score) is met. The Routes of the best RouteSet found are added to
+     * the finalRoutes (and their Points removed from the candidate Points).
+     */
+    public void evolveJointRoutes() {
+        preparePopulationPoints();
+        routeSetPopulation = new ArrayList<>(getPopSize());
+        for (int i = 0; i < getPopSize(); i++) {
+            routeSetPopulation.add(constructRouteSet());
+        }
+        RouteSet best = Collections.max(routeSetPopulation, RouteSet.ROUTE_SET_SCORE_COMPARATOR)
+            .copy();
+
+        setGenerationCounter(0);
+        convergenceMonitor = new ConvergenceMonitor(getMaxGenerations() + 1, getMaxRestarts());
+        Set<Long> fingerprints = new HashSet<>();
+        while (true) {
+            ArrayList<RouteSet> children = new ArrayList<>(getPopSize());
+            for (int i = 0; i < getPopSize(); i++) {
+                RouteSet parent1 = routeSetTournamentSelection();
+                RouteSet child;
+                if (getRand().nextDouble() <= getpCrossover()) {
+                    child = routeSetCrossover(parent1, routeSetTournamentSelection());
+                } else {
+                    child = parent1.copy();
+                }
+                if (getRand().nextDouble() <= getpMutate()) {
+                    mutateRouteSet(child);
+                }
+                children.add(child);
+            }
+
+            int nRetained = Math.min((int) Math.floor(getPopSize() * getElitistReplacementPercent()),
+                children.size());
+            Util.partialSelect(routeSetPopulation, nRetained,
+                Collections.reverseOrder(RouteSet.ROUTE_SET_SCORE_COMPARATOR));
+            Util.partialSelect(children, nRetained, RouteSet.ROUTE_SET_SCORE_COMPARATOR);
+            for (int i = 0; i < nRetained; i++) {
+                children.set(i, routeSetPopulation.get(i));
+            }
+            routeSetPopulation = children;
+
+            RouteSet bestChild = Collections
+                .max(routeSetPopulation, RouteSet.ROUTE_SET_SCORE_COMPARATOR);
+            if (RouteSet.ROUTE_SET_SCORE_COMPARATOR.compare(bestChild, best) > 0) {
+                best = bestChild.copy();
+            }
+            fingerprints.clear();
+            for (RouteSet routeSet : routeSetPopulation) {
+                fingerprints.add(routeSet.getFingerprint());
+            }
+            ConvergenceMonitor.Decision decision = convergenceMonitor.update(best.getTotalScore(),
+                (double) fingerprints.size() / routeSetPopulation.size());
+
+            if (getGenerationCounter() == getMaxGenerations()
+                || decision == ConvergenceMonitor.Decision.STOP
+                || isStopScoreMet(best.getTotalScore())) {
+                break;
+            } else if (decision == ConvergenceMonitor.Decision.RESTART) {
+                int nKeep = (int) Math.ceil(routeSetPopulation.size() * getRestartKeepPercent());
+                Util.partialSelect(routeSetPopulation, nKeep,
+                    Collections.reverseOrder(RouteSet.ROUTE_SET_SCORE_COMPARATOR));
+                for (int i = nKeep; i < routeSetPopulation.size(); i++) {
+                    routeSetPopulation.set(i, constructRouteSet());
+                }
+            }
+            setGenerationCounter(getGenerationCounter() + 1);
+        }
+
+        for (Route route : best.getRoutes()) {
+            getFinalRoutes().add(route);
+            getDataset().getPoints().removeAll(route.getPoints());
+            getgHSortedPopRef().removeAll(route.getPoints());
+        }
+        rankgHSortedPopRef();
+        setnRoutesCounter(getnRoutes());
+    }
+
+    /**
+     * solve produces a solution via the genetic algorithm (see generateRoutesFromTOPFile).
+     *
+     * @return The Result of the generateRoutesFromTOPFile method.
+     */
+    @Override
+    public Result solve() {
+        return generateRoutesFromTOPFile();
+    }
+
+    /**
+     * The generateRoutesFromTOPFile algorithm utilises: preprocessInstance (if preprocessing is
+     * set), evolveJointRoutes (if jointRoutes is set), initialisePopulation, tournamentSelection,
+     * singlePointCrossover, the registered MutationOperators (completeTwoOpt,
+     * addRandomPointMinAddtDistLocIfValid, iterativeLocalSearch, addOrReplace and the
+     * IntraRouteOperators), elitistReplacement, rearrange and addMaximumPoints amongst other methods
+     * to produce solutions to TOP problem instances which are returned in the form of a Result.
      *
      * @return The Result of the generateRoutesFromTOPFile method.
      */
     public Result generateRoutesFromTOPFile() {
 
+        /*---- 0. Reduce the Candidate Points (once per instance) ----*/
+        if (isPreprocessing()) {
+            preprocessInstance();
+        }
+        /*---- 1-4. Evolve every Route jointly (if jointRoutes is set) ----*/
+        if (isJointRoutes()) {
+            evolveJointRoutes();
+        }
         while (getnRoutesCounter() < getnRoutes()) {
+            // once the upper bound (or target score) is met the remaining Routes are left empty
+            if (isStopScoreMet(0)) {
+                getFinalRoutes().add(new Route(new ArrayList<>() {{
+                    add(getStartingPoint());
+                    add(getEndingPoint());
+                }}));
+                setnRoutesCounter(getnRoutesCounter() + 1);
+                continue;
+            }
             /*---- 1. Initialise Population Section ----*/
             initialisePopulation();
             /*---- 2. Repeat (until termination condition(s) are met) ----*/
             setGenerationCounter(0);
-            setSelectedParents(new ArrayList<>());
-            setRetainedChildren(new ArrayList<>());
-            double sameScore = 0;
-            int sameScoreCounter = 0;
-            long sameScoreStopCount = Math.round(getMaxGenerations() * 0.25);
+            getSelectedParents().clear();
+            getRetainedChildren().clear();
+            getChildPopulation().clear();
+            getPopulationDiversity().clear();
+            // generations 0..maxGenerations inclusive are run unless the population converges
+            convergenceMonitor = new ConvergenceMonitor(getMaxGenerations() + 1, getMaxRestarts());
             Route bestRoute = new Route(new ArrayList<>());
             bestRoute.getPoints().add(new Point(0, -1, -1, 0));
-            while (getGenerationCounter() <= getMaxGenerations()
-                && sameScoreCounter < sameScoreStopCount) {
+            boolean terminated = false;
+            while (!terminated) {
                 /*---- 2.1 Select Parents via Tournament Selection ----*/
                 tournamentSelection();
                 /*---- 2.2 Recombine Parents ----*/
                 singlePointCrossover();
-                /*---- 2.3 Mutate Offspring ----*/
-                for (Route child : getChildPopulation()) {
-                    if (getRand().nextDouble() <= getpMutate()) {
-                        /*---- 2.3.1: 2-Opt Swap ----*/
-                        if (getRand().nextDouble() < 0.5) {
-                            completeTwoOpt(child);
-                        }
-                        /*---- 2.3.2: Add Random Node Min Additional Distance ----*/
-                        if (getRand().nextDouble() < 0.5) {
-                            addRandomPointMinAddtDistLocIfValid(child);
-                        }
-                        /*---- 2.3.3: Iterative Local Search ----*/
-                        if (getRand().nextDouble() < 0.5) {
-                            iterativeLocalSearch(child, 3);
-                        }
-                        /*---- 2.3.4: Add or Replace ----*/
-                        if (getRand().nextDouble() < 0.5) {
-                            addOrReplace(child);
-                        }
+                /*---- 2.3 Mutate Offspring via the Registered Mutation Operators ----*/
+                double effectivepMutate = getEffectivepMutate();
+                for (int i = 0; i < getChildPopulation().size(); i++) {
+                    if (getRand().nextDouble() <= effectivepMutate) {
+                        mutate(getChildPopulation().get(i));
                     }
                 }
                 /*---- 3. Select Survivors ----*/
                 elitistReplacement(getElitistReplacementPercent());
-                Route bestInterGenRoute = Collections
-                    .max(getRetainedChildren(), Route.ROUTE_SCORE_COMPARATOR);
+                Route bestInterGenRoute = getBestRetainedChild();
 
                 if (bestInterGenRoute.getTotalScore() > bestRoute.getTotalScore()) {
                     bestRoute.setPoints(new ArrayList<>(bestInterGenRoute.getPoints()));
@@ -1196,25 +2211,24 @@ public class Algorithm {
                     && bestInterGenRoute.getTotalDistance() < bestRoute.getTotalDistance()) {
                     bestRoute.setPoints(new ArrayList<>(bestInterGenRoute.getPoints()));
                 }
-
-                // early route-score-stagnation stop check
-                if (bestInterGenRoute.getTotalScore() == sameScore) {
-                    sameScoreCounter++;
-                } else {
-                    sameScore = bestInterGenRoute.getTotalScore();
-                    sameScoreCounter = 0;
-                }
                 // printMetricsPerXGenerations(1); // uncomment for debugging
 
+                // convergence-aware termination (and restart) check
+                ConvergenceMonitor.Decision decision = convergenceMonitor
+                    .update(bestRoute.getTotalScore(), getPopulationDiversity().getDiversity());
+
                 /*---- 4. Add Best Route at final perRouteGeneration to finalRoutes ----*/
                 if (getGenerationCounter() == getMaxGenerations()
-                    || sameScoreCounter >= sameScoreStopCount) {
+                    || decision == ConvergenceMonitor.Decision.STOP
+                    || isStopScoreMet(bestRoute.getTotalScore())) {
                     getFinalRoutes().add(bestRoute);
                     // remove finalRoute points from potential population
                     getDataset().getPoints().removeAll(bestRoute.getPoints());
                     getgHSortedPopRef().removeAll(bestRoute.getPoints());
-                } else {
-                    Collections.shuffle(getRetainedChildren());
+                    rankgHSortedPopRef();
+                    terminated = true;
+                } else if (decision == ConvergenceMonitor.Decision.RESTART) {
+                    restartPopulation();
                 }
                 setGenerationCounter(getGenerationCounter() + 1);
             }
@@ -1223,10 +2237,13 @@ public class Algorithm {
         /*---- 5. Creating Space & Adding Additional Nodes if Possible to Final Routes ----*/
         rearrange(getFinalRoutes());
         addMaximumPoints(getFinalRoutes());
+        getgHSortedPopRef().removeAll(regretInsertion(getFinalRoutes(), getgHSortedPopRef(), 2));
 
         Result algorithmResult = new Result(getDataset(), getPopSize(), getTourTriesMax(),
             getpCrossover(), getpMutate(),
             getElitistReplacementPercent(), getMaxGenerations(), getFinalRoutes());
+        algorithmResult.setUpperBound(getUpperBound());
+        algorithmResult.setPreprocessor(getPreprocessor());
 
         // algorithmResult.printFinalRoutesAndScores(); // uncomment for debugging
         return algorithmResult;
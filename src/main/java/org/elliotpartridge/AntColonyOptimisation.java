@@ -0,0 +1,362 @@
+package org.elliotpartridge;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+/**
+ * AntColonyOptimisation solves TOP problem instances via a MAX-MIN Ant System. Each iteration nAnts
+ * ants build complete solutions (all nRoutes Routes) concurrently, one ant per parallel stream
+ * task, by repeatedly moving from the current Point to a feasible unvisited Point chosen with
+ * probability proportional to pheromone * (score / distance) ^ BETA. Each ant's Routes are then
+ * shortened via TwoOpt and filled via greedy insertion (see InsertionCache.regretInsertion).
+ * <p>
+ * Ants only read the shared pheromone and heuristic matrices whilst constructing, so construction
+ * needs no locking. Pheromone is updated in a separate batched phase once every ant has finished:
+ * rows of the pheromone matrix are evaporated, deposited upon (by the iteration best solution, or
+ * every GLOBAL_BEST_FREQUENCY iterations the best solution found) and clamped to [tauMin, tauMax]
+ * in parallel, each row being written by a single task so the update is also lock-free. Trails
+ * are reset to tauMax after RESTART_INTERVAL iterations without a new best solution.
+ * <p>
+ * Each ant draws from its own Random seeded from rand before construction begins, so results are
+ * reproducible for a given seed regardless of the number of threads.
+ * <p>
+ * Note, MAX-MIN Ant System adapted from: (Stützle, T. and Hoos, H. H., 2000, MAX-MIN Ant System).
+ */
+public class AntColonyOptimisation extends BoundedTopSolver {
+
+    /**
+     * DEFAULT_N_ANTS is the default number of ants per iteration.
+     */
+    public static final int DEFAULT_N_ANTS = 32;
+
+    /**
+     * DEFAULT_MAX_ITERATIONS is the default maximum number of iterations.
+     */
+    public static final int DEFAULT_MAX_ITERATIONS = 200;
+
+    /**
+     * BETA is the exponent applied to the score / distance heuristic (pheromone has exponent 1).
+     */
+    public static final double BETA = 2;
+
+    /**
+     * EVAPORATION_RATE is the proportion of pheromone that evaporates each iteration.
+     */
+    public static final double EVAPORATION_RATE = 0.05;
+
+    /**
+     * GLOBAL_BEST_FREQUENCY is the number of iterations between deposits by the best solution
+     * found (the iteration best solution deposits otherwise).
+     */
+    public static final int GLOBAL_BEST_FREQUENCY = 5;
+
+    /**
+     * RESTART_INTERVAL is the number of iterations without a new best solution after which all
+     * trails are reset to tauMax.
+     */
+    public static final int RESTART_INTERVAL = 50;
+
+    private static final double EPSILON = 1e-9;
+    // node indexes of the starting and ending Points, candidate Points follow
+    private static final int START = 0;
+    private static final int END = 1;
+
+    private int nAnts;
+    private int maxIterations;
+    private int iterationCounter;
+
+    // search state, built by solve
+    private Point[] nodes;
+    private double[] distances;
+    private double[] heuristic;
+    private double[] pheromone;
+    private IdentityHashMap<Point, Integer> nodeIndexes;
+
+    /**
+     * AntColonyOptimisation constructor.
+     *
+     * @param dataset The TOP instance to solve, its first and last Points are removed.
+     */
+    public AntColonyOptimisation(TopData dataset) {
+        super(dataset);
+        this.nAnts = DEFAULT_N_ANTS;
+        this.maxIterations = DEFAULT_MAX_ITERATIONS;
+        this.iterationCounter = 0;
+    }
+
+    /**
+     * nAnts getter.
+     *
+     * @return The number of ants per iteration.
+     */
+    public int getnAnts() {
+        return nAnts;
+    }
+
+    /**
+     * nAnts setter.
+     *
+     * @param nAnts The number of ants per iteration.
+     */
+    public void setnAnts(int nAnts) {
+        if (nAnts < 1) {
+            throw new IllegalArgumentException("nAnts cannot be less than 1.");
+        }
+        this.nAnts = nAnts;
+    }
+
+    /**
+     * maxIterations getter.
+     *
+     * @return The maximum number of iterations.
+     */
+    public int getMaxIterations() {
+        return maxIterations;
+    }
+
+    /**
+     * maxIterations setter.
+     *
+     * @param maxIterations The maximum number of iterations.
+     */
+    public void setMaxIterations(int maxIterations) {
+        if (maxIterations < 0) {
+            throw new IllegalArgumentException("maxIterations cannot be negative.");
+        }
+        this.maxIterations = maxIterations;
+    }
+
+    /**
+     * iterationCounter getter.
+     *
+     * @return The number of iterations completed by the last call to solve.
+     */
+    public int getIterationCounter() {
+        return iterationCounter;
+    }
+
+    /**
+     * solve runs the ant colony until maxIterations or (if earlyOptimalityStop is set) the
+     * upperBound is reached.
+     *
+     * @return The Result containing the best Routes found.
+     */
+    @Override
+    public Result solve() {
+        ArrayList<Point> candidates = getPreprocessor().getPoints();
+        int n = candidates.size() + 2;
+        nodes = new Point[n];
+        nodes[START] = getStartingPoint();
+        nodes[END] = getEndingPoint();
+        for (int i = 2; i < n; i++) {
+            nodes[i] = candidates.get(i - 2);
+        }
+        nodeIndexes = new IdentityHashMap<>();
+        for (int i = 0; i < n; i++) {
+            nodeIndexes.put(nodes[i], i);
+        }
+        distances = new double[n * n];
+        heuristic = new double[n * n];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                distances[i * n + j] = Util.euclideanDistance(nodes[i], nodes[j]);
+                heuristic[i * n + j] = j < 2 ? 0
+                    : Math.pow(nodes[j].getScore() / (distances[i * n + j] + EPSILON), BETA);
+            }
+        }
+
+        Ant best = new Ant(new int[getnRoutes()][0], 0, 0);
+        double tauMax = 1;
+        pheromone = new double[n * n];
+        Arrays.fill(pheromone, tauMax);
+        int lastImprovement = 0;
+        for (iterationCounter = 0; iterationCounter < maxIterations; iterationCounter++) {
+            if (n == 2 || (isEarlyOptimalityStop()
+                && best.score >= getUpperBound() - EPSILON)) {
+                break;
+            }
+            long[] seeds = new long[nAnts];
+            for (int a = 0; a < nAnts; a++) {
+                seeds[a] = getRand().nextLong();
+            }
+            Ant[] ants = IntStream.range(0, nAnts).parallel()
+                .mapToObj(a -> constructAnt(new Random(seeds[a]), candidates))
+                .toArray(Ant[]::new);
+
+            Ant iterationBest = ants[0];
+            for (Ant ant : ants) {
+                if (ant.isBetterThan(iterationBest)) {
+                    iterationBest = ant;
+                }
+            }
+            if (iterationBest.isBetterThan(best)) {
+                best = iterationBest;
+                lastImprovement = iterationCounter;
+            }
+
+            double normaliser = Math.max(getUpperBound(), EPSILON);
+            tauMax = Math.max(best.score, EPSILON) / (EVAPORATION_RATE * normaliser);
+            if (iterationCounter - lastImprovement >= RESTART_INTERVAL) {
+                Arrays.fill(pheromone, tauMax);
+                lastImprovement = iterationCounter;
+                continue;
+            }
+            Ant depositor = iterationCounter % GLOBAL_BEST_FREQUENCY == 0 ? best : iterationBest;
+            updatePheromone(depositor, depositor.score / normaliser, tauMax, tauMax / (2 * n));
+        }
+
+        ArrayList<Route> routes = new ArrayList<>(getnRoutes());
+        for (int[] route : best.routes) {
+            ArrayList<Point> points = new ArrayList<>(route.length + 2);
+            points.add(getStartingPoint());
+            for (int node : route) {
+                points.add(nodes[node]);
+            }
+            points.add(getEndingPoint());
+            routes.add(new Route(points));
+        }
+        Result result = new Result(getDataset(), routes);
+        result.setUpperBound(getUpperBound());
+        result.setPreprocessor(getPreprocessor());
+        return result;
+    }
+
+    /**
+     * constructAnt builds one ant's Routes one at a time, each from the starting Point until no
+     * unvisited Point can be visited before returning to the ending Point within tMax, then
+     * shortens each Route via TwoOpt and greedily inserts any remaining candidates. Only the shared
+     * matrices are read, so ants may be constructed concurrently.
+     */
+    private Ant constructAnt(Random antRand, ArrayList<Point> candidates) {
+        int n = nodes.length;
+        boolean[] visited = new boolean[n];
+        double[] weights = new double[n];
+        ArrayList<InsertionCache> routeCaches = new ArrayList<>(getnRoutes());
+        for (int r = 0; r < getnRoutes(); r++) {
+            ArrayList<Point> points = new ArrayList<>();
+            points.add(getStartingPoint());
+            int current = START;
+            double routeDistance = 0;
+            while (true) {
+                double totalWeight = 0;
+                for (int j = 2; j < n; j++) {
+                    weights[j] = 0;
+                    if (!visited[j] && routeDistance + distances[current * n + j]
+                        + distances[j * n + END] <= gettMax()) {
+                        weights[j] = pheromone[current * n + j] * heuristic[current * n + j]
+                            + EPSILON;
+                        totalWeight += weights[j];
+                    }
+                }
+                if (totalWeight == 0) {
+                    break;
+                }
+                double target = antRand.nextDouble() * totalWeight;
+                int chosen = -1;
+                for (int j = 2; j < n && target >= 0; j++) {
+                    if (weights[j] > 0) {
+                        chosen = j;
+                        target -= weights[j];
+                    }
+                }
+                visited[chosen] = true;
+                routeDistance += distances[current * n + chosen];
+                current = chosen;
+                points.add(nodes[chosen]);
+            }
+            points.add(getEndingPoint());
+            TwoOpt twoOpt = new TwoOpt(points, TwoOpt.DEFAULT_NEIGHBOUR_LIST_SIZE);
+            twoOpt.optimise();
+            routeCaches.add(new InsertionCache(twoOpt.getPoints()));
+        }
+        InsertionCache.regretInsertion(routeCaches, candidates, 1, gettMax());
+
+        int[][] routes = new int[getnRoutes()][];
+        double score = 0;
+        double distance = 0;
+        for (int r = 0; r < getnRoutes(); r++) {
+            ArrayList<Point> points = routeCaches.get(r).getPoints();
+            routes[r] = new int[points.size() - 2];
+            for (int i = 0; i < routes[r].length; i++) {
+                routes[r][i] = nodeIndexes.get(points.get(i + 1));
+                score += points.get(i + 1).getScore();
+            }
+            distance += routeCaches.get(r).getTotalDistance();
+        }
+        return new Ant(routes, score, distance);
+    }
+
+    /**
+     * updatePheromone evaporates every trail, deposits deposit upon each edge of depositor's Routes
+     * and clamps every trail to [tauMin, tauMax]. Rows are updated in parallel, with each row
+     * written by a single task.
+     */
+    private void updatePheromone(Ant depositor, double deposit, double tauMax, double tauMin) {
+        int n = nodes.length;
+        // the successor of each node within depositor, the starting Point has one per Route
+        int[] successors = new int[n];
+        Arrays.fill(successors, -1);
+        int[] firstNodes = new int[getnRoutes()];
+        for (int r = 0; r < getnRoutes(); r++) {
+            int previousNode = START;
+            for (int node : depositor.routes[r]) {
+                if (previousNode == START) {
+                    firstNodes[r] = node;
+                } else {
+                    successors[previousNode] = node;
+                }
+                previousNode = node;
+            }
+            if (previousNode == START) {
+                firstNodes[r] = END;
+            } else {
+                successors[previousNode] = END;
+            }
+        }
+
+        IntStream.range(0, n).parallel().forEach(i -> {
+            int row = i * n;
+            for (int j = 0; j < n; j++) {
+                pheromone[row + j] *= 1 - EVAPORATION_RATE;
+            }
+            if (i == START) {
+                for (int firstNode : firstNodes) {
+                    pheromone[row + firstNode] += deposit;
+                }
+            } else if (successors[i] != -1) {
+                pheromone[row + successors[i]] += deposit;
+            }
+            for (int j = 0; j < n; j++) {
+                pheromone[row + j] = Math.min(tauMax, Math.max(tauMin, pheromone[row + j]));
+            }
+        });
+    }
+
+    /**
+     * Ant stores the Routes (as node indexes) built by one ant.
+     */
+    private static final class Ant {
+
+        final int[][] routes;
+        final double score;
+        final double distance;
+
+        Ant(int[][] routes, double score, double distance) {
+            this.routes = routes;
+            this.score = score;
+            this.distance = distance;
+        }
+
+        /**
+         * isBetterThan returns true if the Ant has a higher score than other, or an equal score
+         * and a shorter total distance.
+         */
+        boolean isBetterThan(Ant other) {
+            return score > other.score + EPSILON
+                || (score > other.score - EPSILON && distance < other.distance - EPSILON);
+        }
+    }
+}
@@ -3,6 +3,7 @@ package org.elliotpartridge;
 import java.io.File;
 import java.io.IOException;
 import java.util.Comparator;
+import java.util.List;
 import javafx.application.Application;
 import javafx.collections.FXCollections;
 import javafx.event.ActionEvent;
@@ -14,6 +15,7 @@ import javafx.scene.chart.NumberAxis;
 import javafx.scene.chart.ScatterChart;
 import javafx.scene.chart.XYChart;
 import javafx.scene.control.Button;
+import javafx.scene.control.ComboBox;
 import javafx.scene.control.Hyperlink;
 import javafx.scene.control.Separator;
 import javafx.scene.control.Spinner;
@@ -53,6 +55,23 @@ public class App extends Application {
     final NumberAxis lineYAxis = new NumberAxis();
     final LineChart<Number, Number> lineChart = new LineChart<>(lineXAxis, lineYAxis);
 
+    // engines selectable via engineComboBox, the first is the default
+    static final String GENETIC_ALGORITHM = "Genetic Algorithm";
+    static final String MULTILEVEL_REFINEMENT = "Multilevel Refinement";
+    static final String ADAPTIVE_LARGE_NEIGHBOURHOOD_SEARCH = "Adaptive Large Neighbourhood Search";
+    static final String GRANULAR_TABU_SEARCH = "Granular Tabu Search";
+    static final String ANT_COLONY_OPTIMISATION = "Ant Colony Optimisation";
+    static final String BRANCH_AND_BOUND = "Branch and Bound";
+    static final String SPATIAL_DECOMPOSITION = "Spatial Decomposition";
+    static final String AUTOMATIC = "Automatic (by Number of Points)";
+    static final List<String> ENGINES = List.of(AUTOMATIC, GENETIC_ALGORITHM,
+        MULTILEVEL_REFINEMENT, ADAPTIVE_LARGE_NEIGHBOURHOOD_SEARCH, GRANULAR_TABU_SEARCH,
+        ANT_COLONY_OPTIMISATION, BRANCH_AND_BOUND, SPATIAL_DECOMPOSITION);
+    // engines that use the Algorithm Parameters
+    static final List<String> PARAMETERISED_ENGINES = List.of(GENETIC_ALGORITHM,
+        MULTILEVEL_REFINEMENT, SPATIAL_DECOMPOSITION);
+
+    ComboBox<String> engineComboBox;
     Spinner<Integer> popSizeSpinner;
     Spinner<Integer> tourTriesSpinner;
     Spinner<Integer> pCrossoverSpinner;
@@ -137,6 +156,11 @@ public class App extends Application {
 
         Separator parameterSeparator = new Separator();
         parameterSeparator.setStyle("-fx-background-color: darkgray;");
+        Text engineTitle = new Text("Engine");
+        engineTitle.setFont(Font.font("Arial", FontWeight.BOLD, 15));
+        engineComboBox = new ComboBox<>(FXCollections.observableArrayList(ENGINES));
+        engineComboBox.setValue(ENGINES.get(0));
+
         Text parameterTitle = new Text("Algorithm Parameters");
         parameterTitle.setFont(Font.font("Arial", FontWeight.BOLD, 15));
 
@@ -179,7 +203,7 @@ public class App extends Application {
         VBox resultVbox = new VBox();
         HBox resultHBox = new HBox();
         resultHBox.setAlignment(Pos.CENTER);
-        Text resultHeading = new Text("Score: ");
+        Text resultHeading = new Text("Engine: \nScore: ");
         resultHeading.setFont(Font.font("Arial"));
         resultHeading.setFill(Color.DIMGRAY);
         resultText = new Text("    ");
@@ -190,7 +214,7 @@ public class App extends Application {
 
         inputVBox.getChildren()
             .addAll(dataTitle, processData, topFileInfoHyperlink, dataErrorText, dataInfoSeparator,
-                dataInfoVbox, parameterSeparator,
+                dataInfoVbox, parameterSeparator, engineTitle, engineComboBox,
                 parameterTitle, popSizeTitle, popSizeSpinner, tourTriesTitle, tourTriesSpinner,
                 pCrossoverTitle, pCrossoverSpinner, pMutateTitle, pMutateSpinner,
                 elitistReplacementTitle,
@@ -274,6 +298,11 @@ public class App extends Application {
             }
         });
 
+        // disable the Algorithm Parameters for engines that do not use them
+        engineComboBox.setOnAction((ActionEvent e) -> {
+            updateParameterSpinners();
+        });
+
         // run Algorithm
         runAlgorithm.setOnAction((ActionEvent e) -> {
             clearCharts();
@@ -312,6 +341,7 @@ public class App extends Application {
                 .add(new XYChart.Data<>(p.getLongitude(), p.getLatitude(), p.getId()));
         }
         scatterChart.setData(FXCollections.observableArrayList(allPointsSeries));
+        updateParameterSpinners();
 
         double minScore = (dataset.getPoints().stream().min(Comparator.comparing(Point::getScore))
             .orElseThrow(IllegalArgumentException::new)).getScore();
@@ -373,23 +403,109 @@ public class App extends Application {
         resultText.setText("    ");
     }
 
+    /**
+     * selectedEngine returns the engine selected in engineComboBox, resolving AUTOMATIC via
+     * automaticEngine once a dataset has been loaded.
+     *
+     * @return The engine (AUTOMATIC only if no dataset has been loaded).
+     */
+    private String selectedEngine() {
+        if (engineComboBox.getValue().equals(AUTOMATIC) && dataset != null) {
+            return automaticEngine(dataset);
+        }
+        return engineComboBox.getValue();
+    }
+
+    /**
+     * updateParameterSpinners disables the Algorithm Parameters if the selected engine (see
+     * selectedEngine) does not use them.
+     */
+    private void updateParameterSpinners() {
+        String engine = selectedEngine();
+        boolean parametersUnused = !engine.equals(AUTOMATIC)
+            && !PARAMETERISED_ENGINES.contains(engine);
+        for (Spinner<Integer> spinner : List.of(popSizeSpinner, tourTriesSpinner,
+            pCrossoverSpinner, pMutateSpinner, elitistReplacementSpinner, maxGenerationsSpinner)) {
+            spinner.setDisable(parametersUnused);
+        }
+    }
+
+    /**
+     * automaticEngine selects the engine for dataset by its number of Points: instances with at
+     * least SpatialDecomposition.LARGE_INSTANCE_N_POINTS Points are solved via
+     * SpatialDecomposition, instances with at least
+     * AdaptiveLargeNeighbourhoodSearch.LARGE_INSTANCE_N_POINTS Points via
+     * AdaptiveLargeNeighbourhoodSearch, instances with at most
+     * BranchAndBound.SMALL_INSTANCE_N_POINTS Points exactly via BranchAndBound and the remainder
+     * via Algorithm.
+     *
+     * @param dataset The TOP instance to solve.
+     * @return The engine (one of ENGINES other than AUTOMATIC).
+     */
+    static String automaticEngine(TopData dataset) {
+        if (dataset.getnPoints() >= SpatialDecomposition.LARGE_INSTANCE_N_POINTS) {
+            return SPATIAL_DECOMPOSITION;
+        } else if (dataset.getnPoints()
+            >= AdaptiveLargeNeighbourhoodSearch.LARGE_INSTANCE_N_POINTS) {
+            return ADAPTIVE_LARGE_NEIGHBOURHOOD_SEARCH;
+        } else if (dataset.getnPoints() <= BranchAndBound.SMALL_INSTANCE_N_POINTS) {
+            return BRANCH_AND_BOUND;
+        }
+        return GENETIC_ALGORITHM;
+    }
+
+    /**
+     * createSolver creates the Solver for engine on dataset, with the Algorithm Parameters for
+     * the engines that use them.
+     *
+     * @param engine  The engine (one of ENGINES other than AUTOMATIC).
+     * @param dataset The TOP instance to solve.
+     * @return The Solver.
+     */
+    private Solver createSolver(String engine, TopData dataset) {
+        switch (engine) {
+            case MULTILEVEL_REFINEMENT:
+                return new MultilevelRefinement(dataset, popSizeSpinner.getValue(),
+                    tourTriesSpinner.getValue(),
+                    pCrossoverSpinner.getValue() / 100., pMutateSpinner.getValue() / 100.,
+                    elitistReplacementSpinner.getValue() / 100., maxGenerationsSpinner.getValue());
+            case ADAPTIVE_LARGE_NEIGHBOURHOOD_SEARCH:
+                return new AdaptiveLargeNeighbourhoodSearch(dataset);
+            case GRANULAR_TABU_SEARCH:
+                return new GranularTabuSearch(dataset);
+            case ANT_COLONY_OPTIMISATION:
+                return new AntColonyOptimisation(dataset);
+            case BRANCH_AND_BOUND:
+                return new BranchAndBound(dataset);
+            case SPATIAL_DECOMPOSITION:
+                return new SpatialDecomposition(dataset, popSizeSpinner.getValue(),
+                    tourTriesSpinner.getValue(),
+                    pCrossoverSpinner.getValue() / 100., pMutateSpinner.getValue() / 100.,
+                    elitistReplacementSpinner.getValue() / 100., maxGenerationsSpinner.getValue());
+            default:
+                return new Algorithm(dataset, popSizeSpinner.getValue(),
+                    tourTriesSpinner.getValue(),
+                    pCrossoverSpinner.getValue() / 100., pMutateSpinner.getValue() / 100.,
+                    elitistReplacementSpinner.getValue() / 100., maxGenerationsSpinner.getValue());
+        }
+    }
+
     /**
      * runAlgorithm is the GUI-specific equivalent of generateRoutesFromTOPFile generating a Result
-     * as before and ensuring that this is displayed on the GUI correctly.
+     * via the engine selected in engineComboBox (see automaticEngine for AUTOMATIC) and ensuring
+     * that this, and the engine used, is displayed on the GUI correctly.
      * <p>
      * Note, hide Symbols code taken from: (https://stackoverflow.com/a/39674496, BadVegan, 2016)
      */
     private void runAlgorithm() {
 
-        Algorithm algorithm = new Algorithm(dataset, popSizeSpinner.getValue(),
-            tourTriesSpinner.getValue(),
-            pCrossoverSpinner.getValue() / 100., pMutateSpinner.getValue() / 100.,
-            elitistReplacementSpinner.getValue() / 100., maxGenerationsSpinner.getValue());
+        String engine = selectedEngine();
+        Solver solver = createSolver(engine, dataset);
         dataInfoText.setText(
             dataset.getFileName() + "\n" + dataset.getnPoints() + "\n" + dataset.getnRoutes() + "\n"
                 + dataset.gettMax());
-        Result result = algorithm.generateRoutesFromTOPFile();
-        resultText.setText(String.valueOf(result.getRoutesGeneratedCombinedScore()));
+        Result result = solver.solve();
+        resultText.setText(engine + "\n" + result.getRoutesGeneratedCombinedScore());
 
         // loop through routes created and create Series from them
         for (int i = 0; i < result.getRoutesGenerated().size(); i++) {
@@ -0,0 +1,78 @@
+package org.elliotpartridge;
+
+/**
+ * BoundedTopSolver is a TopSolver that preprocesses the candidate Points (see
+ * InstancePreprocessor) and bounds the total score of the instance (see UpperBound) on
+ * construction, so that the search can stop as soon as a solution meeting the bound is found.
+ */
+public abstract class BoundedTopSolver extends TopSolver {
+
+    private final InstancePreprocessor preprocessor;
+    private final double upperBound;
+    private boolean earlyOptimalityStop;
+
+    /**
+     * BoundedTopSolver constructor.
+     *
+     * @param dataset The TOP instance to solve, its first and last Points are removed.
+     */
+    protected BoundedTopSolver(TopData dataset) {
+        super(dataset);
+        this.preprocessor = new InstancePreprocessor(getStartingPoint(), getEndingPoint(),
+            getDataset().getPoints(), gettMax());
+        this.upperBound = UpperBound.calculate(getStartingPoint(), getEndingPoint(),
+            preprocessor.getPoints(), getnRoutes(), gettMax());
+        this.earlyOptimalityStop = true;
+    }
+
+    /**
+     * BoundedTopSolver constructor for a Solver working on the same instance (sharing the same
+     * Random, preprocessor and upperBound) as instance.
+     *
+     * @param instance The BoundedTopSolver whose instance is shared.
+     */
+    protected BoundedTopSolver(BoundedTopSolver instance) {
+        super(instance);
+        this.preprocessor = instance.getPreprocessor();
+        this.upperBound = instance.getUpperBound();
+        this.earlyOptimalityStop = instance.isEarlyOptimalityStop();
+    }
+
+    /**
+     * preprocessor getter.
+     *
+     * @return The InstancePreprocessor that reduced the candidate Points.
+     */
+    public InstancePreprocessor getPreprocessor() {
+        return preprocessor;
+    }
+
+    /**
+     * upperBound getter.
+     *
+     * @return The upper bound on the total score of the dataset (see UpperBound).
+     */
+    public double getUpperBound() {
+        return upperBound;
+    }
+
+    /**
+     * earlyOptimalityStop getter.
+     *
+     * @return true if the search stops once a solution meeting the upperBound is found, otherwise
+     * false.
+     */
+    public boolean isEarlyOptimalityStop() {
+        return earlyOptimalityStop;
+    }
+
+    /**
+     * earlyOptimalityStop setter.
+     *
+     * @param earlyOptimalityStop true if the search should stop once a solution meeting the
+     *                            upperBound is found, otherwise false.
+     */
+    public void setEarlyOptimalityStop(boolean earlyOptimalityStop) {
+        this.earlyOptimalityStop = earlyOptimalityStop;
+    }
+}
@@ -0,0 +1,553 @@
+package org.elliotpartridge;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * BranchAndBound solves small TOP problem instances exactly. Routes are built one at a time by
+ * depth-first search: each node of the search tree either extends the current Route with a
+ * feasible unvisited Point or closes it and starts the next Route. Every node is itself a complete
+ * solution (the remaining Routes being empty), so the incumbent is updated throughout. Subtrees are
+ * pruned by:
+ * <p>
+ * 1. Score bounds: the score collected so far plus the fractional knapsack bound of UpperBound
+ * over the unvisited Points that can still be reached, with the remaining budget of the current
+ * Route plus tMax per remaining Route as capacity.
+ * <p>
+ * 2. Symmetry: Routes are interchangeable so the first Point of each Route must have a higher
+ * index than the first Point of the previous Route.
+ * <p>
+ * 3. Dominance: two nodes that have visited the same Points and are at the same Point of the same
+ * Route are interchangeable, so a node is discarded if another has reached the same state with a
+ * current Route no longer than its own.
+ * <p>
+ * The first SPLIT_DEPTH levels of the tree are split into ForkJoin subtasks so that idle worker
+ * threads steal unexplored subtrees, with the incumbent and dominance labels shared between them.
+ * The incumbent is initialised by GranularTabuSearch (over the same preprocessed instance), and
+ * if nodeLimit or timeLimit is reached before the tree is exhausted the best solution found so far
+ * is returned without proof of optimality.
+ */
+public class BranchAndBound extends BoundedTopSolver {
+
+    /**
+     * SMALL_INSTANCE_N_POINTS is the number of Points (including the starting and ending Points) at
+     * or below which App's automatic engine selection uses BranchAndBound.
+     */
+    public static final int SMALL_INSTANCE_N_POINTS = 40;
+
+    /**
+     * MAX_EXACT_POINTS is the maximum number of candidate Points (after preprocessing) for which an
+     * exact search is attempted, larger instances return the heuristic solution.
+     */
+    public static final int MAX_EXACT_POINTS = 64;
+
+    /**
+     * DEFAULT_NODE_LIMIT is the default maximum number of search tree nodes explored.
+     */
+    public static final long DEFAULT_NODE_LIMIT = 5_000_000;
+
+    /**
+     * DEFAULT_TIME_LIMIT is the default maximum search time in milliseconds.
+     */
+    public static final long DEFAULT_TIME_LIMIT = 10_000;
+
+    /**
+     * MAX_LABELS is the maximum number of dominance labels recorded (each costs roughly 100 bytes,
+     * so the label map is bounded independently of nodeLimit). Once reached, further nodes are
+     * still checked against the recorded labels but no new labels are recorded.
+     */
+    public static final int MAX_LABELS = 1 << 18;
+
+    /**
+     * SPLIT_DEPTH is the number of levels of the search tree split into ForkJoin subtasks.
+     */
+    public static final int SPLIT_DEPTH = 3;
+
+    private static final double EPSILON = 1e-9;
+    // node indexes of the starting and ending Points, candidate Points follow
+    private static final int START = 0;
+    private static final int END = 1;
+
+    private final GranularTabuSearch heuristic;
+    private long nodeLimit;
+    private long timeLimit;
+    private final AtomicLong nodeCounter;
+
+    // search state, built by solve
+    private Point[] nodes;
+    private double[] distances;
+    private double[] weights;
+    private int[] boundOrder;
+    private boolean integerScores;
+    private ConcurrentHashMap<Label, Double> labels;
+    private long deadline;
+    private volatile boolean aborted;
+    private volatile double bestScore;
+    private int[] bestPath;
+
+    /**
+     * BranchAndBound constructor. The GranularTabuSearch used to find the initial incumbent shares
+     * the instance (and rand) of the BranchAndBound.
+     *
+     * @param dataset The TOP instance to solve, its first and last Points are removed.
+     */
+    public BranchAndBound(TopData dataset) {
+        super(dataset);
+        this.heuristic = new GranularTabuSearch(this);
+        this.nodeLimit = DEFAULT_NODE_LIMIT;
+        this.timeLimit = DEFAULT_TIME_LIMIT;
+        this.nodeCounter = new AtomicLong();
+    }
+
+    /**
+     * heuristic getter.
+     *
+     * @return The GranularTabuSearch used to find the initial incumbent (and the fallback
+     * solution).
+     */
+    public GranularTabuSearch getHeuristic() {
+        return heuristic;
+    }
+
+    /**
+     * nodeLimit getter.
+     *
+     * @return The maximum number of search tree nodes explored.
+     */
+    public long getNodeLimit() {
+        return nodeLimit;
+    }
+
+    /**
+     * nodeLimit setter.
+     *
+     * @param nodeLimit The maximum number of search tree nodes explored.
+     */
+    public void setNodeLimit(long nodeLimit) {
+        if (nodeLimit < 1) {
+            throw new IllegalArgumentException("nodeLimit cannot be less than 1.");
+        }
+        this.nodeLimit = nodeLimit;
+    }
+
+    /**
+     * timeLimit getter.
+     *
+     * @return The maximum search time in milliseconds.
+     */
+    public long getTimeLimit() {
+        return timeLimit;
+    }
+
+    /**
+     * timeLimit setter.
+     *
+     * @param timeLimit The maximum search time in milliseconds.
+     */
+    public void setTimeLimit(long timeLimit) {
+        if (timeLimit < 1) {
+            throw new IllegalArgumentException("timeLimit cannot be less than 1.");
+        }
+        this.timeLimit = timeLimit;
+    }
+
+    /**
+     * nodeCounter getter.
+     *
+     * @return The number of search tree nodes explored by the last call to solve.
+     */
+    public long getNodeCounter() {
+        return nodeCounter.get();
+    }
+
+    /**
+     * solve finds an initial incumbent via the heuristic then, if the instance has at most
+     * MAX_EXACT_POINTS candidate Points, searches for a better solution until the tree is
+     * exhausted (proving optimality, in which case the Result's upper bound is set to its score)
+     * or nodeLimit or timeLimit is reached.
+     *
+     * @return The Result containing the best Routes found.
+     */
+    @Override
+    public Result solve() {
+        getHeuristic().setEarlyOptimalityStop(isEarlyOptimalityStop());
+        Result heuristicResult = getHeuristic().solve();
+        ArrayList<Point> candidates = getPreprocessor().getPoints();
+        nodeCounter.set(0);
+        if (candidates.size() > MAX_EXACT_POINTS) {
+            return heuristicResult;
+        }
+
+        int n = candidates.size() + 2;
+        nodes = new Point[n];
+        nodes[START] = getStartingPoint();
+        nodes[END] = getEndingPoint();
+        for (int i = 2; i < n; i++) {
+            nodes[i] = candidates.get(i - 2);
+        }
+        distances = new double[n * n];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                distances[i * n + j] = Util.euclideanDistance(nodes[i], nodes[j]);
+            }
+        }
+        // half the distance to the two nearest Points is the least distance a visit can use
+        NeighbourLists nearest = new NeighbourLists(Arrays.asList(nodes), 2);
+        weights = new double[n];
+        integerScores = true;
+        Integer[] order = new Integer[n - 2];
+        for (int i = 2; i < n; i++) {
+            for (int neighbour : nearest.getNeighbours(i)) {
+                weights[i] += distances[i * n + neighbour] / 2;
+            }
+            integerScores &= nodes[i].getScore() == Math.rint(nodes[i].getScore());
+            order[i - 2] = i;
+        }
+        Arrays.sort(order, (i, j) -> Double.compare(nodes[j].getScore() * weights[i],
+            nodes[i].getScore() * weights[j]));
+        boundOrder = Arrays.stream(order).mapToInt(Integer::intValue).toArray();
+
+        bestScore = heuristicResult.getRoutesGeneratedCombinedScore();
+        bestPath = null;
+        labels = new ConcurrentHashMap<>();
+        aborted = false;
+        deadline = System.nanoTime() + timeLimit * 1_000_000;
+        State root = new State(n + getnRoutes());
+        ForkJoinPool.commonPool().invoke(new SearchTask(root, 0));
+
+        Result result;
+        if (bestPath == null) {
+            result = heuristicResult;
+        } else {
+            result = new Result(getDataset(), toRoutes(bestPath));
+            result.setPreprocessor(getPreprocessor());
+            result.setUpperBound(getUpperBound());
+        }
+        if (!aborted) {
+            result.setOptimalityProven(true);
+            result.setUpperBound(result.getRoutesGeneratedCombinedScore());
+        }
+        labels = null;
+        return result;
+    }
+
+    /**
+     * SearchTask explores the subtree below state, splitting it into further SearchTasks whilst
+     * depth is below SPLIT_DEPTH and searching it sequentially otherwise.
+     */
+    private final class SearchTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final State state;
+        private final int depth;
+
+        SearchTask(State state, int depth) {
+            this.state = state;
+            this.depth = depth;
+        }
+
+        @Override
+        protected void compute() {
+            if (depth >= SPLIT_DEPTH) {
+                search(state);
+                return;
+            }
+            if (!visit(state)) {
+                return;
+            }
+            ArrayList<SearchTask> subtasks = new ArrayList<>();
+            for (int point : children(state)) {
+                State child = state.copy();
+                child.extend(point);
+                subtasks.add(new SearchTask(child, depth + 1));
+            }
+            if (canClose(state)) {
+                State child = state.copy();
+                child.close();
+                subtasks.add(new SearchTask(child, depth + 1));
+            }
+            invokeAll(subtasks);
+        }
+    }
+
+    /**
+     * search sequentially explores the subtree below state, restoring state before returning.
+     */
+    private void search(State state) {
+        if (!visit(state)) {
+            return;
+        }
+        for (int point : children(state)) {
+            int current = state.current;
+            int first = state.first;
+            double routeDistance = state.routeDistance;
+            state.extend(point);
+            search(state);
+            state.retract(point, current, first, routeDistance);
+        }
+        if (canClose(state)) {
+            int first = state.first;
+            int minFirst = state.minFirst;
+            double routeDistance = state.routeDistance;
+            state.close();
+            search(state);
+            state.reopen(first, minFirst, routeDistance);
+        }
+    }
+
+    /**
+     * visit counts state against the limits, updates the incumbent and checks the bound and
+     * dominance rules.
+     *
+     * @return true if the children of state should be explored, otherwise false.
+     */
+    private boolean visit(State state) {
+        if (aborted) {
+            return false;
+        }
+        long count = nodeCounter.incrementAndGet();
+        if (count > nodeLimit || ((count & 1023) == 0 && System.nanoTime() > deadline)) {
+            aborted = true;
+            return false;
+        }
+        if (state.score > bestScore + EPSILON) {
+            record(state);
+        }
+        return bound(state) > bestScore + EPSILON && !isDominated(state);
+    }
+
+    private synchronized void record(State state) {
+        if (state.score > bestScore + EPSILON) {
+            bestScore = state.score;
+            bestPath = Arrays.copyOf(state.path, state.length);
+        }
+    }
+
+    /**
+     * bound returns the score of state plus the fractional knapsack bound over the unvisited
+     * Points it can still reach.
+     */
+    private double bound(State state) {
+        int n = nodes.length;
+        int remainingRoutes = getnRoutes() - 1 - state.route;
+        double capacity = gettMax() - state.routeDistance + remainingRoutes * gettMax();
+        double bound = state.score;
+        for (int point : boundOrder) {
+            if ((state.visited & (1L << (point - 2))) != 0) {
+                continue;
+            }
+            boolean reachable = remainingRoutes > 0
+                || state.routeDistance + distances[state.current * n + point]
+                + distances[point * n + END] <= gettMax();
+            if (!reachable) {
+                continue;
+            }
+            double score = nodes[point].getScore();
+            if (weights[point] <= capacity) {
+                capacity -= weights[point];
+                bound += score;
+            } else {
+                bound += score * capacity / weights[point];
+                break;
+            }
+        }
+        return integerScores ? Math.floor(bound + EPSILON) : bound;
+    }
+
+    /**
+     * isDominated returns true if another node has reached the same state with a current Route no
+     * longer than that of state, otherwise records state's current Route distance.
+     */
+    private boolean isDominated(State state) {
+        Label label = new Label(state);
+        Double recorded = labels.get(label);
+        if (recorded != null && recorded <= state.routeDistance + EPSILON) {
+            return true;
+        }
+        if (labels.size() < MAX_LABELS) {
+            labels.merge(label, state.routeDistance, Math::min);
+        }
+        return false;
+    }
+
+    /**
+     * children returns the unvisited Points that can extend the current Route of state (ordered by
+     * descending score per unit of distance added).
+     */
+    private int[] children(State state) {
+        int n = nodes.length;
+        int[] children = new int[n];
+        double[] priorities = new double[n];
+        int nChildren = 0;
+        int from = state.current == START ? Math.max(2, state.minFirst + 1) : 2;
+        for (int point = from; point < n; point++) {
+            if ((state.visited & (1L << (point - 2))) != 0) {
+                continue;
+            }
+            double added = distances[state.current * n + point];
+            if (state.routeDistance + added + distances[point * n + END] > gettMax()) {
+                continue;
+            }
+            double priority = nodes[point].getScore() / (added + EPSILON);
+            int i = nChildren++;
+            while (i > 0 && priorities[i - 1] < priority) {
+                children[i] = children[i - 1];
+                priorities[i] = priorities[i - 1];
+                i--;
+            }
+            children[i] = point;
+            priorities[i] = priority;
+        }
+        return Arrays.copyOf(children, nChildren);
+    }
+
+    /**
+     * canClose returns true if the current Route of state is non-empty and is not the last Route
+     * (closing an empty Route or the last Route ends the solution, which every node already
+     * represents).
+     */
+    private boolean canClose(State state) {
+        return state.current != START && state.route < getnRoutes() - 1;
+    }
+
+    private ArrayList<Route> toRoutes(int[] path) {
+        ArrayList<Route> routes = new ArrayList<>(getnRoutes());
+        ArrayList<Point> points = new ArrayList<>();
+        points.add(nodes[START]);
+        for (int node : path) {
+            if (node == END) {
+                points.add(nodes[END]);
+                routes.add(new Route(points));
+                points = new ArrayList<>();
+                points.add(nodes[START]);
+            } else {
+                points.add(nodes[node]);
+            }
+        }
+        while (routes.size() < getnRoutes()) {
+            points.add(nodes[END]);
+            routes.add(new Route(points));
+            points = new ArrayList<>();
+            points.add(nodes[START]);
+        }
+        return routes;
+    }
+
+    /**
+     * State is a node of the search tree: the Routes built so far (as a path of node indexes in
+     * which END separates Routes) and the current Route.
+     */
+    private final class State {
+
+        final int[] path;
+        int length;
+        long visited;
+        double score;
+        int route;
+        int current;
+        double routeDistance;
+        // the first Point of the current Route and of the previous Route (-1 if none)
+        int first;
+        int minFirst;
+
+        State(int capacity) {
+            this.path = new int[capacity];
+            this.current = START;
+            this.first = -1;
+            this.minFirst = -1;
+        }
+
+        State copy() {
+            State copy = new State(path.length);
+            System.arraycopy(path, 0, copy.path, 0, length);
+            copy.length = length;
+            copy.visited = visited;
+            copy.score = score;
+            copy.route = route;
+            copy.current = current;
+            copy.routeDistance = routeDistance;
+            copy.first = first;
+            copy.minFirst = minFirst;
+            return copy;
+        }
+
+        void extend(int point) {
+            path[length++] = point;
+            visited |= 1L << (point - 2);
+            score += nodes[point].getScore();
+            routeDistance += distances[current * nodes.length + point];
+            if (current == START) {
+                first = point;
+            }
+            current = point;
+        }
+
+        void retract(int point, int previousCurrent, int previousFirst,
+            double previousRouteDistance) {
+            length--;
+            visited &= ~(1L << (point - 2));
+            score -= nodes[point].getScore();
+            routeDistance = previousRouteDistance;
+            first = previousFirst;
+            current = previousCurrent;
+        }
+
+        void close() {
+            path[length++] = END;
+            route++;
+            minFirst = first;
+            first = -1;
+            current = START;
+            routeDistance = 0;
+        }
+
+        void reopen(int previousFirst, int previousMinFirst, double previousRouteDistance) {
+            length--;
+            route--;
+            first = previousFirst;
+            minFirst = previousMinFirst;
+            current = path[length - 1];
+            routeDistance = previousRouteDistance;
+        }
+    }
+
+    /**
+     * Label identifies the state of a node for the dominance rule: the visited Points, the current
+     * Route, the current Point and the first Point constraining later Routes.
+     */
+    private static final class Label {
+
+        private final long visited;
+        private final int route;
+        private final int current;
+        private final int first;
+
+        Label(State state) {
+            this.visited = state.visited;
+            this.route = state.route;
+            this.current = state.current;
+            this.first = state.current == START ? state.minFirst : state.first;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof Label)) {
+                return false;
+            }
+            Label label = (Label) other;
+            return visited == label.visited && route == label.route && current == label.current
+                && first == label.first;
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(visited * 0x9E3779B97F4A7C15L) ^ (route * 31 + current) * 31
+                + first;
+        }
+    }
+}
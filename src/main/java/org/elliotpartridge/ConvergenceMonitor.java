@@ -0,0 +1,191 @@
+package org.elliotpartridge;
+
+/**
+ * ConvergenceMonitor decides, once per generation, whether a per-route genetic algorithm should
+ * continue, restart with a partly re-seeded population or stop. Rather than stopping after a fixed
+ * number of generations without improvement, the number of generations it is patient for scales
+ * with the longest gap between improvements observed so far (hard instances that keep improving
+ * slowly are given longer, easy instances that converge quickly are stopped sooner) and a
+ * population is only treated as converged early once its diversity has also collapsed. A hard
+ * limit of maxStagnation generations without improvement always applies.
+ */
+public class ConvergenceMonitor {
+
+    /**
+     * Decision is the outcome of a generation.
+     */
+    public enum Decision {
+        CONTINUE, RESTART, STOP
+    }
+
+    /**
+     * DEFAULT_PATIENCE_MULTIPLIER is the multiple of the longest gap between improvements that a
+     * population may stagnate for before being considered converged.
+     */
+    public static final double DEFAULT_PATIENCE_MULTIPLIER = 3;
+
+    /**
+     * DEFAULT_CONVERGED_DIVERSITY is the population diversity (see PopulationDiversity) below which
+     * a stagnating population is considered converged.
+     */
+    public static final double DEFAULT_CONVERGED_DIVERSITY = 0.2;
+
+    private static final double EPSILON = 1e-9;
+
+    private final int maxGenerations;
+    private final int minStagnation;
+    private final int maxStagnation;
+    private final int maxRestarts;
+    private final double patienceMultiplier;
+    private final double convergedDiversity;
+
+    private int generation;
+    private double bestScore;
+    private int lastImprovementGeneration;
+    private int longestImprovementGap;
+    private int restarts;
+
+    /**
+     * ConvergenceMonitor constructor using the default patience multiplier and converged
+     * diversity. minStagnation is 5% (at least 5 generations) and maxStagnation 25% of
+     * maxGenerations.
+     *
+     * @param maxGenerations The maximum number of generations.
+     * @param maxRestarts    The maximum number of restarts (0 disables restarts).
+     */
+    public ConvergenceMonitor(int maxGenerations, int maxRestarts) {
+        this(maxGenerations, Math.max(5, (int) Math.round(maxGenerations * 0.05)),
+            (int) Math.round(maxGenerations * 0.25), maxRestarts, DEFAULT_PATIENCE_MULTIPLIER,
+            DEFAULT_CONVERGED_DIVERSITY);
+    }
+
+    /**
+     * ConvergenceMonitor constructor.
+     *
+     * @param maxGenerations     The maximum number of generations.
+     * @param minStagnation      The minimum number of generations without improvement before a
+     *                           population can be considered converged.
+     * @param maxStagnation      The number of generations without improvement after which a
+     *                           population is always considered converged.
+     * @param maxRestarts        The maximum number of restarts (0 disables restarts).
+     * @param patienceMultiplier The multiple of the longest gap between improvements that a
+     *                           population may stagnate for before being considered converged.
+     * @param convergedDiversity The diversity below which a stagnating population is considered
+     *                           converged.
+     */
+    public ConvergenceMonitor(int maxGenerations, int minStagnation, int maxStagnation,
+        int maxRestarts, double patienceMultiplier, double convergedDiversity) {
+        if (maxRestarts < 0) {
+            throw new IllegalArgumentException("maxRestarts cannot be less than 0.");
+        }
+        this.maxGenerations = maxGenerations;
+        this.minStagnation = Math.max(1, minStagnation);
+        this.maxStagnation = Math.max(this.minStagnation, maxStagnation);
+        this.maxRestarts = maxRestarts;
+        this.patienceMultiplier = patienceMultiplier;
+        this.convergedDiversity = convergedDiversity;
+
+        this.generation = 0;
+        this.bestScore = -Double.MAX_VALUE;
+        this.lastImprovementGeneration = 0;
+        this.longestImprovementGap = 0;
+        this.restarts = 0;
+    }
+
+    /**
+     * update records the best score and population diversity of the latest generation and decides
+     * whether to continue, restart or stop. A restart is only chosen if restarts remain and at
+     * least 2 * minStagnation generations remain.
+     *
+     * @param score     The best score found so far.
+     * @param diversity The diversity of the population.
+     * @return The Decision.
+     */
+    public Decision update(double score, double diversity) {
+        generation++;
+        if (score > bestScore + EPSILON) {
+            if (bestScore != -Double.MAX_VALUE) {
+                longestImprovementGap = Math.max(longestImprovementGap,
+                    generation - lastImprovementGeneration);
+            }
+            bestScore = score;
+            lastImprovementGeneration = generation;
+        }
+
+        if (generation >= maxGenerations) {
+            return Decision.STOP;
+        }
+        if (!isConverged(diversity)) {
+            return Decision.CONTINUE;
+        }
+        if (restarts < maxRestarts && maxGenerations - generation >= 2 * minStagnation) {
+            restarts++;
+            // the restarted population is given a fresh stagnation window
+            lastImprovementGeneration = generation;
+            return Decision.RESTART;
+        }
+        return Decision.STOP;
+    }
+
+    /**
+     * isConverged checks whether the population has stagnated for longer than maxStagnation, or
+     * for longer than its patience whilst its diversity is below convergedDiversity.
+     *
+     * @param diversity The diversity of the population.
+     * @return true if the population is considered converged, otherwise false.
+     */
+    public boolean isConverged(double diversity) {
+        int stagnation = getStagnation();
+        return stagnation >= maxStagnation
+            || (stagnation >= getPatience() && diversity < convergedDiversity);
+    }
+
+    /**
+     * getPatience returns the number of generations without improvement after which a population
+     * whose diversity has collapsed is considered converged.
+     *
+     * @return patienceMultiplier * the longest gap between improvements, clamped between
+     * minStagnation and maxStagnation.
+     */
+    public int getPatience() {
+        int patience = (int) Math.ceil(patienceMultiplier * longestImprovementGap);
+        return Math.max(minStagnation, Math.min(maxStagnation, patience));
+    }
+
+    /**
+     * getStagnation returns the number of generations since the best score last improved (or the
+     * population was restarted).
+     *
+     * @return The number of generations without improvement.
+     */
+    public int getStagnation() {
+        return generation - lastImprovementGeneration;
+    }
+
+    /**
+     * generation getter.
+     *
+     * @return The number of generations recorded.
+     */
+    public int getGeneration() {
+        return generation;
+    }
+
+    /**
+     * restarts getter.
+     *
+     * @return The number of restarts that have been decided.
+     */
+    public int getRestarts() {
+        return restarts;
+    }
+
+    /**
+     * longestImprovementGap getter.
+     *
+     * @return The longest number of generations between two improvements of the best score.
+     */
+    public int getLongestImprovementGap() {
+        return longestImprovementGap;
+    }
+}
@@ -0,0 +1,256 @@
+package org.elliotpartridge;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * CrossoverOperators provides recombination operators for pairs of parent Routes which share the
+ * same starting and ending Points. Common genes are found via a Point to position lookup table of
+ * the second parent rather than repeated linear searches, and duplicate Points introduced by
+ * recombination are repaired in a single pass using constant time removal deltas.
+ */
+public class CrossoverOperators {
+
+    /**
+     * positionIndex builds a lookup table from each Point of points to its (last) index.
+     *
+     * @param points The Points of a Route.
+     * @return The Point to position lookup table.
+     */
+    public static HashMap<Point, Integer> positionIndex(ArrayList<Point> points) {
+        HashMap<Point, Integer> positions = new HashMap<>(points.size() * 2);
+        for (int i = 0; i < points.size(); i++) {
+            positions.put(points.get(i), i);
+        }
+        return positions;
+    }
+
+    /**
+     * singlePoint finds the first Point of parent1 (excluding the starting and ending Points) that
+     * also exists in parent2 and swaps the heads and tails of the parents at that Point. Any
+     * duplicate Points within the children are removed via repairDuplicates.
+     *
+     * @param parent1 The first parent Route.
+     * @param parent2 The second parent Route.
+     * @return The Points of the two children, or an empty List if the parents share no Point.
+     */
+    public static List<ArrayList<Point>> singlePoint(Route parent1, Route parent2) {
+        ArrayList<Point> points1 = parent1.getPoints();
+        ArrayList<Point> points2 = parent2.getPoints();
+        HashMap<Point, Integer> parent2Positions = positionIndex(points2);
+        for (int i = 1; i < points1.size() - 1; i++) {
+            Integer parent2CommonGeneIndex = parent2Positions.get(points1.get(i));
+            if (parent2CommonGeneIndex == null) {
+                continue;
+            }
+            ArrayList<Point> child1Points = new ArrayList<>(i + points2.size()
+                - parent2CommonGeneIndex);
+            child1Points.addAll(points1.subList(0, i));
+            child1Points.addAll(points2.subList(parent2CommonGeneIndex, points2.size()));
+
+            ArrayList<Point> child2Points = new ArrayList<>(parent2CommonGeneIndex
+                + points1.size() - i);
+            child2Points.addAll(points2.subList(0, parent2CommonGeneIndex));
+            child2Points.addAll(points1.subList(i, points1.size()));
+
+            List<ArrayList<Point>> children = new ArrayList<>(2);
+            children.add(repairDuplicates(child1Points));
+            children.add(repairDuplicates(child2Points));
+            return children;
+        }
+        return Collections.emptyList();
+    }
+
+    /**
+     * repairDuplicates removes every duplicate instance of a Point from points in a single pass.
+     * When a Point is found for the second time the instance whose removal reduces the travel
+     * distance the most (evaluated against its current neighbours) is removed.
+     *
+     * @param points The Points of a Route, possibly containing duplicates.
+     * @return The Points without duplicates (points itself if it contained none).
+     */
+    public static ArrayList<Point> repairDuplicates(ArrayList<Point> points) {
+        int n = points.size();
+        // doubly linked list over indexes allows constant time removal whilst scanning
+        int[] previous = new int[n];
+        int[] next = new int[n];
+        boolean[] removed = new boolean[n];
+        for (int i = 0; i < n; i++) {
+            previous[i] = i - 1;
+            next[i] = i + 1 < n ? i + 1 : -1;
+        }
+
+        HashMap<Point, Integer> firstIndex = new HashMap<>(n * 2);
+        int nRemoved = 0;
+        for (int j = 0; j < n; j++) {
+            Integer f = firstIndex.putIfAbsent(points.get(j), j);
+            if (f == null) {
+                continue;
+            }
+            int toRemove;
+            if (removalGain(points, previous, next, f) >= removalGain(points, previous, next, j)) {
+                toRemove = f;
+                firstIndex.put(points.get(j), j);
+            } else {
+                toRemove = j;
+            }
+            if (previous[toRemove] != -1) {
+                next[previous[toRemove]] = next[toRemove];
+            }
+            if (next[toRemove] != -1) {
+                previous[next[toRemove]] = previous[toRemove];
+            }
+            removed[toRemove] = true;
+            nRemoved++;
+        }
+
+        if (nRemoved == 0) {
+            return points;
+        }
+        ArrayList<Point> repaired = new ArrayList<>(n - nRemoved);
+        for (int i = 0; i < n; i++) {
+            if (!removed[i]) {
+                repaired.add(points.get(i));
+            }
+        }
+        return repaired;
+    }
+
+    /**
+     * removalGain calculates the reduction in travel distance from removing the Point at index
+     * given its current (not yet removed) neighbours.
+     */
+    private static double removalGain(ArrayList<Point> points, int[] previous, int[] next,
+        int index) {
+        Point point = points.get(index);
+        if (previous[index] == -1 || next[index] == -1) {
+            int neighbour = previous[index] == -1 ? next[index] : previous[index];
+            return neighbour == -1 ? 0 : Util.euclideanDistance(points.get(neighbour), point);
+        }
+        Point before = points.get(previous[index]);
+        Point after = points.get(next[index]);
+        return Util.euclideanDistance(before, point) + Util.euclideanDistance(point, after)
+            - Util.euclideanDistance(before, after);
+    }
+
+    /**
+     * edgeRecombination builds a child from the union of the edges of both parents. Starting from
+     * the starting Point the child repeatedly travels to the unvisited neighbour (within either
+     * parent) that has the fewest unvisited neighbours of its own, ties broken at random. When no
+     * neighbour can be reached without exceeding tMax the nearest unvisited parent Point that can
+     * be is used instead and the child ends once no parent Point can be added.
+     * <p>
+     * Note, edge recombination adapted from: (Whitley, D., Starkweather, T. and Fuquay, D., 1989,
+     * Scheduling Problems and Traveling Salesmen: The Genetic Edge Recombination Operator).
+     *
+     * @param parent1 The first parent Route.
+     * @param parent2 The second parent Route.
+     * @param tMax    The maximum per-route travel time.
+     * @param rand    The Random instance used to break ties.
+     * @return The Points of the child, whose travel distance does not exceed tMax.
+     */
+    public static ArrayList<Point> edgeRecombination(Route parent1, Route parent2, double tMax,
+        Random rand) {
+        Point start = parent1.getPoint(0);
+        Point end = parent1.getPoint(parent1.getPoints().size() - 1);
+        // every Point the child can reach has an entry, even a starting Point without edges, and
+        // entries are iterated in insertion order so that nearest Point ties are reproducible
+        HashMap<Point, ArrayList<Point>> edges = new LinkedHashMap<>();
+        edges.put(start, new ArrayList<>(2));
+        addEdges(edges, parent1.getPoints(), start, end);
+        addEdges(edges, parent2.getPoints(), start, end);
+
+        Set<Point> visited = new HashSet<>(edges.size() * 2);
+        ArrayList<Point> child = new ArrayList<>();
+        child.add(start);
+        visited.add(start);
+        Point current = start;
+        double length = 0;
+        while (true) {
+            Point selected = null;
+            int fewestNeighbours = Integer.MAX_VALUE;
+            int ties = 0;
+            for (Point neighbour : edges.get(current)) {
+                if (visited.contains(neighbour) || !fits(length, current, neighbour, end, tMax)) {
+                    continue;
+                }
+                int unvisitedNeighbours = 0;
+                for (Point p : edges.get(neighbour)) {
+                    if (!visited.contains(p)) {
+                        unvisitedNeighbours++;
+                    }
+                }
+                if (unvisitedNeighbours < fewestNeighbours) {
+                    selected = neighbour;
+                    fewestNeighbours = unvisitedNeighbours;
+                    ties = 1;
+                } else if (unvisitedNeighbours == fewestNeighbours && rand.nextInt(++ties) == 0) {
+                    selected = neighbour;
+                }
+            }
+            if (selected == null) {
+                double nearestDistance = Double.MAX_VALUE;
+                for (Point candidate : edges.keySet()) {
+                    double distance = Util.euclideanDistance(current, candidate);
+                    if (!visited.contains(candidate) && distance < nearestDistance
+                        && fits(length, current, candidate, end, tMax)) {
+                        selected = candidate;
+                        nearestDistance = distance;
+                    }
+                }
+            }
+            if (selected == null) {
+                break;
+            }
+            length += Util.euclideanDistance(current, selected);
+            child.add(selected);
+            visited.add(selected);
+            current = selected;
+        }
+        child.add(end);
+        return child;
+    }
+
+    /**
+     * fits checks whether travelling from current to candidate and then on to end keeps the length
+     * within tMax.
+     */
+    private static boolean fits(double length, Point current, Point candidate, Point end,
+        double tMax) {
+        return length + Util.euclideanDistance(current, candidate)
+            + Util.euclideanDistance(candidate, end) <= tMax;
+    }
+
+    /**
+     * addEdges adds the (undirected) edges between the non starting/ending Points of points to
+     * edges, plus the edge from the starting Point to its first Point.
+     */
+    private static void addEdges(HashMap<Point, ArrayList<Point>> edges, ArrayList<Point> points,
+        Point start, Point end) {
+        for (int i = 0; i < points.size() - 1; i++) {
+            Point from = points.get(i);
+            Point to = points.get(i + 1);
+            if (to == end || to == start) {
+                continue;
+            }
+            if (from != start) {
+                addEdge(edges, to, from);
+            }
+            addEdge(edges, from, to);
+        }
+    }
+
+    private static void addEdge(HashMap<Point, ArrayList<Point>> edges, Point from, Point to) {
+        ArrayList<Point> neighbours = edges.computeIfAbsent(from, p -> new ArrayList<>(4));
+        if (!neighbours.contains(to)) {
+            neighbours.add(to);
+        }
+        edges.computeIfAbsent(to, p -> new ArrayList<>(4));
+    }
+}
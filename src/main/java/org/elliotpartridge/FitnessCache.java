@@ -0,0 +1,140 @@
+package org.elliotpartridge;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * FitnessCache memoises the fitness (totalDistance, totalScore and whether duplicates exist) of
+ * Routes keyed by their fingerprint so that sequences of Points which are evaluated repeatedly (as
+ * happens once a population converges) are only evaluated once. The cache holds at most capacity
+ * entries, evicting the least recently used entry when full.
+ */
+public class FitnessCache {
+
+    /**
+     * DEFAULT_CAPACITY is the default maximum number of memoised fitnesses.
+     */
+    public static final int DEFAULT_CAPACITY = 4096;
+
+    private final int capacity;
+    private final LinkedHashMap<Long, Fitness> fitnesses;
+    private long hits;
+    private long misses;
+
+    /**
+     * FitnessCache constructor.
+     *
+     * @param capacity The maximum number of memoised fitnesses.
+     */
+    public FitnessCache(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity cannot be less than 1.");
+        }
+        this.capacity = capacity;
+        // access ordered so the eldest entry is the least recently used
+        this.fitnesses = new LinkedHashMap<>(capacity * 4 / 3 + 1, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Fitness> eldest) {
+                return size() > FitnessCache.this.capacity;
+            }
+        };
+        this.hits = 0;
+        this.misses = 0;
+    }
+
+    /**
+     * capacity getter.
+     *
+     * @return The maximum number of memoised fitnesses.
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * size returns the number of memoised fitnesses.
+     *
+     * @return The number of memoised fitnesses.
+     */
+    public int size() {
+        return fitnesses.size();
+    }
+
+    /**
+     * hits getter.
+     *
+     * @return The number of Routes created from a memoised fitness.
+     */
+    public long getHits() {
+        return hits;
+    }
+
+    /**
+     * misses getter.
+     *
+     * @return The number of Routes that had to be evaluated.
+     */
+    public long getMisses() {
+        return misses;
+    }
+
+    /**
+     * createRoute creates a Route from points, reusing the memoised fitness of points if one
+     * exists and otherwise evaluating and memoising it.
+     *
+     * @param points The ArrayList of Points by which to create the Route from.
+     * @return The Route.
+     */
+    public Route createRoute(ArrayList<Point> points) {
+        return createRoute(points, Route.calculateFingerprint(points));
+    }
+
+    /**
+     * createRoute creates a Route from points whose fingerprint is already known (e.g. when it has
+     * been updated incrementally), reusing the memoised fitness of points if one exists and
+     * otherwise evaluating and memoising it.
+     *
+     * @param points      The ArrayList of Points by which to create the Route from.
+     * @param fingerprint The fingerprint of points.
+     * @return The Route.
+     */
+    public Route createRoute(ArrayList<Point> points, long fingerprint) {
+        Fitness fitness = fitnesses.get(fingerprint);
+        // the number of Points is also compared to guard against fingerprint collisions
+        if (fitness != null && fitness.nPoints == points.size()) {
+            hits++;
+            return new Route(points, fingerprint, fitness.totalDistance, fitness.totalScore,
+                fitness.containsDuplicatePoints);
+        }
+        misses++;
+        Route route = new Route(points);
+        fitnesses.put(fingerprint, new Fitness(route));
+        return route;
+    }
+
+    /**
+     * clear removes all memoised fitnesses.
+     */
+    public void clear() {
+        fitnesses.clear();
+    }
+
+    /**
+     * Fitness stores the memoised fitness of a Route.
+     */
+    private static final class Fitness {
+
+        final int nPoints;
+        final double totalDistance;
+        final double totalScore;
+        final boolean containsDuplicatePoints;
+
+        Fitness(Route route) {
+            this.nPoints = route.getPoints().size();
+            this.totalDistance = route.getTotalDistance();
+            this.totalScore = route.getTotalScore();
+            this.containsDuplicatePoints = route.getContainsDuplicatePoints();
+        }
+    }
+}
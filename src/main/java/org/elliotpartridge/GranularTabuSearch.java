@@ -0,0 +1,637 @@
+package org.elliotpartridge;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+
+/**
+ * GranularTabuSearch solves TOP problem instances via a single-trajectory tabu search over all
+ * nRoutes Routes. Each iteration applies the best admissible move (by value, see below) from a
+ * granular neighbourhood: only moves that place a Point next to one of its neighbourListSize
+ * nearest neighbours are evaluated, so each iteration evaluates O(n * neighbourListSize) moves.
+ * The moves are:
+ * <p>
+ * 1. Insert an unrouted Point before or after a routed neighbour (or the starting/ending Point).
+ * <p>
+ * 2. Remove a routed Point.
+ * <p>
+ * 3. Swap an unrouted Point with a routed neighbour (the unrouted Point takes its place).
+ * <p>
+ * 4. Relocate a routed Point before or after a neighbour within another Route.
+ * <p>
+ * The Routes are stored as doubly linked lists so every move is delta-evaluated and applied in
+ * constant time, with the Routes a move changes then shortened via TwoOpt. A move's value is its
+ * change in score less its change in distance priced at the current solution's score per unit of
+ * distance, so removing a Point whose score is low for the distance it uses is valued positively
+ * (freeing distance for better Points). Moved Points are tabu (cannot be moved again) for a
+ * random tenure of between MIN_TABU_TENURE and MIN_TABU_TENURE + n / 10 iterations unless the move
+ * would produce a new best solution (aspiration). After PERTURBATION_INTERVAL iterations without a
+ * new best solution the search restarts from the best solution with a random PERTURBATION_PERCENT
+ * of its Points removed.
+ * <p>
+ * Note, granular neighbourhoods adapted from: (Toth, P. and Vigo, D., 2003, The Granular Tabu
+ * Search and Its Application to the Vehicle-Routing Problem).
+ */
+public class GranularTabuSearch extends BoundedTopSolver {
+
+    /**
+     * DEFAULT_MAX_ITERATIONS is the default maximum number of iterations.
+     */
+    public static final int DEFAULT_MAX_ITERATIONS = 3000;
+
+    /**
+     * DEFAULT_MAX_NON_IMPROVING_ITERATIONS is the default number of consecutive iterations without
+     * a new best solution after which the search stops.
+     */
+    public static final int DEFAULT_MAX_NON_IMPROVING_ITERATIONS = 1000;
+
+    /**
+     * DEFAULT_NEIGHBOUR_LIST_SIZE is the default number of nearest neighbours considered per
+     * Point.
+     */
+    public static final int DEFAULT_NEIGHBOUR_LIST_SIZE = 10;
+
+    /**
+     * MIN_TABU_TENURE is the minimum number of iterations a moved Point remains tabu.
+     */
+    public static final int MIN_TABU_TENURE = 5;
+
+    /**
+     * PERTURBATION_INTERVAL is the number of iterations without a new best solution after which
+     * the search restarts from a perturbed copy of the best solution.
+     */
+    public static final int PERTURBATION_INTERVAL = 100;
+
+    /**
+     * PERTURBATION_PERCENT is the probability that each Point of the best solution is removed when
+     * perturbing.
+     */
+    public static final double PERTURBATION_PERCENT = 0.2;
+
+    private static final double EPSILON = 1e-9;
+    // node indexes of the starting and ending Points, candidate Points follow
+    private static final int START = 0;
+    private static final int END = 1;
+
+    private int maxIterations;
+    private int maxNonImprovingIterations;
+    private int neighbourListSize;
+    private int iterationCounter;
+
+    // search state, built by solve
+    private Point[] nodes;
+    private int[] routeOf;
+    private int[] previous;
+    private int[] next;
+    private int[] first;
+    private int[] last;
+    private double[] routeDistances;
+    private double totalScore;
+    private int[] tabuUntil;
+
+    /**
+     * GranularTabuSearch constructor.
+     *
+     * @param dataset The TOP instance to solve, its first and last Points are removed.
+     */
+    public GranularTabuSearch(TopData dataset) {
+        super(dataset);
+        this.maxIterations = DEFAULT_MAX_ITERATIONS;
+        this.maxNonImprovingIterations = DEFAULT_MAX_NON_IMPROVING_ITERATIONS;
+        this.neighbourListSize = DEFAULT_NEIGHBOUR_LIST_SIZE;
+        this.iterationCounter = 0;
+    }
+
+    /**
+     * GranularTabuSearch constructor for searching the same instance as instance (sharing its
+     * rand, preprocessor and upperBound).
+     *
+     * @param instance The BoundedTopSolver whose instance is searched.
+     */
+    GranularTabuSearch(BoundedTopSolver instance) {
+        super(instance);
+        this.maxIterations = DEFAULT_MAX_ITERATIONS;
+        this.maxNonImprovingIterations = DEFAULT_MAX_NON_IMPROVING_ITERATIONS;
+        this.neighbourListSize = DEFAULT_NEIGHBOUR_LIST_SIZE;
+        this.iterationCounter = 0;
+    }
+
+    /**
+     * maxIterations getter.
+     *
+     * @return The maximum number of iterations.
+     */
+    public int getMaxIterations() {
+        return maxIterations;
+    }
+
+    /**
+     * maxIterations setter.
+     *
+     * @param maxIterations The maximum number of iterations.
+     */
+    public void setMaxIterations(int maxIterations) {
+        if (maxIterations < 0) {
+            throw new IllegalArgumentException("maxIterations cannot be negative.");
+        }
+        this.maxIterations = maxIterations;
+    }
+
+    /**
+     * maxNonImprovingIterations getter.
+     *
+     * @return The number of consecutive iterations without a new best solution after which the
+     * search stops.
+     */
+    public int getMaxNonImprovingIterations() {
+        return maxNonImprovingIterations;
+    }
+
+    /**
+     * maxNonImprovingIterations setter.
+     *
+     * @param maxNonImprovingIterations The number of consecutive iterations without a new best
+     *                                  solution after which the search stops.
+     */
+    public void setMaxNonImprovingIterations(int maxNonImprovingIterations) {
+        if (maxNonImprovingIterations < 1) {
+            throw new IllegalArgumentException("maxNonImprovingIterations cannot be less than 1.");
+        }
+        this.maxNonImprovingIterations = maxNonImprovingIterations;
+    }
+
+    /**
+     * neighbourListSize getter.
+     *
+     * @return The number of nearest neighbours considered per Point.
+     */
+    public int getNeighbourListSize() {
+        return neighbourListSize;
+    }
+
+    /**
+     * neighbourListSize setter.
+     *
+     * @param neighbourListSize The number of nearest neighbours considered per Point.
+     */
+    public void setNeighbourListSize(int neighbourListSize) {
+        if (neighbourListSize < 1) {
+            throw new IllegalArgumentException("neighbourListSize cannot be less than 1.");
+        }
+        this.neighbourListSize = neighbourListSize;
+    }
+
+    /**
+     * iterationCounter getter.
+     *
+     * @return The number of iterations completed by the last call to solve.
+     */
+    public int getIterationCounter() {
+        return iterationCounter;
+    }
+
+    /**
+     * solve builds an initial solution via regret-2 insertion (see
+     * InsertionCache.regretInsertion) and improves it via granular tabu search until
+     * maxIterations, maxNonImprovingIterations or (if earlyOptimalityStop is set) the upperBound
+     * is reached.
+     *
+     * @return The Result containing the best Routes found.
+     */
+    @Override
+    public Result solve() {
+        ArrayList<Point> candidates = getPreprocessor().getPoints();
+        int n = candidates.size() + 2;
+        nodes = new Point[n];
+        nodes[START] = getStartingPoint();
+        nodes[END] = getEndingPoint();
+        for (int i = 2; i < n; i++) {
+            nodes[i] = candidates.get(i - 2);
+        }
+        NeighbourLists neighbourLists = new NeighbourLists(Arrays.asList(nodes),
+            neighbourListSize);
+        routeOf = new int[n];
+        previous = new int[n];
+        next = new int[n];
+        first = new int[getnRoutes()];
+        last = new int[getnRoutes()];
+        routeDistances = new double[getnRoutes()];
+        tabuUntil = new int[n];
+        Arrays.fill(routeOf, -1);
+
+        ArrayList<InsertionCache> routeCaches = new ArrayList<>(getnRoutes());
+        for (int r = 0; r < getnRoutes(); r++) {
+            ArrayList<Point> points = new ArrayList<>();
+            points.add(getStartingPoint());
+            points.add(getEndingPoint());
+            routeCaches.add(new InsertionCache(points));
+        }
+        InsertionCache.regretInsertion(routeCaches, candidates, 2, gettMax());
+        IdentityHashMap<Point, Integer> indexes = new IdentityHashMap<>();
+        for (int i = 0; i < n; i++) {
+            indexes.put(nodes[i], i);
+        }
+        int[][] initialRoutes = new int[getnRoutes()][];
+        for (int r = 0; r < getnRoutes(); r++) {
+            initialRoutes[r] = new int[routeCaches.get(r).getPoints().size() - 2];
+            for (int i = 0; i < initialRoutes[r].length; i++) {
+                initialRoutes[r][i] = indexes.get(routeCaches.get(r).getPoints().get(i + 1));
+            }
+        }
+        loadRoutes(initialRoutes);
+
+        int[][] best = snapshot();
+        double bestScore = totalScore;
+        double bestDistance = getTotalDistance();
+        int tenureRange = Math.max(1, (n - 2) / 10);
+        int lastImprovement = 0;
+        int lastPerturbation = 0;
+        Move move = new Move();
+        for (iterationCounter = 0; iterationCounter < maxIterations
+            && iterationCounter - lastImprovement < maxNonImprovingIterations; iterationCounter++) {
+            if (isEarlyOptimalityStop() && bestScore >= getUpperBound() - EPSILON) {
+                break;
+            }
+            if (iterationCounter - Math.max(lastImprovement, lastPerturbation)
+                >= PERTURBATION_INTERVAL) {
+                perturb(best, iterationCounter + MIN_TABU_TENURE + tenureRange);
+                lastPerturbation = iterationCounter;
+            }
+            double totalDistance = getTotalDistance();
+            double lambda = totalDistance > EPSILON ? totalScore / totalDistance : 0;
+
+            move.reset();
+            for (int i = 2; i < n; i++) {
+                if (routeOf[i] == -1) {
+                    for (int q : neighbourLists.getNeighbours(i)) {
+                        if (q == START || q == END) {
+                            for (int r = 0; r < getnRoutes(); r++) {
+                                int a = q == START ? START : last[r];
+                                int b = q == START ? first[r] : END;
+                                evaluateInsert(move, i, a, b, r, lambda, bestScore, bestDistance);
+                            }
+                        } else if (routeOf[q] != -1) {
+                            int r = routeOf[q];
+                            evaluateInsert(move, i, previous(q, r), q, r, lambda, bestScore,
+                                bestDistance);
+                            evaluateInsert(move, i, q, next(q, r), r, lambda, bestScore,
+                                bestDistance);
+                            evaluateSwap(move, i, q, lambda, bestScore, bestDistance);
+                        }
+                    }
+                } else {
+                    evaluateRemove(move, i, lambda, bestScore, bestDistance);
+                    for (int q : neighbourLists.getNeighbours(i)) {
+                        if (q == START || q == END) {
+                            for (int r = 0; r < getnRoutes(); r++) {
+                                int a = q == START ? START : last[r];
+                                int b = q == START ? first[r] : END;
+                                evaluateRelocate(move, i, a, b, r, lambda, bestScore,
+                                    bestDistance);
+                            }
+                        } else if (routeOf[q] != -1) {
+                            int r = routeOf[q];
+                            evaluateRelocate(move, i, previous(q, r), q, r, lambda, bestScore,
+                                bestDistance);
+                            evaluateRelocate(move, i, q, next(q, r), r, lambda, bestScore,
+                                bestDistance);
+                        }
+                    }
+                }
+            }
+            if (move.type == Move.NONE) {
+                continue;
+            }
+            applyMove(move, iterationCounter + MIN_TABU_TENURE + getRand().nextInt(tenureRange));
+
+            double distance = getTotalDistance();
+            if (totalScore > bestScore + EPSILON
+                || (totalScore > bestScore - EPSILON && distance < bestDistance - EPSILON)) {
+                best = snapshot();
+                bestScore = totalScore;
+                bestDistance = distance;
+                lastImprovement = iterationCounter;
+            }
+        }
+
+        Result result = new Result(getDataset(), toRoutes(best));
+        result.setUpperBound(getUpperBound());
+        result.setPreprocessor(getPreprocessor());
+        return result;
+    }
+
+    private void evaluateInsert(Move move, int u, int a, int b, int r, double lambda,
+        double bestScore, double bestDistance) {
+        double deltaDistance = distance(a, u) + distance(u, b) - distance(a, b);
+        if (routeDistances[r] + deltaDistance > gettMax()) {
+            return;
+        }
+        offer(move, Move.INSERT, u, -1, a, b, r, nodes[u].getScore(), deltaDistance,
+            isTabu(u), lambda, bestScore, bestDistance);
+    }
+
+    private void evaluateRemove(Move move, int p, double lambda, double bestScore,
+        double bestDistance) {
+        int r = routeOf[p];
+        int a = previous(p, r);
+        int b = next(p, r);
+        double deltaDistance = distance(a, b) - distance(a, p) - distance(p, b);
+        offer(move, Move.REMOVE, p, -1, a, b, r, -nodes[p].getScore(), deltaDistance, isTabu(p),
+            lambda, bestScore, bestDistance);
+    }
+
+    private void evaluateSwap(Move move, int u, int q, double lambda, double bestScore,
+        double bestDistance) {
+        int r = routeOf[q];
+        int a = previous(q, r);
+        int b = next(q, r);
+        double deltaDistance = distance(a, u) + distance(u, b) - distance(a, q) - distance(q, b);
+        if (routeDistances[r] + deltaDistance > gettMax()) {
+            return;
+        }
+        offer(move, Move.SWAP, u, q, a, b, r, nodes[u].getScore() - nodes[q].getScore(),
+            deltaDistance, isTabu(u) || isTabu(q), lambda, bestScore, bestDistance);
+    }
+
+    private void evaluateRelocate(Move move, int p, int a, int b, int r, double lambda,
+        double bestScore, double bestDistance) {
+        int from = routeOf[p];
+        if (from == r) {
+            return;
+        }
+        double insertion = distance(a, p) + distance(p, b) - distance(a, b);
+        if (routeDistances[r] + insertion > gettMax()) {
+            return;
+        }
+        int previousPoint = previous(p, from);
+        int nextPoint = next(p, from);
+        double removal = distance(previousPoint, nextPoint) - distance(previousPoint, p)
+            - distance(p, nextPoint);
+        offer(move, Move.RELOCATE, p, -1, a, b, r, 0, insertion + removal, isTabu(p), lambda,
+            bestScore, bestDistance);
+    }
+
+    /**
+     * offer records the move as the best move if it is admissible (not tabu, or produces a new
+     * best solution) and has the highest value so far.
+     */
+    private void offer(Move move, int type, int point, int other, int a, int b, int r,
+        double deltaScore, double deltaDistance, boolean tabu, double lambda, double bestScore,
+        double bestDistance) {
+        double value = deltaScore - lambda * deltaDistance;
+        if (value < move.value - EPSILON) {
+            return;
+        }
+        if (tabu) {
+            double score = totalScore + deltaScore;
+            boolean aspiration = score > bestScore + EPSILON || (score > bestScore - EPSILON
+                && getTotalDistance() + deltaDistance < bestDistance - EPSILON);
+            if (!aspiration) {
+                return;
+            }
+        }
+        // ties are broken uniformly at random to avoid cycling between equally valued moves
+        if (value > move.value + EPSILON) {
+            move.ties = 1;
+        } else if (getRand().nextInt(++move.ties) != 0) {
+            return;
+        }
+        move.type = type;
+        move.point = point;
+        move.other = other;
+        move.a = a;
+        move.b = b;
+        move.route = r;
+        move.value = value;
+    }
+
+    /**
+     * applyMove applies move, makes the moved Points tabu until tabuIteration and shortens the
+     * changed Routes via TwoOpt.
+     */
+    private void applyMove(Move move, int tabuIteration) {
+        int r = move.route;
+        switch (move.type) {
+            case Move.INSERT:
+                insert(move.point, move.a, move.b, r);
+                break;
+            case Move.REMOVE:
+                remove(move.point);
+                break;
+            case Move.SWAP:
+                remove(move.other);
+                insert(move.point, move.a, move.b, r);
+                tabuUntil[move.other] = tabuIteration;
+                break;
+            default:
+                int from = routeOf[move.point];
+                remove(move.point);
+                insert(move.point, move.a, move.b, r);
+                optimiseRoute(from);
+                break;
+        }
+        tabuUntil[move.point] = tabuIteration;
+        optimiseRoute(r);
+    }
+
+    private void insert(int u, int a, int b, int r) {
+        link(a, u, r);
+        link(u, b, r);
+        routeOf[u] = r;
+        routeDistances[r] += distance(a, u) + distance(u, b) - distance(a, b);
+        totalScore += nodes[u].getScore();
+    }
+
+    private void remove(int p) {
+        int r = routeOf[p];
+        int a = previous(p, r);
+        int b = next(p, r);
+        link(a, b, r);
+        routeOf[p] = -1;
+        routeDistances[r] += distance(a, b) - distance(a, p) - distance(p, b);
+        totalScore -= nodes[p].getScore();
+    }
+
+    /**
+     * optimiseRoute shortens the Route r via TwoOpt (if it has at least 2 candidate Points).
+     */
+    private void optimiseRoute(int r) {
+        ArrayList<Point> points = new ArrayList<>();
+        ArrayList<Integer> routeNodes = new ArrayList<>();
+        points.add(getStartingPoint());
+        routeNodes.add(START);
+        for (int node = first[r]; node != END; node = next[node]) {
+            points.add(nodes[node]);
+            routeNodes.add(node);
+        }
+        points.add(getEndingPoint());
+        routeNodes.add(END);
+        if (points.size() < 4) {
+            return;
+        }
+        TwoOpt twoOpt = new TwoOpt(points, TwoOpt.DEFAULT_NEIGHBOUR_LIST_SIZE);
+        if (!twoOpt.optimise()) {
+            return;
+        }
+        // TwoOpt reorders the Points, map them back to their nodes via their original positions
+        IdentityHashMap<Point, Integer> positions = new IdentityHashMap<>();
+        for (int i = 0; i < points.size(); i++) {
+            positions.put(points.get(i), routeNodes.get(i));
+        }
+        ArrayList<Point> optimised = twoOpt.getPoints();
+        int[] route = new int[optimised.size() - 2];
+        for (int i = 0; i < route.length; i++) {
+            route[i] = positions.get(optimised.get(i + 1));
+        }
+        loadRoute(r, route);
+    }
+
+    /**
+     * loadRoute replaces the Route r with the candidate nodes of route (in order) and recalculates
+     * its distance.
+     */
+    private void loadRoute(int r, int[] route) {
+        int previousNode = START;
+        double routeDistance = 0;
+        for (int node : route) {
+            link(previousNode, node, r);
+            routeOf[node] = r;
+            routeDistance += distance(previousNode, node);
+            previousNode = node;
+        }
+        link(previousNode, END, r);
+        routeDistances[r] = routeDistance + distance(previousNode, END);
+    }
+
+    /**
+     * perturb restarts the search from the routes of best with each of their Points removed with
+     * probability PERTURBATION_PERCENT, the removed Points being tabu until tabuIteration.
+     */
+    private void perturb(int[][] best, int tabuIteration) {
+        loadRoutes(best);
+        for (int[] route : best) {
+            for (int node : route) {
+                if (getRand().nextDouble() < PERTURBATION_PERCENT) {
+                    remove(node);
+                    tabuUntil[node] = tabuIteration;
+                }
+            }
+        }
+    }
+
+    /**
+     * loadRoutes replaces every Route with the candidate nodes of routes (see loadRoute), leaving
+     * all other candidate nodes unrouted.
+     */
+    private void loadRoutes(int[][] routes) {
+        Arrays.fill(routeOf, -1);
+        totalScore = 0;
+        for (int r = 0; r < getnRoutes(); r++) {
+            loadRoute(r, routes[r]);
+            for (int node : routes[r]) {
+                totalScore += nodes[node].getScore();
+            }
+        }
+    }
+
+    /**
+     * snapshot returns the candidate nodes of every Route (in order).
+     */
+    private int[][] snapshot() {
+        int[][] routes = new int[getnRoutes()][];
+        for (int r = 0; r < getnRoutes(); r++) {
+            int size = 0;
+            for (int node = first[r]; node != END; node = next[node]) {
+                size++;
+            }
+            routes[r] = new int[size];
+            int i = 0;
+            for (int node = first[r]; node != END; node = next[node]) {
+                routes[r][i++] = node;
+            }
+        }
+        return routes;
+    }
+
+    private ArrayList<Route> toRoutes(int[][] routes) {
+        ArrayList<Route> result = new ArrayList<>(getnRoutes());
+        for (int[] route : routes) {
+            ArrayList<Point> points = new ArrayList<>(route.length + 2);
+            points.add(getStartingPoint());
+            for (int node : route) {
+                points.add(nodes[node]);
+            }
+            points.add(getEndingPoint());
+            result.add(new Route(points));
+        }
+        return result;
+    }
+
+    private double getTotalDistance() {
+        double totalDistance = 0;
+        for (double routeDistance : routeDistances) {
+            totalDistance += routeDistance;
+        }
+        return totalDistance;
+    }
+
+    private boolean isTabu(int node) {
+        return tabuUntil[node] > iterationCounter;
+    }
+
+    private int previous(int node, int r) {
+        return node == END ? last[r] : previous[node];
+    }
+
+    private int next(int node, int r) {
+        return node == START ? first[r] : next[node];
+    }
+
+    private void link(int a, int b, int r) {
+        if (a == START) {
+            first[r] = b;
+        } else {
+            next[a] = b;
+        }
+        if (b == END) {
+            last[r] = a;
+        } else {
+            previous[b] = a;
+        }
+    }
+
+    private double distance(int a, int b) {
+        return Util.euclideanDistance(nodes[a], nodes[b]);
+    }
+
+    /**
+     * Move stores the best move found within an iteration.
+     */
+    private static final class Move {
+
+        static final int NONE = 0;
+        static final int INSERT = 1;
+        static final int REMOVE = 2;
+        static final int SWAP = 3;
+        static final int RELOCATE = 4;
+
+        int type;
+        // the inserted, removed or relocated node (the node swapped in for SWAP)
+        int point;
+        // the node swapped out for SWAP
+        int other;
+        // the edge (a, b) of route that point is inserted into
+        int a;
+        int b;
+        int route;
+        double value;
+        // the number of equally valued moves seen so far
+        int ties;
+
+        void reset() {
+            type = NONE;
+            value = -Double.MAX_VALUE;
+            ties = 0;
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package org.elliotpartridge;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * GraspConstructor builds Routes via the randomised greedy construction phase of GRASP (Greedy
+ * Randomised Adaptive Search Procedure). Each step ranks every feasible candidate by its score per
+ * unit of additional distance (at its cheapest insertion position) and inserts one chosen
+ * uniformly from the restricted candidate list (RCL) of the ceil(alpha * nFeasible) best ranked
+ * candidates. The RCL is cardinality rather than value based as candidates lying on an existing
+ * edge cost (almost) nothing to insert, so their ratios would otherwise dwarf (and exclude) every
+ * other candidate.
+ * <p>
+ * The distances between all Points are calculated once, when the GraspConstructor is created, so
+ * many Routes (e.g. a whole population) can be constructed cheaply. Within a construction each
+ * candidate's cheapest insertion edge is maintained incrementally: after an insertion only the
+ * candidates whose cheapest edge was replaced are rescanned, all others are compared against the
+ * two new edges in constant time. As inserting a Point can never make an infeasible candidate
+ * feasible again (by the triangle inequality), infeasible candidates are discarded for the rest of
+ * the construction.
+ * <p>
+ * An alpha of 0 is purely greedy (the RCL always contains at least the best candidate) and an alpha
+ * of 1 purely random (amongst feasible candidates).
+ */
+public class GraspConstructor {
+
+    private static final double EPSILON = 1e-9;
+
+    // nodes are the starting Point, the ending Point and then the candidates
+    private final Point[] nodes;
+    private final double[][] distances;
+    private final double tMax;
+
+    /**
+     * GraspConstructor constructor.
+     *
+     * @param start      The starting Point of every Route.
+     * @param end        The ending Point of every Route.
+     * @param candidates The Points that may be inserted (excluding the starting and ending Points).
+     * @param tMax       The maximum per-route travel time.
+     */
+    public GraspConstructor(Point start, Point end, List<Point> candidates, double tMax) {
+        ArrayList<Point> nodeList = new ArrayList<>(candidates.size() + 2);
+        nodeList.add(start);
+        nodeList.add(end);
+        for (Point candidate : candidates) {
+            if (candidate != start && candidate != end) {
+                nodeList.add(candidate);
+            }
+        }
+        this.nodes = nodeList.toArray(new Point[0]);
+        this.distances = new double[nodes.length][nodes.length];
+        for (int i = 0; i < nodes.length; i++) {
+            for (int j = i + 1; j < nodes.length; j++) {
+                distances[i][j] = Util.euclideanDistance(nodes[i], nodes[j]);
+                distances[j][i] = distances[i][j];
+            }
+        }
+        this.tMax = tMax;
+    }
+
+    /**
+     * construct builds a single Route by repeatedly inserting a Point chosen from the RCL until no
+     * candidate can be feasibly inserted.
+     *
+     * @param alpha The RCL parameter between 0 (greedy) and 1 (random).
+     * @param rand  The Random instance used to choose from the RCL.
+     * @return The Points of the constructed Route (including the starting and ending Points).
+     */
+    public ArrayList<Point> construct(double alpha, Random rand) {
+        if (alpha < 0 || alpha > 1) {
+            throw new IllegalArgumentException("alpha must be between 0 and 1.");
+        }
+        int nCandidates = nodes.length - 2;
+        // the Route as node indexes
+        int[] route = new int[nodes.length];
+        route[0] = 0;
+        route[1] = 1;
+        int routeSize = 2;
+        double totalDistance = distances[0][1];
+
+        // open candidates (swap-removed) and their cheapest insertion edge (previous node) & cost
+        int[] open = new int[nCandidates];
+        int[] bestPrevious = new int[nodes.length];
+        int[] bestNext = new int[nodes.length];
+        double[] bestCost = new double[nodes.length];
+        for (int i = 0; i < nCandidates; i++) {
+            open[i] = i + 2;
+            bestPrevious[i + 2] = 0;
+            bestNext[i + 2] = 1;
+            bestCost[i + 2] = insertionCost(0, i + 2, 1);
+        }
+        int nOpen = nCandidates;
+        double[] ratios = new double[nCandidates];
+        double[] selection = new double[nCandidates];
+
+        while (nOpen > 0) {
+            for (int i = nOpen - 1; i >= 0; i--) {
+                int candidate = open[i];
+                if (totalDistance + bestCost[candidate] > tMax) {
+                    open[i] = open[--nOpen];
+                    ratios[i] = ratios[nOpen];
+                    continue;
+                }
+                ratios[i] = nodes[candidate].getScore() / (bestCost[candidate] + EPSILON);
+            }
+            if (nOpen == 0) {
+                break;
+            }
+
+            // the RCL holds every candidate whose ratio is at least the rclSize-th largest ratio
+            int rclSize = Math.max(1, (int) Math.ceil(alpha * nOpen));
+            System.arraycopy(ratios, 0, selection, 0, nOpen);
+            double threshold = kthLargest(selection, nOpen, rclSize);
+            // choose uniformly from the RCL (via reservoir sampling so only one pass is needed)
+            int chosen = -1;
+            int seen = 0;
+            for (int i = 0; i < nOpen; i++) {
+                if (ratios[i] >= threshold && rand.nextInt(++seen) == 0) {
+                    chosen = i;
+                }
+            }
+            int inserted = open[chosen];
+            open[chosen] = open[--nOpen];
+
+            // insert between the previous & next nodes of its cheapest edge
+            int previous = bestPrevious[inserted];
+            int next = bestNext[inserted];
+            int index = 1;
+            while (route[index - 1] != previous) {
+                index++;
+            }
+            System.arraycopy(route, index, route, index + 1, routeSize - index);
+            route[index] = inserted;
+            routeSize++;
+            totalDistance += bestCost[inserted];
+
+            for (int i = 0; i < nOpen; i++) {
+                int candidate = open[i];
+                if (bestPrevious[candidate] == previous && bestNext[candidate] == next) {
+                    rescan(candidate, route, routeSize, bestPrevious, bestNext, bestCost);
+                } else {
+                    offer(candidate, previous, inserted, bestPrevious, bestNext, bestCost);
+                    offer(candidate, inserted, next, bestPrevious, bestNext, bestCost);
+                }
+            }
+        }
+
+        ArrayList<Point> points = new ArrayList<>(routeSize);
+        for (int i = 0; i < routeSize; i++) {
+            points.add(nodes[route[i]]);
+        }
+        return points;
+    }
+
+    private double insertionCost(int previous, int node, int next) {
+        return distances[previous][node] + distances[node][next] - distances[previous][next];
+    }
+
+    private void offer(int candidate, int previous, int next, int[] bestPrevious, int[] bestNext,
+        double[] bestCost) {
+        double cost = insertionCost(previous, candidate, next);
+        if (cost < bestCost[candidate]) {
+            bestPrevious[candidate] = previous;
+            bestNext[candidate] = next;
+            bestCost[candidate] = cost;
+        }
+    }
+
+    private void rescan(int candidate, int[] route, int routeSize, int[] bestPrevious,
+        int[] bestNext, double[] bestCost) {
+        bestCost[candidate] = Double.MAX_VALUE;
+        for (int i = 1; i < routeSize; i++) {
+            offer(candidate, route[i - 1], route[i], bestPrevious, bestNext, bestCost);
+        }
+    }
+
+    /**
+     * kthLargest returns the k-th largest of the first n values via quickselect (reordering
+     * values).
+     */
+    private static double kthLargest(double[] values, int n, int k) {
+        int left = 0;
+        int right = n - 1;
+        int target = k - 1;
+        while (left < right) {
+            double pivot = values[(left + right) >>> 1];
+            int i = left;
+            int j = right;
+            while (i <= j) {
+                while (values[i] > pivot) {
+                    i++;
+                }
+                while (values[j] < pivot) {
+                    j--;
+                }
+                if (i <= j) {
+                    double tmp = values[i];
+                    values[i++] = values[j];
+                    values[j--] = tmp;
+                }
+            }
+            if (target <= j) {
+                right = j;
+            } else if (target >= i) {
+                left = i;
+            } else {
+                break;
+            }
+        }
+        return values[target];
+    }
+}
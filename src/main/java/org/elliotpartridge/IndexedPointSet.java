@@ -0,0 +1,159 @@
+package org.elliotpartridge;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Random;
+
+/**
+ * IndexedPointSet is a set of Points stored within an array alongside an index of each Point's
+ * position, so that add, remove, contains and uniform random sampling are all O(1) (removal swaps
+ * the last Point into the removed Point's position).
+ * <p>
+ * Points can also be temporarily excluded, which swaps them behind the active Points so that
+ * sample only returns Points that have not been excluded. This allows sampling from the set minus
+ * another collection of Points (e.g. the Points of a Route) in time proportional to the size of
+ * that collection rather than by repeatedly sampling and rejecting. restore makes every Point
+ * active again.
+ */
+public class IndexedPointSet {
+
+    private Point[] points;
+    private final HashMap<Point, Integer> indexes;
+    private int size;
+    private int activeSize;
+
+    /**
+     * IndexedPointSet constructor.
+     */
+    public IndexedPointSet() {
+        this.points = new Point[8];
+        this.indexes = new HashMap<>();
+        this.size = 0;
+        this.activeSize = 0;
+    }
+
+    /**
+     * IndexedPointSet constructor.
+     *
+     * @param points The Points to add.
+     */
+    public IndexedPointSet(Iterable<Point> points) {
+        this();
+        for (Point point : points) {
+            add(point);
+        }
+    }
+
+    /**
+     * size returns the number of Points within the set (including excluded Points).
+     *
+     * @return The number of Points.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * activeSize getter.
+     *
+     * @return The number of Points that have not been excluded.
+     */
+    public int getActiveSize() {
+        return activeSize;
+    }
+
+    /**
+     * contains checks whether point is within the set (whether excluded or not).
+     *
+     * @param point The Point to check.
+     * @return true if the set contains point, otherwise false.
+     */
+    public boolean contains(Point point) {
+        return indexes.containsKey(point);
+    }
+
+    /**
+     * add adds point to the set (restoring any excluded Points first).
+     *
+     * @param point The Point to add.
+     * @return true if point was added, false if the set already contained it.
+     */
+    public boolean add(Point point) {
+        restore();
+        if (indexes.containsKey(point)) {
+            return false;
+        }
+        if (size == points.length) {
+            points = Arrays.copyOf(points, size * 2);
+        }
+        points[size] = point;
+        indexes.put(point, size);
+        size++;
+        activeSize = size;
+        return true;
+    }
+
+    /**
+     * remove removes point from the set (restoring any excluded Points first).
+     *
+     * @param point The Point to remove.
+     * @return true if point was removed, false if the set did not contain it.
+     */
+    public boolean remove(Point point) {
+        restore();
+        Integer index = indexes.remove(point);
+        if (index == null) {
+            return false;
+        }
+        size--;
+        if (index != size) {
+            points[index] = points[size];
+            indexes.put(points[index], index);
+        }
+        points[size] = null;
+        activeSize = size;
+        return true;
+    }
+
+    /**
+     * exclude temporarily excludes point from sampling until restore is called.
+     *
+     * @param point The Point to exclude.
+     * @return true if point was excluded, false if the set does not contain it or it is already
+     * excluded.
+     */
+    public boolean exclude(Point point) {
+        Integer index = indexes.get(point);
+        if (index == null || index >= activeSize) {
+            return false;
+        }
+        activeSize--;
+        swap(index, activeSize);
+        return true;
+    }
+
+    /**
+     * restore makes every excluded Point available for sampling again.
+     */
+    public void restore() {
+        activeSize = size;
+    }
+
+    /**
+     * sample returns a uniformly random Point that has not been excluded.
+     *
+     * @param rand The Random instance to sample with.
+     * @return The sampled Point, or null if every Point has been excluded.
+     */
+    public Point sample(Random rand) {
+        return activeSize == 0 ? null : points[rand.nextInt(activeSize)];
+    }
+
+    private void swap(int i, int j) {
+        Point tmp = points[i];
+        points[i] = points[j];
+        points[j] = tmp;
+        indexes.put(points[i], i);
+        indexes.put(points[j], j);
+    }
+}
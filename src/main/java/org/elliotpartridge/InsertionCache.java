@@ -0,0 +1,381 @@
+package org.elliotpartridge;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * InsertionCache stores, for a single Route, the best and second-best positions (edges) at which
+ * each candidate Point could be inserted and the additional distance each would add. Candidate
+ * entries are calculated on first use and, when the Route is edited via insert or remove, only the
+ * entries whose cached edges were removed by the edit are recalculated. All other entries are
+ * updated in constant time against the newly created edges.
+ */
+public class InsertionCache {
+
+    private final ArrayList<Point> points;
+    private final Set<Point> members;
+    private final Map<Point, Entry> entries;
+    private double totalDistance;
+    private long fingerprint;
+
+    /**
+     * InsertionCache constructor.
+     *
+     * @param points The Points of the Route (including starting and ending Points). The List is
+     *               copied.
+     */
+    public InsertionCache(ArrayList<Point> points) {
+        this.points = new ArrayList<>(points);
+        this.members = new HashSet<>(points);
+        this.entries = new HashMap<>();
+        this.totalDistance = 0;
+        for (int i = 1; i < points.size(); i++) {
+            totalDistance += Util.euclideanDistance(points.get(i - 1), points.get(i));
+        }
+        this.fingerprint = Route.calculateFingerprint(points);
+    }
+
+    /**
+     * points getter.
+     *
+     * @return The Points of the Route in their current order.
+     */
+    public ArrayList<Point> getPoints() {
+        return points;
+    }
+
+    /**
+     * totalDistance getter.
+     *
+     * @return The total Euclidean distance of the Route.
+     */
+    public double getTotalDistance() {
+        return totalDistance;
+    }
+
+    /**
+     * fingerprint getter.
+     *
+     * @return The fingerprint of the Route (see Route.calculateFingerprint), updated incrementally
+     * on every insert and remove.
+     */
+    public long getFingerprint() {
+        return fingerprint;
+    }
+
+    /**
+     * contains checks whether the Route contains point.
+     *
+     * @param point The Point to check.
+     * @return true if the Route contains point, otherwise false.
+     */
+    public boolean contains(Point point) {
+        return members.contains(point);
+    }
+
+    /**
+     * getInsertionCost returns the lowest additional distance caused by inserting point into the
+     * Route.
+     *
+     * @param point The Point (not already within the Route) to be inserted.
+     * @return The lowest additional distance, or Double.MAX_VALUE if the Route has fewer than 2
+     * Points.
+     */
+    public double getInsertionCost(Point point) {
+        return getEntry(point).bestCost;
+    }
+
+    /**
+     * getSecondInsertionCost returns the second lowest additional distance caused by inserting
+     * point into the Route i.e. the cost of its next best position.
+     *
+     * @param point The Point (not already within the Route) to be inserted.
+     * @return The second lowest additional distance, or Double.MAX_VALUE if only one position
+     * exists.
+     */
+    public double getSecondInsertionCost(Point point) {
+        return getEntry(point).secondCost;
+    }
+
+    /**
+     * isFeasible checks whether point can be inserted into the Route without the Route's
+     * totalDistance exceeding tMax.
+     *
+     * @param point The Point (not already within the Route) to be inserted.
+     * @param tMax  The maximum per-route travel time.
+     * @return true if the insertion is feasible, otherwise false.
+     */
+    public boolean isFeasible(Point point, double tMax) {
+        return points.size() >= 2 && totalDistance + getInsertionCost(point) <= tMax;
+    }
+
+    /**
+     * getInsertionIndex returns the index at which point should be inserted to minimise the
+     * additional distance (equivalent to Algorithm.lowestAdditionalDistanceIndex).
+     *
+     * @param point The Point to be inserted.
+     * @return The index at which to insert point, or -1 if the Route already contains point or has
+     * fewer than 2 Points.
+     */
+    public int getInsertionIndex(Point point) {
+        if (contains(point) || points.size() < 2) {
+            return -1;
+        }
+        return points.indexOf(getEntry(point).bestPrevious) + 1;
+    }
+
+    /**
+     * insert inserts point at its lowest additional distance position, updating the cached
+     * entries of all other candidates.
+     *
+     * @param point The Point (not already within the Route) to insert.
+     * @return The index at which point was inserted, or -1 if it could not be inserted.
+     */
+    public int insert(Point point) {
+        int index = getInsertionIndex(point);
+        if (index == -1) {
+            return -1;
+        }
+        Point previous = points.get(index - 1);
+        Point next = points.get(index);
+        totalDistance += getEntry(point).bestCost;
+        fingerprint ^= Route.edgeKey(previous, next) ^ Route.edgeKey(previous, point)
+            ^ Route.edgeKey(point, next);
+        points.add(index, point);
+        members.add(point);
+        entries.remove(point);
+
+        for (Map.Entry<Point, Entry> cached : entries.entrySet()) {
+            Entry entry = cached.getValue();
+            if (entry.uses(previous, next)) {
+                calculateEntry(cached.getKey(), entry);
+            } else {
+                entry.offer(previous, point, insertionCost(previous, cached.getKey(), point));
+                entry.offer(point, next, insertionCost(point, cached.getKey(), next));
+            }
+        }
+        return index;
+    }
+
+    /**
+     * remove removes the Point at index (which cannot be the starting or ending Point), updating
+     * the cached entries of all candidates.
+     *
+     * @param index The index of the Point to remove.
+     * @return The removed Point.
+     */
+    public Point remove(int index) {
+        if (index <= 0 || index >= points.size() - 1) {
+            throw new IndexOutOfBoundsException("index must not be the starting or ending Point");
+        }
+        Point previous = points.get(index - 1);
+        Point removed = points.get(index);
+        Point next = points.get(index + 1);
+        totalDistance += Util.euclideanDistance(previous, next)
+            - Util.euclideanDistance(previous, removed) - Util.euclideanDistance(removed, next);
+        fingerprint ^= Route.edgeKey(previous, removed) ^ Route.edgeKey(removed, next)
+            ^ Route.edgeKey(previous, next);
+        points.remove(index);
+        members.remove(removed);
+
+        for (Map.Entry<Point, Entry> cached : entries.entrySet()) {
+            Entry entry = cached.getValue();
+            if (entry.uses(previous, removed) || entry.uses(removed, next)) {
+                calculateEntry(cached.getKey(), entry);
+            } else {
+                entry.offer(previous, next, insertionCost(previous, cached.getKey(), next));
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * regretInsertion repeatedly inserts the Point from candidates with the highest regret-k
+     * priority into the Route where it adds the least distance, until no candidate can be inserted
+     * into any Route without exceeding tMax. A candidate's regret is the sum of the differences
+     * between the cost of its best insertion and the costs of its next k - 1 best insertions across
+     * routeCaches (Routes it cannot be feasibly inserted into cost tMax), and its priority is its
+     * score per unit of best insertion cost weighted by (1 + regret / tMax). A k of 1 is therefore
+     * purely greedy. As insertion costs are cached only the Route that was edited is rescanned.
+     * <p>
+     * Note, regret insertion adapted from: (Ropke, S. and Pisinger, D., 2006, An Adaptive Large
+     * Neighborhood Search Heuristic for the Pickup and Delivery Problem with Time Windows).
+     *
+     * @param routeCaches The InsertionCaches of the Routes which to insert candidates into.
+     * @param candidates  The Points which may be inserted (Points already within a Route are
+     *                    ignored).
+     * @param k           The number of best insertions considered when calculating regret.
+     * @param tMax        The maximum per-route travel time.
+     * @return The Points that were inserted, in the order they were inserted.
+     */
+    public static ArrayList<Point> regretInsertion(List<InsertionCache> routeCaches,
+        Collection<Point> candidates, int k, double tMax) {
+        return regretInsertion(routeCaches, candidates, k, tMax, 0, null);
+    }
+
+    /**
+     * regretInsertion performs regret-k insertion (see regretInsertion) where the best insertion
+     * cost used to calculate each candidate's priority is perturbed by uniform noise of up to
+     * noise * tMax in either direction (never falling below 0), so that repeated insertions
+     * explore different solutions. Feasibility is always checked against the true cost.
+     * <p>
+     * Note, noise adapted from: (Ropke, S. and Pisinger, D., 2006, An Adaptive Large Neighborhood
+     * Search Heuristic for the Pickup and Delivery Problem with Time Windows).
+     *
+     * @param routeCaches The InsertionCaches of the Routes which to insert candidates into.
+     * @param candidates  The Points which may be inserted (Points already within a Route are
+     *                    ignored).
+     * @param k           The number of best insertions considered when calculating regret.
+     * @param tMax        The maximum per-route travel time.
+     * @param noise       The maximum noise as a percentage of tMax (0 for no noise).
+     * @param rand        The Random instance used to generate noise (unused if noise is 0).
+     * @return The Points that were inserted, in the order they were inserted.
+     */
+    public static ArrayList<Point> regretInsertion(List<InsertionCache> routeCaches,
+        Collection<Point> candidates, int k, double tMax, double noise, Random rand) {
+        ArrayList<Point> remaining = new ArrayList<>();
+        for (Point candidate : candidates) {
+            if (routeCaches.stream().noneMatch(cache -> cache.contains(candidate))) {
+                remaining.add(candidate);
+            }
+        }
+
+        ArrayList<Point> inserted = new ArrayList<>();
+        double[] bestCosts = new double[Math.max(1, k)];
+        while (true) {
+            int bestCandidate = -1;
+            int bestCandidateRoute = -1;
+            double bestPriority = -Double.MAX_VALUE;
+            for (int c = 0; c < remaining.size(); c++) {
+                Point candidate = remaining.get(c);
+                Arrays.fill(bestCosts, tMax);
+                int candidateRoute = -1;
+                for (int r = 0; r < routeCaches.size(); r++) {
+                    if (!routeCaches.get(r).isFeasible(candidate, tMax)) {
+                        continue;
+                    }
+                    double cost = routeCaches.get(r).getInsertionCost(candidate);
+                    if (candidateRoute == -1 || cost < bestCosts[0]) {
+                        candidateRoute = r;
+                    }
+                    // insertion sort into the k best costs
+                    int insertIndex = bestCosts.length - 1;
+                    if (cost < bestCosts[insertIndex]) {
+                        while (insertIndex > 0 && bestCosts[insertIndex - 1] > cost) {
+                            bestCosts[insertIndex] = bestCosts[insertIndex - 1];
+                            insertIndex--;
+                        }
+                        bestCosts[insertIndex] = cost;
+                    }
+                }
+                if (candidateRoute == -1) {
+                    // inserting Points never makes a candidate feasible again (triangle inequality)
+                    remaining.set(c, remaining.get(remaining.size() - 1));
+                    remaining.remove(remaining.size() - 1);
+                    c--;
+                    continue;
+                }
+                double regret = 0;
+                for (int i = 1; i < bestCosts.length; i++) {
+                    regret += bestCosts[i] - bestCosts[0];
+                }
+                double cost = bestCosts[0];
+                if (noise > 0) {
+                    cost = Math.max(0, cost + noise * tMax * (2 * rand.nextDouble() - 1));
+                }
+                double priority = candidate.getScore() / Math.max(cost, 1e-9)
+                    * (1 + regret / tMax);
+                if (priority > bestPriority) {
+                    bestPriority = priority;
+                    bestCandidate = c;
+                    bestCandidateRoute = candidateRoute;
+                }
+            }
+            if (bestCandidate == -1) {
+                break;
+            }
+            Point point = remaining.get(bestCandidate);
+            routeCaches.get(bestCandidateRoute).insert(point);
+            remaining.set(bestCandidate, remaining.get(remaining.size() - 1));
+            remaining.remove(remaining.size() - 1);
+            inserted.add(point);
+        }
+        return inserted;
+    }
+
+    private Entry getEntry(Point point) {
+        Entry entry = entries.get(point);
+        if (entry == null) {
+            entry = new Entry();
+            calculateEntry(point, entry);
+            entries.put(point, entry);
+        }
+        return entry;
+    }
+
+    /**
+     * calculateEntry scans every edge of the Route to find the best and second-best insertion
+     * positions of point.
+     */
+    private void calculateEntry(Point point, Entry entry) {
+        entry.reset();
+        for (int i = 0, j = i + 1; j < points.size(); i++, j++) {
+            entry.offer(points.get(i), points.get(j),
+                insertionCost(points.get(i), point, points.get(j)));
+        }
+    }
+
+    private static double insertionCost(Point previous, Point point, Point next) {
+        return Util.euclideanDistance(previous, point) + Util.euclideanDistance(point, next)
+            - Util.euclideanDistance(previous, next);
+    }
+
+    /**
+     * Entry stores the best and second-best insertion edges (and their costs) for a candidate.
+     */
+    private static final class Entry {
+
+        Point bestPrevious;
+        Point bestNext;
+        double bestCost;
+        Point secondPrevious;
+        Point secondNext;
+        double secondCost;
+
+        void reset() {
+            bestPrevious = null;
+            bestNext = null;
+            bestCost = Double.MAX_VALUE;
+            secondPrevious = null;
+            secondNext = null;
+            secondCost = Double.MAX_VALUE;
+        }
+
+        boolean uses(Point previous, Point next) {
+            return (bestPrevious == previous && bestNext == next)
+                || (secondPrevious == previous && secondNext == next);
+        }
+
+        void offer(Point previous, Point next, double cost) {
+            if (cost < bestCost) {
+                secondPrevious = bestPrevious;
+                secondNext = bestNext;
+                secondCost = bestCost;
+                bestPrevious = previous;
+                bestNext = next;
+                bestCost = cost;
+            } else if (cost < secondCost) {
+                secondPrevious = previous;
+                secondNext = next;
+                secondCost = cost;
+            }
+        }
+    }
+}
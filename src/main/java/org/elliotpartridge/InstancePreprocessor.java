@@ -0,0 +1,172 @@
+package org.elliotpartridge;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+/**
+ * InstancePreprocessor reduces the candidate Points of a TOP instance once, before any Route is
+ * constructed, so that every downstream operator searches a smaller set. Three reductions are
+ * applied in order:
+ * <p>
+ * 1. Unreachable Points, where the direct route start -> p -> end exceeds tMax, are removed as no
+ * feasible Route can visit them.
+ * <p>
+ * 2. Points with a score of 0 (or less) are removed as visiting them never improves a Route.
+ * <p>
+ * 3. Co-located Points (identical coordinates) are collapsed into a single representative Point,
+ * with the id of the first and the summed score, as visiting one costs no extra distance to visit
+ * the others.
+ * <p>
+ * The Points each representative replaces are recorded so that Routes can be reported in terms of
+ * the original Points.
+ */
+public class InstancePreprocessor {
+
+    private final ArrayList<Point> points;
+    private final LinkedHashMap<Point, ArrayList<Point>> collapsedPoints;
+    private final int nUnreachable;
+    private final int nZeroScore;
+
+    /**
+     * InstancePreprocessor constructor, which preprocesses points.
+     *
+     * @param start  The starting Point of every Route.
+     * @param end    The ending Point of every Route.
+     * @param points The Points that may be visited (excluding the starting and ending Points).
+     * @param tMax   The maximum per-route travel time.
+     */
+    public InstancePreprocessor(Point start, Point end, List<Point> points, double tMax) {
+        ArrayList<Point> candidates = new ArrayList<>(points.size());
+        int unreachable = 0;
+        int zeroScore = 0;
+        for (Point point : points) {
+            if (point == start || point == end) {
+                continue;
+            }
+            if (Util.euclideanDistance(start, point) + Util.euclideanDistance(point, end) > tMax) {
+                unreachable++;
+            } else if (point.getScore() <= 0) {
+                zeroScore++;
+            } else {
+                candidates.add(point);
+            }
+        }
+        this.nUnreachable = unreachable;
+        this.nZeroScore = zeroScore;
+
+        // group co-located Points by their coordinates, preserving the original order
+        LinkedHashMap<List<Double>, ArrayList<Point>> locations = new LinkedHashMap<>();
+        for (Point point : candidates) {
+            locations.computeIfAbsent(List.of(point.getLongitude(), point.getLatitude()),
+                location -> new ArrayList<>(1)).add(point);
+        }
+        this.points = new ArrayList<>(locations.size());
+        this.collapsedPoints = new LinkedHashMap<>();
+        for (ArrayList<Point> colocated : locations.values()) {
+            Point first = colocated.get(0);
+            if (colocated.size() == 1) {
+                this.points.add(first);
+                continue;
+            }
+            double score = 0;
+            for (Point point : colocated) {
+                score += point.getScore();
+            }
+            Point representative = new Point(first.getId(), first.getLongitude(),
+                first.getLatitude(), score);
+            this.points.add(representative);
+            this.collapsedPoints.put(representative, colocated);
+        }
+    }
+
+    /**
+     * InstancePreprocessor constructor, which preprocesses dataset, whose first and last Points
+     * are the starting and ending Points (i.e. before TopData.removeTOPStartingAndEndingPoints has
+     * been called).
+     *
+     * @param dataset The TOP instance.
+     */
+    public InstancePreprocessor(TopData dataset) {
+        this(dataset.getPoints().get(0), dataset.getPoints().get(dataset.getPoints().size() - 1),
+            dataset.getPoints(), dataset.gettMax());
+    }
+
+    /**
+     * points getter.
+     *
+     * @return The reduced candidate Points, including any representative Points.
+     */
+    public ArrayList<Point> getPoints() {
+        return points;
+    }
+
+    /**
+     * collapsedPoints getter.
+     *
+     * @return The co-located Points replaced by each representative Point.
+     */
+    public HashMap<Point, ArrayList<Point>> getCollapsedPoints() {
+        return collapsedPoints;
+    }
+
+    /**
+     * nUnreachable getter.
+     *
+     * @return The number of Points removed as start -> p -> end exceeds tMax.
+     */
+    public int getnUnreachable() {
+        return nUnreachable;
+    }
+
+    /**
+     * nZeroScore getter.
+     *
+     * @return The number of reachable Points removed as their score is 0 (or less).
+     */
+    public int getnZeroScore() {
+        return nZeroScore;
+    }
+
+    /**
+     * getnCollapsed returns the number of Points removed by collapsing co-located Points i.e. the
+     * number of co-located Points less the number of representative Points replacing them.
+     *
+     * @return The number of Points removed by collapsing.
+     */
+    public int getnCollapsed() {
+        int nCollapsed = 0;
+        for (ArrayList<Point> colocated : collapsedPoints.values()) {
+            nCollapsed += colocated.size() - 1;
+        }
+        return nCollapsed;
+    }
+
+    /**
+     * getOriginalPoints returns the original Points that point represents.
+     *
+     * @param point A Point within a Route built from the reduced candidate Points.
+     * @return The co-located Points point replaced, otherwise point itself.
+     */
+    public List<Point> getOriginalPoints(Point point) {
+        ArrayList<Point> colocated = collapsedPoints.get(point);
+        return colocated == null ? Collections.singletonList(point) : colocated;
+    }
+
+    /**
+     * expand returns the Points of route with every representative Point replaced by the original
+     * Points it represents.
+     *
+     * @param route A Route built from the reduced candidate Points.
+     * @return The original Points visited by route, in order.
+     */
+    public ArrayList<Point> expand(Route route) {
+        ArrayList<Point> expanded = new ArrayList<>(route.getPoints().size());
+        for (Point point : route.getPoints()) {
+            expanded.addAll(getOriginalPoints(point));
+        }
+        return expanded;
+    }
+}
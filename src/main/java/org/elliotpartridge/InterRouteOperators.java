@@ -0,0 +1,269 @@
+package org.elliotpartridge;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * InterRouteOperators provides local search moves that exchange Points between two Routes which
+ * share the same starting and ending Points in order to reduce their combined totalDistance. The
+ * supported moves are relocate (a single Point moves to the other Route), swap (two Points trade
+ * places), cross-exchange (segments of up to MAX_SEGMENT_LENGTH Points trade places, including
+ * relocating a segment) and 2-Opt* (the Routes exchange their tails). Every move is evaluated in
+ * constant time using prefix distances and the Points visited by the pair are never changed, only
+ * which Route visits them and in which order.
+ */
+public class InterRouteOperators {
+
+    /**
+     * MAX_SEGMENT_LENGTH is the maximum number of consecutive Points moved by a cross-exchange.
+     */
+    public static final int MAX_SEGMENT_LENGTH = 3;
+
+    private static final double EPSILON = 1e-9;
+
+    /**
+     * improvePair repeatedly applies the best improving move between route1 and route2 until no
+     * move reduces their combined totalDistance whilst keeping both within tMax.
+     *
+     * @param route1 The first Route.
+     * @param route2 The second Route.
+     * @param tMax   The maximum per-route travel time.
+     * @return true if the Routes were improved, otherwise false.
+     */
+    public static boolean improvePair(Route route1, Route route2, double tMax) {
+        ArrayList<Point> a = new ArrayList<>(route1.getPoints());
+        ArrayList<Point> b = new ArrayList<>(route2.getPoints());
+        if (a.size() < 2 || b.size() < 2) {
+            return false;
+        }
+
+        boolean improved = false;
+        Move best = new Move();
+        while (true) {
+            double[] prefixA = prefixDistances(a);
+            double[] prefixB = prefixDistances(b);
+            best.delta = -EPSILON;
+            best.type = Move.NONE;
+            findBestCrossExchange(a, b, prefixA, prefixB, tMax, best);
+            findBestTwoOptStar(a, b, prefixA, prefixB, tMax, best);
+            if (best.type == Move.NONE) {
+                break;
+            }
+            ArrayList<Point> newA = new ArrayList<>(a.size() + MAX_SEGMENT_LENGTH);
+            ArrayList<Point> newB = new ArrayList<>(b.size() + MAX_SEGMENT_LENGTH);
+            if (best.type == Move.CROSS_EXCHANGE) {
+                newA.addAll(a.subList(0, best.i));
+                newA.addAll(b.subList(best.j, best.j + best.lengthB));
+                newA.addAll(a.subList(best.i + best.lengthA, a.size()));
+                newB.addAll(b.subList(0, best.j));
+                newB.addAll(a.subList(best.i, best.i + best.lengthA));
+                newB.addAll(b.subList(best.j + best.lengthB, b.size()));
+            } else {
+                newA.addAll(a.subList(0, best.i + 1));
+                newA.addAll(b.subList(best.j + 1, b.size()));
+                newB.addAll(b.subList(0, best.j + 1));
+                newB.addAll(a.subList(best.i + 1, a.size()));
+            }
+            a = newA;
+            b = newB;
+            improved = true;
+        }
+
+        if (improved) {
+            route1.setPoints(a);
+            route2.setPoints(b);
+        }
+        return improved;
+    }
+
+    /**
+     * findBestCrossExchange searches all exchanges of a segment of a (starting at i, of length
+     * lengthA) with a segment of b (starting at j, of length lengthB) where either segment may be
+     * empty. Relocate and swap moves are the (1, 0), (0, 1) and (1, 1) cases.
+     */
+    private static void findBestCrossExchange(ArrayList<Point> a, ArrayList<Point> b,
+        double[] prefixA, double[] prefixB, double tMax, Move best) {
+        int nA = a.size();
+        int nB = b.size();
+        double lengthOfA = prefixA[nA - 1];
+        double lengthOfB = prefixB[nB - 1];
+        for (int lengthA = 0; lengthA <= MAX_SEGMENT_LENGTH; lengthA++) {
+            for (int lengthB = 0; lengthB <= MAX_SEGMENT_LENGTH; lengthB++) {
+                if (lengthA == 0 && lengthB == 0) {
+                    continue;
+                }
+                for (int i = 1; i + lengthA <= nA - 1; i++) {
+                    for (int j = 1; j + lengthB <= nB - 1; j++) {
+                        double deltaA = segmentReplacementDelta(a, prefixA, i, lengthA, b, prefixB,
+                            j, lengthB);
+                        double deltaB = segmentReplacementDelta(b, prefixB, j, lengthB, a, prefixA,
+                            i, lengthA);
+                        double delta = deltaA + deltaB;
+                        if (delta < best.delta && lengthOfA + deltaA <= tMax
+                            && lengthOfB + deltaB <= tMax) {
+                            best.set(Move.CROSS_EXCHANGE, i, j, lengthA, lengthB, delta);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * findBestTwoOptStar searches all exchanges of the tail of a (after position i) with the tail
+     * of b (after position j).
+     */
+    private static void findBestTwoOptStar(ArrayList<Point> a, ArrayList<Point> b,
+        double[] prefixA, double[] prefixB, double tMax, Move best) {
+        int nA = a.size();
+        int nB = b.size();
+        double lengthOfA = prefixA[nA - 1];
+        double lengthOfB = prefixB[nB - 1];
+        for (int i = 0; i < nA - 1; i++) {
+            for (int j = 0; j < nB - 1; j++) {
+                double newLengthOfA = prefixA[i] + Util.euclideanDistance(a.get(i), b.get(j + 1))
+                    + lengthOfB - prefixB[j + 1];
+                double newLengthOfB = prefixB[j] + Util.euclideanDistance(b.get(j), a.get(i + 1))
+                    + lengthOfA - prefixA[i + 1];
+                double delta = newLengthOfA + newLengthOfB - lengthOfA - lengthOfB;
+                if (delta < best.delta && newLengthOfA <= tMax && newLengthOfB <= tMax) {
+                    best.set(Move.TWO_OPT_STAR, i, j, 0, 0, delta);
+                }
+            }
+        }
+    }
+
+    /**
+     * segmentReplacementDelta calculates the change in length of target when its segment starting
+     * at i of length lengthTarget is replaced by the segment of source starting at j of length
+     * lengthSource.
+     */
+    private static double segmentReplacementDelta(ArrayList<Point> target, double[] prefixTarget,
+        int i, int lengthTarget, ArrayList<Point> source, double[] prefixSource, int j,
+        int lengthSource) {
+        Point before = target.get(i - 1);
+        Point after = target.get(i + lengthTarget);
+
+        double removed;
+        if (lengthTarget > 0) {
+            removed = prefixTarget[i + lengthTarget] - prefixTarget[i - 1];
+        } else {
+            removed = Util.euclideanDistance(before, after);
+        }
+
+        double added;
+        if (lengthSource > 0) {
+            Point first = source.get(j);
+            Point last = source.get(j + lengthSource - 1);
+            added = Util.euclideanDistance(before, first)
+                + prefixSource[j + lengthSource - 1] - prefixSource[j]
+                + Util.euclideanDistance(last, after);
+        } else {
+            added = Util.euclideanDistance(before, after);
+        }
+        return added - removed;
+    }
+
+    /**
+     * prefixDistances calculates the cumulative travel distance up to (inclusive) each index of
+     * points.
+     *
+     * @param points The Points of a Route.
+     * @return The cumulative travel distance up to each index.
+     */
+    private static double[] prefixDistances(ArrayList<Point> points) {
+        double[] prefix = new double[points.size()];
+        for (int i = 1; i < points.size(); i++) {
+            prefix[i] = prefix[i - 1] + Util.euclideanDistance(points.get(i - 1), points.get(i));
+        }
+        return prefix;
+    }
+
+    /**
+     * rearrange applies improvePair to each pair of Routes within routes, processing pairs in
+     * rounds of disjoint pairs (see disjointPairRounds) which are evaluated in parallel. Rounds are
+     * repeated until no pair can be improved.
+     *
+     * @param routes The Routes to rearrange.
+     * @param tMax   The maximum per-route travel time.
+     * @return true if any pair of Routes was improved, otherwise false.
+     */
+    public static boolean rearrange(List<Route> routes, double tMax) {
+        List<List<int[]>> rounds = disjointPairRounds(routes.size());
+        boolean improvedAny = false;
+        boolean improved = true;
+        while (improved) {
+            improved = false;
+            for (List<int[]> round : rounds) {
+                boolean roundImproved = round.parallelStream()
+                    .map(pair -> improvePair(routes.get(pair[0]), routes.get(pair[1]), tMax))
+                    .reduce(false, Boolean::logicalOr);
+                improved = improved || roundImproved;
+            }
+            improvedAny = improvedAny || improved;
+        }
+        return improvedAny;
+    }
+
+    /**
+     * disjointPairRounds generates rounds of index pairs (via the circle method round-robin
+     * schedule) such that every unordered pair of 0..n-1 appears exactly once and no index appears
+     * twice within the same round. Pairs within a round can therefore be processed concurrently.
+     *
+     * @param n The number of indexes to pair.
+     * @return The List of rounds, each a List of {first, second} index pairs.
+     */
+    public static List<List<int[]>> disjointPairRounds(int n) {
+        List<List<int[]>> rounds = new ArrayList<>();
+        // an odd number of indexes has a dummy index added, pairs including it are skipped
+        int slots = n % 2 == 0 ? n : n + 1;
+        int[] circle = new int[slots];
+        for (int i = 0; i < slots; i++) {
+            circle[i] = i;
+        }
+        for (int round = 0; round < slots - 1; round++) {
+            List<int[]> pairs = new ArrayList<>();
+            for (int k = 0; k < slots / 2; k++) {
+                int first = circle[k];
+                int second = circle[slots - 1 - k];
+                if (first < n && second < n) {
+                    pairs.add(new int[]{Math.min(first, second), Math.max(first, second)});
+                }
+            }
+            rounds.add(pairs);
+            // rotate all but the first slot
+            int last = circle[slots - 1];
+            System.arraycopy(circle, 1, circle, 2, slots - 2);
+            if (slots > 1) {
+                circle[1] = last;
+            }
+        }
+        return rounds;
+    }
+
+    /**
+     * Move stores the best move found whilst searching the neighbourhoods of a pair of Routes.
+     */
+    private static final class Move {
+
+        static final int NONE = 0;
+        static final int CROSS_EXCHANGE = 1;
+        static final int TWO_OPT_STAR = 2;
+
+        int type;
+        int i;
+        int j;
+        int lengthA;
+        int lengthB;
+        double delta;
+
+        void set(int type, int i, int j, int lengthA, int lengthB, double delta) {
+            this.type = type;
+            this.i = i;
+            this.j = j;
+            this.lengthA = lengthA;
+            this.lengthB = lengthB;
+            this.delta = delta;
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package org.elliotpartridge;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * IntraRouteOperators provides local search moves that reorder the Points within a single Route
+ * (keeping the starting and ending Points fixed) in order to reduce its totalDistance. Every move is
+ * evaluated in constant time from the lengths of the edges it removes and adds and the Route is only
+ * rebuilt once no further improving move exists.
+ */
+public class IntraRouteOperators {
+
+    /**
+     * MAX_SEGMENT_LENGTH is the maximum number of consecutive Points moved by orOpt.
+     */
+    public static final int MAX_SEGMENT_LENGTH = 3;
+
+    private static final double EPSILON = 1e-9;
+
+    /**
+     * orOpt repeatedly moves segments of 1 to MAX_SEGMENT_LENGTH consecutive Points to the position
+     * elsewhere in the Route that reduces the Route's totalDistance. If allowReversal is true
+     * segments may also be reinserted in reverse order (the Or-2-Opt / segment insertion 3-Opt
+     * variant).
+     * <p>
+     * Note, Or-Opt adapted from: (Or, I., 1976, Traveling Salesman-Type Combinatorial Problems and
+     * their Relation to the Logistics of Regional Blood Banking).
+     *
+     * @param route         The Route to perform orOpt upon.
+     * @param allowReversal Whether segments may be reinserted in reverse order.
+     * @return true if the Route was improved, otherwise false.
+     */
+    public static boolean orOpt(Route route, boolean allowReversal) {
+        Point[] tour = route.getPoints().toArray(new Point[0]);
+        int n = tour.length;
+        boolean improved = false;
+        boolean improving = true;
+        while (improving) {
+            improving = false;
+            search:
+            for (int segmentLength = 1; segmentLength <= MAX_SEGMENT_LENGTH; segmentLength++) {
+                for (int i = 1; i + segmentLength - 1 <= n - 2; i++) {
+                    int last = i + segmentLength - 1;
+                    Point previous = tour[i - 1];
+                    Point next = tour[last + 1];
+                    double removalGain = Util.euclideanDistance(previous, tour[i])
+                        + Util.euclideanDistance(tour[last], next)
+                        - Util.euclideanDistance(previous, next);
+
+                    // try re-inserting the segment between every pair of Points outside of it
+                    for (int j = 0; j < n - 1; j++) {
+                        if (j >= i - 1 && j <= last) {
+                            continue;
+                        }
+                        double edge = Util.euclideanDistance(tour[j], tour[j + 1]);
+                        double forwardCost = Util.euclideanDistance(tour[j], tour[i])
+                            + Util.euclideanDistance(tour[last], tour[j + 1]) - edge;
+                        boolean reverse = false;
+                        double insertionCost = forwardCost;
+                        if (allowReversal) {
+                            double reverseCost = Util.euclideanDistance(tour[j], tour[last])
+                                + Util.euclideanDistance(tour[i], tour[j + 1]) - edge;
+                            if (reverseCost < forwardCost) {
+                                insertionCost = reverseCost;
+                                reverse = true;
+                            }
+                        }
+                        if (insertionCost - removalGain < -EPSILON) {
+                            moveSegment(tour, i, segmentLength, j, reverse);
+                            improved = true;
+                            improving = true;
+                            break search;
+                        }
+                    }
+                }
+            }
+        }
+        if (improved) {
+            route.setPoints(new ArrayList<>(Arrays.asList(tour)));
+        }
+        return improved;
+    }
+
+    /**
+     * swap repeatedly exchanges the positions of two Points within the Route whenever doing so
+     * reduces the Route's totalDistance.
+     *
+     * @param route The Route to perform swap upon.
+     * @return true if the Route was improved, otherwise false.
+     */
+    public static boolean swap(Route route) {
+        Point[] tour = route.getPoints().toArray(new Point[0]);
+        int n = tour.length;
+        boolean improved = false;
+        boolean improving = true;
+        while (improving) {
+            improving = false;
+            for (int i = 1; i < n - 2; i++) {
+                for (int j = i + 1; j <= n - 2; j++) {
+                    if (swapDelta(tour, i, j) < -EPSILON) {
+                        Point tmp = tour[i];
+                        tour[i] = tour[j];
+                        tour[j] = tmp;
+                        improved = true;
+                        improving = true;
+                    }
+                }
+            }
+        }
+        if (improved) {
+            route.setPoints(new ArrayList<>(Arrays.asList(tour)));
+        }
+        return improved;
+    }
+
+    /**
+     * swapDelta calculates the change in distance caused by exchanging the Points at positions i
+     * and j (i < j) of tour.
+     *
+     * @param tour The Points of the Route.
+     * @param i    The first position.
+     * @param j    The second position.
+     * @return The change in totalDistance caused by the swap.
+     */
+    private static double swapDelta(Point[] tour, int i, int j) {
+        Point a = tour[i - 1];
+        Point b = tour[j + 1];
+        if (j == i + 1) {
+            return Util.euclideanDistance(a, tour[j]) + Util.euclideanDistance(tour[i], b)
+                - Util.euclideanDistance(a, tour[i]) - Util.euclideanDistance(tour[j], b);
+        }
+        double removed = Util.euclideanDistance(a, tour[i])
+            + Util.euclideanDistance(tour[i], tour[i + 1])
+            + Util.euclideanDistance(tour[j - 1], tour[j])
+            + Util.euclideanDistance(tour[j], b);
+        double added = Util.euclideanDistance(a, tour[j])
+            + Util.euclideanDistance(tour[j], tour[i + 1])
+            + Util.euclideanDistance(tour[j - 1], tour[i])
+            + Util.euclideanDistance(tour[i], b);
+        return added - removed;
+    }
+
+    /**
+     * moveSegment moves the segment of length segmentLength starting at position start so that it
+     * lies between the Points currently at positions j and j + 1.
+     *
+     * @param tour          The Points of the Route.
+     * @param start         The first position of the segment.
+     * @param segmentLength The number of Points in the segment.
+     * @param j             The position after which the segment is to be inserted.
+     * @param reverse       Whether the segment is inserted in reverse order.
+     */
+    private static void moveSegment(Point[] tour, int start, int segmentLength, int j,
+        boolean reverse) {
+        Point[] segment = Arrays.copyOfRange(tour, start, start + segmentLength);
+        int insertAt;
+        if (j < start) {
+            System.arraycopy(tour, j + 1, tour, j + 1 + segmentLength, start - j - 1);
+            insertAt = j + 1;
+        } else {
+            System.arraycopy(tour, start + segmentLength, tour, start,
+                j - start - segmentLength + 1);
+            insertAt = j - segmentLength + 1;
+        }
+        for (int k = 0; k < segmentLength; k++) {
+            tour[insertAt + k] = reverse ? segment[segmentLength - 1 - k] : segment[k];
+        }
+    }
+}
@@ -0,0 +1,430 @@
+package org.elliotpartridge;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * MultilevelRefinement solves large TOP problem instances via coarsen-solve-refine:
+ * <p>
+ * 1. Coarsen: the reachable candidate Points are repeatedly coarsened by matching each Point with
+ * one of its NEIGHBOUR_LIST_SIZE nearest unmatched neighbours (closest pairs first) and merging
+ * each pair into a super-node located at their score-weighted centroid whose score is their
+ * combined score, until at most coarsestSize super-nodes remain or a level fails to shrink by
+ * MIN_COARSENING_PERCENT.
+ * <p>
+ * 2. Solve: the coarsest level is solved via Algorithm (with the genetic algorithm parameters
+ * given to the constructor). As super-nodes hide the distance between the nodes they merge, each
+ * coarse level is given a reduced tMax (see levelTMax).
+ * <p>
+ * 3. Refine: level by level, every super-node within a Route is replaced by the two nodes it was
+ * merged from (nearest to the preceding node first) and the Routes are refined using an Algorithm
+ * built over that level's nodes: completeTwoOpt shortens each Route, dropWorstTravelScoreRatioPoint
+ * removes nodes until each Route is within the level's tMax, then rearrange exchanges nodes
+ * between Routes, regretInsertion fills the distance freed with unvisited nodes and replace swaps
+ * visited nodes for higher scoring unvisited ones, repeating whilst nodes are inserted.
+ * <p>
+ * Note, multilevel refinement adapted from: (Walshaw, C., 2002, A Multilevel Approach to the
+ * Travelling Salesman Problem).
+ */
+public class MultilevelRefinement extends TopSolver {
+
+    /**
+     * DEFAULT_COARSEST_SIZE is the default maximum number of nodes within the coarsest level.
+     */
+    public static final int DEFAULT_COARSEST_SIZE = 150;
+
+    /**
+     * NEIGHBOUR_LIST_SIZE is the number of nearest neighbours a node may be matched with.
+     */
+    public static final int NEIGHBOUR_LIST_SIZE = 5;
+
+    /**
+     * MIN_COARSENING_PERCENT is the minimum proportion by which a level must shrink for coarsening
+     * to continue.
+     */
+    public static final double MIN_COARSENING_PERCENT = 0.1;
+
+    /**
+     * EDGE_LENGTH_RATIO is the assumed ratio of the length of a Route's edges to the nearest
+     * neighbour distance of the nodes they reach, used to estimate how much of a coarse Route's
+     * length is hidden within its super-nodes (see levelTMax).
+     */
+    public static final double EDGE_LENGTH_RATIO = 4;
+
+    private final int popSize;
+    private final int tourTriesMax;
+    private final double pCrossover;
+    private final double pMutate;
+    private final double elitistReplacementPercent;
+    private final int maxGenerations;
+    private int coarsestSize;
+    private int nLevels;
+
+    /**
+     * MultilevelRefinement constructor.
+     *
+     * @param dataset                   The TOP instance to solve, its first and last Points
+     *                                  are removed.
+     * @param popSize                   The size of the population used to solve the coarsest
+     *                                  level.
+     * @param tourTriesMax              The maximum number of unsuccessful tries (per-route) to
+     *                                  improve the route within the initialisePopulation phase.
+     * @param pCrossover                The probability of crossover occurring.
+     * @param pMutate                   The probability of mutation occurring.
+     * @param elitistReplacementPercent The percentage of the population that is retained from the
+     *                                  previous generation.
+     * @param maxGenerations            The maximum number of generations to complete per route.
+     */
+    public MultilevelRefinement(TopData dataset, int popSize, int tourTriesMax,
+        double pCrossover, double pMutate, double elitistReplacementPercent,
+        int maxGenerations) {
+        super(dataset);
+        this.popSize = popSize;
+        this.tourTriesMax = tourTriesMax;
+        this.pCrossover = pCrossover;
+        this.pMutate = pMutate;
+        this.elitistReplacementPercent = elitistReplacementPercent;
+        this.maxGenerations = maxGenerations;
+        this.coarsestSize = DEFAULT_COARSEST_SIZE;
+        this.nLevels = 0;
+    }
+
+    /**
+     * coarsestSize getter.
+     *
+     * @return The maximum number of nodes within the coarsest level.
+     */
+    public int getCoarsestSize() {
+        return coarsestSize;
+    }
+
+    /**
+     * coarsestSize setter.
+     *
+     * @param coarsestSize The maximum number of nodes within the coarsest level.
+     */
+    public void setCoarsestSize(int coarsestSize) {
+        if (coarsestSize < 1) {
+            throw new IllegalArgumentException("coarsestSize cannot be less than 1.");
+        }
+        this.coarsestSize = coarsestSize;
+    }
+
+    /**
+     * nLevels getter.
+     *
+     * @return The number of levels (including the original Points) used by the last call to solve.
+     */
+    public int getnLevels() {
+        return nLevels;
+    }
+
+    /**
+     * coarsen merges pairs of nearby nodes of level into super-nodes. Pairs are formed closest
+     * first from each node's NEIGHBOUR_LIST_SIZE nearest neighbours and unmatched nodes are carried
+     * over unchanged.
+     *
+     * @param level    The nodes of the level to coarsen.
+     * @param children Filled with the indexes within level of the node(s) each node of the
+     *                 coarser level was formed from.
+     * @return The nodes of the coarser level.
+     */
+    public ArrayList<Point> coarsen(List<Point> level, List<int[]> children) {
+        int n = level.size();
+        NeighbourLists neighbourLists = new NeighbourLists(level, NEIGHBOUR_LIST_SIZE);
+        double[] edgeDistances = new double[n * NEIGHBOUR_LIST_SIZE];
+        int nEdges = 0;
+        Integer[] order = new Integer[n * NEIGHBOUR_LIST_SIZE];
+        int[] edgeFrom = new int[n * NEIGHBOUR_LIST_SIZE];
+        int[] edgeTo = new int[n * NEIGHBOUR_LIST_SIZE];
+        for (int i = 0; i < n; i++) {
+            for (int j : neighbourLists.getNeighbours(i)) {
+                edgeFrom[nEdges] = i;
+                edgeTo[nEdges] = j;
+                edgeDistances[nEdges] = Util.euclideanDistance(level.get(i), level.get(j));
+                order[nEdges] = nEdges;
+                nEdges++;
+            }
+        }
+        Arrays.sort(order, 0, nEdges, (a, b) -> Double.compare(edgeDistances[a], edgeDistances[b]));
+
+        int[] match = new int[n];
+        Arrays.fill(match, -1);
+        for (int e = 0; e < nEdges; e++) {
+            int i = edgeFrom[order[e]];
+            int j = edgeTo[order[e]];
+            if (match[i] == -1 && match[j] == -1) {
+                match[i] = j;
+                match[j] = i;
+            }
+        }
+
+        ArrayList<Point> coarser = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            if (match[i] == -1) {
+                coarser.add(level.get(i));
+                children.add(new int[]{i});
+            } else if (i < match[i]) {
+                coarser.add(merge(level.get(i), level.get(match[i])));
+                children.add(new int[]{i, match[i]});
+            }
+        }
+        return coarser;
+    }
+
+    /**
+     * merge returns a super-node located at the score-weighted centroid of point1 and point2 (their
+     * midpoint if neither has a positive score) with their combined score. The super-node takes the
+     * id of the higher scoring Point.
+     */
+    private Point merge(Point point1, Point point2) {
+        double score1 = Math.max(0, point1.getScore());
+        double score2 = Math.max(0, point2.getScore());
+        double weight1 = score1 + score2 > 0 ? score1 / (score1 + score2) : 0.5;
+        return new Point(point1.getScore() >= point2.getScore() ? point1.getId() : point2.getId(),
+            weight1 * point1.getLongitude() + (1 - weight1) * point2.getLongitude(),
+            weight1 * point1.getLatitude() + (1 - weight1) * point2.getLatitude(),
+            point1.getScore() + point2.getScore());
+    }
+
+    /**
+     * solve coarsens the instance, solves the coarsest level via Algorithm and refines the Routes
+     * at every level back to the original Points.
+     *
+     * @return The Result containing the refined Routes.
+     */
+    @Override
+    public Result solve() {
+        ArrayList<Point> reachable = new ArrayList<>();
+        for (Point point : getDataset().getPoints()) {
+            if (Util.euclideanDistance(getStartingPoint(), point)
+                + Util.euclideanDistance(point, getEndingPoint()) <= gettMax()) {
+                reachable.add(point);
+            }
+        }
+        ArrayList<ArrayList<Point>> levels = new ArrayList<>();
+        ArrayList<List<int[]>> levelChildren = new ArrayList<>();
+        ArrayList<double[]> levelInternalDistances = new ArrayList<>();
+        levels.add(reachable);
+        levelInternalDistances.add(new double[reachable.size()]);
+        while (levels.get(levels.size() - 1).size() > coarsestSize) {
+            ArrayList<Point> level = levels.get(levels.size() - 1);
+            List<int[]> children = new ArrayList<>();
+            ArrayList<Point> coarser = coarsen(level, children);
+            if (coarser.size() > level.size() * (1 - MIN_COARSENING_PERCENT)) {
+                break;
+            }
+            double[] internalDistances = levelInternalDistances.get(levels.size() - 1);
+            double[] coarserInternalDistances = new double[coarser.size()];
+            for (int i = 0; i < coarser.size(); i++) {
+                int[] nodeChildren = children.get(i);
+                for (int child : nodeChildren) {
+                    coarserInternalDistances[i] += internalDistances[child];
+                }
+                if (nodeChildren.length == 2) {
+                    coarserInternalDistances[i] += Util.euclideanDistance(
+                        level.get(nodeChildren[0]), level.get(nodeChildren[1]));
+                }
+            }
+            levels.add(coarser);
+            levelChildren.add(children);
+            levelInternalDistances.add(coarserInternalDistances);
+        }
+        nLevels = levels.size();
+
+        int coarsest = levels.size() - 1;
+        Algorithm coarsestAlgorithm = new Algorithm(levelData(levels.get(coarsest), coarsest,
+            levelTMax(levels.get(coarsest), levelInternalDistances.get(coarsest))), popSize,
+            tourTriesMax, pCrossover, pMutate, elitistReplacementPercent, maxGenerations);
+        coarsestAlgorithm.setRandomSeed(getRand().nextLong());
+        Result coarsestResult = coarsestAlgorithm.generateRoutesFromTOPFile();
+        ArrayList<Route> routes = new ArrayList<>(getnRoutes());
+        for (Route route : coarsestResult.getRoutesGenerated()) {
+            routes.add(coarsestResult.getPreprocessor() == null ? route
+                : new Route(coarsestResult.getPreprocessor().expand(route)));
+        }
+        while (routes.size() < getnRoutes()) {
+            routes.add(new Route(
+                new ArrayList<>(Arrays.asList(getStartingPoint(), getEndingPoint()))));
+        }
+
+        // the bound of a coarse level does not bound the instance as its tMax differs
+        double upperBound = coarsest == 0 ? coarsestResult.getUpperBound() : Double.NaN;
+        for (int l = coarsest - 1; l >= 0; l--) {
+            ArrayList<Point> coarser = levels.get(l + 1);
+            ArrayList<Point> level = levels.get(l);
+            IdentityHashMap<Point, Integer> coarserIndexes = new IdentityHashMap<>();
+            for (int i = 0; i < coarser.size(); i++) {
+                coarserIndexes.put(coarser.get(i), i);
+            }
+            for (Route route : routes) {
+                route.setPoints(uncoarsen(route.getPoints(), coarserIndexes,
+                    levelChildren.get(l), level));
+            }
+            Algorithm levelAlgorithm = new Algorithm(
+                levelData(level, l, levelTMax(level, levelInternalDistances.get(l))),
+                popSize, tourTriesMax, pCrossover, pMutate, elitistReplacementPercent,
+                maxGenerations);
+            levelAlgorithm.setRandomSeed(getRand().nextLong());
+            refine(levelAlgorithm, routes, level);
+            upperBound = levelAlgorithm.getUpperBound();
+        }
+
+        Result result = new Result(getDataset(), popSize, tourTriesMax, pCrossover, pMutate,
+            elitistReplacementPercent, maxGenerations, routes);
+        result.setUpperBound(upperBound);
+        return result;
+    }
+
+    /**
+     * levelTMax returns the per-route travel time used at a level. Super-nodes hide the distance
+     * between the nodes merged to form them (the sum of the distances between each merged pair),
+     * so a Route of a coarse level is shorter than the Route it uncoarsens to. Assuming each edge
+     * of a Route is EDGE_LENGTH_RATIO times the mean nearest neighbour distance, tMax is scaled by
+     * the share of an uncoarsened Route's length not hidden within super-nodes.
+     */
+    private double levelTMax(List<Point> level, double[] internalDistances) {
+        double internalDistance = 0;
+        for (double distance : internalDistances) {
+            internalDistance += distance;
+        }
+        if (internalDistance <= 0 || level.size() < 2) {
+            return gettMax();
+        }
+        NeighbourLists neighbourLists = new NeighbourLists(level, 1);
+        double nearestDistance = 0;
+        for (int i = 0; i < level.size(); i++) {
+            nearestDistance += Util.euclideanDistance(level.get(i),
+                level.get(neighbourLists.getNeighbours(i)[0]));
+        }
+        return gettMax() * EDGE_LENGTH_RATIO * nearestDistance
+            / (EDGE_LENGTH_RATIO * nearestDistance + internalDistance);
+    }
+
+    /**
+     * uncoarsen replaces every super-node of points with the nodes of level it was formed from,
+     * placing the node nearest to the preceding Point first.
+     */
+    private ArrayList<Point> uncoarsen(ArrayList<Point> points,
+        IdentityHashMap<Point, Integer> coarserIndexes, List<int[]> children,
+        List<Point> level) {
+        ArrayList<Point> expanded = new ArrayList<>(points.size() * 2);
+        for (Point point : points) {
+            Integer index = coarserIndexes.get(point);
+            if (index == null) {
+                // the starting and ending Points
+                expanded.add(point);
+                continue;
+            }
+            int[] pointChildren = children.get(index);
+            Point first = level.get(pointChildren[0]);
+            if (pointChildren.length == 1) {
+                expanded.add(first);
+                continue;
+            }
+            Point second = level.get(pointChildren[1]);
+            Point previous = expanded.get(expanded.size() - 1);
+            if (Util.euclideanDistance(previous, second)
+                < Util.euclideanDistance(previous, first)) {
+                Point swap = first;
+                first = second;
+                second = swap;
+            }
+            expanded.add(first);
+            expanded.add(second);
+        }
+        return expanded;
+    }
+
+    /**
+     * refine shortens each Route, restores feasibility by dropping the nodes with the worst score
+     * to travel ratio and then, whilst any node is inserted, exchanges nodes between Routes,
+     * shortens each Route, greedily inserts the unvisited nodes of level and replaces visited
+     * nodes with higher scoring unvisited ones (see replace), all within levelAlgorithm's tMax.
+     */
+    private void refine(Algorithm levelAlgorithm, ArrayList<Route> routes, List<Point> level) {
+        for (Route route : routes) {
+            levelAlgorithm.completeTwoOpt(route);
+            int size = route.getPoints().size() + 1;
+            while (route.getTotalDistance() > levelAlgorithm.gettMax()
+                && route.getPoints().size() < size) {
+                size = route.getPoints().size();
+                levelAlgorithm.dropWorstTravelScoreRatioPoint(route);
+            }
+        }
+        boolean inserted = true;
+        while (inserted) {
+            levelAlgorithm.rearrange(routes);
+            for (Route route : routes) {
+                levelAlgorithm.completeTwoOpt(route);
+            }
+            inserted = !levelAlgorithm.regretInsertion(routes, level, 1).isEmpty();
+            inserted |= replace(routes, level, levelAlgorithm.gettMax());
+        }
+    }
+
+    /**
+     * replace tries to insert each unvisited node of level (highest score first) into each Route
+     * by dropping the Route's nodes in order of score per unit of distance saved (see RemovalHeap)
+     * until the node fits, keeping the change if it increases the Route's score.
+     *
+     * @return true if any Route was changed.
+     */
+    private boolean replace(ArrayList<Route> routes, List<Point> level, double levelTMax) {
+        Set<Point> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Route route : routes) {
+            visited.addAll(route.getPoints());
+        }
+        ArrayList<Point> unvisited = new ArrayList<>();
+        for (Point point : level) {
+            if (!visited.contains(point)) {
+                unvisited.add(point);
+            }
+        }
+        unvisited.sort(Collections.reverseOrder(Point.SCORE_COMPARATOR));
+
+        boolean replaced = false;
+        for (Point candidate : unvisited) {
+            if (visited.contains(candidate)) {
+                continue;
+            }
+            for (Route route : routes) {
+                RemovalHeap dropOrder = new RemovalHeap(route.getPoints(), candidate);
+                ArrayList<Point> dropped = new ArrayList<>();
+                double droppedScore = 0;
+                while (dropOrder.getTotalDistance() + dropOrder.getCandidateInsertionCost()
+                    > levelTMax && dropOrder.size() > 0 && droppedScore < candidate.getScore()) {
+                    Point point = dropOrder.poll();
+                    dropped.add(point);
+                    droppedScore += point.getScore();
+                }
+                if (droppedScore < candidate.getScore() && dropOrder.getTotalDistance()
+                    + dropOrder.getCandidateInsertionCost() <= levelTMax) {
+                    route.setPoints(dropOrder.getPointsWithCandidate());
+                    visited.add(candidate);
+                    dropped.forEach(visited::remove);
+                    replaced = true;
+                    break;
+                }
+            }
+        }
+        return replaced;
+    }
+
+    /**
+     * levelData returns the TopData of a level (the starting Point, the level's nodes and the
+     * ending Point) for building its Algorithm.
+     */
+    private TopData levelData(List<Point> level, int levelIndex, double levelTMax) {
+        ArrayList<Point> points = new ArrayList<>(level.size() + 2);
+        points.add(getStartingPoint());
+        points.addAll(level);
+        points.add(getEndingPoint());
+        return new TopData(getDataset().getFileName() + " (level " + levelIndex + ")",
+            points.size(), getnRoutes(), levelTMax, points);
+    }
+}
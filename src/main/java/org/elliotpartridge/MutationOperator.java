@@ -0,0 +1,77 @@
+package org.elliotpartridge;
+
+import java.util.function.Consumer;
+import java.util.function.ToLongFunction;
+
+/**
+ * MutationOperator stores information about and provides functionality related to an operator that
+ * is registered with Algorithm and applied to offspring during the mutation phase. Each operator
+ * has a cost: a deterministic count of the work (moves or insertion positions evaluated) an
+ * application does on a Route, estimated from the Route before it is mutated, which adaptive
+ * operator selection weighs the operator's improvement against (see AdaptiveOperatorSelection).
+ */
+public class MutationOperator {
+
+    private final String name;
+    private final double probability;
+    private final Consumer<Route> operation;
+    private final ToLongFunction<Route> cost;
+
+    /**
+     * MutationOperator constructor for an operator that evaluates one move per Point of the Route.
+     *
+     * @param name        The name of the operator.
+     * @param probability The probability of the operator being applied to a mutated Route.
+     * @param operation   The operation that mutates a Route in place.
+     */
+    public MutationOperator(String name, double probability, Consumer<Route> operation) {
+        this(name, probability, operation, route -> route.getPoints().size());
+    }
+
+    /**
+     * MutationOperator constructor.
+     *
+     * @param name        The name of the operator.
+     * @param probability The probability of the operator being applied to a mutated Route.
+     * @param operation   The operation that mutates a Route in place.
+     * @param cost        The number of moves or insertion positions the operation evaluates on a
+     *                    Route (before it is mutated).
+     */
+    public MutationOperator(String name, double probability, Consumer<Route> operation,
+        ToLongFunction<Route> cost) {
+        this.name = name;
+        this.probability = probability;
+        this.operation = operation;
+        this.cost = cost;
+    }
+
+    /**
+     * name getter.
+     *
+     * @return The name of the operator.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * probability getter.
+     *
+     * @return The probability of the operator being applied to a mutated Route.
+     */
+    public double getProbability() {
+        return probability;
+    }
+
+    /**
+     * apply applies the operator to route.
+     *
+     * @param route The Route to mutate.
+     * @return The cost of the application i.e. the work done (see cost).
+     */
+    public long apply(Route route) {
+        long applicationCost = Math.max(1, cost.applyAsLong(route));
+        operation.accept(route);
+        return applicationCost;
+    }
+}
@@ -0,0 +1,69 @@
+package org.elliotpartridge;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * NeighbourLists stores, for each Point within a List of Points, the indexes of its k nearest
+ * neighbours ordered by ascending Euclidean distance. Indexes refer to positions within the List of
+ * Points the NeighbourLists was built from.
+ */
+public class NeighbourLists {
+
+    private final int[][] neighbours;
+
+    /**
+     * NeighbourLists constructor.
+     *
+     * @param points The List of Points to build neighbour lists for.
+     * @param k      The maximum number of neighbours to store per Point.
+     */
+    public NeighbourLists(List<Point> points, int k) {
+        int n = points.size();
+        int listSize = Math.max(0, Math.min(k, n - 1));
+        this.neighbours = new int[n][];
+
+        double[] nearestDistances = new double[listSize];
+        int[] nearestIndexes = new int[listSize];
+        for (int i = 0; i < n; i++) {
+            int found = 0;
+            for (int j = 0; j < n; j++) {
+                if (i == j || listSize == 0) {
+                    continue;
+                }
+                double distance = Util.euclideanDistance(points.get(i), points.get(j));
+                if (found < listSize || distance < nearestDistances[found - 1]) {
+                    // insertion sort into the bounded list of nearest neighbours
+                    int insertIndex = found < listSize ? found++ : found - 1;
+                    while (insertIndex > 0 && nearestDistances[insertIndex - 1] > distance) {
+                        nearestDistances[insertIndex] = nearestDistances[insertIndex - 1];
+                        nearestIndexes[insertIndex] = nearestIndexes[insertIndex - 1];
+                        insertIndex--;
+                    }
+                    nearestDistances[insertIndex] = distance;
+                    nearestIndexes[insertIndex] = j;
+                }
+            }
+            this.neighbours[i] = Arrays.copyOf(nearestIndexes, found);
+        }
+    }
+
+    /**
+     * getNeighbours returns the indexes of the nearest neighbours of the Point at pointIndex.
+     *
+     * @param pointIndex The index of the Point whose neighbours are to be returned.
+     * @return The indexes of the nearest neighbours ordered by ascending distance.
+     */
+    public int[] getNeighbours(int pointIndex) {
+        return neighbours[pointIndex];
+    }
+
+    /**
+     * size getter.
+     *
+     * @return The number of Points neighbour lists were built for.
+     */
+    public int size() {
+        return neighbours.length;
+    }
+}
@@ -0,0 +1,194 @@
+package org.elliotpartridge;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * PopulationDiversity incrementally tracks how often each gene (a Point other than the starting
+ * and ending Points) occurs within a population of Routes. The population is stored as numbered
+ * slots and only slots whose Route has changed (by fingerprint) are recounted, so the number of
+ * unique genes, the Shannon entropy of the gene frequencies and a normalised diversity measure are
+ * all available in constant time.
+ */
+public class PopulationDiversity {
+
+    private final HashMap<Point, int[]> geneCounts;
+    private final ArrayList<Point[]> slotGenes;
+    private long[] slotFingerprints;
+    private int nRoutes;
+    private int uniqueGenes;
+    private int totalGenes;
+    // sum over genes of count * ln(count), from which the entropy is derived
+    private double countLogCountSum;
+
+    /**
+     * PopulationDiversity constructor.
+     */
+    public PopulationDiversity() {
+        this.geneCounts = new HashMap<>();
+        this.slotGenes = new ArrayList<>();
+        this.slotFingerprints = new long[0];
+        this.nRoutes = 0;
+        this.uniqueGenes = 0;
+        this.totalGenes = 0;
+        this.countLogCountSum = 0;
+    }
+
+    /**
+     * set places route in slot, removing the genes of the Route previously in slot. If the Route
+     * previously in slot had the same fingerprint nothing is recounted.
+     *
+     * @param slot  The index of the slot (population member).
+     * @param route The Route entering the population.
+     */
+    public void set(int slot, Route route) {
+        while (slotGenes.size() <= slot) {
+            slotGenes.add(null);
+        }
+        if (slotFingerprints.length < slotGenes.size()) {
+            slotFingerprints = Arrays.copyOf(slotFingerprints, slotGenes.size() * 2);
+        }
+        Point[] previousGenes = slotGenes.get(slot);
+        if (previousGenes != null && slotFingerprints[slot] == route.getFingerprint()
+            && previousGenes.length == Math.max(0, route.getPoints().size() - 2)) {
+            return;
+        }
+        if (previousGenes != null) {
+            removeGenes(previousGenes);
+        } else {
+            nRoutes++;
+        }
+        ArrayList<Point> points = route.getPoints();
+        Point[] genes = new Point[Math.max(0, points.size() - 2)];
+        for (int i = 0; i < genes.length; i++) {
+            genes[i] = points.get(i + 1);
+            addGene(genes[i]);
+        }
+        slotGenes.set(slot, genes);
+        slotFingerprints[slot] = route.getFingerprint();
+    }
+
+    /**
+     * truncate removes the Routes within every slot at or beyond nSlots.
+     *
+     * @param nSlots The number of slots to keep.
+     */
+    public void truncate(int nSlots) {
+        while (slotGenes.size() > nSlots) {
+            Point[] genes = slotGenes.remove(slotGenes.size() - 1);
+            if (genes != null) {
+                removeGenes(genes);
+                nRoutes--;
+            }
+        }
+    }
+
+    /**
+     * clear removes every Route from the population.
+     */
+    public void clear() {
+        geneCounts.clear();
+        slotGenes.clear();
+        nRoutes = 0;
+        uniqueGenes = 0;
+        totalGenes = 0;
+        countLogCountSum = 0;
+    }
+
+    /**
+     * nRoutes getter.
+     *
+     * @return The number of Routes within the population.
+     */
+    public int getnRoutes() {
+        return nRoutes;
+    }
+
+    /**
+     * uniqueGenes getter.
+     *
+     * @return The number of distinct genes within the population.
+     */
+    public int getUniqueGenes() {
+        return uniqueGenes;
+    }
+
+    /**
+     * totalGenes getter.
+     *
+     * @return The total number of genes (including repeats) within the population.
+     */
+    public int getTotalGenes() {
+        return totalGenes;
+    }
+
+    /**
+     * getGeneCount returns the number of Routes within the population that contain gene.
+     *
+     * @param gene The Point to count.
+     * @return The number of occurrences of gene.
+     */
+    public int getGeneCount(Point gene) {
+        int[] count = geneCounts.get(gene);
+        return count == null ? 0 : count[0];
+    }
+
+    /**
+     * getEntropy returns the Shannon entropy (in nats) of the gene frequencies of the population.
+     *
+     * @return The entropy, or 0 if the population contains no genes.
+     */
+    public double getEntropy() {
+        if (totalGenes == 0) {
+            return 0;
+        }
+        return Math.log(totalGenes) - countLogCountSum / totalGenes;
+    }
+
+    /**
+     * getDiversity returns the entropy normalised between 0, when every Route visits the same
+     * genes, and 1, when no gene is shared between Routes. This is (entropy - ln(mean genes per
+     * Route)) / ln(nRoutes).
+     *
+     * @return The normalised diversity, or 0 if the population contains fewer than 2 Routes.
+     */
+    public double getDiversity() {
+        if (nRoutes < 2 || totalGenes == 0) {
+            return 0;
+        }
+        double diversity = (getEntropy() - Math.log((double) totalGenes / nRoutes))
+            / Math.log(nRoutes);
+        return Math.max(0, Math.min(1, diversity));
+    }
+
+    private void addGene(Point gene) {
+        int[] count = geneCounts.computeIfAbsent(gene, g -> new int[1]);
+        if (count[0] == 0) {
+            uniqueGenes++;
+        }
+        countLogCountSum += countLogCountDelta(count[0]);
+        count[0]++;
+        totalGenes++;
+    }
+
+    private void removeGenes(Point[] genes) {
+        for (Point gene : genes) {
+            int[] count = geneCounts.get(gene);
+            count[0]--;
+            countLogCountSum -= countLogCountDelta(count[0]);
+            if (count[0] == 0) {
+                uniqueGenes--;
+            }
+            totalGenes--;
+        }
+    }
+
+    /**
+     * countLogCountDelta returns (c + 1) ln(c + 1) - c ln(c), the change in countLogCountSum when a
+     * gene's count increases from c to c + 1.
+     */
+    private static double countLogCountDelta(int c) {
+        return (c + 1) * Math.log(c + 1) - (c == 0 ? 0 : c * Math.log(c));
+    }
+}
@@ -0,0 +1,300 @@
+package org.elliotpartridge;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * RemovalHeap is an indexed min-heap of the Points of a Route (excluding the starting and ending
+ * Points) keyed by their removal ratio: score divided by the distance saved by removing the Point
+ * i.e. d(previous, point) + d(point, next) - d(previous, next). The Point at the top of the heap is
+ * therefore the one whose removal gives up the least score per unit of distance freed.
+ * <p>
+ * Removed Points are unlinked from a doubly linked list over the Route so that, after a removal,
+ * only the keys of the two neighbouring Points change and each is restored in O(log n). The
+ * Route's total distance is updated alongside in O(1).
+ * <p>
+ * A RemovalHeap can also track the cheapest insertion of a single candidate Point into the
+ * remaining Route: the insertion cost of every edge is held within a min-heap and each removal
+ * adds the one edge it creates, whilst the edges it destroys are discarded lazily when they reach
+ * the top. Each removal therefore costs O(log n) amortised in total, so Points can be dropped
+ * until the candidate fits without rebuilding or rescanning the Route.
+ */
+public class RemovalHeap {
+
+    private final Point[] points;
+    private final int[] previous;
+    private final int[] next;
+    private final double[] keys;
+    private final int[] heap;
+    // the position of each Point index within heap, or -1 if the Point is not within the heap
+    private final int[] heapPositions;
+    private int heapSize;
+    private final boolean[] unlinked;
+    private double totalDistance;
+    private final Point candidate;
+    // edges as {insertion cost of candidate, start index, end index}, possibly no longer in the
+    // Route (see getCandidateInsertionCost)
+    private final PriorityQueue<double[]> candidateEdges;
+
+    /**
+     * RemovalHeap constructor.
+     *
+     * @param routePoints The Points of a Route (including the starting and ending Points).
+     */
+    public RemovalHeap(List<Point> routePoints) {
+        this(routePoints, null);
+    }
+
+    /**
+     * RemovalHeap constructor which also tracks the cheapest insertion of candidate into the
+     * remaining Route.
+     *
+     * @param routePoints The Points of a Route (including the starting and ending Points).
+     * @param candidate   The Point (not within the Route) whose cheapest insertion is tracked, or
+     *                    null to track none.
+     */
+    public RemovalHeap(List<Point> routePoints, Point candidate) {
+        int n = routePoints.size();
+        this.points = routePoints.toArray(new Point[0]);
+        this.previous = new int[n];
+        this.next = new int[n];
+        this.keys = new double[n];
+        this.heap = new int[Math.max(0, n - 2)];
+        this.heapPositions = new int[n];
+        this.heapSize = 0;
+        for (int i = 0; i < n; i++) {
+            previous[i] = i - 1;
+            next[i] = i + 1;
+            heapPositions[i] = -1;
+        }
+        for (int i = 1; i < n - 1; i++) {
+            keys[i] = removalRatio(points[i - 1], points[i], points[i + 1]);
+            heap[heapSize] = i;
+            heapPositions[i] = heapSize++;
+        }
+        for (int i = heapSize / 2 - 1; i >= 0; i--) {
+            siftDown(i);
+        }
+
+        this.unlinked = new boolean[n];
+        this.totalDistance = 0;
+        for (int i = 1; i < n; i++) {
+            totalDistance += Util.euclideanDistance(points[i - 1], points[i]);
+        }
+        this.candidate = candidate;
+        this.candidateEdges = new PriorityQueue<>(Math.max(1, n),
+            Comparator.comparingDouble(edge -> edge[0]));
+        if (candidate != null) {
+            for (int i = 0; i < n - 1; i++) {
+                offerCandidateEdge(i, i + 1);
+            }
+        }
+    }
+
+    /**
+     * removalRatio returns the score of point divided by the distance saved by removing point from
+     * between previous and next.
+     *
+     * @param previous The Point before point.
+     * @param point    The Point to remove.
+     * @param next     The Point after point.
+     * @return The removal ratio, or Double.MAX_VALUE if removing point saves no distance.
+     */
+    public static double removalRatio(Point previous, Point point, Point next) {
+        double saving = Util.euclideanDistance(previous, point)
+            + Util.euclideanDistance(point, next) - Util.euclideanDistance(previous, next);
+        return saving <= 0 ? Double.MAX_VALUE : point.getScore() / saving;
+    }
+
+    /**
+     * size returns the number of Points that can still be removed.
+     *
+     * @return The number of Points within the heap.
+     */
+    public int size() {
+        return heapSize;
+    }
+
+    /**
+     * peek returns the Point with the lowest removal ratio.
+     *
+     * @return The Point with the lowest removal ratio, or null if no Point can be removed.
+     */
+    public Point peek() {
+        return heapSize == 0 ? null : points[heap[0]];
+    }
+
+    /**
+     * peekRatio returns the lowest removal ratio.
+     *
+     * @return The lowest removal ratio, or NaN if no Point can be removed.
+     */
+    public double peekRatio() {
+        return heapSize == 0 ? Double.NaN : keys[heap[0]];
+    }
+
+    /**
+     * poll removes the Point with the lowest removal ratio, updating the removal ratios of its
+     * neighbours.
+     *
+     * @return The removed Point, or null if no Point can be removed.
+     */
+    public Point poll() {
+        if (heapSize == 0) {
+            return null;
+        }
+        int removed = heap[0];
+        heapSize--;
+        heapPositions[removed] = -1;
+        if (heapSize > 0) {
+            heap[0] = heap[heapSize];
+            heapPositions[heap[0]] = 0;
+            siftDown(0);
+        }
+
+        int before = previous[removed];
+        int after = next[removed];
+        next[before] = after;
+        previous[after] = before;
+        unlinked[removed] = true;
+        totalDistance += Util.euclideanDistance(points[before], points[after])
+            - Util.euclideanDistance(points[before], points[removed])
+            - Util.euclideanDistance(points[removed], points[after]);
+        if (candidate != null) {
+            offerCandidateEdge(before, after);
+        }
+        update(before);
+        update(after);
+        return points[removed];
+    }
+
+    /**
+     * totalDistance getter.
+     *
+     * @return The total distance of the remaining Route.
+     */
+    public double getTotalDistance() {
+        return totalDistance;
+    }
+
+    /**
+     * getCandidateInsertionCost returns the lowest additional distance caused by inserting the
+     * candidate into the remaining Route.
+     *
+     * @return The lowest additional distance, or Double.MAX_VALUE if no candidate is tracked.
+     */
+    public double getCandidateInsertionCost() {
+        double[] edge = cheapestCandidateEdge();
+        return edge == null ? Double.MAX_VALUE : edge[0];
+    }
+
+    /**
+     * getPoints returns the Points of the remaining Route in order. This takes O(n) time.
+     *
+     * @return The remaining Points (including the starting and ending Points).
+     */
+    public ArrayList<Point> getPoints() {
+        ArrayList<Point> remaining = new ArrayList<>();
+        for (int i = 0; i < points.length; i = next[i]) {
+            remaining.add(points[i]);
+        }
+        return remaining;
+    }
+
+    /**
+     * getPointsWithCandidate returns the Points of the remaining Route in order with the candidate
+     * inserted at its cheapest position. This takes O(n) time.
+     *
+     * @return The remaining Points and the candidate, or the remaining Points if no candidate is
+     * tracked.
+     */
+    public ArrayList<Point> getPointsWithCandidate() {
+        double[] edge = cheapestCandidateEdge();
+        ArrayList<Point> remaining = new ArrayList<>();
+        for (int i = 0; i < points.length; i = next[i]) {
+            remaining.add(points[i]);
+            if (edge != null && i == (int) edge[1]) {
+                remaining.add(candidate);
+            }
+        }
+        return remaining;
+    }
+
+    /**
+     * cheapestCandidateEdge discards the edges no longer within the Route from the top of
+     * candidateEdges and returns the cheapest remaining edge, or null if there is none.
+     */
+    private double[] cheapestCandidateEdge() {
+        while (!candidateEdges.isEmpty()) {
+            double[] edge = candidateEdges.peek();
+            int start = (int) edge[1];
+            if (!unlinked[start] && next[start] == (int) edge[2]) {
+                return edge;
+            }
+            candidateEdges.poll();
+        }
+        return null;
+    }
+
+    private void offerCandidateEdge(int start, int end) {
+        candidateEdges.offer(new double[]{Util.euclideanDistance(points[start], candidate)
+            + Util.euclideanDistance(candidate, points[end])
+            - Util.euclideanDistance(points[start], points[end]), start, end});
+    }
+
+    /**
+     * update recalculates the key of the Point at index (if it is within the heap) against its
+     * current neighbours and restores the heap order.
+     */
+    private void update(int index) {
+        int position = heapPositions[index];
+        if (position < 0) {
+            return;
+        }
+        double previousKey = keys[index];
+        keys[index] = removalRatio(points[previous[index]], points[index], points[next[index]]);
+        if (keys[index] < previousKey) {
+            siftUp(position);
+        } else {
+            siftDown(position);
+        }
+    }
+
+    private void siftUp(int position) {
+        int index = heap[position];
+        while (position > 0) {
+            int parent = (position - 1) / 2;
+            if (keys[heap[parent]] <= keys[index]) {
+                break;
+            }
+            heap[position] = heap[parent];
+            heapPositions[heap[position]] = position;
+            position = parent;
+        }
+        heap[position] = index;
+        heapPositions[index] = position;
+    }
+
+    private void siftDown(int position) {
+        int index = heap[position];
+        while (true) {
+            int child = 2 * position + 1;
+            if (child >= heapSize) {
+                break;
+            }
+            if (child + 1 < heapSize && keys[heap[child + 1]] < keys[heap[child]]) {
+                child++;
+            }
+            if (keys[heap[child]] >= keys[index]) {
+                break;
+            }
+            heap[position] = heap[child];
+            heapPositions[heap[position]] = position;
+            position = child;
+        }
+        heap[position] = index;
+        heapPositions[index] = position;
+    }
+}
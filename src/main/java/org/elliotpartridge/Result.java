@@ -16,6 +16,9 @@ public class Result {
     double tpgPercent;
     int maxGenerations;
     ArrayList<Route> routesGenerated;
+    double upperBound = Double.NaN;
+    InstancePreprocessor preprocessor;
+    boolean optimalityProven;
 
     /**
      * Result constructor.
@@ -49,6 +52,17 @@ public class Result {
         this.routesGenerated = routesGenerated;
     }
 
+    /**
+     * Result constructor for Results generated by Solvers other than Algorithm, which have no
+     * genetic algorithm parameters (these are left as 0).
+     *
+     * @param dataset         The dataset the Result was produced from.
+     * @param routesGenerated The final Routes generated by the Solver.
+     */
+    public Result(TopData dataset, ArrayList<Route> routesGenerated) {
+        this(dataset, 0, 0, 0, 0, 0, 0, routesGenerated);
+    }
+
     /**
      * routesGenerated getter.
      *
@@ -71,18 +85,106 @@ public class Result {
         return combinedScore;
     }
 
+    /**
+     * upperBound getter.
+     *
+     * @return The upper bound on the total score of the dataset (see UpperBound), or NaN if no
+     * bound was calculated.
+     */
+    public double getUpperBound() {
+        return upperBound;
+    }
+
+    /**
+     * upperBound setter.
+     *
+     * @param upperBound The upper bound on the total score of the dataset.
+     */
+    public void setUpperBound(double upperBound) {
+        this.upperBound = upperBound;
+    }
+
+    /**
+     * preprocessor getter.
+     *
+     * @return The InstancePreprocessor that reduced the dataset, or null if the dataset was not
+     * preprocessed.
+     */
+    public InstancePreprocessor getPreprocessor() {
+        return preprocessor;
+    }
+
+    /**
+     * preprocessor setter.
+     *
+     * @param preprocessor The InstancePreprocessor that reduced the dataset.
+     */
+    public void setPreprocessor(InstancePreprocessor preprocessor) {
+        this.preprocessor = preprocessor;
+    }
+
+    /**
+     * optimalityProven getter.
+     *
+     * @return true if routesGenerated were proven optimal by an exact search (see
+     * BranchAndBound), otherwise false.
+     */
+    public boolean isOptimalityProven() {
+        return optimalityProven;
+    }
+
+    /**
+     * optimalityProven setter.
+     *
+     * @param optimalityProven true if routesGenerated were proven optimal by an exact search.
+     */
+    public void setOptimalityProven(boolean optimalityProven) {
+        this.optimalityProven = optimalityProven;
+    }
+
+    /**
+     * getGap returns the relative gap between the upper bound and the combined score of
+     * routesGenerated i.e. (upperBound - combinedScore) / upperBound. A gap of 0 proves the Result
+     * optimal.
+     *
+     * @return The relative gap, 0 if the upper bound is 0 or NaN if no bound was calculated.
+     */
+    public double getGap() {
+        if (Double.isNaN(getUpperBound())) {
+            return Double.NaN;
+        }
+        if (getUpperBound() <= 0) {
+            return 0;
+        }
+        return Math.max(0, (getUpperBound() - getRoutesGeneratedCombinedScore()) / getUpperBound());
+    }
+
     /**
      * printFinalRoutesAndScores prints the constituent Points and score of each Route within
-     * routesGenerated.
+     * routesGenerated. If the dataset was preprocessed, collapsed Points are printed as the
+     * original Points they represent.
      */
     public void printFinalRoutesAndScores() {
         for (Route route : getRoutesGenerated()) {
-            for (Point point : route.getPoints()) {
+            ArrayList<Point> points = getPreprocessor() == null ? route.getPoints()
+                : getPreprocessor().expand(route);
+            for (Point point : points) {
                 System.out.print(point.getId() + " ");
             }
             System.out
                 .print(" | " + route.getTotalScore() + " | " + route.getTotalDistance() + "\n");
         }
         System.out.print("Total Score: " + getRoutesGeneratedCombinedScore() + "\n");
+        if (!Double.isNaN(getUpperBound())) {
+            System.out.print("Upper Bound: " + getUpperBound() + " (Gap: " + getGap() + ")\n");
+        }
+        if (isOptimalityProven()) {
+            System.out.print("Optimality proven\n");
+        }
+        if (getPreprocessor() != null) {
+            System.out.print("Preprocessing: " + getPreprocessor().getnUnreachable()
+                + " unreachable, " + getPreprocessor().getnZeroScore() + " zero score & "
+                + getPreprocessor().getnCollapsed() + " co-located Points removed\n");
+        }
     }
 }
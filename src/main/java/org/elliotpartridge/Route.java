@@ -12,6 +12,7 @@ public class Route {
     private double totalDistance;
     private double totalScore;
     private boolean containsDuplicatePoints;
+    private long fingerprint;
 
     // NonC stands for non-cumulative
     private ArrayList<Double> nonCPointScores;
@@ -32,6 +33,26 @@ public class Route {
         this.calculateAndSetTotalDistance();
         this.calculateAndSetTotalScore();
         this.calculateAndSetContainsDuplicatePoints();
+        this.fingerprint = calculateFingerprint(points);
+    }
+
+    /**
+     * Route constructor used when the Route's fitness is already known (e.g. from a FitnessCache).
+     * The non-cumulative score and distance lists are calculated lazily when first requested.
+     *
+     * @param points                  The ArrayList of Points by which to create the route from.
+     * @param fingerprint             The fingerprint of points.
+     * @param totalDistance           The total Euclidean distance of points.
+     * @param totalScore              The total score of points.
+     * @param containsDuplicatePoints Whether points contains duplicate Points.
+     */
+    Route(ArrayList<Point> points, long fingerprint, double totalDistance, double totalScore,
+        boolean containsDuplicatePoints) {
+        this.points = points;
+        this.fingerprint = fingerprint;
+        this.totalDistance = totalDistance;
+        this.totalScore = totalScore;
+        this.containsDuplicatePoints = containsDuplicatePoints;
     }
 
     /**
@@ -54,6 +75,7 @@ public class Route {
         this.calculateAndSetTotalDistance();
         this.calculateAndSetTotalScore();
         this.calculateAndSetContainsDuplicatePoints();
+        this.fingerprint = calculateFingerprint(points);
     }
 
     /**
@@ -78,6 +100,7 @@ public class Route {
         this.calculateAndSetTotalDistance();
         this.calculateAndSetTotalScore();
         this.calculateAndSetContainsDuplicatePoints();
+        this.fingerprint = calculateFingerprint(getPoints());
     }
 
     /**
@@ -97,6 +120,9 @@ public class Route {
         double intraDistance;
         double cumulativeDistance = 0;
         int routeSize = this.getPoints().size();
+        if (nonCInterPointTravelDistances == null) {
+            this.nonCInterPointTravelDistances = new ArrayList<>();
+        }
         if (routeSize >= 2) {
 
             this.nonCInterPointTravelDistances = new ArrayList<>();
@@ -128,6 +154,9 @@ public class Route {
         double intraScore;
         double cumulativeScore = 0;
         int routeSize = this.getPoints().size();
+        if (nonCPointScores == null) {
+            this.nonCPointScores = new ArrayList<>();
+        }
         if (routeSize >= 2) {
 
             this.nonCPointScores = new ArrayList<>();
@@ -158,6 +187,49 @@ public class Route {
         return containsDuplicatePoints;
     }
 
+    /**
+     * fingerprint getter.
+     *
+     * @return The 64-bit Zobrist-style fingerprint of the Route's sequence of Points.
+     */
+    public long getFingerprint() {
+        return fingerprint;
+    }
+
+    /**
+     * calculateFingerprint calculates a 64-bit Zobrist-style fingerprint of a sequence of Points by
+     * XOR-ing together the key of every (directed) edge. Sequences that visit the same Points in
+     * the same order share a fingerprint, and an edit only changes the keys of the edges it removes
+     * and adds, so a fingerprint can be updated incrementally e.g. inserting p between a and b
+     * gives fingerprint ^ edgeKey(a, b) ^ edgeKey(a, p) ^ edgeKey(p, b).
+     *
+     * @param points The sequence of Points.
+     * @return The fingerprint of points.
+     */
+    public static long calculateFingerprint(ArrayList<Point> points) {
+        long fingerprint = 0;
+        for (int i = 1; i < points.size(); i++) {
+            fingerprint ^= edgeKey(points.get(i - 1), points.get(i));
+        }
+        return fingerprint;
+    }
+
+    /**
+     * edgeKey returns the pseudo-random 64-bit key of the directed edge from Point from to Point
+     * to, derived from their ids via the SplitMix64 finaliser.
+     *
+     * @param from The Point the edge leaves.
+     * @param to   The Point the edge enters.
+     * @return The key of the edge.
+     */
+    public static long edgeKey(Point from, Point to) {
+        long key = ((long) from.getId() << 32) ^ (to.getId() & 0xffffffffL);
+        key += 0x9E3779B97F4A7C15L;
+        key = (key ^ (key >>> 30)) * 0xBF58476D1CE4E5B9L;
+        key = (key ^ (key >>> 27)) * 0x94D049BB133111EBL;
+        return key ^ (key >>> 31);
+    }
+
     /**
      * nonCPointScores getter.
      *
@@ -165,6 +237,9 @@ public class Route {
      * in points.
      */
     public ArrayList<Double> getNonCPointScores() {
+        if (nonCPointScores == null) {
+            calculateAndSetTotalScore();
+        }
         return nonCPointScores;
     }
 
@@ -198,6 +273,9 @@ public class Route {
      * between Point 1 to Point 2.
      */
     public ArrayList<Double> getNonCInterPointTravelDistances() {
+        if (nonCInterPointTravelDistances == null) {
+            calculateAndSetTotalDistance();
+        }
         return nonCInterPointTravelDistances;
     }
 
@@ -227,14 +305,17 @@ public class Route {
      * ROUTE_DISTANCE_COMPARATOR is a Comparator that allows routes to be ordered based upon their
      * totalDistance.
      */
-    public static Comparator<Route> ROUTE_DISTANCE_COMPARATOR = Comparator
-        .comparing(Route::getTotalDistance);
+    public static Comparator<Route> ROUTE_DISTANCE_COMPARATOR = (route1, route2) -> Double
+        .compare(route1.getTotalDistance(), route2.getTotalDistance());
 
     /**
      * ROUTE_SCORE_COMPARATOR is a Comparator that allows routes to be ordered based upon their
      * totalScore. If totalScores are identical the Route's totalDistance is then used to order.
      */
-    public static Comparator<Route> ROUTE_SCORE_COMPARATOR = Comparator
-        .comparing(Route::getTotalScore)
-        .thenComparing(Route::getTotalDistance, Comparator.reverseOrder());
+    public static Comparator<Route> ROUTE_SCORE_COMPARATOR = (route1, route2) -> {
+        // primitive comparisons avoid boxing each totalScore/totalDistance during selection
+        int scoreComparison = Double.compare(route1.getTotalScore(), route2.getTotalScore());
+        return scoreComparison != 0 ? scoreComparison
+            : Double.compare(route2.getTotalDistance(), route1.getTotalDistance());
+    };
 }
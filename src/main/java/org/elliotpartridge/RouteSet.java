@@ -0,0 +1,135 @@
+package org.elliotpartridge;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * RouteSet stores the Routes of a complete TOP solution (one per route of the instance), which is
+ * the chromosome used when Algorithm evolves every route jointly (see Algorithm.setJointRoutes).
+ */
+public class RouteSet {
+
+    private final ArrayList<Route> routes;
+
+    /**
+     * RouteSet constructor.
+     *
+     * @param routes The Routes of the solution.
+     */
+    public RouteSet(ArrayList<Route> routes) {
+        this.routes = routes;
+    }
+
+    /**
+     * routes getter.
+     *
+     * @return The Routes of the solution.
+     */
+    public ArrayList<Route> getRoutes() {
+        return routes;
+    }
+
+    /**
+     * getRoute returns the Route at routeIndex.
+     *
+     * @param routeIndex The index of the Route.
+     * @return The Route at routeIndex.
+     */
+    public Route getRoute(int routeIndex) {
+        return routes.get(routeIndex);
+    }
+
+    /**
+     * getTotalScore returns the sum of totalScore across all Routes.
+     *
+     * @return The total score of the solution.
+     */
+    public double getTotalScore() {
+        double totalScore = 0;
+        for (Route route : routes) {
+            totalScore += route.getTotalScore();
+        }
+        return totalScore;
+    }
+
+    /**
+     * getTotalDistance returns the sum of totalDistance across all Routes.
+     *
+     * @return The total distance of the solution.
+     */
+    public double getTotalDistance() {
+        double totalDistance = 0;
+        for (Route route : routes) {
+            totalDistance += route.getTotalDistance();
+        }
+        return totalDistance;
+    }
+
+    /**
+     * getFingerprint combines the fingerprints of the Routes (see Route.calculateFingerprint)
+     * irrespective of the order of the Routes.
+     *
+     * @return The fingerprint of the solution.
+     */
+    public long getFingerprint() {
+        long fingerprint = 0;
+        for (Route route : routes) {
+            fingerprint += route.getFingerprint() * 0x9E3779B97F4A7C15L;
+        }
+        return fingerprint;
+    }
+
+    /**
+     * removeConflicts removes every Point visited by the Route at routeIndex from all other Routes,
+     * so that the Route at routeIndex keeps any Points it has taken from them.
+     *
+     * @param routeIndex The index of the Route whose Points are kept.
+     */
+    public void removeConflicts(int routeIndex) {
+        Set<Point> kept = new HashSet<>(getRoute(routeIndex).getPoints());
+        for (int r = 0; r < routes.size(); r++) {
+            if (r == routeIndex) {
+                continue;
+            }
+            ArrayList<Point> points = getRoute(r).getPoints();
+            ArrayList<Point> remaining = new ArrayList<>(points.size());
+            remaining.add(points.get(0));
+            for (int i = 1; i < points.size() - 1; i++) {
+                if (!kept.contains(points.get(i))) {
+                    remaining.add(points.get(i));
+                }
+            }
+            remaining.add(points.get(points.size() - 1));
+            if (remaining.size() != points.size()) {
+                getRoute(r).setPoints(remaining);
+            }
+        }
+    }
+
+    /**
+     * copy returns a deep copy of the RouteSet, so that the Routes of the copy can be edited
+     * without affecting the original.
+     *
+     * @return The copied RouteSet.
+     */
+    public RouteSet copy() {
+        ArrayList<Route> copiedRoutes = new ArrayList<>(routes.size());
+        for (Route route : routes) {
+            copiedRoutes.add(new Route(new ArrayList<>(route.getPoints())));
+        }
+        return new RouteSet(copiedRoutes);
+    }
+
+    /**
+     * ROUTE_SET_SCORE_COMPARATOR is a Comparator that allows RouteSets to be ordered based upon
+     * their total score. If total scores are identical the total distance is then used to order
+     * (shorter is greater).
+     */
+    public static Comparator<RouteSet> ROUTE_SET_SCORE_COMPARATOR = (set1, set2) -> {
+        int scoreComparison = Double.compare(set1.getTotalScore(), set2.getTotalScore());
+        return scoreComparison != 0 ? scoreComparison
+            : Double.compare(set2.getTotalDistance(), set1.getTotalDistance());
+    };
+}
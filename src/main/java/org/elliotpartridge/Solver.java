@@ -0,0 +1,22 @@
+package org.elliotpartridge;
+
+/**
+ * Solver is implemented by each engine that produces solutions to TOP problem instances, so that
+ * engines can be used interchangeably (e.g. by App and the benchmarks).
+ */
+public interface Solver {
+
+    /**
+     * solve produces a solution to the TOP problem instance the Solver was created with.
+     *
+     * @return The Result containing the generated Routes.
+     */
+    Result solve();
+
+    /**
+     * setRandomSeed seeds the Random instance(s) used by the Solver so that runs are reproducible.
+     *
+     * @param seed The seed.
+     */
+    void setRandomSeed(long seed);
+}
@@ -0,0 +1,438 @@
+package org.elliotpartridge;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * SpatialClusters groups candidate Points into clusters of nearby Points via k-means (seeded with
+ * k-means++), with the number of clusters sized to the instance (roughly sqrt(n / 2) by default),
+ * so that clusters follow how the Points are actually spread rather than being equal-size chunks.
+ * <p>
+ * Clusters are sampled in proportion to their weight, the sum of the weights of their Points,
+ * where a Point's weight is its score scaled by how reachable it is: 1 for a Point on the direct
+ * line from the starting to the ending Point, falling to MIN_REACHABILITY for a Point whose detour
+ * uses the entire travel budget, and 0 for a Point that is unreachable. A Point is then sampled
+ * uniformly from the reachable Points of the selected cluster, so more attempted insertions are
+ * feasible and worthwhile whilst every reachable Point can still be sampled.
+ * <p>
+ * A Complement samples from the same distribution restricted to the Points not within a Route
+ * without any rejection sampling. As each Complement holds its own scratch state (the
+ * SpatialClusters itself is never modified after construction), Complements owned by different
+ * threads may sample concurrently, whereas a single Complement must only be used by one thread at
+ * a time.
+ */
+public class SpatialClusters {
+
+    /**
+     * MIN_REACHABILITY is the weight multiplier of a reachable Point whose detour uses the entire
+     * travel budget.
+     */
+    public static final double MIN_REACHABILITY = 0.1;
+
+    private static final int MAX_ITERATIONS = 20;
+
+    private final List<List<Point>> clusters;
+    private final double[] clusterWeights;
+    private final double[] cumulativeWeights;
+    private final HashMap<Point, Membership> memberships;
+
+    /**
+     * SpatialClusters constructor using the default number of clusters.
+     *
+     * @param points The candidate Points (excluding the starting and ending Points).
+     * @param start  The starting Point of every Route.
+     * @param end    The ending Point of every Route.
+     * @param tMax   The maximum per-route travel time.
+     * @param rand   The Random instance used to seed the clusters.
+     */
+    public SpatialClusters(List<Point> points, Point start, Point end, double tMax, Random rand) {
+        this(points, start, end, tMax, defaultnClusters(points.size()), rand);
+    }
+
+    /**
+     * SpatialClusters constructor.
+     *
+     * @param points    The candidate Points (excluding the starting and ending Points).
+     * @param start     The starting Point of every Route.
+     * @param end       The ending Point of every Route.
+     * @param tMax      The maximum per-route travel time.
+     * @param nClusters The number of clusters (at most the number of Points).
+     * @param rand      The Random instance used to seed the clusters.
+     */
+    public SpatialClusters(List<Point> points, Point start, Point end, double tMax, int nClusters,
+        Random rand) {
+        if (nClusters < 1) {
+            throw new IllegalArgumentException("nClusters cannot be less than 1.");
+        }
+        int[] assignments = kMeans(points, Math.min(nClusters, points.size()), rand);
+        int k = Arrays.stream(assignments).max().orElse(-1) + 1;
+
+        double directDistance = Util.euclideanDistance(start, end);
+        double budget = tMax - directDistance;
+        ArrayList<List<Point>> reachableMembers = new ArrayList<>(k);
+        double[] weights = new double[k];
+        double[] pointWeights = new double[points.size()];
+        for (int c = 0; c < k; c++) {
+            reachableMembers.add(new ArrayList<>());
+        }
+        for (int i = 0; i < points.size(); i++) {
+            Point point = points.get(i);
+            double detour = Util.euclideanDistance(start, point)
+                + Util.euclideanDistance(point, end) - directDistance;
+            if (detour > budget) {
+                continue;
+            }
+            double slack = budget > 0 ? 1 - detour / budget : 1;
+            pointWeights[i] = Math.max(0, point.getScore())
+                * (MIN_REACHABILITY + (1 - MIN_REACHABILITY) * slack);
+            weights[assignments[i]] += pointWeights[i];
+            reachableMembers.get(assignments[i]).add(point);
+        }
+
+        // empty clusters are dropped so every cluster can be sampled from
+        this.clusters = new ArrayList<>(k);
+        this.clusterWeights = new double[k];
+        for (int c = 0; c < k; c++) {
+            if (!reachableMembers.get(c).isEmpty()) {
+                // zero score clusters are still sampled occasionally
+                clusterWeights[clusters.size()] = Math.max(weights[c], Double.MIN_NORMAL);
+                clusters.add(reachableMembers.get(c));
+            }
+        }
+        this.cumulativeWeights = new double[clusters.size()];
+        double total = 0;
+        for (int c = 0; c < clusters.size(); c++) {
+            total += clusterWeights[c];
+            cumulativeWeights[c] = total;
+        }
+
+        this.memberships = new HashMap<>();
+        HashMap<Point, Integer> pointIndexes = new HashMap<>();
+        for (int i = 0; i < points.size(); i++) {
+            pointIndexes.put(points.get(i), i);
+        }
+        for (int c = 0; c < clusters.size(); c++) {
+            for (Point point : clusters.get(c)) {
+                memberships.put(point, new Membership(c, pointWeights[pointIndexes.get(point)]));
+            }
+        }
+    }
+
+    /**
+     * defaultnClusters returns the default number of clusters for nPoints Points, which is
+     * round(sqrt(nPoints / 2)) (at least 1).
+     *
+     * @param nPoints The number of Points.
+     * @return The default number of clusters.
+     */
+    public static int defaultnClusters(int nPoints) {
+        return Math.max(1, (int) Math.round(Math.sqrt(nPoints / 2.)));
+    }
+
+    /**
+     * clusters getter.
+     *
+     * @return The reachable Points of each (non-empty) cluster.
+     */
+    public List<List<Point>> getClusters() {
+        return clusters;
+    }
+
+    /**
+     * getClusterWeight returns the sampling weight of the cluster at clusterIndex.
+     *
+     * @param clusterIndex The index of the cluster.
+     * @return The weight of the cluster.
+     */
+    public double getClusterWeight(int clusterIndex) {
+        return clusterWeights[clusterIndex];
+    }
+
+    /**
+     * sampleCluster selects a cluster with probability proportional to its weight.
+     *
+     * @param rand The Random instance to sample with.
+     * @return The reachable Points of the selected cluster, or null if there are no clusters.
+     */
+    public List<Point> sampleCluster(Random rand) {
+        if (clusters.isEmpty()) {
+            return null;
+        }
+        double target = rand.nextDouble() * cumulativeWeights[cumulativeWeights.length - 1];
+        int index = Arrays.binarySearch(cumulativeWeights, target);
+        index = index < 0 ? -index - 1 : index + 1;
+        return clusters.get(Math.min(index, clusters.size() - 1));
+    }
+
+    /**
+     * sample selects a cluster with probability proportional to its weight and then a Point
+     * uniformly from the selected cluster.
+     *
+     * @param rand The Random instance to sample with.
+     * @return The sampled Point, or null if there are no reachable Points.
+     */
+    public Point sample(Random rand) {
+        List<Point> cluster = sampleCluster(rand);
+        return cluster == null ? null : cluster.get(rand.nextInt(cluster.size()));
+    }
+
+    /**
+     * sampleExcluding samples as sample does but from only the Points not within excluded (e.g.
+     * the Points of a Route). This builds a new Complement, taking O(n) time, so callers sampling
+     * repeatedly should instead hold their own Complement (see complement).
+     *
+     * @param excluded The Points that cannot be sampled.
+     * @param rand     The Random instance to sample with.
+     * @return The sampled Point, or null if every reachable Point is within excluded.
+     */
+    public Point sampleExcluding(List<Point> excluded, Random rand) {
+        Complement complement = complement();
+        complement.excludeAll(excluded);
+        return complement.sample(rand);
+    }
+
+    /**
+     * complement returns a new Complement over the reachable Points, none of which are excluded.
+     *
+     * @return The Complement.
+     */
+    public Complement complement() {
+        return new Complement(this);
+    }
+
+    /**
+     * kMeans assigns each Point to one of k clusters via Lloyd's algorithm seeded with k-means++.
+     *
+     * @return The cluster index (0 to k - 1, with no empty clusters) of each Point.
+     */
+    private static int[] kMeans(List<Point> points, int k, Random rand) {
+        int n = points.size();
+        int[] assignments = new int[n];
+        if (k <= 1) {
+            return assignments;
+        }
+        double[] xs = new double[n];
+        double[] ys = new double[n];
+        for (int i = 0; i < n; i++) {
+            xs[i] = points.get(i).getLongitude();
+            ys[i] = points.get(i).getLatitude();
+        }
+
+        // k-means++: each centre is chosen with probability proportional to its squared distance
+        double[] cx = new double[k];
+        double[] cy = new double[k];
+        double[] nearest = new double[n];
+        Arrays.fill(nearest, Double.MAX_VALUE);
+        int first = rand.nextInt(n);
+        cx[0] = xs[first];
+        cy[0] = ys[first];
+        for (int c = 1; c < k; c++) {
+            double total = 0;
+            for (int i = 0; i < n; i++) {
+                nearest[i] = Math.min(nearest[i], squaredDistance(xs[i], ys[i], cx[c - 1],
+                    cy[c - 1]));
+                total += nearest[i];
+            }
+            int chosen = rand.nextInt(n);
+            double target = rand.nextDouble() * total;
+            for (int i = 0; i < n && total > 0; i++) {
+                target -= nearest[i];
+                if (target <= 0) {
+                    chosen = i;
+                    break;
+                }
+            }
+            cx[c] = xs[chosen];
+            cy[c] = ys[chosen];
+        }
+
+        Arrays.fill(assignments, -1);
+        double[] sumX = new double[k];
+        double[] sumY = new double[k];
+        int[] sizes = new int[k];
+        boolean changed = true;
+        for (int iteration = 0; iteration < MAX_ITERATIONS && changed; iteration++) {
+            changed = false;
+            for (int i = 0; i < n; i++) {
+                int best = 0;
+                double bestDistance = Double.MAX_VALUE;
+                for (int c = 0; c < k; c++) {
+                    double distance = squaredDistance(xs[i], ys[i], cx[c], cy[c]);
+                    if (distance < bestDistance) {
+                        bestDistance = distance;
+                        best = c;
+                    }
+                }
+                if (assignments[i] != best) {
+                    assignments[i] = best;
+                    changed = true;
+                }
+            }
+            Arrays.fill(sumX, 0);
+            Arrays.fill(sumY, 0);
+            Arrays.fill(sizes, 0);
+            for (int i = 0; i < n; i++) {
+                sumX[assignments[i]] += xs[i];
+                sumY[assignments[i]] += ys[i];
+                sizes[assignments[i]]++;
+            }
+            for (int c = 0; c < k; c++) {
+                if (sizes[c] > 0) {
+                    cx[c] = sumX[c] / sizes[c];
+                    cy[c] = sumY[c] / sizes[c];
+                }
+            }
+        }
+
+        // renumber clusters so that empty clusters (e.g. from co-located centres) are skipped
+        int[] renumbered = new int[k];
+        int nonEmpty = 0;
+        for (int c = 0; c < k; c++) {
+            renumbered[c] = sizes[c] > 0 ? nonEmpty++ : -1;
+        }
+        for (int i = 0; i < n; i++) {
+            assignments[i] = renumbered[assignments[i]];
+        }
+        return assignments;
+    }
+
+    /**
+     * Complement is the set of the reachable Points of a SpatialClusters less the Points that have
+     * been excluded (e.g. the Points of the Route being mutated), from which Points are sampled as
+     * SpatialClusters.sample does but without rejection. The remaining weight of each cluster is
+     * held within a Fenwick tree, so that exclude and sample take O(log k) time for k clusters
+     * (regardless of the number of excluded Points) and restore takes O(k) time. An owner can
+     * therefore exclude a Route's Points once and then keep the Complement in step with the Route
+     * by excluding each Point inserted, rather than re-excluding the whole Route for every sample.
+     * <p>
+     * A Complement holds O(n) scratch state and is not thread-safe.
+     */
+    public static final class Complement {
+
+        private final SpatialClusters spatialClusters;
+        private final IndexedPointSet[] clusterSets;
+        private final double[] remainingWeights;
+        private final double[] tree;
+
+        private Complement(SpatialClusters spatialClusters) {
+            this.spatialClusters = spatialClusters;
+            int k = spatialClusters.clusters.size();
+            this.clusterSets = new IndexedPointSet[k];
+            for (int c = 0; c < k; c++) {
+                clusterSets[c] = new IndexedPointSet(spatialClusters.clusters.get(c));
+            }
+            this.remainingWeights = new double[k];
+            this.tree = new double[k + 1];
+            restore();
+        }
+
+        /**
+         * exclude removes point from sampling until restore is called.
+         *
+         * @param point The Point to exclude (ignored if it is unreachable or already excluded).
+         */
+        public void exclude(Point point) {
+            Membership membership = spatialClusters.memberships.get(point);
+            if (membership == null || !clusterSets[membership.cluster].exclude(point)) {
+                return;
+            }
+            int c = membership.cluster;
+            remainingWeights[c] -= membership.weight;
+            // zero score clusters are still sampled occasionally whilst they have active Points
+            double weight = clusterSets[c].getActiveSize() == 0 ? 0
+                : Math.max(remainingWeights[c], Double.MIN_NORMAL);
+            addToTree(c, weight - (prefixWeight(c + 1) - prefixWeight(c)));
+        }
+
+        /**
+         * excludeAll excludes every Point of points (see exclude).
+         *
+         * @param points The Points to exclude.
+         */
+        public void excludeAll(List<Point> points) {
+            for (Point point : points) {
+                exclude(point);
+            }
+        }
+
+        /**
+         * restore makes every excluded Point available for sampling again.
+         */
+        public void restore() {
+            Arrays.fill(tree, 0);
+            for (int c = 0; c < clusterSets.length; c++) {
+                clusterSets[c].restore();
+                remainingWeights[c] = spatialClusters.getClusterWeight(c);
+                tree[c + 1] += remainingWeights[c];
+                int parent = c + 1 + ((c + 1) & -(c + 1));
+                if (parent <= clusterSets.length) {
+                    tree[parent] += tree[c + 1];
+                }
+            }
+        }
+
+        /**
+         * sample selects a cluster with probability proportional to the weight of its Points that
+         * have not been excluded and then a non-excluded Point uniformly from the selected cluster.
+         *
+         * @param rand The Random instance to sample with.
+         * @return The sampled Point, or null if every reachable Point has been excluded.
+         */
+        public Point sample(Random rand) {
+            double total = prefixWeight(clusterSets.length);
+            if (total <= 0) {
+                return null;
+            }
+            double target = rand.nextDouble() * total;
+            // descends the tree to the first cluster whose cumulative weight exceeds target
+            int index = 0;
+            for (int step = Integer.highestOneBit(clusterSets.length); step > 0; step >>= 1) {
+                if (index + step <= clusterSets.length && tree[index + step] <= target) {
+                    index += step;
+                    target -= tree[index];
+                }
+            }
+            // rounding may select an emptied cluster, so the nearest preceding active one is used
+            int selected = Math.min(index, clusterSets.length - 1);
+            while (selected > 0 && clusterSets[selected].getActiveSize() == 0) {
+                selected--;
+            }
+            return clusterSets[selected].sample(rand);
+        }
+
+        private void addToTree(int clusterIndex, double delta) {
+            for (int i = clusterIndex + 1; i <= clusterSets.length; i += i & -i) {
+                tree[i] += delta;
+            }
+        }
+
+        private double prefixWeight(int nClusters) {
+            double weight = 0;
+            for (int i = nClusters; i > 0; i -= i & -i) {
+                weight += tree[i];
+            }
+            return weight;
+        }
+    }
+
+    /**
+     * Membership stores the cluster index and sampling weight of a Point.
+     */
+    private static final class Membership {
+
+        final int cluster;
+        final double weight;
+
+        Membership(int cluster, double weight) {
+            this.cluster = cluster;
+            this.weight = weight;
+        }
+    }
+
+    private static double squaredDistance(double x1, double y1, double x2, double y2) {
+        return (x2 - x1) * (x2 - x1) + (y2 - y1) * (y2 - y1);
+    }
+}
@@ -0,0 +1,411 @@
+package org.elliotpartridge;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+/**
+ * SpatialDecomposition solves large TOP problem instances by splitting them into nParts smaller
+ * instances. As every Route starts and ends at the same Points, the reachable candidate Points are
+ * partitioned into angular sectors around the midpoint of the starting and ending Points (a sweep,
+ * starting from the widest angular gap between Points so that dense groups are not split), each
+ * sector holding a share of the total score proportional to its share of the nRoutes Routes.
+ * <p>
+ * The sub-instances are solved concurrently (one parallel stream task each) by Solvers created via
+ * subSolverFactory (by default Algorithm, or MultilevelRefinement for a part of at least
+ * LARGE_INSTANCE_N_POINTS Points so that such a part is coarsened before it is solved).
+ * <p>
+ * Each part needs at least one Route, so at most nRoutes parts are sectors. Any further parts are
+ * Route segments (see refineSegments): the stitched Routes are cut into consecutive segments that
+ * are re-solved concurrently, each as a single-Route instance between its end Points with a share
+ * of its Route's spare distance, so that every Route (including that of a single-Route instance)
+ * is split. With a single sector the whole instance is solved by one sub-solver, whose upper bound
+ * is kept as it bounds the whole instance.
+ * <p>
+ * The Routes are then repaired across part boundaries: Points are exchanged between every pair of
+ * Routes via InterRouteOperators.rearrange, each Route is shortened via TwoOpt and the distance
+ * freed is filled via greedy insertion of unvisited Points (see InsertionCache.regretInsertion),
+ * repeating whilst the score improves.
+ */
+public class SpatialDecomposition extends TopSolver {
+
+    /**
+     * LARGE_INSTANCE_N_POINTS is the number of Points at or above which App's automatic engine
+     * selection uses SpatialDecomposition, and at or above which a part is solved via
+     * MultilevelRefinement by default.
+     */
+    public static final int LARGE_INSTANCE_N_POINTS = 1000;
+
+    /**
+     * DEFAULT_SEGMENTS_PER_ROUTE is the default number of parts per Route, i.e. the number of
+     * segments each Route is cut into (see refineSegments).
+     */
+    public static final int DEFAULT_SEGMENTS_PER_ROUTE = 4;
+
+    private int nParts;
+    private Function<TopData, Solver> subSolverFactory;
+
+    /**
+     * SpatialDecomposition constructor. By default there are DEFAULT_SEGMENTS_PER_ROUTE parts per
+     * Route and each part is solved via Algorithm (or MultilevelRefinement for a part of at least
+     * LARGE_INSTANCE_N_POINTS Points) with the genetic algorithm parameters given, seeded from
+     * rand.
+     *
+     * @param dataset                   The TOP instance to solve, its first and last Points
+     *                                  are removed.
+     * @param popSize                   The size of the population used to solve each part.
+     * @param tourTriesMax              The maximum number of unsuccessful tries (per-route) to
+     *                                  improve the route within the initialisePopulation phase.
+     * @param pCrossover                The probability of crossover occurring.
+     * @param pMutate                   The probability of mutation occurring.
+     * @param elitistReplacementPercent The percentage of the population that is retained from the
+     *                                  previous generation.
+     * @param maxGenerations            The maximum number of generations to complete per route.
+     */
+    public SpatialDecomposition(TopData dataset, int popSize, int tourTriesMax,
+        double pCrossover, double pMutate, double elitistReplacementPercent,
+        int maxGenerations) {
+        super(dataset);
+        this.nParts = getnRoutes() * DEFAULT_SEGMENTS_PER_ROUTE;
+        this.subSolverFactory = part -> {
+            Solver solver = part.getnPoints() < LARGE_INSTANCE_N_POINTS
+                ? new Algorithm(part, popSize, tourTriesMax, pCrossover, pMutate,
+                elitistReplacementPercent, maxGenerations)
+                : new MultilevelRefinement(part, popSize, tourTriesMax, pCrossover, pMutate,
+                    elitistReplacementPercent, maxGenerations);
+            solver.setRandomSeed(getRand().nextLong());
+            return solver;
+        };
+    }
+
+    /**
+     * nParts getter.
+     *
+     * @return The number of parts the instance is split into.
+     */
+    public int getnParts() {
+        return nParts;
+    }
+
+    /**
+     * nParts setter.
+     *
+     * @param nParts The number of parts the instance is split into (at least 1, 1 solves the
+     *               whole instance directly, parts beyond nRoutes are Route segments).
+     */
+    public void setnParts(int nParts) {
+        if (nParts < 1) {
+            throw new IllegalArgumentException("nParts must be at least 1.");
+        }
+        this.nParts = nParts;
+    }
+
+    /**
+     * subSolverFactory getter.
+     *
+     * @return The factory creating the Solver for each part. Factories are called sequentially
+     * (in part order) before any sector, and again before any segment, is solved.
+     */
+    public Function<TopData, Solver> getSubSolverFactory() {
+        return subSolverFactory;
+    }
+
+    /**
+     * subSolverFactory setter.
+     *
+     * @param subSolverFactory The factory creating the Solver for each part from its TopData (whose
+     *                         first and last Points are the starting and ending Points of its
+     *                         Routes).
+     */
+    public void setSubSolverFactory(Function<TopData, Solver> subSolverFactory) {
+        this.subSolverFactory = subSolverFactory;
+    }
+
+    /**
+     * partition splits the reachable candidate Points into nParts angular sectors around the
+     * midpoint of the starting and ending Points. Sectors are swept from the widest angular gap
+     * between consecutive Points and part p receives Points until it holds its share of the total
+     * score (routesPerPart[p] / nRoutes).
+     *
+     * @param routesPerPart The number of Routes given to each part.
+     * @return The Points of each part.
+     */
+    public List<List<Point>> partition(int[] routesPerPart) {
+        double centreLongitude =
+            (getStartingPoint().getLongitude() + getEndingPoint().getLongitude()) / 2;
+        double centreLatitude =
+            (getStartingPoint().getLatitude() + getEndingPoint().getLatitude()) / 2;
+        ArrayList<Point> reachable = new ArrayList<>();
+        for (Point point : getDataset().getPoints()) {
+            if (Util.euclideanDistance(getStartingPoint(), point)
+                + Util.euclideanDistance(point, getEndingPoint()) <= gettMax()) {
+                reachable.add(point);
+            }
+        }
+        int n = reachable.size();
+        double[] angles = new double[n];
+        Integer[] order = new Integer[n];
+        double totalScore = 0;
+        for (int i = 0; i < n; i++) {
+            Point point = reachable.get(i);
+            angles[i] = Math.atan2(point.getLatitude() - centreLatitude,
+                point.getLongitude() - centreLongitude);
+            order[i] = i;
+            totalScore += Math.max(0, point.getScore());
+        }
+        Arrays.sort(order, (i, j) -> Double.compare(angles[i], angles[j]));
+
+        // the sweep starts after the widest gap between consecutive angles
+        int startIndex = 0;
+        double widestGap = -1;
+        for (int k = 0; k < n; k++) {
+            double gap = k == 0 ? angles[order[0]] + 2 * Math.PI - angles[order[n - 1]]
+                : angles[order[k]] - angles[order[k - 1]];
+            if (gap > widestGap) {
+                widestGap = gap;
+                startIndex = k;
+            }
+        }
+
+        List<List<Point>> parts = new ArrayList<>(routesPerPart.length);
+        int part = 0;
+        double partTarget = totalScore * routesPerPart[0] / getnRoutes();
+        double partScore = 0;
+        parts.add(new ArrayList<>());
+        for (int k = 0; k < n; k++) {
+            Point point = reachable.get(order[(startIndex + k) % n]);
+            double score = Math.max(0, point.getScore());
+            // a Point joins the next part if it is closer to that part's share than this part's
+            if (part < routesPerPart.length - 1 && partScore + score / 2 > partTarget
+                && !parts.get(part).isEmpty()) {
+                part++;
+                partTarget += totalScore * routesPerPart[part] / getnRoutes();
+                parts.add(new ArrayList<>());
+            }
+            parts.get(part).add(point);
+            partScore += score;
+        }
+        while (parts.size() < routesPerPart.length) {
+            parts.add(new ArrayList<>());
+        }
+        return parts;
+    }
+
+    /**
+     * solve partitions the instance into at most nRoutes sectors, solves them concurrently,
+     * stitches their Routes, re-solves any further parts as Route segments and repairs the Routes.
+     * A single sector is the whole instance, which is then not partitioned.
+     *
+     * @return The Result containing the stitched Routes.
+     */
+    @Override
+    public Result solve() {
+        int nRouteParts = Math.min(nParts, getnRoutes());
+        int[] routesPerPart = new int[nRouteParts];
+        for (int p = 0; p < nRouteParts; p++) {
+            routesPerPart[p] =
+                getnRoutes() / nRouteParts + (p < getnRoutes() % nRouteParts ? 1 : 0);
+        }
+        List<List<Point>> parts = nRouteParts == 1 ? List.of(getDataset().getPoints())
+            : partition(routesPerPart);
+
+        // Solvers are created sequentially so that seeding is reproducible
+        Solver[] subSolvers = new Solver[nRouteParts];
+        for (int p = 0; p < nRouteParts; p++) {
+            if (parts.get(p).isEmpty()) {
+                continue;
+            }
+            ArrayList<Point> points = new ArrayList<>(parts.get(p).size() + 2);
+            points.add(getStartingPoint());
+            points.addAll(parts.get(p));
+            points.add(getEndingPoint());
+            subSolvers[p] = getSubSolverFactory().apply(new TopData(
+                getDataset().getFileName() + " (part " + (p + 1) + ")", points.size(),
+                routesPerPart[p], gettMax(), points));
+        }
+        Result[] subResults = new Result[nRouteParts];
+        IntStream.range(0, nRouteParts).parallel().filter(p -> subSolvers[p] != null)
+            .forEach(p -> subResults[p] = subSolvers[p].solve());
+
+        ArrayList<Route> routes = new ArrayList<>(getnRoutes());
+        for (int p = 0; p < nRouteParts; p++) {
+            if (subResults[p] == null) {
+                for (int r = 0; r < routesPerPart[p]; r++) {
+                    routes.add(new Route(
+                        new ArrayList<>(Arrays.asList(getStartingPoint(), getEndingPoint()))));
+                }
+                continue;
+            }
+            for (Route route : subResults[p].getRoutesGenerated()) {
+                InstancePreprocessor preprocessor = subResults[p].getPreprocessor();
+                routes.add(preprocessor == null ? route : new Route(preprocessor.expand(route)));
+            }
+        }
+        if (nParts > getnRoutes()) {
+            refineSegments(routes);
+        }
+        repair(routes);
+
+        // the bounds of several sectors do not bound the whole instance, that of a single one does
+        Result result = new Result(getDataset(), routes);
+        if (nRouteParts == 1 && subResults[0] != null) {
+            result.setUpperBound(subResults[0].getUpperBound());
+        }
+        return result;
+    }
+
+    /**
+     * refineSegments cuts the stitched Routes into nParts segments (each Route into an equal
+     * number, up to one more) and solves each segment concurrently as a single-Route instance from
+     * its first to its last Point via subSolverFactory. A segment's instance holds its own Points
+     * and the unvisited reachable Points it is the cheapest segment to detour to, and its tMax is
+     * its distance plus an equal share of the Route's spare distance, so that the re-solved
+     * segments chain back into a valid Route. A re-solved segment replaces the original only if it
+     * scores higher, or the same in less distance.
+     *
+     * @param routes The stitched Routes, edited in place.
+     */
+    public void refineSegments(ArrayList<Route> routes) {
+        Set<Point> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Route route : routes) {
+            visited.addAll(route.getPoints());
+        }
+
+        // segment s of Route segmentRoute[s] spans its Points from segmentFrom[s] to segmentTo[s]
+        int[] segmentRoute = new int[nParts];
+        int[] segmentFrom = new int[nParts];
+        int[] segmentTo = new int[nParts];
+        double[] segmentTMax = new double[nParts];
+        int nSegments = 0;
+        for (int r = 0; r < routes.size(); r++) {
+            List<Point> points = routes.get(r).getPoints();
+            int routeSegments = Math.min(points.size() - 1,
+                nParts / routes.size() + (r < nParts % routes.size() ? 1 : 0));
+            double spareDistance = gettMax() - routes.get(r).getTotalDistance();
+            for (int k = 0; k < routeSegments; k++) {
+                segmentRoute[nSegments] = r;
+                segmentFrom[nSegments] = k * (points.size() - 1) / routeSegments;
+                segmentTo[nSegments] = (k + 1) * (points.size() - 1) / routeSegments;
+                segmentTMax[nSegments] = spareDistance / routeSegments;
+                for (int i = segmentFrom[nSegments]; i < segmentTo[nSegments]; i++) {
+                    segmentTMax[nSegments] +=
+                        Util.euclideanDistance(points.get(i), points.get(i + 1));
+                }
+                nSegments++;
+            }
+        }
+
+        ArrayList<ArrayList<Point>> segmentPoints = new ArrayList<>(nSegments);
+        for (int s = 0; s < nSegments; s++) {
+            List<Point> points = routes.get(segmentRoute[s]).getPoints();
+            segmentPoints.add(new ArrayList<>(points.subList(segmentFrom[s], segmentTo[s])));
+        }
+        for (Point point : getDataset().getPoints()) {
+            if (visited.contains(point)) {
+                continue;
+            }
+            int cheapestSegment = -1;
+            double cheapestDetour = Double.MAX_VALUE;
+            for (int s = 0; s < nSegments; s++) {
+                List<Point> points = routes.get(segmentRoute[s]).getPoints();
+                double detour = Util.euclideanDistance(points.get(segmentFrom[s]), point)
+                    + Util.euclideanDistance(point, points.get(segmentTo[s]));
+                if (detour <= segmentTMax[s] && detour < cheapestDetour) {
+                    cheapestSegment = s;
+                    cheapestDetour = detour;
+                }
+            }
+            if (cheapestSegment != -1) {
+                segmentPoints.get(cheapestSegment).add(point);
+            }
+        }
+
+        // Solvers are created sequentially so that seeding is reproducible
+        Solver[] subSolvers = new Solver[nSegments];
+        for (int s = 0; s < nSegments; s++) {
+            ArrayList<Point> points = segmentPoints.get(s);
+            points.add(routes.get(segmentRoute[s]).getPoint(segmentTo[s]));
+            subSolvers[s] = getSubSolverFactory().apply(new TopData(
+                getDataset().getFileName() + " (segment " + (s + 1) + ")", points.size(), 1,
+                segmentTMax[s], points));
+        }
+        Result[] subResults = new Result[nSegments];
+        IntStream.range(0, nSegments).parallel()
+            .forEach(s -> subResults[s] = subSolvers[s].solve());
+
+        ArrayList<ArrayList<Point>> refined = new ArrayList<>(routes.size());
+        for (Route route : routes) {
+            refined.add(new ArrayList<>(Collections.singletonList(route.getPoint(0))));
+        }
+        for (int s = 0; s < nSegments; s++) {
+            List<Point> points = routes.get(segmentRoute[s]).getPoints()
+                .subList(segmentFrom[s], segmentTo[s] + 1);
+            Route segment = new Route(new ArrayList<>(points));
+            if (!subResults[s].getRoutesGenerated().isEmpty()) {
+                Route solved = subResults[s].getRoutesGenerated().get(0);
+                InstancePreprocessor preprocessor = subResults[s].getPreprocessor();
+                solved = preprocessor == null ? solved : new Route(preprocessor.expand(solved));
+                if (solved.getTotalScore() > segment.getTotalScore()
+                    || solved.getTotalScore() == segment.getTotalScore()
+                    && solved.getTotalDistance() < segment.getTotalDistance()) {
+                    segment = solved;
+                }
+            }
+            refined.get(segmentRoute[s]).addAll(segment.getPoints().subList(1,
+                segment.getPoints().size()));
+        }
+        for (int r = 0; r < routes.size(); r++) {
+            Route route = new Route(refined.get(r));
+            // chained segments are within tMax up to rounding
+            if (route.getTotalDistance() <= gettMax()) {
+                routes.set(r, route);
+            }
+        }
+    }
+
+    /**
+     * repair exchanges Points between the stitched Routes (see InterRouteOperators.rearrange),
+     * shortens each Route via TwoOpt and greedily inserts unvisited Points into the distance
+     * freed, repeating whilst the total score improves.
+     *
+     * @param routes The stitched Routes, edited in place.
+     */
+    public void repair(ArrayList<Route> routes) {
+        Set<Point> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Route route : routes) {
+            visited.addAll(route.getPoints());
+        }
+        ArrayList<Point> unvisited = new ArrayList<>();
+        for (Point point : getDataset().getPoints()) {
+            if (!visited.contains(point) && Util.euclideanDistance(getStartingPoint(), point)
+                + Util.euclideanDistance(point, getEndingPoint()) <= gettMax()) {
+                unvisited.add(point);
+            }
+        }
+
+        boolean improved = true;
+        while (improved && !unvisited.isEmpty()) {
+            InterRouteOperators.rearrange(routes, gettMax());
+            ArrayList<InsertionCache> routeCaches = new ArrayList<>(routes.size());
+            for (Route route : routes) {
+                TwoOpt twoOpt = new TwoOpt(route.getPoints(), TwoOpt.DEFAULT_NEIGHBOUR_LIST_SIZE);
+                twoOpt.optimise();
+                routeCaches.add(new InsertionCache(twoOpt.getPoints()));
+            }
+            ArrayList<Point> inserted = InsertionCache
+                .regretInsertion(routeCaches, unvisited, 1, gettMax());
+            for (int r = 0; r < routes.size(); r++) {
+                routes.get(r).setPoints(routeCaches.get(r).getPoints());
+            }
+            Set<Point> insertedSet = Collections.newSetFromMap(new IdentityHashMap<>());
+            insertedSet.addAll(inserted);
+            unvisited.removeIf(insertedSet::contains);
+            improved = !inserted.isEmpty();
+        }
+    }
+}
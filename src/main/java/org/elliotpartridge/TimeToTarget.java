@@ -0,0 +1,161 @@
+package org.elliotpartridge;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Scanner;
+
+/**
+ * TimeToTarget records the distribution of the times taken (across seeded runs) for an Algorithm
+ * to reach a target score on a single instance. Runs that finish without reaching the target are
+ * counted as failures rather than contributing a time.
+ */
+public class TimeToTarget {
+
+    private final String instanceName;
+    private final double targetScore;
+    private final ArrayList<Double> secondsToTarget;
+    private int runs;
+
+    /**
+     * TimeToTarget constructor.
+     *
+     * @param instanceName The name of the instance.
+     * @param targetScore  The target score.
+     */
+    public TimeToTarget(String instanceName, double targetScore) {
+        this.instanceName = instanceName;
+        this.targetScore = targetScore;
+        this.secondsToTarget = new ArrayList<>();
+        this.runs = 0;
+    }
+
+    /**
+     * record records the outcome of a run.
+     *
+     * @param seconds The time taken by the run in seconds.
+     * @param score   The score the run finished with.
+     */
+    public void record(double seconds, double score) {
+        runs++;
+        if (score >= targetScore - 1e-9) {
+            int index = Collections.binarySearch(secondsToTarget, seconds);
+            secondsToTarget.add(index < 0 ? -index - 1 : index, seconds);
+        }
+    }
+
+    /**
+     * instanceName getter.
+     *
+     * @return The name of the instance.
+     */
+    public String getInstanceName() {
+        return instanceName;
+    }
+
+    /**
+     * targetScore getter.
+     *
+     * @return The target score.
+     */
+    public double getTargetScore() {
+        return targetScore;
+    }
+
+    /**
+     * runs getter.
+     *
+     * @return The number of runs recorded.
+     */
+    public int getRuns() {
+        return runs;
+    }
+
+    /**
+     * getSuccesses returns the number of runs that reached the target score.
+     *
+     * @return The number of successful runs.
+     */
+    public int getSuccesses() {
+        return secondsToTarget.size();
+    }
+
+    /**
+     * getSuccessRate returns the fraction of runs that reached the target score.
+     *
+     * @return The success rate, or 0 if no runs have been recorded.
+     */
+    public double getSuccessRate() {
+        return runs == 0 ? 0 : (double) getSuccesses() / runs;
+    }
+
+    /**
+     * secondsToTarget getter.
+     *
+     * @return The times (in seconds, ascending) of the runs that reached the target score.
+     */
+    public ArrayList<Double> getSecondsToTarget() {
+        return secondsToTarget;
+    }
+
+    /**
+     * getQuantile returns the time by which a fraction p of all runs (including those that failed)
+     * had reached the target score i.e. the inverse of the empirical time-to-target distribution.
+     *
+     * @param p The fraction of runs between 0 and 1.
+     * @return The time in seconds, or NaN if fewer than a fraction p of runs reached the target.
+     */
+    public double getQuantile(double p) {
+        if (p < 0 || p > 1) {
+            throw new IllegalArgumentException("p must be between 0 and 1.");
+        }
+        int rank = Math.max(1, (int) Math.ceil(p * runs));
+        return rank <= getSuccesses() ? secondsToTarget.get(rank - 1) : Double.NaN;
+    }
+
+    /**
+     * getMeanSecondsToTarget returns the mean time of the runs that reached the target score.
+     *
+     * @return The mean time in seconds, or NaN if no run reached the target.
+     */
+    public double getMeanSecondsToTarget() {
+        return secondsToTarget.stream().mapToDouble(s -> s).average().orElse(Double.NaN);
+    }
+
+    /**
+     * readTargetScores reads target scores from a file in which each line contains an instance
+     * name (the file name without .txt) followed by its target score e.g. "p4.2.a 206". Blank lines
+     * and lines starting with # are ignored.
+     *
+     * @param targetScoresFile The file of target scores.
+     * @return The target score of each instance name, in file order.
+     * @throws IllegalArgumentException Thrown to indicate that a line is not a name and score.
+     * @throws IOException              Signals that an I/O exception of some sort has occurred.
+     */
+    public static Map<String, Double> readTargetScores(File targetScoresFile)
+        throws IllegalArgumentException, IOException {
+        Map<String, Double> targetScores = new LinkedHashMap<>();
+        try (Scanner scanner = new Scanner(targetScoresFile)) {
+            while (scanner.hasNextLine()) {
+                String line = scanner.nextLine().trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] lineParts = line.split("\\s+|\\t+");
+                if (lineParts.length != 2) {
+                    throw new IllegalArgumentException(
+                        "Target score lines must contain an instance name and a score.");
+                }
+                try {
+                    targetScores.put(lineParts[0], Double.parseDouble(lineParts[1]));
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("Invalid target score: " + line);
+                }
+            }
+        }
+        return targetScores;
+    }
+}
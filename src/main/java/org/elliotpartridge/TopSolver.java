@@ -0,0 +1,113 @@
+package org.elliotpartridge;
+
+import java.util.Random;
+
+/**
+ * TopSolver holds the TOP problem instance shared by the Solvers that work on a single TopData.
+ * As with Algorithm, the first and last Points of the dataset are the starting and ending Points
+ * of every Route and are removed from the dataset on construction, leaving only the candidate
+ * Points.
+ */
+public abstract class TopSolver implements Solver {
+
+    private final TopData dataset;
+    private final Point startingPoint;
+    private final Point endingPoint;
+    private final int nRoutes;
+    private final double tMax;
+    private final Random rand;
+
+    /**
+     * TopSolver constructor.
+     *
+     * @param dataset The TOP instance to solve, its first and last Points are removed.
+     */
+    protected TopSolver(TopData dataset) {
+        this.dataset = dataset;
+        this.startingPoint = dataset.getPoints().get(0);
+        this.endingPoint = dataset.getPoints().get(dataset.getPoints().size() - 1);
+        this.nRoutes = dataset.getnRoutes();
+        this.tMax = dataset.gettMax();
+        getDataset().removeTOPStartingAndEndingPoints();
+        this.rand = new Random();
+    }
+
+    /**
+     * TopSolver constructor for a Solver working on the same instance (and sharing the same
+     * Random) as instance, whose dataset has already had its starting and ending Points removed.
+     *
+     * @param instance The TopSolver whose instance is shared.
+     */
+    protected TopSolver(TopSolver instance) {
+        this.dataset = instance.getDataset();
+        this.startingPoint = instance.getStartingPoint();
+        this.endingPoint = instance.getEndingPoint();
+        this.nRoutes = instance.getnRoutes();
+        this.tMax = instance.gettMax();
+        this.rand = instance.getRand();
+    }
+
+    /**
+     * dataset getter.
+     *
+     * @return The dataset that the TopSolver is set to work on.
+     */
+    public TopData getDataset() {
+        return dataset;
+    }
+
+    /**
+     * startingPoint getter.
+     *
+     * @return The starting Point of every Route.
+     */
+    public Point getStartingPoint() {
+        return startingPoint;
+    }
+
+    /**
+     * endingPoint getter.
+     *
+     * @return The ending Point of every Route.
+     */
+    public Point getEndingPoint() {
+        return endingPoint;
+    }
+
+    /**
+     * nRoutes getter.
+     *
+     * @return The number of Routes.
+     */
+    public int getnRoutes() {
+        return nRoutes;
+    }
+
+    /**
+     * tMax getter.
+     *
+     * @return The maximum per-route travel time.
+     */
+    public double gettMax() {
+        return tMax;
+    }
+
+    /**
+     * rand getter.
+     *
+     * @return The Random instance that all randomness of the search is drawn (or seeded) from.
+     */
+    public Random getRand() {
+        return rand;
+    }
+
+    /**
+     * setRandomSeed seeds rand so that runs are reproducible.
+     *
+     * @param seed The seed.
+     */
+    @Override
+    public void setRandomSeed(long seed) {
+        getRand().setSeed(seed);
+    }
+}
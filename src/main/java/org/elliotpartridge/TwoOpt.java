@@ -0,0 +1,192 @@
+package org.elliotpartridge;
+
+import java.util.ArrayList;
+
+/**
+ * TwoOpt performs a 2-Opt local search upon the Points of a Route whilst keeping the starting and
+ * ending Points fixed. Moves are evaluated using the change in length of the four affected edges
+ * only, candidate moves are restricted to each Point's nearest neighbours, Points whose surroundings
+ * have not changed are skipped via don't-look bits and improving reversals are applied in place.
+ * <p>
+ * Note, neighbour list and don't-look bit approach adapted from: (Bentley, J. L., 1992, Fast
+ * Algorithms for Geometric Traveling Salesman Problems).
+ */
+public class TwoOpt {
+
+    /**
+     * DEFAULT_NEIGHBOUR_LIST_SIZE is the number of nearest neighbours considered per Point.
+     */
+    public static final int DEFAULT_NEIGHBOUR_LIST_SIZE = 8;
+
+    private static final double EPSILON = 1e-9;
+
+    private final Point[] nodes;
+    private final int[] tour;
+    private final int[] position;
+    private final NeighbourLists neighbourLists;
+    private final int[] activeQueue;
+    private final boolean[] active;
+    private int activeHead;
+    private int activeCount;
+
+    /**
+     * TwoOpt constructor. Nodes are the Points of the Route in their original order and are referred
+     * to by their original index throughout.
+     *
+     * @param points            The Points (including starting and ending Points) to optimise.
+     * @param neighbourListSize The number of nearest neighbours considered per Point.
+     */
+    public TwoOpt(ArrayList<Point> points, int neighbourListSize) {
+        int n = points.size();
+        this.nodes = points.toArray(new Point[0]);
+        this.tour = new int[n];
+        this.position = new int[n];
+        for (int i = 0; i < n; i++) {
+            tour[i] = i;
+            position[i] = i;
+        }
+        this.neighbourLists = new NeighbourLists(points, neighbourListSize);
+        this.activeQueue = new int[n];
+        this.active = new boolean[n];
+    }
+
+    /**
+     * optimise repeatedly applies improving 2-Opt moves until no active Point can be improved.
+     *
+     * @return true if at least one improving move was applied, otherwise false.
+     */
+    public boolean optimise() {
+        int n = tour.length;
+        if (n < 4) {
+            return false;
+        }
+        for (int node = 0; node < n; node++) {
+            activate(node);
+        }
+
+        boolean improved = false;
+        while (activeCount > 0) {
+            int node = activeQueue[activeHead];
+            activeHead = (activeHead + 1) % n;
+            activeCount--;
+            active[node] = false;
+
+            // an improving move re-activates the (up to) four nodes whose edges changed
+            if (improveNode(node)) {
+                improved = true;
+            }
+        }
+        return improved;
+    }
+
+    /**
+     * getPoints returns the Points in their current (optimised) order.
+     *
+     * @return A new ArrayList of the Points in tour order.
+     */
+    public ArrayList<Point> getPoints() {
+        ArrayList<Point> points = new ArrayList<>(tour.length);
+        for (int node : tour) {
+            points.add(nodes[node]);
+        }
+        return points;
+    }
+
+    /**
+     * improveNode looks for an improving move that replaces one of the edges incident to node with
+     * an edge from node to one of its nearest neighbours. The first improving move found is applied.
+     *
+     * @param a The node whose incident edges are to be improved.
+     * @return true if an improving move was applied, otherwise false.
+     */
+    private boolean improveNode(int a) {
+        int n = tour.length;
+        int i = position[a];
+        int[] neighbours = neighbourLists.getNeighbours(a);
+
+        // successor direction: a b ... c d -> a c ... b d
+        if (i < n - 1) {
+            int b = tour[i + 1];
+            double distanceAB = distance(a, b);
+            for (int c : neighbours) {
+                double distanceAC = distance(a, c);
+                if (distanceAC >= distanceAB) {
+                    break;
+                }
+                int j = position[c];
+                if (j <= i + 1 || j >= n - 1) {
+                    continue;
+                }
+                int d = tour[j + 1];
+                double delta = distanceAC + distance(b, d) - distanceAB - distance(c, d);
+                if (delta < -EPSILON) {
+                    reverse(i + 1, j);
+                    activateAll(a, b, c, d);
+                    return true;
+                }
+            }
+        }
+
+        // predecessor direction: d c ... b a -> d b ... c a
+        if (i > 0) {
+            int b = tour[i - 1];
+            double distanceAB = distance(a, b);
+            for (int c : neighbours) {
+                double distanceAC = distance(a, c);
+                if (distanceAC >= distanceAB) {
+                    break;
+                }
+                int j = position[c];
+                if (j >= i - 1 || j < 1) {
+                    continue;
+                }
+                int d = tour[j - 1];
+                double delta = distanceAC + distance(b, d) - distanceAB - distance(c, d);
+                if (delta < -EPSILON) {
+                    reverse(j, i - 1);
+                    activateAll(a, b, c, d);
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * reverse reverses, in place, the section of the tour between the (inclusive) positions from
+     * and to.
+     *
+     * @param from The first position of the section to reverse.
+     * @param to   The last position of the section to reverse.
+     */
+    private void reverse(int from, int to) {
+        while (from < to) {
+            int tmp = tour[from];
+            tour[from] = tour[to];
+            tour[to] = tmp;
+            position[tour[from]] = from;
+            position[tour[to]] = to;
+            from++;
+            to--;
+        }
+    }
+
+    private double distance(int node1, int node2) {
+        return Util.euclideanDistance(nodes[node1], nodes[node2]);
+    }
+
+    private void activateAll(int a, int b, int c, int d) {
+        activate(a);
+        activate(b);
+        activate(c);
+        activate(d);
+    }
+
+    private void activate(int node) {
+        if (!active[node]) {
+            active[node] = true;
+            activeQueue[(activeHead + activeCount) % activeQueue.length] = node;
+            activeCount++;
+        }
+    }
+}
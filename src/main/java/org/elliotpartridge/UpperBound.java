@@ -0,0 +1,98 @@
+package org.elliotpartridge;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * UpperBound calculates a fast upper bound on the total score that can be collected by nRoutes
+ * Routes (each of at most tMax travel distance) for a TOP instance. Two relaxations are combined:
+ * <p>
+ * 1. Reachable set: only Points p where the direct route start -> p -> end is within tMax can be
+ * visited.
+ * <p>
+ * 2. Fractional knapsack: every edge of a Route is split in half between the two Points it
+ * connects, so a visited Point p uses at least half the distance to each of its two nearest
+ * (reachable, starting or ending) Points of the shared travel budget of nRoutes * tMax. Filling
+ * this budget greedily by score per unit weight (allowing a fraction of the last Point) gives the
+ * optimal value of the linear relaxation.
+ * <p>
+ * If every reachable Point has an integer score the bound is rounded down to an integer.
+ */
+public class UpperBound {
+
+    /**
+     * calculate calculates an upper bound on the total score collectable for an instance.
+     *
+     * @param start   The starting Point of every Route.
+     * @param end     The ending Point of every Route.
+     * @param points  The Points that may be visited (excluding the starting and ending Points).
+     * @param nRoutes The number of Routes.
+     * @param tMax    The maximum per-route travel time.
+     * @return The upper bound on the total score.
+     */
+    public static double calculate(Point start, Point end, List<Point> points, int nRoutes,
+        double tMax) {
+        ArrayList<Point> reachable = new ArrayList<>();
+        double reachableScore = 0;
+        boolean integerScores = true;
+        for (Point point : points) {
+            if (point != start && point != end && Util.euclideanDistance(start, point)
+                + Util.euclideanDistance(point, end) <= tMax) {
+                reachable.add(point);
+                reachableScore += point.getScore();
+                integerScores &= point.getScore() == Math.rint(point.getScore());
+            }
+        }
+        if (reachable.isEmpty() || nRoutes <= 0) {
+            return nRoutes <= 0 ? 0 : reachableScore;
+        }
+
+        // nodes are the reachable Points followed by the starting and ending Points
+        ArrayList<Point> nodes = new ArrayList<>(reachable);
+        nodes.add(start);
+        nodes.add(end);
+        NeighbourLists nearest = new NeighbourLists(nodes, 2);
+        int n = reachable.size();
+        double[] weights = new double[n];
+        Integer[] order = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            for (int neighbour : nearest.getNeighbours(i)) {
+                weights[i] += Util.euclideanDistance(nodes.get(i), nodes.get(neighbour)) / 2;
+            }
+            order[i] = i;
+        }
+        // descending score per unit weight (zero weight Points first)
+        Arrays.sort(order, (i, j) -> Double.compare(
+            reachable.get(j).getScore() * weights[i], reachable.get(i).getScore() * weights[j]));
+
+        double capacity = nRoutes * tMax;
+        double bound = 0;
+        for (int i : order) {
+            double score = reachable.get(i).getScore();
+            if (weights[i] <= capacity) {
+                capacity -= weights[i];
+                bound += score;
+            } else {
+                bound += score * capacity / weights[i];
+                break;
+            }
+        }
+        bound = Math.min(bound, reachableScore);
+        return integerScores ? Math.floor(bound + 1e-9) : bound;
+    }
+
+    /**
+     * calculate calculates an upper bound on the total score collectable for dataset, whose first
+     * and last Points are the starting and ending Points (i.e. before
+     * TopData.removeTOPStartingAndEndingPoints has been called).
+     *
+     * @param dataset The TOP instance.
+     * @return The upper bound on the total score.
+     */
+    public static double calculate(TopData dataset) {
+        ArrayList<Point> points = dataset.getPoints();
+        return calculate(points.get(0), points.get(points.size() - 1),
+            points.subList(1, points.size() - 1), dataset.getnRoutes(), dataset.gettMax());
+    }
+}
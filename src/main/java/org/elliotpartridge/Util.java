@@ -1,5 +1,8 @@
 package org.elliotpartridge;
 
+import java.util.Comparator;
+import java.util.List;
+
 /**
  * Util is a utility class housing functionality unrelated to other classes.
  */
@@ -33,4 +36,64 @@ public class Util {
         double newMinVal, double newMaxVal) {
         return newMinVal + (val - minVal) * (newMaxVal - newMinVal) / (maxVal - minVal);
     }
+
+    /**
+     * partialSelect rearranges list in place (via quickselect) so that its first k elements are the
+     * k smallest elements according to comparator. The order within the first k elements and
+     * within the remaining elements is unspecified. Runs in expected linear time without
+     * allocating.
+     *
+     * @param list       The List to rearrange.
+     * @param k          The number of smallest elements to move to the front of list.
+     * @param comparator The Comparator by which to order the elements.
+     * @param <T>        The type of the elements of list.
+     */
+    public static <T> void partialSelect(List<T> list, int k, Comparator<? super T> comparator) {
+        if (k < 0 || k > list.size()) {
+            throw new IllegalArgumentException("k must be between 0 and the size of list.");
+        }
+        int low = 0;
+        int high = list.size() - 1;
+        while (low < high && k > low && k <= high) {
+            // median of three pivot avoids quadratic behaviour on already ordered populations
+            int mid = (low + high) >>> 1;
+            if (comparator.compare(list.get(mid), list.get(low)) < 0) {
+                swap(list, mid, low);
+            }
+            if (comparator.compare(list.get(high), list.get(low)) < 0) {
+                swap(list, high, low);
+            }
+            if (comparator.compare(list.get(high), list.get(mid)) < 0) {
+                swap(list, high, mid);
+            }
+            T pivot = list.get(mid);
+            int i = low;
+            int j = high;
+            while (i <= j) {
+                while (comparator.compare(list.get(i), pivot) < 0) {
+                    i++;
+                }
+                while (comparator.compare(list.get(j), pivot) > 0) {
+                    j--;
+                }
+                if (i <= j) {
+                    swap(list, i, j);
+                    i++;
+                    j--;
+                }
+            }
+            // elements [low, j] <= pivot <= elements [i, high]
+            if (k <= j + 1) {
+                high = j;
+            } else if (k >= i) {
+                low = i;
+            } else {
+                return;
+            }
+        }
+    }
+
+    private static <T> void swap(List<T> list, int i, int j) {
+        list.set(i, list.set(j, list.get(i)));
+    }
 }
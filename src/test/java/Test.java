@@ -7,24 +7,151 @@ import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+import java.util.stream.Stream;
 import org.assertj.core.api.Assertions;
+import org.elliotpartridge.AdaptiveLargeNeighbourhoodSearch;
+import org.elliotpartridge.AdaptiveOperatorSelection;
 import org.elliotpartridge.Algorithm;
+import org.elliotpartridge.AntColonyOptimisation;
+import org.elliotpartridge.BoundedTopSolver;
+import org.elliotpartridge.BranchAndBound;
+import org.elliotpartridge.ConvergenceMonitor;
+import org.elliotpartridge.CrossoverOperators;
+import org.elliotpartridge.FitnessCache;
+import org.elliotpartridge.GranularTabuSearch;
+import org.elliotpartridge.GraspConstructor;
+import org.elliotpartridge.IndexedPointSet;
+import org.elliotpartridge.InsertionCache;
+import org.elliotpartridge.InstancePreprocessor;
+import org.elliotpartridge.InterRouteOperators;
+import org.elliotpartridge.IntraRouteOperators;
+import org.elliotpartridge.MultilevelRefinement;
+import org.elliotpartridge.NeighbourLists;
 import org.elliotpartridge.Point;
+import org.elliotpartridge.PopulationDiversity;
+import org.elliotpartridge.RemovalHeap;
 import org.elliotpartridge.Result;
 import org.elliotpartridge.Route;
+import org.elliotpartridge.RouteSet;
+import org.elliotpartridge.Solver;
+import org.elliotpartridge.SpatialClusters;
+import org.elliotpartridge.SpatialDecomposition;
+import org.elliotpartridge.TimeToTarget;
 import org.elliotpartridge.TopData;
+import org.elliotpartridge.TopSolver;
+import org.elliotpartridge.TwoOpt;
+import org.elliotpartridge.UpperBound;
 import org.elliotpartridge.Util;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
 
 /**
  * Test contains tests for each class in separate nested classes for clarity.
  */
 public class Test {
 
+    /**
+     * assertValidRoutes asserts that testRoutes are nRoutes Routes from startingPoint to
+     * endingPoint, each within tMax, that jointly visit each Point at most once.
+     *
+     * @return The Points visited by testRoutes (excluding the starting and ending Points).
+     */
+    static List<Point> assertValidRoutes(List<Route> testRoutes, int nRoutes, double tMax,
+        Point startingPoint, Point endingPoint) {
+        assertThat(testRoutes).hasSize(nRoutes);
+        List<Point> testVisited = new ArrayList<>();
+        for (Route testRoute : testRoutes) {
+            assertThat(testRoute.getTotalDistance()).isLessThanOrEqualTo(tMax + 1e-9);
+            assertThat(testRoute.getContainsDuplicatePoints()).isFalse();
+            assertThat(testRoute.getPoint(0)).isSameAs(startingPoint);
+            assertThat(testRoute.getPoint(testRoute.getPoints().size() - 1)).isSameAs(endingPoint);
+            testVisited.addAll(testRoute.getPoints().subList(1, testRoute.getPoints().size() - 1));
+        }
+        assertThat(testVisited).doesNotHaveDuplicates();
+        return testVisited;
+    }
+
+    /**
+     * assertValidRoutes asserts that testRoutes are valid Routes for the instance of testSolver
+     * (see above).
+     *
+     * @return The Points visited by testRoutes (excluding the starting and ending Points).
+     */
+    static List<Point> assertValidRoutes(List<Route> testRoutes, TopSolver testSolver) {
+        return assertValidRoutes(testRoutes, testSolver.getnRoutes(), testSolver.gettMax(),
+            testSolver.getStartingPoint(), testSolver.getEndingPoint());
+    }
+
+    /**
+     * solverFactories provides a factory (seeded by the caller) for each engine solving the
+     * shared solverContract.
+     *
+     * @return The name and factory of each engine.
+     */
+    static Stream<Arguments> solverFactories() {
+        return Stream.of(
+            Arguments.of("AdaptiveLargeNeighbourhoodSearch", (Function<TopData, Solver>) data -> {
+                AdaptiveLargeNeighbourhoodSearch testSearch =
+                    new AdaptiveLargeNeighbourhoodSearch(data);
+                testSearch.setMaxIterations(100);
+                return testSearch;
+            }),
+            Arguments.of("GranularTabuSearch", (Function<TopData, Solver>) data -> {
+                GranularTabuSearch testSearch = new GranularTabuSearch(data);
+                testSearch.setMaxIterations(200);
+                return testSearch;
+            }),
+            Arguments.of("AntColonyOptimisation", (Function<TopData, Solver>) data -> {
+                AntColonyOptimisation testColony = new AntColonyOptimisation(data);
+                testColony.setMaxIterations(10);
+                return testColony;
+            }));
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("solverFactories")
+    @DisplayName("solve generates valid routes within the upper bound, reproducibly for the same seed")
+    void solverContract(String engine, Function<TopData, Solver> factory) throws IOException {
+        File file = new File("src/test/resources/large-valid-top-file.txt");
+        List<List<Integer>> testRouteIds = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            TopData testData = TopData.generateDataFromTOPFile(file);
+            Point testStart = testData.getPoints().get(0);
+            Point testEnd = testData.getPoints().get(testData.getPoints().size() - 1);
+            Solver testSolver = factory.apply(testData);
+            testSolver.setRandomSeed(7);
+            Result testResult = testSolver.solve();
+
+            assertValidRoutes(testResult.getRoutesGenerated(), testData.getnRoutes(),
+                testData.gettMax(), testStart, testEnd);
+            assertThat(testResult.getRoutesGeneratedCombinedScore()).isPositive()
+                .isLessThanOrEqualTo(testResult.getUpperBound());
+            if (testSolver instanceof BoundedTopSolver) {
+                assertThat(testResult.getPreprocessor())
+                    .isSameAs(((BoundedTopSolver) testSolver).getPreprocessor());
+            }
+            List<Integer> testIds = new ArrayList<>();
+            for (Route testRoute : testResult.getRoutesGenerated()) {
+                for (Point testPoint : testRoute.getPoints()) {
+                    testIds.add(testPoint.getId());
+                }
+                testIds.add(-1);
+            }
+            testRouteIds.add(testIds);
+        }
+        assertThat(testRouteIds.get(0)).isEqualTo(testRouteIds.get(1));
+    }
+
     @Nested
     class TopDataTests {
 
@@ -171,6 +298,24 @@ public class Test {
     @Nested
     class RouteTests {
 
+        @org.junit.jupiter.api.Test
+        @DisplayName("fingerprint depends on the order of points and can be updated incrementally")
+        void fingerprint() {
+            Point testPoint1 = new Point(1, 10.500, 14.400, 0);
+            Point testPoint2 = new Point(2, 18.000, 15.900, 10);
+            Point testPoint3 = new Point(3, 11.200, 14.100, 5);
+            Point testPoint4 = new Point(4, 12.200, 13.100, 0);
+
+            Route testRoute = new Route(new ArrayList<>(List.of(testPoint1, testPoint2, testPoint3, testPoint4)));
+            Route testSameRoute = new Route(new ArrayList<>(List.of(testPoint1, testPoint2, testPoint3, testPoint4)));
+            Route testReorderedRoute = new Route(new ArrayList<>(List.of(testPoint1, testPoint3, testPoint2, testPoint4)));
+            Route testShorterRoute = new Route(new ArrayList<>(List.of(testPoint1, testPoint3, testPoint4)));
+
+            assertThat(testRoute.getFingerprint()).isEqualTo(testSameRoute.getFingerprint());
+            assertThat(testRoute.getFingerprint()).isNotEqualTo(testReorderedRoute.getFingerprint());
+            assertThat(testShorterRoute.getFingerprint() ^ Route.edgeKey(testPoint1, testPoint3) ^ Route.edgeKey(testPoint1, testPoint2) ^ Route.edgeKey(testPoint2, testPoint3)).isEqualTo(testRoute.getFingerprint());
+        }
+
         @org.junit.jupiter.api.Test
         @DisplayName("getPoints getter correctly returns an ArrayList<Point>")
         void getPoints() {
@@ -535,6 +680,25 @@ public class Test {
             }
             assertThat(numArray).allSatisfy(n -> assertThat(n >= 0.5 && n <= 1.));
         }
+
+        @org.junit.jupiter.api.Test
+        @DisplayName("partialSelect moves the k smallest values to the front of the list")
+        void partialSelect() {
+            Random rand = new Random(7);
+            for (int k = 0; k <= 40; k++) {
+                ArrayList<Integer> testNumbers = new ArrayList<>();
+                for (int i = 0; i < 40; i++) {
+                    testNumbers.add(rand.nextInt(10));
+                }
+                ArrayList<Integer> sortedNumbers = new ArrayList<>(testNumbers);
+                Collections.sort(sortedNumbers);
+
+                Util.partialSelect(testNumbers, k, Integer::compare);
+
+                assertThat(testNumbers.subList(0, k)).containsExactlyInAnyOrderElementsOf(sortedNumbers.subList(0, k));
+            }
+            assertThatThrownBy(() -> Util.partialSelect(new ArrayList<Integer>(), 1, Integer::compare)).isInstanceOf(IllegalArgumentException.class);
+        }
     }
 
     @Nested
@@ -561,6 +725,41 @@ public class Test {
             assertThat(testAlgorithm.getgHSortedPopRef().get(0).getGhRep()).isLessThan(testAlgorithm.getgHSortedPopRef().get(10).getGhRep());
         }
 
+        @org.junit.jupiter.api.Test
+        @DisplayName("getgHSortedPopRefRank returns the position of each point within gHSortedPopRef")
+        void getgHSortedPopRefRankMatchesIndexOf() throws IOException {
+            File file = new File("src/test/resources/large-valid-top-file.txt");
+            Algorithm testAlgorithm = new Algorithm(TopData.generateDataFromTOPFile(file), 30, 50, 0.75, 0.15, 0.25, 20);
+            testAlgorithm.initialisePopulation();
+
+            for (Point point : testAlgorithm.getgHSortedPopRef()) {
+                assertThat(testAlgorithm.getgHSortedPopRefRank(point)).isEqualTo(testAlgorithm.getgHSortedPopRef().indexOf(point));
+            }
+            // a stale index falls back to searching gHSortedPopRef
+            Point testRemoved = testAlgorithm.getgHSortedPopRef().remove(0);
+            assertThat(testAlgorithm.getgHSortedPopRefRank(testRemoved)).isEqualTo(-1);
+            assertThat(testAlgorithm.getgHSortedPopRefRank(testAlgorithm.getgHSortedPopRef().get(5))).isEqualTo(5);
+        }
+
+        @org.junit.jupiter.api.Test
+        @DisplayName("iterativeLocalSearch never worsens a route or makes it invalid")
+        void iterativeLocalSearchImprovesValidly() throws IOException {
+            File file = new File("src/test/resources/large-valid-top-file.txt");
+            Algorithm testAlgorithm = new Algorithm(TopData.generateDataFromTOPFile(file), 30, 50, 0.75, 0.15, 0.25, 20);
+            testAlgorithm.initialisePopulation();
+
+            for (Route route : testAlgorithm.getRoutePopulation()) {
+                Route testBefore = new Route(new ArrayList<>(route.getPoints()));
+                testAlgorithm.iterativeLocalSearch(route, 3);
+                assertThat(Route.ROUTE_SCORE_COMPARATOR.compare(route, testBefore)).isGreaterThanOrEqualTo(0);
+                assertThat(route.getTotalDistance()).isLessThanOrEqualTo(testAlgorithm.gettMax());
+                assertThat(route.getContainsDuplicatePoints()).isFalse();
+                assertThat(route.getTotalScore()).isEqualTo(new Route(route.getPoints()).getTotalScore());
+            }
+            assertThatThrownBy(() -> testAlgorithm.iterativeLocalSearch(testAlgorithm.getRoutePopulation().get(0), 0))
+                .isInstanceOf(IllegalArgumentException.class);
+        }
+
         @org.junit.jupiter.api.Test
         @DisplayName("org.elliotpartridge.Algorithm constructor correctly removes starting and ending points from dataset points")
         void algorithmConstructorRemovesStartingAndEndingPoints() throws IOException {
@@ -627,6 +826,42 @@ public class Test {
             assertThat(testAlgorithm.getSelectedParents()).hasSize(30);
         }
 
+        @org.junit.jupiter.api.Test
+        @DisplayName("tournamentSelection with the whole population competing always selects the best route")
+        void algorithmTournamentSelectionKTournament() throws IOException {
+            File file = new File("src/test/resources/valid-top-file.txt");
+            TopData testTopData = TopData.generateDataFromTOPFile(file);
+            Algorithm testAlgorithm = new Algorithm(testTopData, 30, 50, 0.75, 0.15, 0.25, 200);
+            testAlgorithm.initialisePopulation();
+            testAlgorithm.setTournamentSize(1000);
+
+            testAlgorithm.tournamentSelection();
+
+            Route testBest = Collections.max(testAlgorithm.getRoutePopulation(), Route.ROUTE_SCORE_COMPARATOR);
+            assertThat(testAlgorithm.getSelectedParents()).hasSize(30).allSatisfy(route -> assertThat(route.getTotalScore()).isEqualTo(testBest.getTotalScore()));
+            assertThatThrownBy(() -> testAlgorithm.setTournamentSize(0)).isInstanceOf(IllegalArgumentException.class);
+        }
+
+        @org.junit.jupiter.api.Test
+        @DisplayName("elitistReplacement retains the best parents in place of the worst children and reuses the population buffers")
+        void algorithmElitistReplacementSwapsBuffers() throws IOException {
+            File file = new File("src/test/resources/valid-top-file.txt");
+            TopData testTopData = TopData.generateDataFromTOPFile(file);
+            Algorithm testAlgorithm = new Algorithm(testTopData, 30, 50, 0.75, 0.15, 0.25, 200);
+            testAlgorithm.initialisePopulation();
+            testAlgorithm.tournamentSelection();
+            testAlgorithm.singlePointCrossover();
+            ArrayList<Route> testChildBuffer = testAlgorithm.getChildPopulation();
+            ArrayList<Route> testRetainedBuffer = testAlgorithm.getRetainedChildren();
+            Route testBestParent = Collections.max(testAlgorithm.getSelectedParents(), Route.ROUTE_SCORE_COMPARATOR);
+
+            testAlgorithm.elitistReplacement(0.1);
+
+            assertThat(testAlgorithm.getRetainedChildren()).isSameAs(testChildBuffer).hasSize(30).contains(testBestParent);
+            assertThat(testAlgorithm.getChildPopulation()).isSameAs(testRetainedBuffer);
+            assertThat(testAlgorithm.getBestRetainedChild()).isEqualTo(Collections.max(testAlgorithm.getRetainedChildren(), Route.ROUTE_SCORE_COMPARATOR));
+        }
+
         @org.junit.jupiter.api.Test
         @DisplayName("generateRoutesFromTOPFile correctly generates the right amount of routes")
         void generateRoutesFromTOPFileCorrectNoOfRoutes() throws IOException {
@@ -829,5 +1064,1661 @@ public class Test {
             assertThat(testResult.getRoutesGenerated().get(0).getTotalScore() + testResult.getRoutesGenerated().get(1).getTotalScore()).isEqualTo(testResult.getRoutesGeneratedCombinedScore());
         }
 
+        @org.junit.jupiter.api.Test
+        @DisplayName("getGap correctly reports the relative gap to the upper bound")
+        void getGap() throws IOException {
+            File file = new File("src/test/resources/valid-top-file.txt");
+            TopData testTopData = TopData.generateDataFromTOPFile(file);
+            Algorithm testAlgorithm = new Algorithm(testTopData, 30, 50, 0.75, 0.15, 0.25, 200);
+            Result testResult = testAlgorithm.generateRoutesFromTOPFile();
+
+            assertThat(testResult.getUpperBound()).isEqualTo(testAlgorithm.getUpperBound());
+            assertThat(testResult.getGap()).isCloseTo((testResult.getUpperBound() - testResult.getRoutesGeneratedCombinedScore()) / testResult.getUpperBound(), Assertions.offset(0.00001d));
+            testResult.setUpperBound(Double.NaN);
+            assertThat(testResult.getGap()).isNaN();
+        }
+
+    }
+
+    @Nested
+    class UpperBoundTests {
+
+        private TopData lineTopData(int nRoutes, double tMax) {
+            ArrayList<Point> points = new ArrayList<>();
+            points.add(new Point(1, 0, 0, 0));
+            for (int i = 1; i <= 4; i++) {
+                points.add(new Point(i + 1, 2 * i, 0, 10));
+            }
+            points.add(new Point(6, 60, 0, 50));
+            points.add(new Point(7, 10, 0, 0));
+            return new TopData("line", points.size(), nRoutes, tMax, points);
+        }
+
+        @org.junit.jupiter.api.Test
+        @DisplayName("calculate excludes unreachable points and bounds by the travel budget")
+        void calculateBounds() {
+            // the Point at x = 60 is unreachable within a tMax of 20
+            assertThat(UpperBound.calculate(lineTopData(2, 20))).isEqualTo(40.);
+            // each Point costs at least 2 of the budget, so a tMax of 5 can only hold 2.5 Points
+            assertThat(UpperBound.calculate(lineTopData(1, 5))).isEqualTo(0.);
+            assertThat(UpperBound.calculate(lineTopData(1, 10))).isEqualTo(40.);
+            assertThat(UpperBound.calculate(lineTopData(0, 10))).isEqualTo(0.);
+        }
+
+        @org.junit.jupiter.api.Test
+        @DisplayName("calculate is never less than the score of a generated solution")
+        void calculateIsAnUpperBound() throws IOException {
+            File file = new File("src/test/resources/large-valid-top-file.txt");
+            double testBound = UpperBound.calculate(TopData.generateDataFromTOPFile(file));
+            Algorithm testAlgorithm = new Algorithm(TopData.generateDataFromTOPFile(file), 50, 30, 0.75, 0.25, 0.03, 50);
+
+            Result testResult = testAlgorithm.generateRoutesFromTOPFile();
+
+            assertThat(testAlgorithm.getUpperBound()).isEqualTo(testBound);
+            assertThat(testResult.getRoutesGeneratedCombinedScore()).isLessThanOrEqualTo(testBound);
+        }
+
+        @org.junit.jupiter.api.Test
+        @DisplayName("generateRoutesFromTOPFile stops as soon as the upper bound is met")
+        void earlyOptimalityStop() {
+            Algorithm testAlgorithm = new Algorithm(lineTopData(2, 20), 30, 50, 0.75, 0.15, 0.25, 200);
+
+            Result testResult = testAlgorithm.generateRoutesFromTOPFile();
+
+            assertThat(testResult.getRoutesGeneratedCombinedScore()).isEqualTo(40.);
+            assertThat(testResult.getGap()).isEqualTo(0.);
+            assertThat(testResult.getRoutesGenerated()).hasSize(2);
+            assertThat(testAlgorithm.getConvergenceMonitor().getGeneration()).isLessThan(10);
+        }
+    }
+
+    @Nested
+    class NeighbourListsTests {
+
+        @org.junit.jupiter.api.Test
+        @DisplayName("getNeighbours returns the nearest neighbours in ascending order of distance")
+        void getNeighboursCorrectOrder() {
+            ArrayList<Point> testPoints = new ArrayList<>();
+            testPoints.add(new Point(1, 0, 0, 0));
+            testPoints.add(new Point(2, 3, 0, 10));
+            testPoints.add(new Point(3, 1, 0, 10));
+            testPoints.add(new Point(4, 2, 0, 10));
+
+            NeighbourLists testNeighbourLists = new NeighbourLists(testPoints, 2);
+
+            assertThat(testNeighbourLists.size()).isEqualTo(4);
+            assertThat(testNeighbourLists.getNeighbours(0)).containsExactly(2, 3);
+            assertThat(testNeighbourLists.getNeighbours(1)).containsExactly(3, 2);
+        }
+    }
+
+    @Nested
+    class TwoOptTests {
+
+        @org.junit.jupiter.api.Test
+        @DisplayName("optimise removes a crossing whilst keeping the starting and ending points fixed")
+        void optimiseRemovesCrossing() {
+            Point testStart = new Point(1, 0, 0, 0);
+            Point testPoint1 = new Point(2, 1, 1, 10);
+            Point testPoint2 = new Point(3, 1, 0, 10);
+            Point testPoint3 = new Point(4, 2, 1, 10);
+            Point testEnd = new Point(5, 2, 0, 0);
+            ArrayList<Point> testPoints = new ArrayList<>(List.of(testStart, testPoint1, testPoint2, testPoint3, testEnd));
+
+            TwoOpt testTwoOpt = new TwoOpt(testPoints, TwoOpt.DEFAULT_NEIGHBOUR_LIST_SIZE);
+
+            assertThat(testTwoOpt.optimise()).isTrue();
+            assertThat(testTwoOpt.getPoints()).containsExactly(testStart, testPoint2, testPoint1, testPoint3, testEnd);
+            assertThat(new Route(testTwoOpt.getPoints()).getTotalDistance()).isCloseTo(4., Assertions.offset(0.00001d));
+        }
+
+        @org.junit.jupiter.api.Test
+        @DisplayName("completeTwoOpt never increases route distance and retains the same points")
+        void completeTwoOptNeverWorsensRoutes() throws IOException {
+            File file = new File("src/test/resources/large-valid-top-file.txt");
+            TopData testTopData = TopData.generateDataFromTOPFile(file);
+            Algorithm testAlgorithm = new Algorithm(testTopData, 30, 50, 0.75, 0.15, 0.25, 200);
+            testAlgorithm.initialisePopulation();
+
+            for (Route route : testAlgorithm.getRoutePopulation()) {
+                Collections.shuffle(route.getPoints().subList(1, route.getPoints().size() - 1));
+                route.setPoints(route.getPoints());
+                ArrayList<Point> previousPoints = new ArrayList<>(route.getPoints());
+                double previousDistance = route.getTotalDistance();
+
+                testAlgorithm.completeTwoOpt(route);
+
+                assertThat(route.getTotalDistance()).isLessThanOrEqualTo(previousDistance + 0.00001d);
+                assertThat(route.getPoints()).containsExactlyInAnyOrderElementsOf(previousPoints);
+                assertThat(route.getPoint(0)).isEqualTo(testAlgorithm.getStartingPoint());
+                assertThat(route.getPoint(route.getPoints().size() - 1)).isEqualTo(testAlgorithm.getEndingPoint());
+            }
+        }
+    }
+
+    @Nested
+    class IntraRouteOperatorsTests {
+
+        @org.junit.jupiter.api.Test
+        @DisplayName("orOpt moves a badly placed point to the position that reduces distance")
+        void orOptRelocatesPoint() {
+            Point testStart = new Point(1, 0, 0, 0);
+            Point testPointA = new Point(2, 5, 0, 10);
+            Point testPointB = new Point(3, 1, 0, 10);
+            Point testPointC = new Point(4, 2, 0, 10);
+            Point testEnd = new Point(5, 6, 0, 0);
+            Route testRoute = new Route(new ArrayList<>(List.of(testStart, testPointA, testPointB, testPointC, testEnd)));
+
+            assertThat(IntraRouteOperators.orOpt(testRoute, false)).isTrue();
+            assertThat(testRoute.getPoints()).containsExactly(testStart, testPointB, testPointC, testPointA, testEnd);
+            assertThat(testRoute.getTotalDistance()).isCloseTo(6., Assertions.offset(0.00001d));
+        }
+
+        @org.junit.jupiter.api.Test
+        @DisplayName("swap exchanges two points when doing so reduces distance")
+        void swapExchangesPoints() {
+            Point testStart = new Point(1, 0, 0, 0);
+            Point testPointA = new Point(2, 2, 0, 10);
+            Point testPointB = new Point(3, 1, 0, 10);
+            Point testEnd = new Point(4, 3, 0, 0);
+            Route testRoute = new Route(new ArrayList<>(List.of(testStart, testPointA, testPointB, testEnd)));
+
+            assertThat(IntraRouteOperators.swap(testRoute)).isTrue();
+            assertThat(testRoute.getPoints()).containsExactly(testStart, testPointB, testPointA, testEnd);
+            assertThat(IntraRouteOperators.swap(testRoute)).isFalse();
+        }
+
+        @org.junit.jupiter.api.Test
+        @DisplayName("orOpt and swap never increase route distance and retain the same points")
+        void operatorsNeverWorsenRoutes() throws IOException {
+            File file = new File("src/test/resources/large-valid-top-file.txt");
+            TopData testTopData = TopData.generateDataFromTOPFile(file);
+            Algorithm testAlgorithm = new Algorithm(testTopData, 30, 50, 0.75, 0.15, 0.25, 200);
+            testAlgorithm.initialisePopulation();
+
+            for (Route route : testAlgorithm.getRoutePopulation()) {
+                ArrayList<Point> previousPoints = new ArrayList<>(route.getPoints());
+                double previousDistance = route.getTotalDistance();
+
+                IntraRouteOperators.orOpt(route, true);
+                IntraRouteOperators.swap(route);
+
+                assertThat(route.getTotalDistance()).isLessThanOrEqualTo(previousDistance + 0.00001d);
+                assertThat(route.getPoints()).containsExactlyInAnyOrderElementsOf(previousPoints);
+                assertThat(route.getPoint(0)).isEqualTo(testAlgorithm.getStartingPoint());
+            }
+        }
+
+        @org.junit.jupiter.api.Test
+        @DisplayName("registerMutationOperator adds an operator alongside the built-in operators")
+        void registerMutationOperator() throws IOException {
+            File file = new File("src/test/resources/valid-top-file.txt");
+            TopData testTopData = TopData.generateDataFromTOPFile(file);
+            Algorithm testAlgorithm = new Algorithm(testTopData, 30, 50, 0.75, 0.15, 0.25, 200);
+            int previousSize = testAlgorithm.getMutationOperators().size();
+
+            testAlgorithm.registerMutationOperator("No-op", 1., route -> { });
+
+            assertThat(testAlgorithm.getMutationOperators()).hasSize(previousSize + 1);
+            assertThat(testAlgorithm.getMutationOperators().get(previousSize).getName()).isEqualTo("No-op");
+        }
+    }
+
+    @Nested
+    class InterRouteOperatorsTests {
+
+        @org.junit.jupiter.api.Test
+        @DisplayName("improvePair exchanges points between routes to reduce combined distance")
+        void improvePairReducesDistance() {
+            Point testStart = new Point(1, 0, 0, 0);
+            Point testPointA = new Point(2, 5, 5, 10);
+            Point testPointB = new Point(3, 5, -5, 10);
+            Point testPointC = new Point(4, 5, 4, 10);
+            Point testPointD = new Point(5, 5, -4, 10);
+            Point testEnd = new Point(6, 10, 0, 0);
+            Route testRoute1 = new Route(new ArrayList<>(List.of(testStart, testPointA, testPointB, testEnd)));
+            Route testRoute2 = new Route(new ArrayList<>(List.of(testStart, testPointC, testPointD, testEnd)));
+            double previousDistance = testRoute1.getTotalDistance() + testRoute2.getTotalDistance();
+
+            assertThat(InterRouteOperators.improvePair(testRoute1, testRoute2, 100)).isTrue();
+
+            assertThat(testRoute1.getTotalDistance() + testRoute2.getTotalDistance()).isLessThan(previousDistance);
+            ArrayList<Point> testCombinedPoints = new ArrayList<>(testRoute1.getPoints());
+            testCombinedPoints.addAll(testRoute2.getPoints());
+            assertThat(testCombinedPoints).containsExactlyInAnyOrder(testStart, testPointA, testPointB, testEnd, testStart, testPointC, testPointD, testEnd);
+        }
+
+        @org.junit.jupiter.api.Test
+        @DisplayName("improvePair does not apply moves that exceed tMax")
+        void improvePairRespectsTMax() {
+            Point testStart = new Point(1, 0, 0, 0);
+            Point testPointA = new Point(2, 5, 5, 10);
+            Point testPointB = new Point(3, 5, 6, 10);
+            Point testEnd = new Point(6, 10, 0, 0);
+            Route testRoute1 = new Route(new ArrayList<>(List.of(testStart, testPointA, testEnd)));
+            Route testRoute2 = new Route(new ArrayList<>(List.of(testStart, testPointB, testEnd)));
+
+            assertThat(InterRouteOperators.improvePair(testRoute1, testRoute2, testRoute1.getTotalDistance())).isFalse();
+            assertThat(testRoute1.getPoints()).containsExactly(testStart, testPointA, testEnd);
+        }
+
+        @org.junit.jupiter.api.Test
+        @DisplayName("disjointPairRounds covers every pair exactly once without repeating a route within a round")
+        void disjointPairRoundsCoversAllPairs() {
+            for (int n = 1; n <= 7; n++) {
+                List<List<int[]>> testRounds = InterRouteOperators.disjointPairRounds(n);
+                ArrayList<String> testPairs = new ArrayList<>();
+                for (List<int[]> round : testRounds) {
+                    ArrayList<Integer> testIndexes = new ArrayList<>();
+                    for (int[] pair : round) {
+                        testIndexes.add(pair[0]);
+                        testIndexes.add(pair[1]);
+                        testPairs.add(pair[0] + "-" + pair[1]);
+                    }
+                    assertThat(testIndexes).doesNotHaveDuplicates();
+                }
+                assertThat(testPairs).doesNotHaveDuplicates().hasSize(n * (n - 1) / 2);
+            }
+        }
+
+        @org.junit.jupiter.api.Test
+        @DisplayName("rearrange keeps the same points, respects tMax and never increases total distance")
+        void rearrangeNeverWorsensRoutes() throws IOException {
+            File file = new File("src/test/resources/large-valid-top-file.txt");
+            TopData testTopData = TopData.generateDataFromTOPFile(file);
+            Algorithm testAlgorithm = new Algorithm(testTopData, 30, 50, 0.75, 0.15, 0.25, 200);
+            testAlgorithm.initialisePopulation();
+            ArrayList<Route> testRoutes = new ArrayList<>(testAlgorithm.getRoutePopulation().subList(0, 4));
+            ArrayList<Point> previousPoints = new ArrayList<>();
+            double previousDistance = 0;
+            for (Route route : testRoutes) {
+                previousPoints.addAll(route.getPoints());
+                previousDistance += route.getTotalDistance();
+            }
+
+            testAlgorithm.rearrange(testRoutes);
+
+            ArrayList<Point> testPoints = new ArrayList<>();
+            double testDistance = 0;
+            for (Route route : testRoutes) {
+                testPoints.addAll(route.getPoints());
+                testDistance += route.getTotalDistance();
+                assertThat(route.getTotalDistance()).isLessThanOrEqualTo(testAlgorithm.gettMax());
+            }
+            assertThat(testPoints).containsExactlyInAnyOrderElementsOf(previousPoints);
+            assertThat(testDistance).isLessThanOrEqualTo(previousDistance + 0.00001d);
+        }
+    }
+
+    @Nested
+    class AdaptiveOperatorSelectionTests {
+
+        @org.junit.jupiter.api.Test
+        @DisplayName("probabilities start uniform and always sum to 1")
+        void probabilitiesSumToOne() {
+            AdaptiveOperatorSelection testSelection = new AdaptiveOperatorSelection(4);
+            Random rand = new Random(1);
+
+            assertThat(testSelection.getProbability(0)).isEqualTo(0.25);
+            for (int i = 0; i < 100; i++) {
+                int operatorIndex = testSelection.select(rand);
+                testSelection.update(operatorIndex, rand.nextDouble() * operatorIndex, 1000);
+            }
+            double testTotal = 0;
+            for (int i = 0; i < 4; i++) {
+                testTotal += testSelection.getProbability(i);
+            }
+            assertThat(testTotal).isCloseTo(1., Assertions.offset(0.00001d));
+        }
+
+        @org.junit.jupiter.api.Test
+        @DisplayName("the operator with the highest improvement per unit of cost is pursued whilst others keep a minimum probability")
+        void pursuesBestOperator() {
+            AdaptiveOperatorSelection testSelection = new AdaptiveOperatorSelection(3);
+
+            for (int i = 0; i < 50; i++) {
+                testSelection.update(0, 1, 1000);
+                testSelection.update(1, 1, 10);
+                testSelection.update(2, 0, 10);
+            }
+
+            assertThat(testSelection.getProbability(1)).isGreaterThan(testSelection.getProbability(0));
+            assertThat(testSelection.getProbability(0)).isCloseTo(AdaptiveOperatorSelection.DEFAULT_MIN_PROBABILITY_SHARE / 3, Assertions.offset(0.0001d));
+            assertThat(testSelection.getApplications(2)).isEqualTo(50);
+            assertThat(testSelection.getImprovementPerCost(1)).isCloseTo(0.1, Assertions.offset(0.00001d));
+        }
+
+        @org.junit.jupiter.api.Test
+        @DisplayName("a costlier operator with equal improvement loses selection probability")
+        void costlierOperatorLosesProbability() {
+            AdaptiveOperatorSelection testSelection = new AdaptiveOperatorSelection(2);
+
+            for (int i = 0; i < 20; i++) {
+                testSelection.update(0, 1, 100);
+                testSelection.update(1, 1, 1);
+            }
+
+            assertThat(testSelection.getProbability(0)).isLessThan(0.5)
+                .isLessThan(testSelection.getProbability(1));
+            assertThat(testSelection.getImprovementPerCost(0))
+                .isLessThan(testSelection.getImprovementPerCost(1));
+        }
+
+        @org.junit.jupiter.api.Test
+        @DisplayName("mutate charges each application the work its operator does")
+        void mutateChargesOperatorCost() throws IOException {
+            File file = new File("src/test/resources/valid-top-file.txt");
+            Algorithm testAlgorithm = new Algorithm(TopData.generateDataFromTOPFile(file), 30, 50,
+                0.75, 0.15, 0.25, 200);
+            testAlgorithm.setRandomSeed(1);
+            testAlgorithm.initialisePopulation();
+            testAlgorithm.getMutationOperators().clear();
+            testAlgorithm.registerMutationOperator("Cheap 2-Opt", 0.5,
+                testAlgorithm::completeTwoOpt, route -> 1);
+            testAlgorithm.registerMutationOperator("Costly 2-Opt", 0.5,
+                testAlgorithm::completeTwoOpt, route -> 100);
+
+            for (Route route : testAlgorithm.getRoutePopulation()) {
+                testAlgorithm.mutate(route);
+            }
+
+            AdaptiveOperatorSelection testSelection = testAlgorithm.getOperatorSelection();
+            assertThat(testSelection.getCost(0)).isEqualTo(testSelection.getApplications(0));
+            assertThat(testSelection.getCost(1)).isEqualTo(100 * testSelection.getApplications(1));
+        }
+
+        @org.junit.jupiter.api.Test
+        @DisplayName("mutate records every adaptive operator application")
+        void mutateRecordsApplications() throws IOException {
+            File file = new File("src/test/resources/valid-top-file.txt");
+            TopData testTopData = TopData.generateDataFromTOPFile(file);
+            Algorithm testAlgorithm = new Algorithm(testTopData, 30, 50, 0.75, 0.15, 0.25, 200);
+            testAlgorithm.initialisePopulation();
+
+            for (Route route : testAlgorithm.getRoutePopulation()) {
+                testAlgorithm.mutate(route);
+                assertThat(route.getTotalDistance()).isLessThanOrEqualTo(testAlgorithm.gettMax());
+            }
+
+            long testApplications = 0;
+            for (int i = 0; i < testAlgorithm.getOperatorSelection().getnOperators(); i++) {
+                testApplications += testAlgorithm.getOperatorSelection().getApplications(i);
+            }
+            assertThat(testApplications).isEqualTo(30 * 3);
+        }
+
+        @org.junit.jupiter.api.Test
+        @DisplayName("seeded runs with adaptive operator selection generate identical routes")
+        void seededRunsReproducible() throws IOException {
+            File file = new File("src/test/resources/large-valid-top-file.txt");
+            List<List<Integer>> testRunIds = new ArrayList<>();
+            for (int run = 0; run < 2; run++) {
+                Algorithm testAlgorithm = new Algorithm(TopData.generateDataFromTOPFile(file), 30, 50,
+                    0.75, 0.15, 0.25, 50);
+                testAlgorithm.setRandomSeed(1);
+                List<Integer> testIds = new ArrayList<>();
+                for (Route testRoute : testAlgorithm.generateRoutesFromTOPFile().getRoutesGenerated()) {
+                    for (Point testPoint : testRoute.getPoints()) {
+                        testIds.add(testPoint.getId());
+                    }
+                }
+                testRunIds.add(testIds);
+            }
+
+            assertThat(testRunIds.get(1)).isEqualTo(testRunIds.get(0));
+        }
+    }
+
+    @Nested
+    class InsertionCacheTests {
+
+        private ArrayList<Point> randomPoints(Random rand, int n) {
+            ArrayList<Point> points = new ArrayList<>();
+            for (int i = 0; i < n; i++) {
+                points.add(new Point(i + 1, rand.nextDouble() * 80, rand.nextDouble() * 80, rand.nextInt(10) + 1));
+            }
+            return points;
+        }
+
+        private double bruteForceInsertionCost(Point point, ArrayList<Point> points) {
+            double bestCost = Double.MAX_VALUE;
+            for (int i = 1; i < points.size(); i++) {
+                double cost = Util.euclideanDistance(points.get(i - 1), point) + Util.euclideanDistance(point, points.get(i)) - Util.euclideanDistance(points.get(i - 1), points.get(i));
+                bestCost = Math.min(bestCost, cost);
+            }
+            return bestCost;
+        }
+
+        @org.junit.jupiter.api.Test
+        @DisplayName("cached insertion costs match a full scan after a sequence of inserts and removes")
+        void cachedCostsMatchFullScan() {
+            Random rand = new Random(3);
+            ArrayList<Point> testPoints = randomPoints(rand, 40);
+            InsertionCache testCache = new InsertionCache(new ArrayList<>(List.of(testPoints.get(0), testPoints.get(1))));
+            List<Point> testCandidates = testPoints.subList(2, testPoints.size());
+
+            for (int step = 0; step < 200; step++) {
+                if (testCache.getPoints().size() > 2 && rand.nextDouble() < 0.4) {
+                    testCache.remove(1 + rand.nextInt(testCache.getPoints().size() - 2));
+                } else {
+                    testCache.insert(testCandidates.get(rand.nextInt(testCandidates.size())));
+                }
+                for (Point candidate : testCandidates) {
+                    if (!testCache.contains(candidate)) {
+                        assertThat(testCache.getInsertionCost(candidate)).isCloseTo(bruteForceInsertionCost(candidate, testCache.getPoints()), Assertions.offset(0.00001d));
+                        assertThat(testCache.getSecondInsertionCost(candidate)).isGreaterThanOrEqualTo(testCache.getInsertionCost(candidate));
+                    }
+                }
+                assertThat(testCache.getTotalDistance()).isCloseTo(new Route(testCache.getPoints()).getTotalDistance(), Assertions.offset(0.00001d));
+                assertThat(testCache.getFingerprint()).isEqualTo(Route.calculateFingerprint(testCache.getPoints()));
+            }
+        }
+
+        @org.junit.jupiter.api.Test
+        @DisplayName("insertion index matches lowestAdditionalDistanceIndex and feasibility respects tMax")
+        void insertionIndexAndFeasibility() throws IOException {
+            File file = new File("src/test/resources/valid-top-file.txt");
+            TopData testTopData = TopData.generateDataFromTOPFile(file);
+            Algorithm testAlgorithm = new Algorithm(testTopData, 30, 50, 0.75, 0.15, 0.25, 200);
+            Point testStart = new Point(1, 0, 0, 0);
+            Point testPointA = new Point(2, 3, 4, 10);
+            Point testPointB = new Point(3, 6, 0, 10);
+            Point testEnd = new Point(4, 10, 0, 0);
+            ArrayList<Point> testPoints = new ArrayList<>(List.of(testStart, testPointA, testEnd));
+            InsertionCache testCache = new InsertionCache(testPoints);
+
+            assertThat(testCache.getInsertionIndex(testPointB)).isEqualTo(testAlgorithm.lowestAdditionalDistanceIndex(testPointB, testPoints));
+            assertThat(testCache.getInsertionIndex(testPointA)).isEqualTo(-1);
+            assertThat(testCache.isFeasible(testPointB, testCache.getTotalDistance())).isFalse();
+            assertThat(testCache.isFeasible(testPointB, testCache.getTotalDistance() + testCache.getInsertionCost(testPointB))).isTrue();
+            assertThatThrownBy(() -> testCache.remove(0)).isInstanceOf(IndexOutOfBoundsException.class);
+        }
+
+        @org.junit.jupiter.api.Test
+        @DisplayName("regretInsertion only inserts unrouted points and keeps every route within tMax")
+        void regretInsertionKeepsRoutesValid() throws IOException {
+            File file = new File("src/test/resources/valid-top-file.txt");
+            TopData testTopData = TopData.generateDataFromTOPFile(file);
+            Algorithm testAlgorithm = new Algorithm(testTopData, 30, 50, 0.75, 0.15, 0.25, 200);
+            ArrayList<Route> testRoutes = new ArrayList<>();
+            for (int i = 0; i < testTopData.getnRoutes(); i++) {
+                testRoutes.add(new Route(new ArrayList<>(List.of(testAlgorithm.getStartingPoint(), testAlgorithm.getEndingPoint()))));
+            }
+
+            ArrayList<Point> testInserted = testAlgorithm.regretInsertion(testRoutes, testAlgorithm.getgHSortedPopRef(), 2);
+
+            ArrayList<Point> testRoutedPoints = new ArrayList<>();
+            for (Route route : testRoutes) {
+                assertThat(route.getTotalDistance()).isLessThanOrEqualTo(testAlgorithm.gettMax());
+                testRoutedPoints.addAll(route.getPoints().subList(1, route.getPoints().size() - 1));
+            }
+            assertThat(testInserted).isNotEmpty();
+            assertThat(testRoutedPoints).doesNotHaveDuplicates();
+            assertThat(testRoutedPoints).containsExactlyInAnyOrderElementsOf(testInserted);
+        }
+    }
+
+    @Nested
+    class CrossoverOperatorsTests {
+
+        @org.junit.jupiter.api.Test
+        @DisplayName("singlePoint swaps heads and tails at the first common point")
+        void singlePointSwapsAtCommonPoint() {
+            Point testStart = new Point(1, 0, 0, 0);
+            Point testPointA = new Point(2, 1, 1, 10);
+            Point testPointB = new Point(3, 2, 1, 10);
+            Point testPointC = new Point(4, 3, 1, 10);
+            Point testPointD = new Point(5, 2, -1, 10);
+            Point testEnd = new Point(6, 4, 0, 0);
+            Route testParent1 = new Route(new ArrayList<>(List.of(testStart, testPointA, testPointB, testEnd)));
+            Route testParent2 = new Route(new ArrayList<>(List.of(testStart, testPointD, testPointB, testPointC, testEnd)));
+
+            List<ArrayList<Point>> testChildren = CrossoverOperators.singlePoint(testParent1, testParent2);
+
+            assertThat(testChildren.get(0)).containsExactly(testStart, testPointA, testPointB, testPointC, testEnd);
+            assertThat(testChildren.get(1)).containsExactly(testStart, testPointD, testPointB, testEnd);
+            assertThat(CrossoverOperators.singlePoint(testParent1, new Route(new ArrayList<>(List.of(testStart, testPointC, testEnd))))).isEmpty();
+        }
+
+        @org.junit.jupiter.api.Test
+        @DisplayName("repairDuplicates removes the duplicate instance whose removal saves the most distance")
+        void repairDuplicatesRemovesCostliestInstance() {
+            Point testStart = new Point(1, 0, 0, 0);
+            Point testPointA = new Point(2, 1, 0, 10);
+            Point testPointB = new Point(3, 2, 5, 10);
+            Point testPointC = new Point(4, 3, 0, 10);
+            Point testEnd = new Point(5, 4, 0, 0);
+            ArrayList<Point> testPoints = new ArrayList<>(List.of(testStart, testPointA, testPointB, testPointC, testPointA, testEnd));
+
+            ArrayList<Point> testRepaired = CrossoverOperators.repairDuplicates(testPoints);
+
+            assertThat(testRepaired).containsExactly(testStart, testPointA, testPointB, testPointC, testEnd);
+            assertThat(new Route(testRepaired).getContainsDuplicatePoints()).isFalse();
+        }
+
+        @org.junit.jupiter.api.Test
+        @DisplayName("edgeRecombination produces feasible children without duplicates from parent points only")
+        void edgeRecombinationProducesValidChildren() throws IOException {
+            File file = new File("src/test/resources/valid-top-file.txt");
+            TopData testTopData = TopData.generateDataFromTOPFile(file);
+            Algorithm testAlgorithm = new Algorithm(testTopData, 30, 50, 0.75, 0.15, 0.25, 200);
+            testAlgorithm.initialisePopulation();
+            Random rand = new Random(11);
+
+            for (int i = 0; i + 1 < testAlgorithm.getRoutePopulation().size(); i += 2) {
+                Route testParent1 = testAlgorithm.getRoutePopulation().get(i);
+                Route testParent2 = testAlgorithm.getRoutePopulation().get(i + 1);
+                Route testChild = new Route(CrossoverOperators.edgeRecombination(testParent1, testParent2, testAlgorithm.gettMax(), rand));
+
+                ArrayList<Point> testParentPoints = new ArrayList<>(testParent1.getPoints());
+                testParentPoints.addAll(testParent2.getPoints());
+                assertThat(testChild.getTotalDistance()).isLessThanOrEqualTo(testAlgorithm.gettMax());
+                assertThat(testChild.getContainsDuplicatePoints()).isFalse();
+                assertThat(testParentPoints).containsAll(testChild.getPoints());
+                assertThat(testChild.getPoint(0)).isSameAs(testAlgorithm.getStartingPoint());
+                assertThat(testChild.getPoint(testChild.getPoints().size() - 1)).isSameAs(testAlgorithm.getEndingPoint());
+            }
+        }
+
+        @org.junit.jupiter.api.Test
+        @DisplayName("singlePointCrossover with edge recombination keeps the population size and routes valid")
+        void edgeRecombinationCrossoverOption() throws IOException {
+            File file = new File("src/test/resources/valid-top-file.txt");
+            TopData testTopData = TopData.generateDataFromTOPFile(file);
+            Algorithm testAlgorithm = new Algorithm(testTopData, 30, 50, 1., 0.15, 0.25, 200);
+            testAlgorithm.setEdgeRecombinationCrossover(true);
+            testAlgorithm.initialisePopulation();
+            testAlgorithm.tournamentSelection();
+
+            testAlgorithm.singlePointCrossover();
+
+            assertThat(testAlgorithm.getChildPopulation()).hasSize(30).allSatisfy(route -> {
+                assertThat(route.getContainsDuplicatePoints()).isFalse();
+                assertThat(route.getTotalDistance()).isLessThanOrEqualTo(testAlgorithm.gettMax());
+            });
+        }
+    }
+
+    @Nested
+    class FitnessCacheTests {
+
+        @org.junit.jupiter.api.Test
+        @DisplayName("createRoute reuses memoised fitnesses for repeated point sequences")
+        void createRouteReusesFitness() {
+            Point testPoint1 = new Point(1, 10.500, 14.400, 0);
+            Point testPoint2 = new Point(2, 18.000, 15.900, 10);
+            Point testPoint3 = new Point(3, 11.200, 14.100, 5);
+            FitnessCache testCache = new FitnessCache(10);
+
+            Route testRoute = testCache.createRoute(new ArrayList<>(List.of(testPoint1, testPoint2, testPoint3)));
+            Route testCachedRoute = testCache.createRoute(new ArrayList<>(List.of(testPoint1, testPoint2, testPoint3)));
+
+            assertThat(testCache.getMisses()).isEqualTo(1);
+            assertThat(testCache.getHits()).isEqualTo(1);
+            assertThat(testCachedRoute.getTotalDistance()).isEqualTo(testRoute.getTotalDistance());
+            assertThat(testCachedRoute.getTotalScore()).isEqualTo(testRoute.getTotalScore());
+            assertThat(testCachedRoute.getNonCInterPointTravelDistances()).isEqualTo(testRoute.getNonCInterPointTravelDistances());
+            assertThat(testCachedRoute.getCumulativePointScore(2)).isEqualTo(15.);
+        }
+
+        @org.junit.jupiter.api.Test
+        @DisplayName("the least recently used fitness is evicted once capacity is reached")
+        void evictsLeastRecentlyUsed() {
+            ArrayList<Point> testPoints = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                testPoints.add(new Point(i + 1, i, i, i));
+            }
+            FitnessCache testCache = new FitnessCache(2);
+
+            testCache.createRoute(new ArrayList<>(List.of(testPoints.get(0), testPoints.get(1))));
+            testCache.createRoute(new ArrayList<>(List.of(testPoints.get(1), testPoints.get(2))));
+            testCache.createRoute(new ArrayList<>(List.of(testPoints.get(0), testPoints.get(1))));
+            testCache.createRoute(new ArrayList<>(List.of(testPoints.get(2), testPoints.get(3))));
+            testCache.createRoute(new ArrayList<>(List.of(testPoints.get(0), testPoints.get(1))));
+            testCache.createRoute(new ArrayList<>(List.of(testPoints.get(1), testPoints.get(2))));
+
+            assertThat(testCache.size()).isEqualTo(2);
+            assertThat(testCache.getHits()).isEqualTo(2);
+            assertThat(testCache.getMisses()).isEqualTo(4);
+            assertThatThrownBy(() -> new FitnessCache(0)).isInstanceOf(IllegalArgumentException.class);
+        }
+
+        @org.junit.jupiter.api.Test
+        @DisplayName("elitistReplacement with duplicate suppression replaces clones with valid copies")
+        void elitistReplacementSuppressesDuplicates() throws IOException {
+            File file = new File("src/test/resources/valid-top-file.txt");
+            TopData testTopData = TopData.generateDataFromTOPFile(file);
+            Algorithm testAlgorithm = new Algorithm(testTopData, 30, 50, 0., 0.15, 0.25, 200);
+            testAlgorithm.setDuplicateSuppression(true);
+            testAlgorithm.setTournamentSize(1000);
+            testAlgorithm.initialisePopulation();
+            // every parent (and so, without crossover, every child) is a clone of the same Route
+            Collections.fill(testAlgorithm.getRoutePopulation(), testAlgorithm.getRoutePopulation().get(0));
+            testAlgorithm.tournamentSelection();
+            testAlgorithm.singlePointCrossover();
+            Route testClone = testAlgorithm.getChildPopulation().get(0);
+
+            testAlgorithm.elitistReplacement(0.1);
+
+            assertThat(testAlgorithm.getRetainedChildren()).hasSize(30).filteredOn(route -> route == testClone).hasSize(1);
+            assertThat(testAlgorithm.getRetainedChildren()).allSatisfy(route -> assertThat(route.getTotalDistance()).isLessThanOrEqualTo(testAlgorithm.gettMax()));
+        }
+    }
+
+    @Nested
+    class PopulationDiversityTests {
+
+        private ArrayList<Point> testGenes() {
+            ArrayList<Point> genes = new ArrayList<>();
+            for (int i = 0; i < 12; i++) {
+                genes.add(new Point(i + 2, i, i % 3, 1));
+            }
+            return genes;
+        }
+
+        @org.junit.jupiter.api.Test
+        @DisplayName("diversity is 0 for a population of clones and 1 when no genes are shared")
+        void diversityBounds() {
+            Point testStart = new Point(1, 0, 0, 0);
+            Point testEnd = new Point(14, 20, 0, 0);
+            ArrayList<Point> genes = testGenes();
+            PopulationDiversity testDiversity = new PopulationDiversity();
+
+            for (int i = 0; i < 4; i++) {
+                testDiversity.set(i, new Route(new ArrayList<>(List.of(testStart, genes.get(0), genes.get(1), genes.get(2), testEnd))));
+            }
+            assertThat(testDiversity.getUniqueGenes()).isEqualTo(3);
+            assertThat(testDiversity.getDiversity()).isCloseTo(0., Assertions.offset(0.00001d));
+
+            for (int i = 0; i < 4; i++) {
+                testDiversity.set(i, new Route(new ArrayList<>(List.of(testStart, genes.get(3 * i), genes.get(3 * i + 1), genes.get(3 * i + 2), testEnd))));
+            }
+            assertThat(testDiversity.getUniqueGenes()).isEqualTo(12);
+            assertThat(testDiversity.getTotalGenes()).isEqualTo(12);
+            assertThat(testDiversity.getDiversity()).isCloseTo(1., Assertions.offset(0.00001d));
+        }
+
+        @org.junit.jupiter.api.Test
+        @DisplayName("incrementally maintained counts and entropy match a full recount")
+        void incrementalMatchesRecount() {
+            Point testStart = new Point(1, 0, 0, 0);
+            Point testEnd = new Point(14, 20, 0, 0);
+            ArrayList<Point> genes = testGenes();
+            PopulationDiversity testDiversity = new PopulationDiversity();
+            ArrayList<Route> testPopulation = new ArrayList<>();
+            Random rand = new Random(5);
+
+            for (int step = 0; step < 100; step++) {
+                ArrayList<Point> points = new ArrayList<>(List.of(testStart));
+                ArrayList<Point> shuffled = new ArrayList<>(genes);
+                Collections.shuffle(shuffled, rand);
+                points.addAll(shuffled.subList(0, rand.nextInt(6)));
+                points.add(testEnd);
+                int slot = rand.nextInt(8);
+                if (slot < testPopulation.size()) {
+                    testPopulation.set(slot, new Route(points));
+                } else {
+                    slot = testPopulation.size();
+                    testPopulation.add(new Route(points));
+                }
+                testDiversity.set(slot, testPopulation.get(slot));
+                if (rand.nextDouble() < 0.1) {
+                    int size = rand.nextInt(testPopulation.size() + 1);
+                    testPopulation.subList(size, testPopulation.size()).clear();
+                    testDiversity.truncate(size);
+                }
+
+                HashMap<Point, Integer> testCounts = new HashMap<>();
+                int testTotal = 0;
+                for (Route route : testPopulation) {
+                    for (Point gene : route.getPoints().subList(1, route.getPoints().size() - 1)) {
+                        testCounts.merge(gene, 1, Integer::sum);
+                        testTotal++;
+                    }
+                }
+                double testEntropy = 0;
+                for (int count : testCounts.values()) {
+                    testEntropy -= (double) count / testTotal * Math.log((double) count / testTotal);
+                }
+                assertThat(testDiversity.getnRoutes()).isEqualTo(testPopulation.size());
+                assertThat(testDiversity.getUniqueGenes()).isEqualTo(testCounts.size());
+                assertThat(testDiversity.getTotalGenes()).isEqualTo(testTotal);
+                assertThat(testDiversity.getEntropy()).isCloseTo(testEntropy, Assertions.offset(0.000001d));
+                assertThat(testDiversity.getGeneCount(genes.get(0))).isEqualTo(testCounts.getOrDefault(genes.get(0), 0));
+            }
+        }
+
+        @org.junit.jupiter.api.Test
+        @DisplayName("the mutation probability is raised once diversity falls below minDiversity")
+        void effectivepMutateRaisedWhenDiversityCollapses() throws IOException {
+            File file = new File("src/test/resources/valid-top-file.txt");
+            TopData testTopData = TopData.generateDataFromTOPFile(file);
+            Algorithm testAlgorithm = new Algorithm(testTopData, 30, 50, 0., 0.15, 0.25, 200);
+            testAlgorithm.setTournamentSize(1000);
+            testAlgorithm.initialisePopulation();
+            testAlgorithm.tournamentSelection();
+            testAlgorithm.singlePointCrossover();
+            testAlgorithm.elitistReplacement(0.1);
+
+            assertThat(testAlgorithm.getPopulationDiversity().getDiversity()).isCloseTo(0., Assertions.offset(0.00001d));
+            assertThat(testAlgorithm.getEffectivepMutate()).isEqualTo(0.15);
+            testAlgorithm.setMinDiversity(0.5);
+            assertThat(testAlgorithm.getEffectivepMutate()).isCloseTo(1., Assertions.offset(0.00001d));
+            assertThatThrownBy(() -> testAlgorithm.setMinDiversity(2)).isInstanceOf(IllegalArgumentException.class);
+        }
+    }
+
+    @Nested
+    class ConvergenceMonitorTests {
+
+        @org.junit.jupiter.api.Test
+        @DisplayName("a stagnating population stops at its patience only once diversity has collapsed")
+        void stopsEarlyOnlyWhenDiversityCollapses() {
+            ConvergenceMonitor testDiverseMonitor = new ConvergenceMonitor(1000, 10, 100, 0, 3, 0.2);
+            ConvergenceMonitor testCollapsedMonitor = new ConvergenceMonitor(1000, 10, 100, 0, 3, 0.2);
+
+            int testDiverseGenerations = 0;
+            while (testDiverseMonitor.update(1, 0.9) == ConvergenceMonitor.Decision.CONTINUE) {
+                testDiverseGenerations++;
+            }
+            int testCollapsedGenerations = 0;
+            while (testCollapsedMonitor.update(1, 0.1) == ConvergenceMonitor.Decision.CONTINUE) {
+                testCollapsedGenerations++;
+            }
+
+            assertThat(testDiverseMonitor.getStagnation()).isEqualTo(100);
+            assertThat(testCollapsedMonitor.getStagnation()).isEqualTo(10);
+            assertThat(testCollapsedGenerations).isLessThan(testDiverseGenerations);
+        }
+
+        @org.junit.jupiter.api.Test
+        @DisplayName("patience scales with the longest gap between improvements")
+        void patienceScalesWithImprovementGaps() {
+            ConvergenceMonitor testMonitor = new ConvergenceMonitor(1000, 5, 200, 0, 3, 0.2);
+
+            double testScore = 0;
+            for (int generation = 1; generation <= 60; generation++) {
+                if (generation % 20 == 0) {
+                    testScore++;
+                }
+                assertThat(testMonitor.update(testScore, 0.5)).isEqualTo(ConvergenceMonitor.Decision.CONTINUE);
+            }
+
+            assertThat(testMonitor.getLongestImprovementGap()).isEqualTo(20);
+            assertThat(testMonitor.getPatience()).isEqualTo(60);
+            assertThat(new ConvergenceMonitor(1000, 5, 50, 0, 3, 0.2).getPatience()).isEqualTo(5);
+        }
+
+        @org.junit.jupiter.api.Test
+        @DisplayName("converged populations are restarted until no restarts or generations remain")
+        void restartsBeforeStopping() {
+            ConvergenceMonitor testMonitor = new ConvergenceMonitor(100, 5, 10, 2, 3, 0.2);
+
+            int testRestarts = 0;
+            ConvergenceMonitor.Decision testDecision;
+            while ((testDecision = testMonitor.update(1, 0.)) != ConvergenceMonitor.Decision.STOP) {
+                if (testDecision == ConvergenceMonitor.Decision.RESTART) {
+                    testRestarts++;
+                }
+            }
+
+            assertThat(testRestarts).isEqualTo(2);
+            assertThat(testMonitor.getRestarts()).isEqualTo(2);
+            assertThat(testMonitor.getGeneration()).isEqualTo(16);
+            assertThatThrownBy(() -> new ConvergenceMonitor(100, -1)).isInstanceOf(IllegalArgumentException.class);
+        }
+
+        @org.junit.jupiter.api.Test
+        @DisplayName("restartPopulation keeps the best routes and re-seeds the rest with valid routes")
+        void restartPopulationKeepsBest() throws IOException {
+            File file = new File("src/test/resources/valid-top-file.txt");
+            TopData testTopData = TopData.generateDataFromTOPFile(file);
+            Algorithm testAlgorithm = new Algorithm(testTopData, 30, 50, 0.75, 0.15, 0.25, 200);
+            testAlgorithm.initialisePopulation();
+            testAlgorithm.tournamentSelection();
+            testAlgorithm.singlePointCrossover();
+            testAlgorithm.elitistReplacement(0.1);
+            Route testBest = testAlgorithm.getBestRetainedChild();
+
+            testAlgorithm.restartPopulation();
+
+            // GRASP can build several distinct Routes tied with testBest, any of which may be kept
+            assertThat(testAlgorithm.getRetainedChildren()).hasSize(30)
+                .extracting(Route::getTotalScore).contains(testBest.getTotalScore());
+            assertThat(testAlgorithm.getRetainedChildren()).allSatisfy(route -> assertThat(route.getTotalDistance()).isLessThanOrEqualTo(testAlgorithm.gettMax()));
+            assertThat(testAlgorithm.getPopulationDiversity().getnRoutes()).isEqualTo(30);
+        }
+
+        @org.junit.jupiter.api.Test
+        @DisplayName("generateRoutesFromTOPFile with restarts enabled still generates valid routes")
+        void generateRoutesWithRestarts() throws IOException {
+            File file = new File("src/test/resources/valid-top-file.txt");
+            TopData testTopData = TopData.generateDataFromTOPFile(file);
+            Algorithm testAlgorithm = new Algorithm(testTopData, 30, 50, 0.75, 0.15, 0.25, 200);
+            testAlgorithm.setMaxRestarts(2);
+
+            Result testResult = testAlgorithm.generateRoutesFromTOPFile();
+
+            assertThat(testResult.getRoutesGenerated()).hasSize(2).allSatisfy(route -> assertThat(route.getTotalDistance()).isLessThanOrEqualTo(testAlgorithm.gettMax()));
+            assertThat(testAlgorithm.getConvergenceMonitor().getGeneration()).isLessThanOrEqualTo(201);
+        }
+    }
+
+    @Nested
+    class TimeToTargetTests {
+
+        @org.junit.jupiter.api.Test
+        @DisplayName("quantiles of the time-to-target distribution count failed runs")
+        void quantilesCountFailures() {
+            TimeToTarget testTimeToTarget = new TimeToTarget("test", 100);
+
+            testTimeToTarget.record(3, 100);
+            testTimeToTarget.record(1, 120);
+            testTimeToTarget.record(5, 90);
+            testTimeToTarget.record(2, 100);
+
+            assertThat(testTimeToTarget.getSecondsToTarget()).containsExactly(1., 2., 3.);
+            assertThat(testTimeToTarget.getSuccessRate()).isEqualTo(0.75);
+            assertThat(testTimeToTarget.getQuantile(0.5)).isEqualTo(2.);
+            assertThat(testTimeToTarget.getQuantile(0.75)).isEqualTo(3.);
+            assertThat(testTimeToTarget.getQuantile(1)).isNaN();
+            assertThat(testTimeToTarget.getMeanSecondsToTarget()).isEqualTo(2.);
+        }
+
+        @org.junit.jupiter.api.Test
+        @DisplayName("readTargetScores reads instance names and target scores")
+        void readTargetScores() throws IOException {
+            Map<String, Double> testTargetScores = TimeToTarget.readTargetScores(new File("src/test/resources/target-scores.txt"));
+
+            assertThat(testTargetScores).containsExactly(Map.entry("valid-top-file", 10.), Map.entry("large-valid-top-file", 20.));
+            assertThatThrownBy(() -> TimeToTarget.readTargetScores(new File("src/test/resources/valid-top-file.txt"))).isInstanceOf(IllegalArgumentException.class);
+        }
+
+        @org.junit.jupiter.api.Test
+        @DisplayName("generateRoutesFromTOPFile stops once the target score is reached")
+        void targetScoreStopsSearch() throws IOException {
+            File file = new File("src/test/resources/valid-top-file.txt");
+            Algorithm testAlgorithm = new Algorithm(TopData.generateDataFromTOPFile(file), 30, 50, 0.75, 0.15, 0.25, 200);
+            testAlgorithm.setRandomSeed(1);
+            testAlgorithm.setTargetScore(10);
+
+            Result testResult = testAlgorithm.generateRoutesFromTOPFile();
+
+            assertThat(testResult.getRoutesGeneratedCombinedScore()).isGreaterThanOrEqualTo(10.);
+            assertThat(testResult.getRoutesGenerated()).hasSize(2);
+            assertThat(testAlgorithm.getConvergenceMonitor().getGeneration()).isEqualTo(1);
+        }
+
+        @org.junit.jupiter.api.Test
+        @DisplayName("timeToTargetBenchmark records a run per seed for instances with target scores")
+        void timeToTargetBenchmark() throws IOException {
+            Map<String, TimeToTarget> testTimesToTarget = Algorithm.timeToTargetBenchmark("src/test/resources/valid-top-file.txt", Map.of("valid-top-file", 10.), 3, 30, 50, 0.75, 0.15, 0.25, 200);
+
+            assertThat(testTimesToTarget).containsOnlyKeys("valid-top-file");
+            assertThat(testTimesToTarget.get("valid-top-file").getRuns()).isEqualTo(3);
+            assertThat(testTimesToTarget.get("valid-top-file").getSuccessRate()).isEqualTo(1.);
+        }
+
+        @org.junit.jupiter.api.Test
+        @DisplayName("timeToTargetBenchmark accepts any Solver")
+        void timeToTargetBenchmarkSolver() throws IOException {
+            Map<String, TimeToTarget> testTimesToTarget = Algorithm.timeToTargetBenchmark(
+                "src/test/resources/valid-top-file.txt", Map.of("valid-top-file", 10.), 2,
+                GranularTabuSearch::new);
+
+            assertThat(testTimesToTarget).containsOnlyKeys("valid-top-file");
+            assertThat(testTimesToTarget.get("valid-top-file").getRuns()).isEqualTo(2);
+            assertThat(testTimesToTarget.get("valid-top-file").getSuccessRate()).isEqualTo(1.);
+        }
+    }
+
+    @Nested
+    class InstancePreprocessorTests {
+
+        private TopData testTopData() {
+            ArrayList<Point> points = new ArrayList<>();
+            points.add(new Point(1, 0, 0, 0));
+            points.add(new Point(2, 2, 0, 10));
+            // co-located with each other
+            points.add(new Point(3, 4, 0, 10));
+            points.add(new Point(4, 4, 0, 5));
+            // zero score
+            points.add(new Point(5, 6, 0, 0));
+            // reachable from the starting Point but not on the way to the ending Point
+            points.add(new Point(6, -8, 0, 50));
+            points.add(new Point(7, 10, 0, 0));
+            return new TopData("preprocess", points.size(), 1, 14, points);
+        }
+
+        @org.junit.jupiter.api.Test
+        @DisplayName("InstancePreprocessor removes unreachable & zero score points and collapses co-located points")
+        void preprocessReducesPoints() {
+            TopData testTopData = testTopData();
+            ArrayList<Point> testOriginal = new ArrayList<>(testTopData.getPoints());
+            InstancePreprocessor testPreprocessor = new InstancePreprocessor(testTopData);
+
+            assertThat(testPreprocessor.getnUnreachable()).isEqualTo(1);
+            assertThat(testPreprocessor.getnZeroScore()).isEqualTo(1);
+            assertThat(testPreprocessor.getnCollapsed()).isEqualTo(1);
+            assertThat(testPreprocessor.getPoints()).hasSize(2);
+            assertThat(testPreprocessor.getPoints().get(0)).isSameAs(testOriginal.get(1));
+            Point testRepresentative = testPreprocessor.getPoints().get(1);
+            assertThat(testRepresentative.getId()).isEqualTo(3);
+            assertThat(testRepresentative.getScore()).isEqualTo(15.);
+            assertThat(testPreprocessor.getOriginalPoints(testRepresentative))
+                .containsExactly(testOriginal.get(2), testOriginal.get(3));
+            assertThat(testPreprocessor.getOriginalPoints(testOriginal.get(1)))
+                .containsExactly(testOriginal.get(1));
+        }
+
+        @org.junit.jupiter.api.Test
+        @DisplayName("expand replaces representative points with the original points")
+        void expandRoute() {
+            TopData testTopData = testTopData();
+            ArrayList<Point> testOriginal = new ArrayList<>(testTopData.getPoints());
+            InstancePreprocessor testPreprocessor = new InstancePreprocessor(testTopData);
+            Route testRoute = new Route(new ArrayList<>(List.of(testOriginal.get(0),
+                testPreprocessor.getPoints().get(0), testPreprocessor.getPoints().get(1),
+                testOriginal.get(6))));
+
+            Route testExpanded = new Route(testPreprocessor.expand(testRoute));
+
+            assertThat(testExpanded.getPoints()).containsExactly(testOriginal.get(0),
+                testOriginal.get(1), testOriginal.get(2), testOriginal.get(3), testOriginal.get(6));
+            assertThat(testExpanded.getTotalScore()).isEqualTo(testRoute.getTotalScore());
+            assertThat(testExpanded.getTotalDistance()).isEqualTo(testRoute.getTotalDistance());
+        }
+
+        @org.junit.jupiter.api.Test
+        @DisplayName("generateRoutesFromTOPFile preprocesses the instance once and reports the mapping")
+        void generateRoutesPreprocesses() {
+            Algorithm testAlgorithm = new Algorithm(testTopData(), 30, 50, 0.75, 0.15, 0.25, 20);
+
+            Result testResult = testAlgorithm.generateRoutesFromTOPFile();
+
+            assertThat(testAlgorithm.getPreprocessor()).isNotNull();
+            assertThat(testResult.getPreprocessor()).isSameAs(testAlgorithm.getPreprocessor());
+            assertThat(testResult.getRoutesGeneratedCombinedScore()).isEqualTo(25.);
+        }
+    }
+
+    @Nested
+    class SpatialClustersTests {
+
+        private final Point testStart = new Point(1, 0, 0, 0);
+        private final Point testEnd = new Point(2, 0, 0, 0);
+
+        private ArrayList<Point> testPoints() {
+            ArrayList<Point> points = new ArrayList<>();
+            // two well separated groups with different scores
+            for (int i = 0; i < 10; i++) {
+                points.add(new Point(i + 3, 10 + i * 0.1, 10, 1));
+                points.add(new Point(i + 13, -10 - i * 0.1, -10, 9));
+            }
+            return points;
+        }
+
+        @org.junit.jupiter.api.Test
+        @DisplayName("SpatialClusters groups points that are close together")
+        void clustersFollowSpread() {
+            SpatialClusters testClusters = new SpatialClusters(testPoints(), testStart, testEnd, 100, 2, new Random(1));
+
+            assertThat(testClusters.getClusters()).hasSize(2).allSatisfy(cluster -> {
+                assertThat(cluster).hasSize(10);
+                assertThat(cluster).extracting(Point::getScore).containsOnly(cluster.get(0).getScore());
+            });
+            assertThat(SpatialClusters.defaultnClusters(0)).isEqualTo(1);
+            assertThat(SpatialClusters.defaultnClusters(100)).isEqualTo(7);
+        }
+
+        @org.junit.jupiter.api.Test
+        @DisplayName("sample is weighted by score and never returns unreachable points")
+        void sampleWeighted() {
+            ArrayList<Point> testPoints = testPoints();
+            Point testUnreachable = new Point(50, 60, 60, 100);
+            testPoints.add(testUnreachable);
+            SpatialClusters testClusters = new SpatialClusters(testPoints, testStart, testEnd, 100, 3, new Random(1));
+            Random testRand = new Random(2);
+
+            int testHighScoreSamples = 0;
+            for (int i = 0; i < 1000; i++) {
+                Point testSample = testClusters.sample(testRand);
+                assertThat(testSample).isNotSameAs(testUnreachable);
+                if (testSample.getScore() == 9) {
+                    testHighScoreSamples++;
+                }
+            }
+            assertThat(testHighScoreSamples).isBetween(850, 950);
+        }
+
+        @org.junit.jupiter.api.Test
+        @DisplayName("sampleExcluding never returns excluded points")
+        void sampleExcluding() {
+            ArrayList<Point> testPoints = testPoints();
+            SpatialClusters testClusters = new SpatialClusters(testPoints, testStart, testEnd, 100, 2, new Random(1));
+            List<Point> testExcluded = new ArrayList<>(testPoints.subList(1, testPoints.size()));
+            Random testRand = new Random(2);
+
+            for (int i = 0; i < 100; i++) {
+                assertThat(testClusters.sampleExcluding(testExcluded, testRand)).isSameAs(testPoints.get(0));
+            }
+            assertThat(testClusters.sampleExcluding(testPoints, testRand)).isNull();
+            // exclusions are only temporary
+            assertThat(testClusters.sampleExcluding(new ArrayList<>(), testRand)).isIn(testPoints);
+        }
+
+        @org.junit.jupiter.api.Test
+        @DisplayName("a complement excludes points incrementally until restored")
+        void complementExcludesIncrementally() {
+            ArrayList<Point> testPoints = testPoints();
+            SpatialClusters testClusters = new SpatialClusters(testPoints, testStart, testEnd, 100, 2, new Random(1));
+            SpatialClusters.Complement testComplement = testClusters.complement();
+            Random testRand = new Random(2);
+
+            List<Point> testExcluded = new ArrayList<>();
+            for (int i = 0; i < testPoints.size(); i++) {
+                Point testSample = testComplement.sample(testRand);
+                assertThat(testSample).isIn(testPoints).isNotIn(testExcluded);
+                testComplement.exclude(testSample);
+                testExcluded.add(testSample);
+            }
+            assertThat(testComplement.sample(testRand)).isNull();
+            testComplement.restore();
+            testComplement.exclude(testPoints.get(0));
+            int testHighScoreSamples = 0;
+            for (int i = 0; i < 1000; i++) {
+                if (testComplement.sample(testRand).getScore() == 9) {
+                    testHighScoreSamples++;
+                }
+            }
+            // the low score group keeps 9 of its 10 points
+            assertThat(testHighScoreSamples).isBetween(860, 960);
+        }
+
+        @org.junit.jupiter.api.Test
+        @DisplayName("sample returns null when there are no reachable points")
+        void sampleEmpty() {
+            SpatialClusters testClusters = new SpatialClusters(new ArrayList<>(), testStart, testEnd, 100, new Random(1));
+
+            assertThat(testClusters.getClusters()).isEmpty();
+            assertThat(testClusters.sample(new Random(1))).isNull();
+            assertThatThrownBy(() -> new SpatialClusters(testPoints(), testStart, testEnd, 100, 0, new Random(1)))
+                .isInstanceOf(IllegalArgumentException.class);
+        }
+    }
+
+    @Nested
+    class GraspConstructorTests {
+
+        @org.junit.jupiter.api.Test
+        @DisplayName("construct only builds feasible routes without duplicates")
+        void constructFeasible() throws IOException {
+            File file = new File("src/test/resources/large-valid-top-file.txt");
+            ArrayList<Point> testPoints = TopData.generateDataFromTOPFile(file).getPoints();
+            Point testStart = testPoints.remove(0);
+            Point testEnd = testPoints.remove(testPoints.size() - 1);
+            GraspConstructor testConstructor = new GraspConstructor(testStart, testEnd, testPoints, 50);
+            Random testRand = new Random(1);
+
+            for (double testAlpha : new double[]{0, 0.3, 1}) {
+                Route testRoute = new Route(testConstructor.construct(testAlpha, testRand));
+                assertThat(testRoute.getTotalDistance()).isLessThanOrEqualTo(50);
+                assertThat(testRoute.getContainsDuplicatePoints()).isFalse();
+                assertThat(testRoute.getPoint(0)).isSameAs(testStart);
+                assertThat(testRoute.getPoint(testRoute.getPoints().size() - 1)).isSameAs(testEnd);
+            }
+        }
+
+        @org.junit.jupiter.api.Test
+        @DisplayName("construct with an alpha of 0 greedily inserts the best score per distance point")
+        void constructGreedy() {
+            Point testStart = new Point(1, 0, 0, 0);
+            Point testEnd = new Point(5, 10, 0, 0);
+            Point testCheap = new Point(2, 5, 1, 5);
+            Point testExpensive = new Point(3, 5, 5, 20);
+            Point testUnreachable = new Point(4, 5, 50, 100);
+            GraspConstructor testConstructor = new GraspConstructor(testStart, testEnd,
+                List.of(testExpensive, testCheap, testUnreachable), 15);
+
+            // either reachable Point fits alone but the cheap Point has the highest ratio
+            assertThat(testConstructor.construct(0, new Random(1)))
+                .containsExactly(testStart, testCheap, testEnd);
+            assertThatThrownBy(() -> testConstructor.construct(1.5, new Random(1)))
+                .isInstanceOf(IllegalArgumentException.class);
+        }
+
+        @org.junit.jupiter.api.Test
+        @DisplayName("constructRoute builds routes via GRASP when graspPercent is 1")
+        void constructRouteGrasp() throws IOException {
+            File file = new File("src/test/resources/large-valid-top-file.txt");
+            Algorithm testAlgorithm = new Algorithm(TopData.generateDataFromTOPFile(file), 30, 50, 0.75, 0.15, 0.25, 20);
+            testAlgorithm.setGraspPercent(1);
+            testAlgorithm.initialisePopulation();
+
+            assertThat(testAlgorithm.getRoutePopulation()).hasSize(30).allSatisfy(route -> {
+                assertThat(route.getTotalDistance()).isLessThanOrEqualTo(testAlgorithm.gettMax());
+                assertThat(route.getContainsDuplicatePoints()).isFalse();
+            });
+            assertThatThrownBy(() -> testAlgorithm.setGraspPercent(-0.1))
+                .isInstanceOf(IllegalArgumentException.class);
+            assertThatThrownBy(() -> testAlgorithm.setGraspAlpha(1.1))
+                .isInstanceOf(IllegalArgumentException.class);
+        }
+    }
+
+    @Nested
+    class IndexedPointSetTests {
+
+        @org.junit.jupiter.api.Test
+        @DisplayName("add, remove & contains maintain the set")
+        void addRemoveContains() {
+            Point testA = new Point(1, 0, 0, 1);
+            Point testB = new Point(2, 1, 0, 1);
+            Point testC = new Point(3, 2, 0, 1);
+            IndexedPointSet testSet = new IndexedPointSet(List.of(testA, testB));
+
+            assertThat(testSet.add(testC)).isTrue();
+            assertThat(testSet.add(testC)).isFalse();
+            assertThat(testSet.remove(testA)).isTrue();
+            assertThat(testSet.remove(testA)).isFalse();
+            assertThat(testSet.size()).isEqualTo(2);
+            assertThat(testSet.contains(testA)).isFalse();
+            assertThat(testSet.contains(testB)).isTrue();
+            assertThat(testSet.contains(testC)).isTrue();
+        }
+
+        @org.junit.jupiter.api.Test
+        @DisplayName("sample only returns points that have not been excluded until restore is called")
+        void sampleExclude() {
+            ArrayList<Point> testPoints = new ArrayList<>();
+            for (int i = 0; i < 10; i++) {
+                testPoints.add(new Point(i + 1, i, 0, 1));
+            }
+            IndexedPointSet testSet = new IndexedPointSet(testPoints);
+            Random testRand = new Random(1);
+
+            for (int i = 1; i < 10; i++) {
+                assertThat(testSet.exclude(testPoints.get(i))).isTrue();
+            }
+            assertThat(testSet.exclude(testPoints.get(1))).isFalse();
+            assertThat(testSet.getActiveSize()).isEqualTo(1);
+            for (int i = 0; i < 20; i++) {
+                assertThat(testSet.sample(testRand)).isSameAs(testPoints.get(0));
+            }
+            testSet.exclude(testPoints.get(0));
+            assertThat(testSet.sample(testRand)).isNull();
+
+            testSet.restore();
+            assertThat(testSet.getActiveSize()).isEqualTo(10);
+            assertThat(testSet.sample(testRand)).isIn(testPoints);
+        }
+    }
+
+    @Nested
+    class RemovalHeapTests {
+
+        @org.junit.jupiter.api.Test
+        @DisplayName("poll removes points in the same order as rescanning for the lowest removal ratio")
+        void pollMatchesRescan() {
+            Random testRand = new Random(1);
+            ArrayList<Point> testPoints = new ArrayList<>();
+            for (int i = 0; i < 40; i++) {
+                testPoints.add(new Point(i + 1, testRand.nextDouble() * 80, testRand.nextDouble() * 80, testRand.nextInt(20) + 1));
+            }
+            RemovalHeap testHeap = new RemovalHeap(testPoints);
+            ArrayList<Point> testRemaining = new ArrayList<>(testPoints);
+
+            while (testRemaining.size() > 2) {
+                int testWorst = 1;
+                for (int i = 2; i < testRemaining.size() - 1; i++) {
+                    if (RemovalHeap.removalRatio(testRemaining.get(i - 1), testRemaining.get(i), testRemaining.get(i + 1))
+                        < RemovalHeap.removalRatio(testRemaining.get(testWorst - 1), testRemaining.get(testWorst), testRemaining.get(testWorst + 1))) {
+                        testWorst = i;
+                    }
+                }
+                assertThat(testHeap.size()).isEqualTo(testRemaining.size() - 2);
+                assertThat(testHeap.poll()).isSameAs(testRemaining.remove(testWorst));
+            }
+            assertThat(testHeap.poll()).isNull();
+            assertThat(testHeap.peek()).isNull();
+        }
+
+        @org.junit.jupiter.api.Test
+        @DisplayName("the remaining distance and candidate insertion match a rebuilt insertion cache after every poll")
+        void pollTracksCandidateInsertion() {
+            Random testRand = new Random(2);
+            ArrayList<Point> testPoints = new ArrayList<>();
+            for (int i = 0; i < 40; i++) {
+                testPoints.add(new Point(i + 1, testRand.nextDouble() * 80, testRand.nextDouble() * 80, testRand.nextInt(20) + 1));
+            }
+            Point testCandidate = new Point(41, 40, 40, 5);
+            RemovalHeap testHeap = new RemovalHeap(testPoints, testCandidate);
+
+            while (testHeap.size() > 0) {
+                testHeap.poll();
+                InsertionCache testCache = new InsertionCache(testHeap.getPoints());
+                assertThat(testHeap.getTotalDistance()).isCloseTo(testCache.getTotalDistance(), Assertions.offset(1e-9));
+                assertThat(testHeap.getCandidateInsertionCost())
+                    .isCloseTo(testCache.getInsertionCost(testCandidate), Assertions.offset(1e-9));
+                assertThat(new Route(testHeap.getPointsWithCandidate()).getTotalDistance()).isCloseTo(
+                    testCache.getTotalDistance() + testCache.getInsertionCost(testCandidate), Assertions.offset(1e-9));
+            }
+            assertThat(testHeap.getPoints()).containsExactly(testPoints.get(0), testPoints.get(39));
+        }
+
+        @org.junit.jupiter.api.Test
+        @DisplayName("removalRatio uses the distance saved by removing the point")
+        void removalRatio() {
+            Point testStart = new Point(1, 0, 0, 0);
+            Point testEnd = new Point(3, 6, 0, 0);
+
+            assertThat(RemovalHeap.removalRatio(testStart, new Point(2, 3, 4, 8), testEnd)).isEqualTo(2.);
+            assertThat(RemovalHeap.removalRatio(testStart, new Point(2, 3, 0, 8), testEnd)).isEqualTo(Double.MAX_VALUE);
+        }
+    }
+
+    @Nested
+    class AdaptiveLargeNeighbourhoodSearchTests {
+
+        @org.junit.jupiter.api.Test
+        @DisplayName("every destroy operator removes points and every repair operator restores valid routes")
+        void destroyAndRepair() throws IOException {
+            File file = new File("src/test/resources/large-valid-top-file.txt");
+            AdaptiveLargeNeighbourhoodSearch testSearch = new AdaptiveLargeNeighbourhoodSearch(
+                TopData.generateDataFromTOPFile(file));
+            testSearch.setRandomSeed(3);
+            testSearch.setMaxIterations(0);
+            RouteSet testRouteSet = new RouteSet(testSearch.solve().getRoutesGenerated());
+            int testVisited = testRouteSet.getRoutes().stream()
+                .mapToInt(route -> route.getPoints().size()).sum();
+
+            for (int d = 0; d < AdaptiveLargeNeighbourhoodSearch.DESTROY_OPERATORS.size(); d++) {
+                for (int r = 0; r < AdaptiveLargeNeighbourhoodSearch.REPAIR_OPERATORS.size(); r++) {
+                    RouteSet testCandidate = testRouteSet.copy();
+                    testSearch.destroy(testCandidate, d);
+                    assertThat(testCandidate.getRoutes().stream()
+                        .mapToInt(route -> route.getPoints().size()).sum()).isLessThan(testVisited);
+                    testSearch.repair(testCandidate, r);
+                    assertValidRoutes(testCandidate.getRoutes(), testSearch);
+                }
+            }
+        }
+
+        @org.junit.jupiter.api.Test
+        @DisplayName("Exception thrown for invalid destroy percents")
+        void setDestroyPercentsIllegalArgumentException() throws IOException {
+            File file = new File("src/test/resources/valid-top-file.txt");
+            AdaptiveLargeNeighbourhoodSearch testSearch = new AdaptiveLargeNeighbourhoodSearch(
+                TopData.generateDataFromTOPFile(file));
+
+            assertThatThrownBy(() -> testSearch.setDestroyPercents(0.5, 0.2))
+                .isInstanceOf(IllegalArgumentException.class);
+            assertThatThrownBy(() -> testSearch.setDestroyPercents(0.1, 1.5))
+                .isInstanceOf(IllegalArgumentException.class);
+        }
+    }
+
+    @Nested
+    class JointRoutesTests {
+
+        @org.junit.jupiter.api.Test
+        @DisplayName("removeConflicts keeps the points of the given route and removes them from the others")
+        void removeConflicts() {
+            Point testStart = new Point(1, 0, 0, 0);
+            Point testA = new Point(2, 1, 0, 10);
+            Point testB = new Point(3, 1, 1, 10);
+            Point testC = new Point(4, 0, 1, 10);
+            Point testEnd = new Point(5, 0, 0, 0);
+            ArrayList<Route> testRoutes = new ArrayList<>();
+            testRoutes.add(new Route(new ArrayList<>(List.of(testStart, testA, testB, testEnd))));
+            testRoutes.add(new Route(new ArrayList<>(List.of(testStart, testB, testC, testEnd))));
+            RouteSet testRouteSet = new RouteSet(testRoutes);
+            RouteSet testCopy = testRouteSet.copy();
+
+            testRouteSet.removeConflicts(1);
+            assertThat(testRouteSet.getRoute(0).getPoints()).containsExactly(testStart, testA, testEnd);
+            assertThat(testRouteSet.getRoute(1).getPoints())
+                .containsExactly(testStart, testB, testC, testEnd);
+            assertThat(testRouteSet.getTotalScore()).isEqualTo(30);
+            assertThat(testCopy.getRoute(0).getPoints())
+                .containsExactly(testStart, testA, testB, testEnd);
+        }
+
+        @org.junit.jupiter.api.Test
+        @DisplayName("routeSetCrossover and mutateRouteSet produce valid route sets without shared points")
+        void crossoverAndMutateValid() throws IOException {
+            File file = new File("src/test/resources/large-valid-top-file.txt");
+            Algorithm testAlgorithm = new Algorithm(TopData.generateDataFromTOPFile(file), 10,
+                10, 0.8, 0.2, 0.1, 20);
+            testAlgorithm.setRandomSeed(5);
+            testAlgorithm.initialisePopulation();
+            for (int i = 0; i < 10; i++) {
+                RouteSet testChild = testAlgorithm.routeSetCrossover(
+                    testAlgorithm.constructRouteSet(), testAlgorithm.constructRouteSet());
+                testAlgorithm.mutateRouteSet(testChild);
+
+                assertValidRoutes(testChild.getRoutes(), testAlgorithm.getnRoutes(),
+                    testAlgorithm.gettMax(), testAlgorithm.getStartingPoint(),
+                    testAlgorithm.getEndingPoint());
+            }
+        }
+
+        @org.junit.jupiter.api.Test
+        @DisplayName("generateRoutesFromTOPFile with jointRoutes set evolves every route in a single run")
+        void generateJointRoutes() throws IOException {
+            File file = new File("src/test/resources/large-valid-top-file.txt");
+            Algorithm testAlgorithm = new Algorithm(TopData.generateDataFromTOPFile(file), 20,
+                10, 0.8, 0.2, 0.1, 20);
+            testAlgorithm.setJointRoutes(true);
+            Result testResult = testAlgorithm.generateRoutesFromTOPFile();
+
+            assertThat(testAlgorithm.getRouteSetPopulation()).hasSize(20);
+            assertValidRoutes(testResult.getRoutesGenerated(), testAlgorithm.getnRoutes(),
+                testAlgorithm.gettMax(), testAlgorithm.getStartingPoint(),
+                testAlgorithm.getEndingPoint());
+            assertThat(testResult.getRoutesGeneratedCombinedScore()).isPositive();
+        }
+    }
+
+    @Nested
+    class GranularTabuSearchTests {
+
+        @org.junit.jupiter.api.Test
+        @DisplayName("solve never returns a worse solution than the initial regret insertion")
+        void solveImprovesInitialSolution() throws IOException {
+            File file = new File("src/test/resources/large-valid-top-file.txt");
+            GranularTabuSearch testInitial = new GranularTabuSearch(
+                TopData.generateDataFromTOPFile(file));
+            testInitial.setMaxIterations(0);
+            GranularTabuSearch testSearch = new GranularTabuSearch(
+                TopData.generateDataFromTOPFile(file));
+            testSearch.setRandomSeed(5);
+            testSearch.setMaxIterations(300);
+
+            assertThat(testSearch.solve().getRoutesGeneratedCombinedScore())
+                .isGreaterThanOrEqualTo(testInitial.solve().getRoutesGeneratedCombinedScore());
+            assertThat(testInitial.getIterationCounter()).isZero();
+        }
+
+        @org.junit.jupiter.api.Test
+        @DisplayName("invalid iteration and neighbour list settings throw IllegalArgumentException")
+        void invalidSettings() throws IOException {
+            File file = new File("src/test/resources/large-valid-top-file.txt");
+            GranularTabuSearch testSearch = new GranularTabuSearch(
+                TopData.generateDataFromTOPFile(file));
+
+            assertThatThrownBy(() -> testSearch.setMaxIterations(-1))
+                .isInstanceOf(IllegalArgumentException.class);
+            assertThatThrownBy(() -> testSearch.setMaxNonImprovingIterations(0))
+                .isInstanceOf(IllegalArgumentException.class);
+            assertThatThrownBy(() -> testSearch.setNeighbourListSize(0))
+                .isInstanceOf(IllegalArgumentException.class);
+        }
+    }
+
+    @Nested
+    class AntColonyOptimisationTests {
+
+        @org.junit.jupiter.api.Test
+        @DisplayName("solve gives the same routes for the same seed however many ants run in parallel")
+        void solveReproducibleInParallel() throws Exception {
+            File file = new File("src/test/resources/large-valid-top-file.txt");
+            List<List<Integer>> testRouteIds = new ArrayList<>();
+            for (int testParallelism : new int[]{1, 4}) {
+                AntColonyOptimisation testColony = new AntColonyOptimisation(
+                    TopData.generateDataFromTOPFile(file));
+                testColony.setRandomSeed(7);
+                testColony.setnAnts(16);
+                testColony.setMaxIterations(5);
+                // parallel streams run within the pool of the task that starts them
+                ForkJoinPool testPool = new ForkJoinPool(testParallelism);
+                List<Route> testRoutes = testPool.submit(testColony::solve).get()
+                    .getRoutesGenerated();
+                testPool.shutdown();
+                List<Integer> testIds = new ArrayList<>();
+                for (Route testRoute : testRoutes) {
+                    for (Point testPoint : testRoute.getPoints()) {
+                        testIds.add(testPoint.getId());
+                    }
+                    testIds.add(-1);
+                }
+                testRouteIds.add(testIds);
+            }
+            assertThat(testRouteIds.get(0)).isEqualTo(testRouteIds.get(1));
+        }
+
+        @org.junit.jupiter.api.Test
+        @DisplayName("invalid ant and iteration settings throw IllegalArgumentException")
+        void invalidSettings() throws IOException {
+            File file = new File("src/test/resources/large-valid-top-file.txt");
+            AntColonyOptimisation testColony = new AntColonyOptimisation(
+                TopData.generateDataFromTOPFile(file));
+
+            assertThatThrownBy(() -> testColony.setnAnts(0))
+                .isInstanceOf(IllegalArgumentException.class);
+            assertThatThrownBy(() -> testColony.setMaxIterations(-1))
+                .isInstanceOf(IllegalArgumentException.class);
+        }
+    }
+
+    @Nested
+    class BranchAndBoundTests {
+
+        @org.junit.jupiter.api.Test
+        @DisplayName("solve proves optimality on a small instance and never scores below the heuristic")
+        void solveProvesOptimality() throws IOException {
+            File file = new File("src/test/resources/valid-top-file.txt");
+            GranularTabuSearch testHeuristic = new GranularTabuSearch(
+                TopData.generateDataFromTOPFile(file));
+            testHeuristic.setRandomSeed(1);
+            BranchAndBound testSolver = new BranchAndBound(TopData.generateDataFromTOPFile(file));
+            testSolver.setRandomSeed(1);
+            // generous so that a slow machine still exhausts the tree
+            testSolver.setTimeLimit(60_000);
+            Result testResult = testSolver.solve();
+
+            assertValidRoutes(testResult.getRoutesGenerated(), testSolver);
+            assertThat(testResult.isOptimalityProven()).isTrue();
+            assertThat(testResult.getGap()).isZero();
+            assertThat(testResult.getRoutesGeneratedCombinedScore()).isEqualTo(110.)
+                .isGreaterThanOrEqualTo(testHeuristic.solve().getRoutesGeneratedCombinedScore());
+        }
+
+        @org.junit.jupiter.api.Test
+        @DisplayName("solve falls back to the best solution found when the node limit is reached")
+        void solveNodeLimitFallback() throws IOException {
+            File file = new File("src/test/resources/valid-top-file.txt");
+            BranchAndBound testSolver = new BranchAndBound(TopData.generateDataFromTOPFile(file));
+            testSolver.setRandomSeed(1);
+            testSolver.getHeuristic().setMaxIterations(0);
+            testSolver.setNodeLimit(100);
+            Result testResult = testSolver.solve();
+
+            assertValidRoutes(testResult.getRoutesGenerated(), testSolver);
+            assertThat(testResult.isOptimalityProven()).isFalse();
+            assertThat(testSolver.getNodeCounter()).isGreaterThan(100);
+            assertThat(testResult.getRoutesGeneratedCombinedScore()).isPositive();
+        }
+
+        @org.junit.jupiter.api.Test
+        @DisplayName("invalid node and time limits throw IllegalArgumentException")
+        void invalidLimits() throws IOException {
+            File file = new File("src/test/resources/valid-top-file.txt");
+            BranchAndBound testSolver = new BranchAndBound(TopData.generateDataFromTOPFile(file));
+
+            assertThatThrownBy(() -> testSolver.setNodeLimit(0))
+                .isInstanceOf(IllegalArgumentException.class);
+            assertThatThrownBy(() -> testSolver.setTimeLimit(0))
+                .isInstanceOf(IllegalArgumentException.class);
+        }
+    }
+
+    @Nested
+    class SpatialDecompositionTests {
+
+        @org.junit.jupiter.api.Test
+        @DisplayName("partition splits the reachable points into disjoint parts")
+        void partitionDisjoint() throws IOException {
+            File file = new File("src/test/resources/large-valid-top-file.txt");
+            SpatialDecomposition testDecomposition = new SpatialDecomposition(
+                TopData.generateDataFromTOPFile(file), 10, 10, 0.75, 0.15, 0.03, 10);
+            List<List<Point>> testParts = testDecomposition.partition(new int[]{1, 1, 2});
+
+            assertThat(testParts).hasSize(3);
+            List<Point> testPartitioned = new ArrayList<>();
+            for (List<Point> testPart : testParts) {
+                assertThat(testPart).isNotEmpty();
+                testPartitioned.addAll(testPart);
+            }
+            assertThat(testPartitioned).doesNotHaveDuplicates();
+            for (Point testPoint : testDecomposition.getDataset().getPoints()) {
+                boolean testReachable = Util.euclideanDistance(
+                    testDecomposition.getStartingPoint(), testPoint) + Util.euclideanDistance(
+                    testPoint, testDecomposition.getEndingPoint()) <= testDecomposition.gettMax();
+                assertThat(testPartitioned.contains(testPoint)).isEqualTo(testReachable);
+            }
+        }
+
+        @org.junit.jupiter.api.Test
+        @DisplayName("solve stitches valid routes that jointly visit each point at most once")
+        void solveValidRoutes() throws IOException {
+            File file = new File("src/test/resources/large-valid-top-file.txt");
+            SpatialDecomposition testDecomposition = new SpatialDecomposition(
+                TopData.generateDataFromTOPFile(file), 10, 10, 0.75, 0.15, 0.03, 10);
+            testDecomposition.setRandomSeed(1);
+            testDecomposition.setSubSolverFactory(testPart -> {
+                AdaptiveLargeNeighbourhoodSearch testSearch = new AdaptiveLargeNeighbourhoodSearch(
+                    testPart);
+                testSearch.setRandomSeed(1);
+                testSearch.setMaxIterations(50);
+                return testSearch;
+            });
+            Result testResult = testDecomposition.solve();
+
+            List<Point> testVisited =
+                assertValidRoutes(testResult.getRoutesGenerated(), testDecomposition);
+            assertThat(testDecomposition.getDataset().getPoints()).containsAll(testVisited);
+            assertThat(testResult.getRoutesGeneratedCombinedScore()).isPositive();
+        }
+
+        @org.junit.jupiter.api.Test
+        @DisplayName("solve re-solves more parts than routes as valid route segments")
+        void solveRouteSegments() throws IOException {
+            File file = new File("src/test/resources/large-valid-top-file.txt");
+            SpatialDecomposition testDecomposition = new SpatialDecomposition(
+                TopData.generateDataFromTOPFile(file), 10, 10, 0.75, 0.15, 0.03, 10);
+            testDecomposition.setRandomSeed(1);
+            testDecomposition.setnParts(testDecomposition.getnRoutes() * 3);
+            List<Integer> testPartRoutes = new ArrayList<>();
+            Function<TopData, Solver> testFactory = testDecomposition.getSubSolverFactory();
+            testDecomposition.setSubSolverFactory(testPart -> {
+                testPartRoutes.add(testPart.getnRoutes());
+                return testFactory.apply(testPart);
+            });
+            Result testResult = testDecomposition.solve();
+
+            assertThat(testPartRoutes).hasSizeGreaterThan(testDecomposition.getnRoutes());
+            assertThat(testPartRoutes.subList(testDecomposition.getnRoutes(),
+                testPartRoutes.size())).containsOnly(1);
+            assertValidRoutes(testResult.getRoutesGenerated(), testDecomposition);
+            assertThat(testResult.getRoutesGeneratedCombinedScore()).isPositive();
+        }
+
+        @org.junit.jupiter.api.Test
+        @DisplayName("solve on a single-route instance splits its route and keeps the whole bound")
+        void solveSingleRoute() throws IOException {
+            File file = new File("src/test/resources/large-valid-top-file.txt");
+            TopData testData = TopData.generateDataFromTOPFile(file);
+            SpatialDecomposition testDecomposition = new SpatialDecomposition(new TopData(
+                testData.getFileName(), testData.getnPoints(), 1, testData.gettMax(),
+                testData.getPoints()), 10, 10, 0.75, 0.15, 0.03, 10);
+            List<Integer> testPartSizes = new ArrayList<>();
+            testDecomposition.setSubSolverFactory(testPart -> {
+                testPartSizes.add(testPart.getPoints().size());
+                AdaptiveLargeNeighbourhoodSearch testSearch = new AdaptiveLargeNeighbourhoodSearch(
+                    testPart);
+                testSearch.setRandomSeed(1);
+                testSearch.setMaxIterations(50);
+                return testSearch;
+            });
+            Result testResult = testDecomposition.solve();
+
+            assertThat(testDecomposition.getnParts())
+                .isEqualTo(SpatialDecomposition.DEFAULT_SEGMENTS_PER_ROUTE);
+            assertThat(testPartSizes).hasSize(SpatialDecomposition.DEFAULT_SEGMENTS_PER_ROUTE + 1)
+                .startsWith(testDecomposition.getDataset().getPoints().size() + 2);
+            assertValidRoutes(testResult.getRoutesGenerated(), testDecomposition);
+            assertThat(testResult.getUpperBound()).isNotNaN()
+                .isGreaterThanOrEqualTo(testResult.getRoutesGeneratedCombinedScore());
+        }
+
+        @org.junit.jupiter.api.Test
+        @DisplayName("setnParts rejects fewer than 1 part")
+        void invalidnParts() throws IOException {
+            File file = new File("src/test/resources/large-valid-top-file.txt");
+            SpatialDecomposition testDecomposition = new SpatialDecomposition(
+                TopData.generateDataFromTOPFile(file), 10, 10, 0.75, 0.15, 0.03, 10);
+
+            assertThatThrownBy(() -> testDecomposition.setnParts(0))
+                .isInstanceOf(IllegalArgumentException.class);
+            assertThatCode(() -> testDecomposition.setnParts(testDecomposition.getnRoutes() + 1))
+                .doesNotThrowAnyException();
+        }
+    }
+
+    @Nested
+    class MultilevelRefinementTests {
+
+        @org.junit.jupiter.api.Test
+        @DisplayName("coarsen merges disjoint pairs into super-nodes with their combined score")
+        void coarsenMergesPairs() throws IOException {
+            File file = new File("src/test/resources/large-valid-top-file.txt");
+            MultilevelRefinement testRefinement = new MultilevelRefinement(
+                TopData.generateDataFromTOPFile(file), 10, 10, 0.75, 0.15, 0.03, 10);
+            List<Point> testLevel = testRefinement.getDataset().getPoints();
+            List<int[]> testChildren = new ArrayList<>();
+            List<Point> testCoarser = testRefinement.coarsen(testLevel, testChildren);
+
+            assertThat(testChildren).hasSameSizeAs(testCoarser);
+            assertThat(testCoarser.size()).isLessThan(testLevel.size());
+            List<Integer> testMerged = new ArrayList<>();
+            for (int i = 0; i < testCoarser.size(); i++) {
+                double testScore = 0;
+                for (int testChild : testChildren.get(i)) {
+                    testMerged.add(testChild);
+                    testScore += testLevel.get(testChild).getScore();
+                }
+                assertThat(testCoarser.get(i).getScore()).isEqualTo(testScore);
+            }
+            assertThat(testMerged).doesNotHaveDuplicates().hasSize(testLevel.size());
+        }
+
+        @org.junit.jupiter.api.Test
+        @DisplayName("solve refines valid routes that jointly visit each point at most once")
+        void solveValidRoutes() throws IOException {
+            File file = new File("src/test/resources/large-valid-top-file.txt");
+            MultilevelRefinement testRefinement = new MultilevelRefinement(
+                TopData.generateDataFromTOPFile(file), 10, 10, 0.75, 0.15, 0.03, 10);
+            testRefinement.setRandomSeed(1);
+            testRefinement.setCoarsestSize(20);
+            Result testResult = testRefinement.solve();
+
+            assertThat(testRefinement.getnLevels()).isGreaterThan(1);
+            List<Point> testVisited =
+                assertValidRoutes(testResult.getRoutesGenerated(), testRefinement);
+            assertThat(testRefinement.getDataset().getPoints()).containsAll(testVisited);
+            assertThat(testResult.getRoutesGeneratedCombinedScore()).isPositive();
+        }
+
+        @org.junit.jupiter.api.Test
+        @DisplayName("setCoarsestSize rejects sizes less than 1")
+        void invalidCoarsestSize() throws IOException {
+            File file = new File("src/test/resources/large-valid-top-file.txt");
+            MultilevelRefinement testRefinement = new MultilevelRefinement(
+                TopData.generateDataFromTOPFile(file), 10, 10, 0.75, 0.15, 0.03, 10);
+
+            assertThatThrownBy(() -> testRefinement.setCoarsestSize(0))
+                .isInstanceOf(IllegalArgumentException.class);
+        }
     }
 }